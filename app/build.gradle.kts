@@ -34,6 +34,12 @@ android {
         isCoreLibraryDesugaringEnabled = true
     }
 
+    sourceSets {
+        // JMH benchmarks compile with the local unit tests (same JVM classpath, android.jar
+        // stubs included) but live apart; run them with ./gradlew :app:jmh
+        getByName("test").java.srcDir("src/benchmark/java")
+    }
+
     testOptions {
         // Let local unit tests run code that references Android SDK types by returning defaults
         unitTests.isReturnDefaultValues = true
@@ -72,7 +78,30 @@ dependencies {
     // Helpful to use Android classes in local unit tests; safe to keep even if unused
     testImplementation("androidx.test:core:1.5.0")
 
+    // --- Benchmarks (src/benchmark, see the jmh task below) ---
+    testImplementation(libs.jmh.core)
+    testAnnotationProcessor(libs.jmh.generator.annprocess)
+
     // --- Instrumented test (on device/emulator) — optional but standard ---
     androidTestImplementation("androidx.test.ext:junit:1.2.1")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.6.1")
 }
+
+// Runs the JMH benchmarks on the host JVM. Narrow the run with -Pjmh=<regex>, e.g.
+//   ./gradlew :app:jmh -Pjmh=LevelBenchmark
+// Results land in app/build/reports/jmh/results.json for before/after comparison.
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs JMH benchmarks from src/benchmark on the local JVM."
+    val unitTests = tasks.named<Test>("testDebugUnitTest")
+    dependsOn("compileDebugUnitTestJavaWithJavac")
+    classpath(unitTests.map { it.classpath })
+    mainClass.set("org.openjdk.jmh.Main")
+    val out = layout.buildDirectory.file("reports/jmh/results.json")
+    doFirst { out.get().asFile.parentFile.mkdirs() }
+    args(
+        (findProperty("jmh") as String?) ?: "com.obliviongatestudio.akthosidle.benchmark.*",
+        "-rf", "json",
+        "-rff", out.get().asFile.absolutePath
+    )
+}
@@ -0,0 +1,79 @@
+package com.obliviongatestudio.akthosidle.benchmark;
+
+import com.obliviongatestudio.akthosidle.domain.model.AiBehavior;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+import com.obliviongatestudio.akthosidle.domain.rules.GameRandom;
+import com.obliviongatestudio.akthosidle.engine.CombatMath;
+import com.obliviongatestudio.akthosidle.engine.ElementalSystem;
+import com.obliviongatestudio.akthosidle.engine.combat.CombatCore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Per-hit damage pipeline and a whole headless 1v1 fight. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CombatBenchmark {
+    private static final Element[] ELEMENTS = Element.values();
+
+    private GameRandom rng;
+    private Map<String, Map<String, Double>> matrix;
+    private int i;
+
+    private final Stats player = new Stats(14, 6, 0.2, 120, 0.1, 1.5);
+    private final Stats monster = new Stats(8, 3, 0.1, 200, 0.05, 1.5);
+
+    @Setup public void setup() {
+        rng = new GameRandom(42L);
+        matrix = new HashMap<>();
+        for (Element a : ELEMENTS) {
+            Map<String, Double> row = new HashMap<>();
+            for (Element d : ELEMENTS) row.put(d.name(), ElementalSystem.modifier(a, d));
+            matrix.put(a.name(), row);
+        }
+    }
+
+    @Benchmark public int hitPipeline() {
+        int dmg = CombatMath.baseDamage(14, 10);
+        boolean crit = CombatMath.isCrit(rng, 0.15);
+        dmg = CombatMath.applyCrit(dmg, crit, 1.5);
+        double mod = CombatMath.elementMod("FIRE", "EARTH", matrix);
+        return CombatMath.applyElementMod(dmg, mod);
+    }
+
+    @Benchmark public boolean cooldownReady() {
+        return CombatMath.cooldownReady(1_000L, 1_000L + (i++ & 4095), 2_000L);
+    }
+
+    @Benchmark public void elementModifier(Blackhole bh) {
+        for (Element a : ELEMENTS) {
+            for (Element d : ELEMENTS) bh.consume(ElementalSystem.modifier(a, d));
+        }
+    }
+
+    /** One full fight to the death; also the unit of work for offline catch-up and replays. */
+    @Benchmark @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double fightToEnd() {
+        CombatCore core = new CombatCore(player, Element.FIRE, 120, monster, Element.EARTH,
+                AiBehavior.AGGRESSIVE, "Dummy", rng);
+        return core.runToEnd(600);
+    }
+}
@@ -0,0 +1,97 @@
+package com.obliviongatestudio.akthosidle.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import com.obliviongatestudio.akthosidle.data.cloud.PlayerDocument;
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
+import com.obliviongatestudio.akthosidle.data.storage.PlayerJsonLoader;
+import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Player ↔ cloud document fields: the Gson tree / JSON text round trip GameRepository used, vs.
+ * PlayerDocument walking the fields (whole, and a push where one bag entry changed).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentBenchmark {
+    /** Distinct item stacks in the bag. */
+    @Param({"5000"})
+    public int bagSize;
+
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    private final Gson gson = new Gson();
+    private PlayerCharacter player;
+    private PlayerDocument sent;
+    private Map<String, Object> doc;
+    private int tick;
+
+    @Setup public void setup() {
+        player = new PlayerCharacter();
+        player.currentHp = 640;
+        player.exp = 4_500_000;
+        for (int i = 0; i < bagSize; i++) player.bag.put("item_" + i, 1 + (i * 37) % 5000);
+        for (SkillId s : SkillId.values()) player.skills.put(s, 1_000_000 + s.ordinal() * 12_345);
+        for (EquipmentSlot slot : EquipmentSlot.values()) player.equipment.put(slot, "gear_" + slot.name().toLowerCase());
+        player.currencies.put("silver", 12_000_000L);
+        player.currencies.put("gold", 3_400L);
+        sent = new PlayerDocument();
+        doc = sent.encode(player, SaveSection.PLAYER, true);
+    }
+
+    /** The old toMap: a Gson tree per section, then parsed back into a map. */
+    @Benchmark public Map<String, Object> gsonEncode() {
+        JsonObject o = new JsonObject();
+        o.add("bag", gson.toJsonTree(player.bag));
+        o.add("currencies", gson.toJsonTree(player.currencies));
+        o.add("skills", gson.toJsonTree(player.skills));
+        o.add("equipment", gson.toJsonTree(player.equipment));
+        o.add("base", gson.toJsonTree(player.base));
+        o.addProperty("currentHp", player.currentHp);
+        o.addProperty("exp", player.exp);
+        return gson.fromJson(o, MAP_TYPE);
+    }
+
+    @Benchmark public Map<String, Object> directEncode() {
+        return new PlayerDocument().encode(player, SaveSection.PLAYER, false);
+    }
+
+    /** The usual push: one stack moved since the last one. */
+    @Benchmark public Map<String, Object> directEncodeChanged() {
+        player.bag.put("item_7", ++tick);
+        return sent.encode(player, SaveSection.PLAYER, true);
+    }
+
+    /** The old pull: the document's map written out as JSON text and loaded from it. */
+    @Benchmark public PlayerCharacter gsonDecode() throws IOException {
+        return PlayerJsonLoader.load(gson.toJson(doc));
+    }
+
+    @Benchmark public PlayerCharacter directDecode() throws IOException {
+        return PlayerDocument.decode(doc);
+    }
+}
@@ -0,0 +1,51 @@
+package com.obliviongatestudio.akthosidle.benchmark;
+
+import com.obliviongatestudio.akthosidle.data.tracking.ExpTracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** XP/hour tracking: one note per XP grant, one rate query per UI refresh. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpTrackerBenchmark {
+    private static final String[] KEYS = { "ATTACK", "STRENGTH", "DEFENSE", "HP", "MINING", "SMITHING" };
+
+    private ExpTracker tracker;
+    private Set<String> combatKeys;
+    private int i;
+
+    @Setup public void setup() {
+        tracker = new ExpTracker();
+        // A busy window: every key near its event cap.
+        for (int n = 0; n < 2_000; n++) {
+            for (String k : KEYS) tracker.note(k, 5 + (n & 7));
+        }
+        combatKeys = new HashSet<>();
+        for (int k = 0; k < 4; k++) combatKeys.add(KEYS[k]);
+    }
+
+    @Benchmark public void note() {
+        tracker.note(KEYS[i++ % KEYS.length], 12);
+    }
+
+    @Benchmark public double ratePerHour() {
+        return tracker.ratePerHour(combatKeys, ExpTracker.DEFAULT_WINDOW_MS);
+    }
+}
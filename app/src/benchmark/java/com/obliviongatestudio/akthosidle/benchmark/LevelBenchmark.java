@@ -0,0 +1,49 @@
+package com.obliviongatestudio.akthosidle.benchmark;
+
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.rules.LevelCurve;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** XP ↔ level conversions; these run on every XP grant and every skill row redraw. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelBenchmark {
+    /** Low, mid and near-cap levels: the current implementations scale with the level. */
+    @Param({"5", "50", "95"})
+    public int level;
+
+    private int xp;
+    private long curveXp;
+
+    @Setup public void setup() {
+        xp = PlayerCharacter.xpToReachLevel(level) + 1;
+        curveXp = LevelCurve.expForLevel(level) + 1;
+    }
+
+    @Benchmark public int playerLevelForExp() { return PlayerCharacter.levelForExp(xp); }
+
+    @Benchmark public int playerXpToReachLevel() { return PlayerCharacter.xpToReachLevel(level); }
+
+    @Benchmark public int curveLevelForExp() { return LevelCurve.levelForExp(curveXp); }
+
+    @Benchmark public long curveExpForLevel() { return LevelCurve.expForLevel(level); }
+
+    @Benchmark public long curveExpToNextLevel() { return LevelCurve.expToNextLevel(level, curveXp); }
+}
@@ -0,0 +1,71 @@
+package com.obliviongatestudio.akthosidle.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.obliviongatestudio.akthosidle.data.storage.PlayerJsonLoader;
+import com.obliviongatestudio.akthosidle.data.storage.SaveMigrations;
+import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a JSON player save: Gson reflection plus the migration every load used to run, vs.
+ * the streaming PlayerJsonLoader on a current save (no migration) and on an unversioned one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBenchmark {
+    /** Distinct item stacks in the bag. */
+    @Param({"100", "2000"})
+    public int bagSize;
+
+    private final Gson gson = new Gson();
+    private String current;
+    private String legacy;
+
+    @Setup public void setup() {
+        PlayerCharacter player = new PlayerCharacter();
+        player.currentHp = 640;
+        player.exp = 4_500_000;
+        for (int i = 0; i < bagSize; i++) player.bag.put("item_" + i, 1 + (i * 37) % 5000);
+        for (SkillId s : SkillId.values()) player.skills.put(s, 1_000_000 + s.ordinal() * 12_345);
+        for (EquipmentSlot slot : EquipmentSlot.values()) player.equipment.put(slot, "gear_" + slot.name().toLowerCase());
+        player.currencies.put("silver", 12_000_000L);
+        player.currencies.put("gold", 3_400L);
+        legacy = gson.toJson(player);
+        JsonObject o = gson.toJsonTree(player).getAsJsonObject();
+        o.addProperty(SaveMigrations.FIELD, SaveMigrations.CURRENT);
+        current = o.toString();
+    }
+
+    /** What GameRepository did on every JSON load before saves were versioned. */
+    @Benchmark public PlayerCharacter gsonAndMigrate() {
+        PlayerCharacter pc = gson.fromJson(legacy, PlayerCharacter.class);
+        pc.migrateSkillsToXpIfNeeded();
+        pc.normalizeCurrencies();
+        return pc;
+    }
+
+    @Benchmark public PlayerCharacter streamCurrent() throws IOException { return PlayerJsonLoader.load(current); }
+
+    @Benchmark public PlayerCharacter streamLegacy() throws IOException { return PlayerJsonLoader.load(legacy); }
+}
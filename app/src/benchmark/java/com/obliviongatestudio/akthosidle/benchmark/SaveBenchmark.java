@@ -0,0 +1,65 @@
+package com.obliviongatestudio.akthosidle.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.obliviongatestudio.akthosidle.data.storage.PlayerCodec;
+import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/** Save/load of a late-game PlayerCharacter: legacy Gson JSON vs. the binary PlayerCodec. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBenchmark {
+    /** Distinct item stacks in the bag. */
+    @Param({"100", "2000"})
+    public int bagSize;
+
+    private final Gson gson = new Gson();
+    private final Type playerType = new TypeToken<PlayerCharacter>() {}.getType();
+    private PlayerCharacter player;
+    private String json;
+    private byte[] binary;
+
+    @Setup public void setup() {
+        player = new PlayerCharacter();
+        player.currentHp = 640;
+        player.exp = 4_500_000;
+        for (int i = 0; i < bagSize; i++) player.bag.put("item_" + i, 1 + (i * 37) % 5000);
+        for (SkillId s : SkillId.values()) player.skills.put(s, 1_000_000 + s.ordinal() * 12_345);
+        for (EquipmentSlot slot : EquipmentSlot.values()) player.equipment.put(slot, "gear_" + slot.name().toLowerCase());
+        player.currencies.put("silver", 12_000_000L);
+        player.currencies.put("gold", 3_400L);
+        player.currencies.put("slayer", 870L);
+        json = gson.toJson(player);
+        binary = PlayerCodec.encode(player);
+    }
+
+    @Benchmark public String save() { return gson.toJson(player); }
+
+    @Benchmark public PlayerCharacter load() { return gson.fromJson(json, playerType); }
+
+    @Benchmark public byte[] saveBinary() { return PlayerCodec.encode(player); }
+
+    @Benchmark public PlayerCharacter loadBinary() throws IOException { return PlayerCodec.decode(binary); }
+}
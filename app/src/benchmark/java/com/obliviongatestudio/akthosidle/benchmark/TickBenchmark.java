@@ -0,0 +1,68 @@
+package com.obliviongatestudio.akthosidle.benchmark;
+
+import com.obliviongatestudio.akthosidle.data.dtos.Snapshot;
+import com.obliviongatestudio.akthosidle.domain.model.Job;
+import com.obliviongatestudio.akthosidle.domain.services.TickService;
+import com.obliviongatestudio.akthosidle.engine.JobEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Live job ticks (50 ms deltas) and offline catch-up across many jobs. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+    @Param({"1", "64"})
+    public int jobs;
+
+    private final TickService tickService = new TickService();
+    private Job job;
+    private Snapshot snapshot;
+    private long now;
+
+    @Setup public void setup() {
+        job = job(3_000L);
+        List<Job> list = new ArrayList<>(jobs);
+        for (int i = 0; i < jobs; i++) list.add(job(1_000L + i * 250L));
+        snapshot = new Snapshot();
+        snapshot.jobs = list;
+        snapshot.timestampMs = 0L;
+        now = 0L;
+    }
+
+    private static Job job(long intervalMs) {
+        Job j = new Job();
+        j.intervalMs = intervalMs;
+        j.xpPerTick = 7;
+        j.currencyPerTick = 2;
+        return j;
+    }
+
+    @Benchmark public int applyProgressFrame() {
+        JobEngine.applyProgress(job, 50L);
+        return job.accumulatedXp;
+    }
+
+    /** Eight hours away, the offline cap. */
+    @Benchmark public long applyCatchUp() {
+        now += 8L * 60L * 60L * 1000L;
+        return tickService.applyCatchUp(snapshot, now).timestampMs;
+    }
+}
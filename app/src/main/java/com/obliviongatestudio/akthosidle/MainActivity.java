@@ -65,8 +65,11 @@ public class MainActivity extends AppCompatActivity {
         @Override public void run() {
             if (repo != null) {
                 double rate = repo.xpTracker.ratePerHour(xpSelectedKeys, xpWindowMs);
+                double items = repo.itemsPerHour(xpWindowMs);
+                double silver = repo.silverPerHour(xpWindowMs);
                 if (txtXpRate != null) {
-                    txtXpRate.setText(String.format(Locale.US, "%.0f xp/h", rate));
+                    txtXpRate.setText(String.format(Locale.US, "%.0f xp/h · %.0f items/h · %.0f silver/h",
+                            rate, items, silver));
                 }
             }
             xpUiHandler.postDelayed(this, 1000);
@@ -175,6 +178,11 @@ public class MainActivity extends AppCompatActivity {
     @Override protected void onPause() {
         super.onPause();
         xpUiHandler.removeCallbacksAndMessages(null);
+        if (repo != null) repo.flushSave(); // the process may be killed any time after this
+    }
+    @Override public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (repo != null) repo.flushSave();
     }
 
     // ===== Public hooks for fragments =====
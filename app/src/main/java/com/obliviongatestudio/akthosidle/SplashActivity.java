@@ -1,7 +1,5 @@
 package com.obliviongatestudio.akthosidle;
 
-import static java.lang.Thread.sleep;
-
 import android.content.Intent;
 import android.os.Build;
 import android.os.Bundle;
@@ -19,7 +17,6 @@ import androidx.core.splashscreen.SplashScreen;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 
 import com.obliviongatestudio.akthosidle.data.repo.GameRepository;
-import com.obliviongatestudio.akthosidle.data.seed.GameSeedImporter;
 import com.obliviongatestudio.akthosidle.ui.auth.AuthActivity;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -62,12 +59,10 @@ public class SplashActivity extends AppCompatActivity {
     @WorkerThread
     private void loadAndRoute() {
         try {
-            step(10, () -> GameSeedImporter.importAll(SplashActivity.this, repo)); sleep(1500);
-            step(30, repo::loadItemsFromAssets); sleep(1500);
-            step(55, repo::loadActionsFromAssets); sleep(1500);
-            step(75, () -> { repo.loadDefinitions(); repo.loadOrCreatePlayer(); }); sleep(300);
-            step(90, repo::totalStats);
-            step(100, () -> { /* done */ });
+            // Definitions are most of the work: 0-80% follows the files as they finish
+            repo.loadDefinitions((done, total) -> updateProgress(done * 80 / total));
+            step(90, repo::loadOrCreatePlayer);
+            step(100, repo::totalStats);
         } catch (Throwable t) {
             t.printStackTrace();
             runOnUiThread(() ->
@@ -89,7 +84,6 @@ public class SplashActivity extends AppCompatActivity {
     private void step(int targetPercent, Runnable work) {
         if (work != null) work.run();
         updateProgress(targetPercent);
-        try { sleep(180); } catch (InterruptedException ignored) {}
     }
 
     @MainThread
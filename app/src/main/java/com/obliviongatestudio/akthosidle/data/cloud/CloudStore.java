@@ -0,0 +1,71 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The document store player saves sync with: Firestore in the app ({@link FirestoreCloudStore}),
+ * {@link InMemoryCloudStore} / {@link LocalFileCloudStore} on a plain JVM for tests and load runs.
+ * - Documents are addressed by collection + id and hold nested maps of JSON-like values.
+ * - {@link #merge} is one write: nested maps merge key by key, anything else is replaced, the
+ *   increments are added to numeric fields, and the store stamps the server's updatedAt.
+ * - Callbacks may arrive on any thread the store chooses (Firestore: the main thread).
+ */
+public interface CloudStore {
+
+    interface Callback<T> {
+        void onSuccess(T result);
+        void onFailure(Exception e);
+    }
+
+    interface Listener {
+        /** {@code doc} is the state after a change (or the first read); {@code e} is set on errors. */
+        void onChange(@Nullable Document doc, @Nullable Exception e);
+    }
+
+    interface Registration {
+        void remove();
+    }
+
+    /** A document as read; {@link #data} leaves out the server-stamped updatedAt. */
+    final class Document {
+        public final boolean exists;
+        public final Map<String, Object> data;
+        /** Server time of the last write; 0 if the document has none. */
+        public final long updatedAtMs;
+
+        public Document(boolean exists, @Nullable Map<String, Object> data, long updatedAtMs) {
+            this.exists = exists;
+            this.data = data != null ? data : Collections.<String, Object>emptyMap();
+            this.updatedAtMs = updatedAtMs;
+        }
+
+        public static Document missing() { return new Document(false, null, 0L); }
+    }
+
+    /** Field holding the server timestamp of the last write. */
+    String UPDATED_AT = "updatedAt";
+
+    /** The signed-in account, or null (nothing may be read or written then). */
+    @Nullable String userId();
+
+    void get(String collection, String id, Callback<Document> cb);
+
+    /**
+     * Merges {@code fields} and adds {@code increments} (field → key → delta) in one write, and
+     * stamps updatedAt. {@code cb} may be null.
+     */
+    void merge(String collection, String id, Map<String, Object> fields,
+               Map<String, Map<String, Long>> increments, @Nullable Callback<Void> cb);
+
+    default void increment(String collection, String id, String field, String key, long delta,
+                           @Nullable Callback<Void> cb) {
+        merge(collection, id, Collections.<String, Object>emptyMap(),
+                Collections.singletonMap(field, Collections.singletonMap(key, delta)), cb);
+    }
+
+    /** Calls {@code l} with the current document and again after every change. */
+    Registration listen(String collection, String id, Listener l);
+}
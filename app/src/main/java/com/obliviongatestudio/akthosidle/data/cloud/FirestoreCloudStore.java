@@ -0,0 +1,86 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** {@link CloudStore} on Firestore; Firebase is only touched on first use. */
+public class FirestoreCloudStore implements CloudStore {
+    @Nullable private FirebaseFirestore db;
+    @Nullable private FirebaseAuth auth;
+
+    private FirebaseFirestore db() {
+        if (db == null) db = FirebaseFirestore.getInstance();
+        return db;
+    }
+
+    private FirebaseAuth auth() {
+        if (auth == null) auth = FirebaseAuth.getInstance();
+        return auth;
+    }
+
+    private DocumentReference doc(String collection, String id) {
+        return db().collection(collection).document(id);
+    }
+
+    @Override @Nullable public String userId() {
+        FirebaseUser u = auth().getCurrentUser();
+        return u != null ? u.getUid() : null;
+    }
+
+    @Override public void get(String collection, String id, Callback<Document> cb) {
+        doc(collection, id).get()
+                .addOnSuccessListener(snap -> cb.onSuccess(toDocument(snap)))
+                .addOnFailureListener(cb::onFailure);
+    }
+
+    @Override public void merge(String collection, String id, Map<String, Object> fields,
+                                Map<String, Map<String, Long>> increments, @Nullable Callback<Void> cb) {
+        Map<String, Object> data = new HashMap<>(fields);
+        // Nested maps: set(merge) doesn't read dotted keys as field paths
+        for (Map.Entry<String, Map<String, Long>> e : increments.entrySet()) {
+            // Alongside keys of the same field being set, not instead of them
+            Object set = data.get(e.getKey());
+            @SuppressWarnings("unchecked")
+            Map<String, Object> inc = set instanceof Map ? new HashMap<>((Map<String, Object>) set) : new HashMap<>();
+            for (Map.Entry<String, Long> d : e.getValue().entrySet()) {
+                inc.put(d.getKey(), FieldValue.increment(d.getValue()));
+            }
+            data.put(e.getKey(), inc);
+        }
+        data.put(UPDATED_AT, FieldValue.serverTimestamp());
+        doc(collection, id).set(data, SetOptions.merge())
+                .addOnSuccessListener(v -> { if (cb != null) cb.onSuccess(null); })
+                .addOnFailureListener(e -> { if (cb != null) cb.onFailure(e); });
+    }
+
+    @Override public Registration listen(String collection, String id, Listener l) {
+        ListenerRegistration reg = doc(collection, id).addSnapshotListener((snap, e) -> {
+            if (e != null) l.onChange(null, e);
+            else l.onChange(toDocument(snap), null);
+        });
+        return reg::remove;
+    }
+
+    private static Document toDocument(@Nullable DocumentSnapshot snap) {
+        if (snap == null || !snap.exists()) return Document.missing();
+        Timestamp ts = snap.getTimestamp(UPDATED_AT);
+        Map<String, Object> data = snap.getData();
+        if (data != null) {
+            data = new HashMap<>(data);
+            data.remove(UPDATED_AT);
+        }
+        return new Document(true, data, ts != null ? ts.toDate().getTime() : 0L);
+    }
+}
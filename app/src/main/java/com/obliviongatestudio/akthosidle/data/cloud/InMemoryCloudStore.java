@@ -0,0 +1,260 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link CloudStore} held in process, standing in for Firestore on a plain JVM.
+ * - Every call takes {@code latencyMs} and is applied in arrival order on one "server" thread;
+ *   with 0 latency it completes before returning, on the caller's thread.
+ * - A call fails (IOException, nothing applied) with probability {@code failureRate}, from a
+ *   seeded Random so runs repeat, and always while {@link #setOffline offline}.
+ * - updatedAt is the server's clock ({@link #setClockSkewMs} shifts it against the device),
+ *   strictly increasing per store.
+ * - Numbers come back as Long or Double, like Firestore; reads return copies.
+ */
+public class InMemoryCloudStore implements CloudStore {
+
+    private static final class Doc {
+        final Map<String, Object> data = new HashMap<>();
+        long updatedAtMs;
+    }
+
+    private final Map<String, Doc> docs = new HashMap<>();
+    private final Map<String, List<Listener>> listeners = new HashMap<>();
+    private final long latencyMs;
+    private final double failureRate;
+    private final Random random;
+    @Nullable private final ScheduledExecutorService server;
+
+    @Nullable private volatile String userId;
+    private volatile long clockSkewMs;
+    private volatile boolean offline;
+    private long lastStampMs;
+    private long reads, writes, failures;
+
+    /** Instant, never failing, signed in as "local". */
+    public InMemoryCloudStore() {
+        this(0L, 0.0, 1L);
+    }
+
+    public InMemoryCloudStore(long latencyMs, double failureRate, long seed) {
+        this.latencyMs = Math.max(0L, latencyMs);
+        this.failureRate = failureRate;
+        this.random = new Random(seed);
+        this.userId = "local";
+        this.server = this.latencyMs == 0 ? null : Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cloud-sim");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void setUserId(@Nullable String uid) { userId = uid; }
+
+    /** Server clock minus device clock. */
+    public void setClockSkewMs(long ms) { clockSkewMs = ms; }
+
+    /** While offline every call fails. */
+    public void setOffline(boolean offline) { this.offline = offline; }
+
+    @Override @Nullable public String userId() { return userId; }
+
+    @Override public void get(String collection, String id, Callback<Document> cb) {
+        submit(() -> {
+            if (fails()) {
+                cb.onFailure(new IOException("Simulated cloud failure"));
+                return;
+            }
+            Document d;
+            synchronized (this) {
+                reads++;
+                d = snapshot(docs.get(key(collection, id)));
+            }
+            cb.onSuccess(d);
+        });
+    }
+
+    @Override public void merge(String collection, String id, Map<String, Object> fields,
+                                Map<String, Map<String, Long>> increments, @Nullable Callback<Void> cb) {
+        // Copied now: the caller may keep mutating its maps while the write is in flight
+        Map<String, Object> f = deepCopy(fields);
+        Map<String, Object> inc = deepCopy(new HashMap<String, Object>(increments));
+        submit(() -> {
+            if (fails()) {
+                if (cb != null) cb.onFailure(new IOException("Simulated cloud failure"));
+                return;
+            }
+            String k = key(collection, id);
+            Document after;
+            synchronized (this) {
+                Doc d = docs.get(k);
+                if (d == null) docs.put(k, d = new Doc());
+                mergeInto(d.data, f);
+                for (Map.Entry<String, Object> e : inc.entrySet()) {
+                    Map<String, Object> target = childMap(d.data, e.getKey());
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> deltas = (Map<String, Object>) e.getValue();
+                    for (Map.Entry<String, Object> delta : deltas.entrySet()) {
+                        target.put(delta.getKey(), add(target.get(delta.getKey()), (Long) delta.getValue()));
+                    }
+                }
+                d.updatedAtMs = stamp();
+                writes++;
+                after = snapshot(d);
+                written(k, after);
+            }
+            if (cb != null) cb.onSuccess(null);
+            notifyListeners(k, after);
+        });
+    }
+
+    @Override public Registration listen(String collection, String id, Listener l) {
+        String k = key(collection, id);
+        synchronized (listeners) {
+            List<Listener> list = listeners.get(k);
+            if (list == null) listeners.put(k, list = new CopyOnWriteArrayList<>());
+            list.add(l);
+        }
+        submit(() -> {
+            Document d;
+            synchronized (this) { d = snapshot(docs.get(k)); }
+            l.onChange(d, null);
+        });
+        return () -> {
+            synchronized (listeners) {
+                List<Listener> list = listeners.get(k);
+                if (list != null) list.remove(l);
+            }
+        };
+    }
+
+    public synchronized long reads() { return reads; }
+    public synchronized long writes() { return writes; }
+    public synchronized long failures() { return failures; }
+
+    /** The stored document, bypassing latency and failures (for assertions). */
+    public synchronized Document peek(String collection, String id) {
+        return snapshot(docs.get(key(collection, id)));
+    }
+
+    /** Stops the server thread; calls after this are dropped. */
+    public void shutdown() {
+        if (server != null) server.shutdownNow();
+    }
+
+    /* ---------- for subclasses ---------- */
+
+    /** Called (holding the store's lock) after each applied write. */
+    protected void written(String key, Document after) {}
+
+    /** Puts a document as-is, e.g. when restoring from disk. */
+    protected synchronized void restore(String key, Map<String, Object> data, long updatedAtMs) {
+        Doc d = new Doc();
+        mergeInto(d.data, data);
+        d.updatedAtMs = updatedAtMs;
+        docs.put(key, d);
+        lastStampMs = Math.max(lastStampMs, updatedAtMs);
+    }
+
+    protected static String key(String collection, String id) {
+        return collection + "/" + id;
+    }
+
+    /* ---------- internals ---------- */
+
+    private void submit(Runnable call) {
+        if (server == null) {
+            call.run();
+            return;
+        }
+        try {
+            server.schedule(call, latencyMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException shutDown) {
+            // dropped, as documented on shutdown()
+        }
+    }
+
+    private synchronized boolean fails() {
+        if (!offline && (failureRate <= 0 || random.nextDouble() >= failureRate)) return false;
+        failures++;
+        return true;
+    }
+
+    private long stamp() {
+        lastStampMs = Math.max(lastStampMs + 1, System.currentTimeMillis() + clockSkewMs);
+        return lastStampMs;
+    }
+
+    private void notifyListeners(String k, Document after) {
+        List<Listener> list;
+        synchronized (listeners) { list = listeners.get(k); }
+        if (list == null) return;
+        for (Listener l : list) l.onChange(after, null);
+    }
+
+    private static Document snapshot(@Nullable Doc d) {
+        if (d == null) return Document.missing();
+        return new Document(true, deepCopy(d.data), d.updatedAtMs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void mergeInto(Map<String, Object> target, Map<String, Object> src) {
+        for (Map.Entry<String, Object> e : src.entrySet()) {
+            Object v = e.getValue();
+            Object old = target.get(e.getKey());
+            if (v instanceof Map && old instanceof Map) {
+                mergeInto((Map<String, Object>) old, (Map<String, Object>) v);
+            } else {
+                target.put(e.getKey(), copyValue(v));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> childMap(Map<String, Object> parent, String field) {
+        Object v = parent.get(field);
+        if (v instanceof Map) return (Map<String, Object>) v;
+        Map<String, Object> m = new HashMap<>();
+        parent.put(field, m);
+        return m;
+    }
+
+    /** Firestore's increment: a missing or non-numeric field counts as 0; doubles stay doubles. */
+    private static Object add(@Nullable Object current, long delta) {
+        if (current instanceof Double || current instanceof Float) return ((Number) current).doubleValue() + delta;
+        if (current instanceof Number) return ((Number) current).longValue() + delta;
+        return delta;
+    }
+
+    private static Map<String, Object> deepCopy(Map<String, ?> m) {
+        Map<String, Object> out = new HashMap<>();
+        for (Map.Entry<String, ?> e : m.entrySet()) out.put(e.getKey(), copyValue(e.getValue()));
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copyValue(@Nullable Object v) {
+        if (v instanceof Map) return deepCopy((Map<String, ?>) v);
+        if (v instanceof List) {
+            List<Object> out = new ArrayList<>();
+            for (Object o : (List<Object>) v) out.add(copyValue(o));
+            return out;
+        }
+        if (v instanceof Integer || v instanceof Short || v instanceof Byte) return ((Number) v).longValue();
+        if (v instanceof Float) return ((Float) v).doubleValue();
+        if (v instanceof Enum) return ((Enum<?>) v).name();
+        return v;
+    }
+}
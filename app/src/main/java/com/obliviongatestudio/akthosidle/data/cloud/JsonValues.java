@@ -0,0 +1,33 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Helpers for the JSON-like values cloud documents hold (maps, lists, numbers, strings). */
+final class JsonValues {
+    private JsonValues() {}
+
+    /** Gson reads every number as a double; whole ones go back to Long, as Firestore returns them. */
+    static Map<String, Object> integralToLong(Map<String, Object> m) {
+        Map<String, Object> out = new HashMap<>();
+        for (Map.Entry<String, Object> e : m.entrySet()) out.put(e.getKey(), integralToLong(e.getValue()));
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Object integralToLong(Object v) {
+        if (v instanceof Map) return integralToLong((Map<String, Object>) v);
+        if (v instanceof List) {
+            List<Object> out = new ArrayList<>();
+            for (Object o : (List<Object>) v) out.add(integralToLong(o));
+            return out;
+        }
+        if (v instanceof Double) {
+            double d = (Double) v;
+            if (d == Math.rint(d) && Math.abs(d) < 9.0e15) return (long) d;
+        }
+        return v;
+    }
+}
@@ -0,0 +1,88 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * {@link InMemoryCloudStore} that survives restarts: each document is kept as
+ * {@code <dir>/<collection>/<id>.json} ({"updatedAt": ms, "data": {…}}), rewritten (temp file +
+ * rename) after every write and read back on construction. Useful to run sync across processes
+ * or app restarts without a network.
+ */
+public class LocalFileCloudStore extends InMemoryCloudStore {
+    private static final String TAG = "LocalFileCloudStore";
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    private final File dir;
+    private final Gson gson = new Gson();
+
+    public LocalFileCloudStore(File dir) {
+        this(dir, 0L, 0.0, 1L);
+    }
+
+    public LocalFileCloudStore(File dir, long latencyMs, double failureRate, long seed) {
+        super(latencyMs, failureRate, seed);
+        this.dir = dir;
+        loadAll();
+    }
+
+    @Override protected void written(String key, Document after) {
+        File f = fileFor(key);
+        File tmp = new File(f.getPath() + ".tmp");
+        JsonObject o = new JsonObject();
+        o.addProperty(UPDATED_AT, after.updatedAtMs);
+        o.add("data", gson.toJsonTree(after.data));
+        try {
+            File parent = f.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) throw new IOException("Can't create " + parent);
+            try (Writer w = new OutputStreamWriter(new FileOutputStream(tmp, false), StandardCharsets.UTF_8)) {
+                gson.toJson(o, w);
+            }
+            if (!tmp.renameTo(f)) throw new IOException("Rename failed: " + f);
+        } catch (IOException e) {
+            // The write stands in memory; the file catches up on the next one
+            Log.w(TAG, "Couldn't persist " + key, e);
+        }
+    }
+
+    private File fileFor(String key) {
+        int slash = key.indexOf('/');
+        return new File(new File(dir, key.substring(0, slash)), key.substring(slash + 1) + ".json");
+    }
+
+    private void loadAll() {
+        File[] collections = dir.listFiles(File::isDirectory);
+        if (collections == null) return;
+        for (File c : collections) {
+            File[] files = c.listFiles((d, name) -> name.endsWith(".json"));
+            if (files == null) continue;
+            for (File f : files) {
+                String id = f.getName().substring(0, f.getName().length() - ".json".length());
+                try (Reader r = new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8)) {
+                    JsonObject o = gson.fromJson(r, JsonObject.class);
+                    if (o == null || !o.has("data")) continue;
+                    Map<String, Object> data = gson.fromJson(o.get("data"), MAP_TYPE);
+                    long ts = o.has(UPDATED_AT) ? o.get(UPDATED_AT).getAsLong() : 0L;
+                    restore(key(c.getName(), id), JsonValues.integralToLong(data), ts);
+                } catch (IOException | RuntimeException e) {
+                    Log.w(TAG, "Skipping unreadable " + f, e);
+                }
+            }
+        }
+    }
+}
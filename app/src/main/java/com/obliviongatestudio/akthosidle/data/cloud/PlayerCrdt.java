@@ -0,0 +1,262 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Conflict-free merge of the player's progress across devices.
+ * - Bag quantities and currencies are PN-counters: every device (replica) only grows its own
+ *   "added" and "removed" totals per key, and the value is the sum of added - removed over all
+ *   replicas. Skill XP is a max over replicas (XP never goes down).
+ * - Merging takes the per-replica maximum of each total, so merges commute and repeat safely:
+ *   two devices playing at once both keep their progress, whatever order their writes land in.
+ * - Local play isn't instrumented: {@link #absorb} diffs the player against the merged values
+ *   and books the difference on this device's replica.
+ * The cloud document holds it under {@link #FIELD}: {deviceId: {bag: {id: {p, n}}, currencies:
+ * {…}, skills: {SKILL: xp}}}; a device only ever writes its own entry ({@link #ownEntry}).
+ */
+public final class PlayerCrdt {
+    public static final String FIELD = "crdt";
+
+    private static final String BAG = "bag", CURRENCIES = "currencies", SKILLS = "skills";
+    private static final String ADDED = "p", REMOVED = "n";
+
+    /** One device's totals; only that device changes them. */
+    static final class Replica {
+        Map<String, long[]> bag = new HashMap<>();        // id → {added, removed}
+        Map<String, long[]> currencies = new HashMap<>();
+        Map<String, Long> skills = new HashMap<>();       // SkillId name → XP
+    }
+
+    private String deviceId;
+    private Map<String, Replica> replicas = new HashMap<>();
+
+    public PlayerCrdt(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String deviceId() { return deviceId; }
+
+    /** Never synced (no replica known, this device's included). */
+    public boolean isEmpty() { return replicas.isEmpty(); }
+
+    /** Forgets every replica but keeps the device id (the cloud still holds this device's entry). */
+    public void reset() { replicas.clear(); }
+
+    /** Steady-state sync: books local play, merges {@code remote}, writes the result into {@code pc}. */
+    public boolean sync(PlayerCharacter pc, @Nullable Object remote) {
+        absorb(pc);
+        merge(remote);
+        return applyTo(pc);
+    }
+
+    /**
+     * First sync on this device. With {@code localWins} the local save is kept and whatever it
+     * differs from {@code remote} by becomes this device's contribution; otherwise the merged
+     * remote state replaces the local one.
+     */
+    public boolean join(PlayerCharacter pc, @Nullable Object remote, boolean localWins) {
+        merge(remote);
+        if (localWins) absorb(pc);
+        return applyTo(pc);
+    }
+
+    /** Books the difference between {@code pc} and the merged values on this device's replica. */
+    public void absorb(PlayerCharacter pc) {
+        Replica self = replicas.get(deviceId);
+        if (self == null) replicas.put(deviceId, self = new Replica());
+        absorbCounters(self.bag, BAG, toLongs(pc.bag));
+        absorbCounters(self.currencies, CURRENCIES, pc.currencies);
+        for (Map.Entry<SkillId, Integer> e : pc.skills.entrySet()) {
+            long xp = e.getValue() == null ? 0L : e.getValue();
+            Long have = self.skills.get(e.getKey().name());
+            if (have == null || xp > have) self.skills.put(e.getKey().name(), xp);
+        }
+    }
+
+    /**
+     * Lowers this device's XP for {@code id} to {@code xp}, for a grant taken back before it was
+     * pushed (a max-register only grows, so otherwise the next {@link #applyTo} restores it).
+     */
+    public void lowerSkill(SkillId id, long xp) {
+        Replica self = replicas.get(deviceId);
+        if (self == null) return;
+        Long have = self.skills.get(id.name());
+        if (have != null && have > xp) self.skills.put(id.name(), Math.max(0L, xp));
+    }
+
+    /** Takes the per-replica maximum with a cloud {@link #FIELD} value. True if anything grew. */
+    @SuppressWarnings("unchecked")
+    public boolean merge(@Nullable Object remote) {
+        if (!(remote instanceof Map)) return false;
+        boolean changed = false;
+        for (Map.Entry<String, Object> e : ((Map<String, Object>) remote).entrySet()) {
+            if (!(e.getValue() instanceof Map)) continue;
+            Map<String, Object> r = (Map<String, Object>) e.getValue();
+            Replica local = replicas.get(e.getKey());
+            if (local == null) replicas.put(e.getKey(), local = new Replica());
+            changed |= mergeCounters(local.bag, r.get(BAG));
+            changed |= mergeCounters(local.currencies, r.get(CURRENCIES));
+            if (r.get(SKILLS) instanceof Map) {
+                for (Map.Entry<String, Object> s : ((Map<String, Object>) r.get(SKILLS)).entrySet()) {
+                    long xp = asLong(s.getValue());
+                    Long have = local.skills.get(s.getKey());
+                    if (have == null || xp > have) {
+                        local.skills.put(s.getKey(), xp);
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Makes {@code pc}'s bag and currencies the merged values (anything the replicas don't know
+     * is 0) and raises skills to the merged XP. Totals overdrawn on several devices at once show
+     * as 0 and later gains pay the deficit off first (forgiving it locally would let every device
+     * forgive it once). True if {@code pc} changed.
+     */
+    public boolean applyTo(PlayerCharacter pc) {
+        boolean changed = false;
+        Set<String> bagIds = keys(BAG);
+        bagIds.addAll(pc.bag.keySet());
+        for (String id : bagIds) {
+            int v = (int) Math.min(Integer.MAX_VALUE, Math.max(0L, value(BAG, id)));
+            Integer have = pc.bag.get(id);
+            if (v == 0) {
+                if (have != null) {
+                    pc.bag.remove(id);
+                    changed = true;
+                }
+            } else if (have == null || have != v) {
+                pc.bag.put(id, v);
+                changed = true;
+            }
+        }
+        Set<String> currencyIds = keys(CURRENCIES);
+        currencyIds.addAll(pc.currencies.keySet());
+        for (String id : currencyIds) {
+            long v = Math.max(0L, value(CURRENCIES, id));
+            Long have = pc.currencies.get(id);
+            if (have == null || have != v) {
+                pc.currencies.put(id, v);
+                changed = true;
+            }
+        }
+        for (SkillId id : SkillId.values()) {
+            long best = 0L;
+            for (Replica r : replicas.values()) best = Math.max(best, r.skills.getOrDefault(id.name(), 0L));
+            int xp = (int) Math.min(Integer.MAX_VALUE, best);
+            if (xp > pc.skills.getOrDefault(id, 0)) {
+                pc.skills.put(id, xp);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /** This device's entry, as it goes into the cloud {@link #FIELD} (a merge write of it is safe). */
+    public Map<String, Object> ownEntry() {
+        Replica self = replicas.get(deviceId);
+        Map<String, Object> r = new HashMap<>();
+        if (self != null) {
+            r.put(BAG, countersToMap(self.bag));
+            r.put(CURRENCIES, countersToMap(self.currencies));
+            r.put(SKILLS, new HashMap<String, Object>(self.skills));
+        }
+        Map<String, Object> out = new HashMap<>();
+        out.put(deviceId, r);
+        return out;
+    }
+
+    /** Sum over replicas of added - removed. */
+    long value(String kind, String key) {
+        long v = 0L;
+        for (Replica r : replicas.values()) {
+            long[] c = counters(r, kind).get(key);
+            if (c != null) v += c[0] - c[1];
+        }
+        return v;
+    }
+
+    /* ---------- internals ---------- */
+
+    private void absorbCounters(Map<String, long[]> self, String kind, Map<String, Long> local) {
+        Set<String> all = keys(kind);
+        all.addAll(local.keySet());
+        for (String key : all) {
+            long shown = Math.max(0L, value(kind, key));
+            Long have = local.get(key);
+            long d = (have == null ? 0L : have) - shown;
+            if (d == 0) continue;
+            long[] c = self.get(key);
+            if (c == null) self.put(key, c = new long[2]);
+            if (d > 0) c[0] += d;
+            else c[1] -= d;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean mergeCounters(Map<String, long[]> local, @Nullable Object remote) {
+        if (!(remote instanceof Map)) return false;
+        boolean changed = false;
+        for (Map.Entry<String, Object> e : ((Map<String, Object>) remote).entrySet()) {
+            if (!(e.getValue() instanceof Map)) continue;
+            Map<String, Object> pn = (Map<String, Object>) e.getValue();
+            long p = asLong(pn.get(ADDED)), n = asLong(pn.get(REMOVED));
+            long[] c = local.get(e.getKey());
+            if (c == null) {
+                if (p == 0 && n == 0) continue;
+                local.put(e.getKey(), c = new long[2]);
+            }
+            if (p > c[0]) { c[0] = p; changed = true; }
+            if (n > c[1]) { c[1] = n; changed = true; }
+        }
+        return changed;
+    }
+
+    private static Map<String, Object> countersToMap(Map<String, long[]> counters) {
+        Map<String, Object> out = new HashMap<>();
+        for (Map.Entry<String, long[]> e : counters.entrySet()) {
+            Map<String, Object> pn = new HashMap<>();
+            pn.put(ADDED, e.getValue()[0]);
+            pn.put(REMOVED, e.getValue()[1]);
+            out.put(e.getKey(), pn);
+        }
+        return out;
+    }
+
+    private Set<String> keys(String kind) {
+        Set<String> out = new HashSet<>();
+        for (Replica r : replicas.values()) out.addAll(counters(r, kind).keySet());
+        return out;
+    }
+
+    private static Map<String, long[]> counters(Replica r, String kind) {
+        return BAG.equals(kind) ? r.bag : r.currencies;
+    }
+
+    private static Map<String, Long> toLongs(Map<String, Integer> m) {
+        Map<String, Long> out = new HashMap<>();
+        for (Map.Entry<String, Integer> e : m.entrySet()) {
+            if (e.getValue() != null) out.put(e.getKey(), (long) e.getValue());
+        }
+        return out;
+    }
+
+    private static long asLong(@Nullable Object v) {
+        if (v instanceof Number) return ((Number) v).longValue();
+        if (v instanceof String) {
+            try { return Long.parseLong((String) v); } catch (NumberFormatException e) { return 0L; }
+        }
+        return 0L;
+    }
+}
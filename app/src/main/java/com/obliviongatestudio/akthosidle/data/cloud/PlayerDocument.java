@@ -0,0 +1,268 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
+import com.obliviongatestudio.akthosidle.data.storage.SaveMigrations;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link PlayerCharacter} ↔ the cloud document's fields, walked field by field (no JSON text in
+ * between). The shape is the Gson one {@link com.obliviongatestudio.akthosidle.data.storage.PlayerJsonLoader}
+ * reads: bag {id: qty}, currencies {id: amount}, skills {SKILL: xp}, equipment {SLOT: id},
+ * base {attack, …}, currentHp, exp, element, quickFoodId. Integers go out as Long, like
+ * Firestore hands them back.
+ * - An instance remembers what it last encoded, so {@link #encode} can send only the keys that
+ *   changed since (a merge write leaves the rest as they are). A bag entry or currency that went
+ *   away is sent as 0 and an empty slot or quick food as null; {@link #decode} drops them.
+ * - {@link #reset} forgets that, so the next encode sends the sections whole (after adopting
+ *   another save, or when the cloud may hold something else).
+ * Not thread-safe; the repository encodes under its ledger lock.
+ */
+public final class PlayerDocument {
+    public static final String BAG = "bag", CURRENCIES = "currencies", SKILLS = "skills";
+    public static final String EQUIPMENT = "equipment", BASE = "base", CURRENT_HP = "currentHp";
+    public static final String EXP = "exp", ELEMENT = "element", QUICK_FOOD_ID = "quickFoodId";
+
+    // What the cloud holds as far as this encoder knows; a section not yet sent whole goes whole
+    private final Map<String, Long> sentBag = new HashMap<>();
+    private final Map<String, Long> sentCurrencies = new HashMap<>();
+    private final EnumMap<SkillId, Long> sentSkills = new EnumMap<>(SkillId.class);
+    private final EnumMap<EquipmentSlot, String> sentEquipment = new EnumMap<>(EquipmentSlot.class);
+    private final Map<String, Object> sentScalars = new HashMap<>();
+    private boolean sentBagWhole, sentCurrenciesWhole, sentSkillsWhole, sentEquipmentWhole, sentBaseWhole;
+
+    /** Forgets what was sent; the next {@link #encode} sends every section it's given whole. */
+    public void reset() {
+        sentBag.clear();
+        sentCurrencies.clear();
+        sentSkills.clear();
+        sentEquipment.clear();
+        sentScalars.clear();
+        sentBagWhole = sentCurrenciesWhole = sentSkillsWhole = sentEquipmentWhole = sentBaseWhole = false;
+    }
+
+    /**
+     * The fields holding {@code sections} of {@code pc}; with {@code changedOnly} only the keys
+     * that differ from the last encode (a section not sent before still goes whole).
+     */
+    public Map<String, Object> encode(PlayerCharacter pc, Set<SaveSection> sections, boolean changedOnly) {
+        Map<String, Object> out = new HashMap<>();
+        for (SaveSection s : sections) {
+            switch (s) {
+                case BAG:
+                    putChanged(out, BAG, encodeCounts(pc.bag, sentBag, changedOnly && sentBagWhole));
+                    sentBagWhole = true;
+                    break;
+                case CURRENCIES:
+                    putChanged(out, CURRENCIES, encodeCounts(pc.currencies, sentCurrencies, changedOnly && sentCurrenciesWhole));
+                    sentCurrenciesWhole = true;
+                    break;
+                case SKILLS:
+                    putChanged(out, SKILLS, encodeSkills(pc, changedOnly && sentSkillsWhole));
+                    sentSkillsWhole = true;
+                    break;
+                case EQUIPMENT:
+                    putChanged(out, EQUIPMENT, encodeEquipment(pc, changedOnly && sentEquipmentWhole));
+                    sentEquipmentWhole = true;
+                    break;
+                case BASE:
+                    boolean diff = changedOnly && sentBaseWhole;
+                    scalar(out, CURRENT_HP, pc.currentHp != null ? Long.valueOf(pc.currentHp) : null, diff);
+                    scalar(out, EXP, (long) pc.exp, diff);
+                    scalar(out, ELEMENT, pc.element != null ? pc.element.name() : null, diff);
+                    if (pc.base != null) {
+                        Map<String, Object> base = encodeStats(pc.base);
+                        if (!diff || !base.equals(sentScalars.get(BASE))) out.put(BASE, base);
+                        sentScalars.put(BASE, base);
+                    }
+                    sentBaseWhole = true;
+                    break;
+                case QUICK_FOOD:
+                    scalar(out, QUICK_FOOD_ID, pc.getQuickFoodId(), changedOnly && sentScalars.containsKey(QUICK_FOOD_ID));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return out;
+    }
+
+    /** Reads a cloud document into a migrated player. Throws if it's from a newer schema. */
+    public static PlayerCharacter decode(Map<String, Object> data) throws IOException {
+        PlayerCharacter pc = new PlayerCharacter();
+        Object hp = data.get(CURRENT_HP);
+        if (hp != null) pc.currentHp = (int) asLong(hp);
+        pc.exp = (int) asLong(data.get(EXP));
+        Element element = asEnum(Element.class, data.get(ELEMENT));
+        if (element != null) pc.element = element;
+        if (data.get(QUICK_FOOD_ID) instanceof String) pc.setQuickFoodId((String) data.get(QUICK_FOOD_ID));
+        if (data.get(BASE) instanceof Map) pc.base = decodeStats(asMap(data.get(BASE)));
+        for (Map.Entry<String, Object> e : entries(data.get(BAG))) {
+            long qty = asLong(e.getValue());
+            if (qty > 0) pc.bag.put(e.getKey(), (int) qty);
+        }
+        for (Map.Entry<String, Object> e : entries(data.get(CURRENCIES))) {
+            if (e.getValue() != null) pc.currencies.put(e.getKey(), asLong(e.getValue()));
+        }
+        for (Map.Entry<String, Object> e : entries(data.get(EQUIPMENT))) {
+            EquipmentSlot slot = asEnum(EquipmentSlot.class, e.getKey());
+            if (slot != null && e.getValue() instanceof String) pc.equipment.put(slot, (String) e.getValue());
+        }
+        for (Map.Entry<String, Object> e : entries(data.get(SKILLS))) {
+            SkillId id = asEnum(SkillId.class, e.getKey());
+            if (id != null && e.getValue() != null) pc.skills.put(id, (int) skillValue(e.getValue()));
+        }
+        try {
+            SaveMigrations.migrate(pc, (int) asLong(data.get(SaveMigrations.FIELD)));
+        } catch (IllegalArgumentException newer) {
+            throw new IOException(newer.getMessage(), newer);
+        }
+        return pc;
+    }
+
+    /* ---------- encoding ---------- */
+
+    private static void putChanged(Map<String, Object> out, String field, Map<String, Object> m) {
+        if (!m.isEmpty()) out.put(field, m);
+    }
+
+    /** Sets {@code field} if it changed (or always, without {@code diff}); null clears it. */
+    private void scalar(Map<String, Object> out, String field, @Nullable Object value, boolean diff) {
+        if (!diff || !Objects.equals(value, sentScalars.get(field))) out.put(field, value);
+        sentScalars.put(field, value);
+    }
+
+    private static <N extends Number> Map<String, Object> encodeCounts(Map<String, N> now, Map<String, Long> sent, boolean diff) {
+        Map<String, Object> out = new HashMap<>();
+        int present = 0;
+        for (Map.Entry<String, N> e : now.entrySet()) {
+            if (e.getValue() == null) continue;
+            present++;
+            Long v = e.getValue().longValue();
+            Long was = sent.put(e.getKey(), v);
+            if (!diff || !v.equals(was)) out.put(e.getKey(), v);
+        }
+        if (sent.size() > present) {
+            // Gone since the last send: 0 (a merge write can't drop a key)
+            for (Iterator<Map.Entry<String, Long>> it = sent.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Long> e = it.next();
+                if (now.get(e.getKey()) != null) continue;
+                if (e.getValue() != 0L) out.put(e.getKey(), 0L);
+                it.remove();
+            }
+        }
+        return out;
+    }
+
+    private Map<String, Object> encodeSkills(PlayerCharacter pc, boolean diff) {
+        Map<String, Object> out = new HashMap<>();
+        for (Map.Entry<SkillId, Integer> e : pc.skills.entrySet()) {
+            if (e.getValue() == null) continue;
+            Long v = e.getValue().longValue();
+            if (!diff || !v.equals(sentSkills.get(e.getKey()))) out.put(e.getKey().name(), v);
+            sentSkills.put(e.getKey(), v);
+        }
+        return out;
+    }
+
+    private Map<String, Object> encodeEquipment(PlayerCharacter pc, boolean diff) {
+        Map<String, Object> out = new HashMap<>();
+        for (EquipmentSlot slot : EquipmentSlot.values()) {
+            String id = pc.equipment != null ? pc.equipment.get(slot) : null;
+            String was = sentEquipment.get(slot);
+            if (id != null ? (!diff || !id.equals(was)) : was != null) out.put(slot.name(), id);
+            if (id != null) sentEquipment.put(slot, id);
+            else sentEquipment.remove(slot);
+        }
+        return out;
+    }
+
+    private static Map<String, Object> encodeStats(Stats s) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("attack", (long) s.attack);
+        m.put("defense", (long) s.defense);
+        m.put("speed", s.speed);
+        m.put("health", (long) s.health);
+        m.put("critChance", s.critChance);
+        m.put("critMultiplier", s.critMultiplier);
+        return m;
+    }
+
+    /* ---------- decoding ---------- */
+
+    private static Stats decodeStats(Map<String, Object> m) {
+        Stats b = new Stats();
+        b.attack = (int) asLong(m.get("attack"));
+        b.defense = (int) asLong(m.get("defense"));
+        b.speed = asDouble(m.get("speed"));
+        b.health = (int) asLong(m.get("health"));
+        b.critChance = asDouble(m.get("critChance"));
+        b.critMultiplier = asDouble(m.get("critMultiplier"));
+        return b;
+    }
+
+    /** XP, or an older build's {xp|exp|level} object (a level is left for the 0 → 1 migration). */
+    private static long skillValue(Object v) {
+        if (!(v instanceof Map)) return asLong(v);
+        Map<String, Object> m = asMap(v);
+        long xp = m.containsKey("xp") ? asLong(m.get("xp")) : -1;
+        long exp = m.containsKey("exp") ? asLong(m.get("exp")) : -1;
+        long level = m.containsKey("level") ? asLong(m.get("level")) : 1;
+        if (level <= 1 && m.containsKey("lvl")) level = asLong(m.get("lvl"));
+        long xpOrExp = xp >= 0 ? xp : Math.max(0, exp);
+        return xpOrExp > 0 ? xpOrExp : Math.max(1, level);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object v) {
+        return (Map<String, Object>) v;
+    }
+
+    private static Iterable<Map.Entry<String, Object>> entries(@Nullable Object v) {
+        return v instanceof Map ? asMap(v).entrySet() : Collections.<Map.Entry<String, Object>>emptySet();
+    }
+
+    /** A number, a numeric string or anything else (0); fractional values are truncated. */
+    private static long asLong(@Nullable Object v) {
+        if (v instanceof Number) return ((Number) v).longValue();
+        if (v instanceof String) {
+            String s = ((String) v).trim();
+            try { return Long.parseLong(s); } catch (NumberFormatException e) {
+                try { return (long) Double.parseDouble(s); } catch (NumberFormatException e2) { return 0L; }
+            }
+        }
+        return 0L;
+    }
+
+    private static double asDouble(@Nullable Object v) {
+        if (v instanceof Number) return ((Number) v).doubleValue();
+        if (v instanceof String) {
+            try { return Double.parseDouble(((String) v).trim()); } catch (NumberFormatException e) { return 0.0; }
+        }
+        return 0.0;
+    }
+
+    @Nullable
+    private static <E extends Enum<E>> E asEnum(Class<E> type, @Nullable Object v) {
+        if (!(v instanceof String)) return null;
+        try {
+            return Enum.valueOf(type, (String) v);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound cloud writes, kept on disk until the server acknowledges them (offline-first).
+ * - Writes are compacted as they arrive: a field set again replaces the older value, increments
+ *   to the same key add up, and an increment to a field that is about to be set is folded into
+ *   that value. A map merges into a map already queued for the field, key by key, as the server
+ *   would apply two merge writes. Offline, the queue grows with the number of distinct fields, not of changes.
+ * - A worker thread sends everything queued as one batch ({@link CloudStore#merge}) and sends
+ *   the next only once that one is acknowledged. A failed batch is merged back in front of what
+ *   queued up since and retried after an exponential backoff ({@code baseBackoffMs} doubling up
+ *   to {@code maxBackoffMs}; reset by a success).
+ * - Each batch also writes {@link #ACKS_FIELD}.&lt;queue id&gt; = batch id. A batch still in flight
+ *   when the process died is checked against that on the next start and only resent if the
+ *   server never applied it, so increments are not applied twice.
+ * - The file is only written on the worker thread: {@link #enqueue} and {@link #clear} update
+ *   memory and leave the write to it, so callers on the main thread never wait on disk.
+ * One queue per file; {@link #open} hands out the shared instance.
+ */
+public final class SyncQueue {
+    public static final String FILE_NAME = "sync.queue";
+    public static final String ACKS_FIELD = "syncAcks";
+    public static final long DEFAULT_BASE_BACKOFF_MS = 1_000L;
+    public static final long DEFAULT_MAX_BACKOFF_MS = 5 * 60_000L;
+
+    private static final String TAG = "SyncQueue";
+    private static final Map<String, SyncQueue> OPEN = new HashMap<>();
+
+    /** Compacted writes to one document. */
+    static final class Batch {
+        long id;
+        @Nullable String docId;
+        Map<String, Object> sets = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> increments = new LinkedHashMap<>();
+
+        boolean isEmpty() { return sets.isEmpty() && increments.isEmpty(); }
+
+        /** Distinct fields and increment keys held. */
+        int size() {
+            int n = sets.size();
+            for (Map<String, Long> m : increments.values()) n += m.size();
+            return n;
+        }
+
+        /** Like a merge write: a map value merges into one already set, keeping its other keys. */
+        @SuppressWarnings("unchecked")
+        void set(String field, @Nullable Object value) {
+            Object old = sets.get(field);
+            if (value instanceof Map && old instanceof Map) mergeInto((Map<String, Object>) old, (Map<String, Object>) value);
+            else sets.put(field, copy(value));
+            if (!(value instanceof Map)) {
+                increments.remove(field); // the new value already includes them
+                return;
+            }
+            Map<String, Long> inc = increments.get(field);
+            if (inc == null) return;
+            inc.keySet().removeAll(((Map<String, Object>) value).keySet());
+            if (inc.isEmpty()) increments.remove(field);
+        }
+
+        @SuppressWarnings("unchecked")
+        void increment(String field, String key, long delta) {
+            if (delta == 0) return;
+            Object set = sets.get(field);
+            if (set instanceof Map && ((Map<String, Object>) set).containsKey(key)) {
+                Map<String, Object> m = (Map<String, Object>) set;
+                m.put(key, add(m.get(key), delta));
+                return;
+            }
+            Map<String, Long> m = increments.get(field);
+            if (m == null) increments.put(field, m = new LinkedHashMap<>());
+            long sum = m.getOrDefault(key, 0L) + delta;
+            if (sum == 0) m.remove(key);
+            else m.put(key, sum);
+            if (m.isEmpty()) increments.remove(field);
+        }
+
+        /** Applies {@code newer} on top of this batch. */
+        void addAll(Batch newer) {
+            for (Map.Entry<String, Object> e : newer.sets.entrySet()) set(e.getKey(), e.getValue());
+            for (Map.Entry<String, Map<String, Long>> e : newer.increments.entrySet()) {
+                for (Map.Entry<String, Long> d : e.getValue().entrySet()) increment(e.getKey(), d.getKey(), d.getValue());
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static void mergeInto(Map<String, Object> target, Map<String, Object> src) {
+            for (Map.Entry<String, Object> e : src.entrySet()) {
+                Object old = target.get(e.getKey());
+                if (e.getValue() instanceof Map && old instanceof Map) {
+                    mergeInto((Map<String, Object>) old, (Map<String, Object>) e.getValue());
+                } else {
+                    target.put(e.getKey(), copy(e.getValue()));
+                }
+            }
+        }
+
+        private static Object add(@Nullable Object current, long delta) {
+            if (current instanceof Double || current instanceof Float) return ((Number) current).doubleValue() + delta;
+            if (current instanceof Number) return ((Number) current).longValue() + delta;
+            return delta;
+        }
+    }
+
+    /** What goes to disk. */
+    private static final class State {
+        String queueId;
+        long nextBatchId = 1;
+        @Nullable Batch inFlight;
+        Batch pending = new Batch();
+    }
+
+    private final File file;
+    private final CloudStore cloud;
+    private final String collection;
+    private final long baseBackoffMs, maxBackoffMs;
+    private final Gson gson = new Gson();
+    private final ScheduledExecutorService worker;
+    private final Object lock = new Object();
+    /** Held while writing the file; taken before lock, never the other way round. */
+    private final Object io = new Object();
+
+    private State state;
+    /** The in-flight batch was read from disk: whether the server has it is unknown. */
+    private boolean unconfirmed;
+    /** retryNow() came while a batch was out: if it fails, retry without waiting. */
+    private boolean retryRequested;
+    /** A persist() is queued on the worker; later changes ride along with it. */
+    private boolean persistQueued;
+    private int attempt;
+    private long nextAttemptAtMs;
+    @Nullable private ScheduledFuture<?> scheduled;
+    private long enqueued, sent, acked, failures;
+
+    /** The queue for {@code file}, opened on first use; later callers share it. */
+    public static SyncQueue open(File file, CloudStore cloud, String collection) {
+        synchronized (OPEN) {
+            SyncQueue q = OPEN.get(file.getAbsolutePath());
+            if (q == null) {
+                q = new SyncQueue(file, cloud, collection, DEFAULT_BASE_BACKOFF_MS, DEFAULT_MAX_BACKOFF_MS);
+                OPEN.put(file.getAbsolutePath(), q);
+            }
+            return q;
+        }
+    }
+
+    public SyncQueue(File file, CloudStore cloud, String collection, long baseBackoffMs, long maxBackoffMs) {
+        this.file = file;
+        this.cloud = cloud;
+        this.collection = collection;
+        this.baseBackoffMs = Math.max(1L, baseBackoffMs);
+        this.maxBackoffMs = Math.max(this.baseBackoffMs, maxBackoffMs);
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cloud-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        State s = read(file);
+        if (s == null) {
+            s = new State();
+            s.queueId = UUID.randomUUID().toString();
+        }
+        state = s;
+        unconfirmed = s.inFlight != null;
+        synchronized (lock) {
+            if (unconfirmed || !s.pending.isEmpty()) kick();
+        }
+    }
+
+    /**
+     * Queues a write to document {@code docId}: {@code sets} replace whole top-level fields,
+     * {@code increments} (field → key → delta) add to numeric ones. Writes queued for another
+     * document (a previous account) are dropped.
+     */
+    public void enqueue(String docId, Map<String, Object> sets, Map<String, Map<String, Long>> increments) {
+        if (sets.isEmpty() && increments.isEmpty()) return;
+        synchronized (lock) {
+            Batch p = state.pending;
+            if (p.docId != null && !p.docId.equals(docId) && !p.isEmpty()) {
+                Log.w(TAG, "Dropping " + p.size() + " queued writes for another account");
+                state.pending = p = new Batch();
+            }
+            p.docId = docId;
+            for (Map.Entry<String, Object> e : sets.entrySet()) p.set(e.getKey(), copy(e.getValue()));
+            for (Map.Entry<String, Map<String, Long>> e : increments.entrySet()) {
+                for (Map.Entry<String, Long> d : e.getValue().entrySet()) p.increment(e.getKey(), d.getKey(), d.getValue());
+            }
+            enqueued++;
+            persistLater();
+            kick();
+        }
+    }
+
+    /** Drops everything not yet sent (logout). A batch already sent may still land. */
+    public void clear() {
+        synchronized (lock) {
+            state.pending = new Batch();
+            if (unconfirmed) {
+                state.inFlight = null;
+                unconfirmed = false;
+            }
+            persistLater();
+        }
+    }
+
+    /** Skips the current backoff (e.g. connectivity came back). */
+    public void retryNow() {
+        synchronized (lock) {
+            nextAttemptAtMs = 0L;
+            retryRequested = state.inFlight != null;
+            if (scheduled != null) scheduled.cancel(false);
+            scheduled = null;
+            kick();
+        }
+    }
+
+    /**
+     * Fields and increment keys waiting, in flight included; a key in both counts once, as it
+     * would if the batch in flight failed and was merged back.
+     */
+    public int pendingSize() {
+        synchronized (lock) {
+            if (state.inFlight == null) return state.pending.size();
+            Batch all = new Batch();
+            all.addAll(state.inFlight);
+            all.addAll(state.pending);
+            return all.size();
+        }
+    }
+
+    public boolean isIdle() {
+        synchronized (lock) { return state.inFlight == null && state.pending.isEmpty(); }
+    }
+
+    public long enqueued() { synchronized (lock) { return enqueued; } }
+    public long sent() { synchronized (lock) { return sent; } }
+    public long acked() { synchronized (lock) { return acked; } }
+    public long failures() { synchronized (lock) { return failures; } }
+
+    /** Stops the worker; what is queued stays on disk for the next start. */
+    public void close() {
+        worker.shutdownNow();
+        try {
+            worker.awaitTermination(5, TimeUnit.SECONDS); // lets a write in progress finish
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean unsaved;
+        synchronized (lock) { unsaved = persistQueued; }
+        if (unsaved) persist();
+        synchronized (OPEN) { OPEN.remove(file.getAbsolutePath(), this); }
+    }
+
+    /* ---------- worker ---------- */
+
+    /** Schedules a drain for when the backoff allows, unless one is already scheduled. Holds lock. */
+    private void kick() {
+        if (scheduled != null) return;
+        long delay = Math.max(0L, nextAttemptAtMs - now());
+        try {
+            scheduled = worker.schedule(this::drain, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException closed) {
+            // close()d; the queue stays on disk
+        }
+    }
+
+    private void drain() {
+        Batch b;
+        synchronized (lock) {
+            scheduled = null;
+            if (state.inFlight != null) {
+                if (unconfirmed) confirm(state.inFlight);
+                return; // otherwise its callback schedules the next batch
+            }
+            if (state.pending.isEmpty()) return;
+            b = state.pending;
+            b.id = state.nextBatchId++;
+            state.inFlight = b;
+            state.pending = new Batch();
+        }
+        persist(); // before sending, so a restart knows this batch may have landed
+        send(b);
+    }
+
+    private void send(Batch b) {
+        Map<String, Object> fields = new HashMap<>(b.sets);
+        Map<String, Object> ack = new HashMap<>();
+        ack.put(state.queueId, b.id);
+        fields.put(ACKS_FIELD, ack);
+        synchronized (lock) { sent++; }
+        cloud.merge(collection, b.docId, fields, b.increments, new CloudStore.Callback<Void>() {
+            @Override public void onSuccess(Void result) { onWorker(() -> acknowledged(b)); }
+            @Override public void onFailure(Exception e) {
+                Log.w(TAG, "Sync batch " + b.id + " failed", e);
+                onWorker(() -> failed(b));
+            }
+        });
+    }
+
+    /** Asks the server whether a batch from before a restart was applied; resends it if not. */
+    private void confirm(Batch b) {
+        cloud.get(collection, b.docId, new CloudStore.Callback<CloudStore.Document>() {
+            @Override public void onSuccess(CloudStore.Document doc) {
+                onWorker(() -> {
+                    synchronized (lock) {
+                        if (state.inFlight != b) return;
+                        unconfirmed = false;
+                    }
+                    if (ackedBatch(doc) >= b.id) acknowledged(b);
+                    else send(b);
+                });
+            }
+
+            @Override public void onFailure(Exception e) {
+                Log.w(TAG, "Couldn't confirm sync batch " + b.id, e);
+                onWorker(() -> {
+                    synchronized (lock) {
+                        backOff();
+                        kick();
+                    }
+                });
+            }
+        });
+    }
+
+    private void acknowledged(Batch b) {
+        synchronized (lock) {
+            if (state.inFlight != b) return;
+            state.inFlight = null;
+            retryRequested = false;
+            attempt = 0;
+            nextAttemptAtMs = 0L;
+            acked++;
+            if (!state.pending.isEmpty()) kick();
+        }
+        persist();
+    }
+
+    private void failed(Batch b) {
+        synchronized (lock) {
+            if (state.inFlight != b) return;
+            state.inFlight = null;
+            failures++;
+            // Newer writes go on top of the failed ones
+            Batch newer = state.pending;
+            b.id = 0L;
+            if (newer.docId == null || newer.docId.equals(b.docId)) {
+                b.addAll(newer);
+                state.pending = b;
+            }
+            if (retryRequested) retryRequested = false;
+            else backOff();
+            kick();
+        }
+        persist();
+    }
+
+    /** Holds lock. */
+    private void backOff() {
+        attempt++;
+        long delay = baseBackoffMs << Math.min(attempt - 1, 30);
+        nextAttemptAtMs = now() + Math.min(maxBackoffMs, delay);
+    }
+
+    private long ackedBatch(CloudStore.Document doc) {
+        Object acks = doc.data.get(ACKS_FIELD);
+        if (!(acks instanceof Map)) return 0L;
+        Object v = ((Map<?, ?>) acks).get(state.queueId);
+        return v instanceof Number ? ((Number) v).longValue() : 0L;
+    }
+
+    private void onWorker(Runnable r) {
+        try {
+            worker.execute(r);
+        } catch (RejectedExecutionException closed) {
+            // close()d
+        }
+    }
+
+    /* ---------- disk ---------- */
+
+    /** Holds lock. Queues a write of the current state on the worker, unless one is queued. */
+    private void persistLater() {
+        if (persistQueued) return;
+        persistQueued = true;
+        try {
+            worker.execute(this::persist);
+        } catch (RejectedExecutionException closed) {
+            persistQueued = false; // close()d; like a drain, this stays in memory only
+        }
+    }
+
+    /**
+     * Worker thread (or close()). Copies the state under lock and writes it outside, through a
+     * temp file + rename, so a crash leaves the old or the new queue.
+     */
+    private void persist() {
+        synchronized (io) {
+            String json;
+            synchronized (lock) {
+                persistQueued = false;
+                json = gson.toJson(state);
+            }
+            write(json);
+        }
+    }
+
+    private void write(String json) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) throw new IOException("Can't create " + parent);
+            try (Writer w = new OutputStreamWriter(new FileOutputStream(tmp, false), StandardCharsets.UTF_8)) {
+                w.write(json);
+            }
+            if (!tmp.renameTo(file)) throw new IOException("Rename failed: " + file);
+        } catch (IOException e) {
+            Log.w(TAG, "Couldn't persist the sync queue", e); // still held in memory
+        }
+    }
+
+    @Nullable private State read(File f) {
+        if (!f.isFile()) return null;
+        try (Reader r = new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8)) {
+            State s = gson.fromJson(r, State.class);
+            if (s == null || s.queueId == null) return null;
+            if (s.pending == null) s.pending = new Batch();
+            normalize(s.pending);
+            if (s.inFlight != null) normalize(s.inFlight);
+            return s;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Discarding unreadable sync queue", e);
+            return null;
+        }
+    }
+
+    private static void normalize(Batch b) {
+        if (b.sets == null) b.sets = new LinkedHashMap<>();
+        if (b.increments == null) b.increments = new LinkedHashMap<>();
+        b.sets = new LinkedHashMap<>(JsonValues.integralToLong(b.sets));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copy(@Nullable Object v) {
+        if (v instanceof Map) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> e : ((Map<String, Object>) v).entrySet()) out.put(e.getKey(), copy(e.getValue()));
+            return out;
+        }
+        return v;
+    }
+
+    private static long now() { return System.nanoTime() / 1_000_000L; }
+}
@@ -1,8 +1,32 @@
 package com.obliviongatestudio.akthosidle.data.dtos;
 
 public class EventLedgerEntry {
+    // Compact progression events written by EventLedger.
+    public static final String TYPE_XP = "xp";             // key = SkillId name, amount = xp gained
+    public static final String TYPE_ITEM = "item";         // key = item id, amount = bag delta
+    public static final String TYPE_CURRENCY = "currency"; // key = currency code, amount = delta
+    public static final String TYPE_EQUIP = "equip";       // key = EquipmentSlot name, value = item id (null = unequip),
+                                                           // amount = EQUIP_BAG_LOGGED, or 0 if it also moves the bag items
+    public static final String TYPE_SLAYER = "slayer";     // key = monster id, amount = kills done (absolute)
+
+    /** Equip amount: the bag side was logged as separate item events (older ledgers have 0). */
+    public static final long EQUIP_BAG_LOGGED = 1L;
+
     public long id;
     public String type;       // e.g., "startJob", "finishJob", "fight"
     public String payloadJson;
     public long ts;
+
+    public String key;
+    public long amount;
+    public String value;
+
+    public EventLedgerEntry() { }
+
+    public EventLedgerEntry(String type, String key, long amount, String value) {
+        this.type = type;
+        this.key = key;
+        this.amount = amount;
+        this.value = value;
+    }
 }
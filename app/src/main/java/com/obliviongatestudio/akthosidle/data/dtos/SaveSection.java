@@ -0,0 +1,42 @@
+package com.obliviongatestudio.akthosidle.data.dtos;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/** Independently persisted parts of a save; a flush only rewrites the ones marked dirty. */
+public enum SaveSection {
+    BAG,
+    CURRENCIES,
+    SKILLS,
+    EQUIPMENT,
+    BASE,        // current HP, player exp, element, base stats
+    QUICK_FOOD,
+    SLAYER,
+    ENGINE,      // training skill, persisted battle, last seen
+    SYNC;        // this device's cloud merge state (PlayerCrdt)
+
+    /** Sections stored in PlayerCharacter (and mirrored to the cloud). */
+    public static final Set<SaveSection> PLAYER =
+            Collections.unmodifiableSet(EnumSet.range(BAG, QUICK_FOOD));
+
+    private static final Set<SaveSection> XP = Collections.unmodifiableSet(EnumSet.of(SKILLS));
+    private static final Set<SaveSection> ITEM = Collections.unmodifiableSet(EnumSet.of(BAG));
+    private static final Set<SaveSection> CURRENCY = Collections.unmodifiableSet(EnumSet.of(CURRENCIES));
+    private static final Set<SaveSection> EQUIP = Collections.unmodifiableSet(EnumSet.of(EQUIPMENT));
+    private static final Set<SaveSection> EQUIP_WITH_BAG = Collections.unmodifiableSet(EnumSet.of(EQUIPMENT, BAG));
+    private static final Set<SaveSection> SLAYER_ONLY = Collections.unmodifiableSet(EnumSet.of(SLAYER));
+
+    /** Sections a logged event changes (older equip events also moved bag items). */
+    public static Set<SaveSection> forEvent(EventLedgerEntry e) {
+        switch (e.type) {
+            case EventLedgerEntry.TYPE_XP: return XP;
+            case EventLedgerEntry.TYPE_ITEM: return ITEM;
+            case EventLedgerEntry.TYPE_CURRENCY: return CURRENCY;
+            case EventLedgerEntry.TYPE_EQUIP:
+                return e.amount == EventLedgerEntry.EQUIP_BAG_LOGGED ? EQUIP : EQUIP_WITH_BAG;
+            case EventLedgerEntry.TYPE_SLAYER: return SLAYER_ONLY;
+            default: throw new IllegalArgumentException("Unknown ledger event type: " + e.type);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.obliviongatestudio.akthosidle.data.dtos;
 
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 
 import com.obliviongatestudio.akthosidle.domain.model.Job;
@@ -12,6 +13,17 @@ public class Snapshot {
     public List<Object> inventory;
     public List<Job> jobs;
 
+    // Sectioned save; recovery = each section + EventLedger events after that section's seq.
+    public EnumMap<SaveSection, byte[]> sections = new EnumMap<>(SaveSection.class);
+    public EnumMap<SaveSection, Long> sectionSeqs = new EnumMap<>(SaveSection.class); // filled by load()
+    public long ledgerSeq;     // last ledger event the sections (or an older save) include
+    public long captureSeq;    // process-wide capture order; a store skips sections older than what it wrote (0 = unordered)
+
+    // Older whole-player saves, only until migrated (load() only)
+    public byte[] playerBytes; // PlayerCodec, one file
+    public String playerJson;  // Gson in SharedPreferences
+    public String slayerJson;
+
     public static Snapshot empty() {
         Snapshot s = new Snapshot();
         s.timestampMs = System.currentTimeMillis();
@@ -0,0 +1,144 @@
+package com.obliviongatestudio.akthosidle.data.loaders;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads and parses definition files (items, monsters, …) at the same time on a few threads, then
+ * runs a link step on the caller once all of them are in (cross-references need every file).
+ * - A file that can't be read or parsed logs a warning and yields its task's fallback.
+ * - Progress counts finished files plus the link step, reported in order from whichever thread
+ *   got there.
+ * Loading takes about as long as the slowest file rather than the sum.
+ */
+public final class DefinitionLoader {
+    private static final String TAG = "DefinitionLoader";
+    private static final int MAX_THREADS = 4;
+
+    /** Opens a definition file, e.g. from the app's assets. */
+    public interface Source {
+        InputStream open(String path) throws IOException;
+    }
+
+    public interface Parser<T> {
+        T parse(String json) throws Exception;
+    }
+
+    public interface Progress {
+        void onProgress(int done, int total);
+    }
+
+    /** One file; {@link #get} is its parsed value once {@link #load} returned. */
+    public static final class Task<T> {
+        final String path;
+        final Parser<T> parser;
+        final T fallback;
+        @Nullable private volatile T value;
+
+        Task(String path, Parser<T> parser, T fallback) {
+            this.path = path;
+            this.parser = parser;
+            this.fallback = fallback;
+        }
+
+        public T get() {
+            T v = value;
+            return v != null ? v : fallback;
+        }
+
+        /** False if the file was missing or broken (or loading was interrupted). */
+        public boolean loaded() { return value != null; }
+
+        void run(Source source) {
+            try (InputStream in = source.open(path)) {
+                value = parser.parse(readFully(in));
+            } catch (Exception e) {
+                Log.w(TAG, "Couldn't load " + path, e);
+            }
+        }
+    }
+
+    private final Source source;
+    private final List<Task<?>> tasks = new ArrayList<>();
+
+    public DefinitionLoader(Source source) {
+        this.source = source;
+    }
+
+    public <T> Task<T> add(String path, T fallback, Parser<T> parser) {
+        Task<T> t = new Task<>(path, parser, fallback);
+        tasks.add(t);
+        return t;
+    }
+
+    /**
+     * Loads every added file and then runs {@code link} on this thread. If interrupted while
+     * waiting, returns early with the files not finished yet at their fallbacks (link still runs).
+     */
+    public void load(@Nullable Runnable link, @Nullable Progress progress) {
+        int total = tasks.size() + 1;
+        AtomicInteger done = new AtomicInteger();
+        if (tasks.size() == 1) {
+            tasks.get(0).run(source);
+            finished(progress, done, total);
+        } else if (!tasks.isEmpty()) {
+            int threads = Math.min(tasks.size(), Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+                Thread t = new Thread(r, "definitions");
+                t.setDaemon(true);
+                return t;
+            });
+            CountDownLatch remaining = new CountDownLatch(tasks.size());
+            try {
+                for (Task<?> t : tasks) {
+                    pool.execute(() -> {
+                        try {
+                            t.run(source);
+                            finished(progress, done, total);
+                        } finally {
+                            remaining.countDown();
+                        }
+                    });
+                }
+                remaining.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                pool.shutdown();
+            }
+        }
+        if (link != null) link.run();
+        report(progress, total, total);
+    }
+
+    /** The whole stream as UTF-8 text (decoded once, so multi-byte characters can't be split). */
+    public static String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(4096, in.available()));
+        byte[] buf = new byte[8192];
+        for (int n; (n = in.read(buf)) != -1; ) out.write(buf, 0, n);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /** Counts and reports under one lock, so reports from different threads never go backwards. */
+    private static void finished(@Nullable Progress progress, AtomicInteger done, int total) {
+        synchronized (done) {
+            report(progress, done.incrementAndGet(), total);
+        }
+    }
+
+    private static void report(@Nullable Progress progress, int done, int total) {
+        if (progress != null) progress.onProgress(done, total);
+    }
+}
@@ -12,9 +12,29 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
 
+import com.obliviongatestudio.akthosidle.data.cloud.CloudStore;
+import com.obliviongatestudio.akthosidle.data.cloud.FirestoreCloudStore;
+import com.obliviongatestudio.akthosidle.data.cloud.InMemoryCloudStore;
+import com.obliviongatestudio.akthosidle.data.cloud.PlayerCrdt;
+import com.obliviongatestudio.akthosidle.data.cloud.PlayerDocument;
+import com.obliviongatestudio.akthosidle.data.cloud.SyncQueue;
+import com.obliviongatestudio.akthosidle.data.dtos.EventLedgerEntry;
 import com.obliviongatestudio.akthosidle.data.dtos.InventoryItem;
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
+import com.obliviongatestudio.akthosidle.data.dtos.Snapshot;
+import com.obliviongatestudio.akthosidle.data.loaders.DefinitionLoader;
+import com.obliviongatestudio.akthosidle.data.storage.CloudPatchBuffer;
+import com.obliviongatestudio.akthosidle.data.storage.EventLedger;
+import com.obliviongatestudio.akthosidle.data.storage.FileSnapshotStore;
+import com.obliviongatestudio.akthosidle.data.storage.PlayerCodec;
+import com.obliviongatestudio.akthosidle.data.storage.PlayerJsonLoader;
+import com.obliviongatestudio.akthosidle.data.storage.PrefsSnapshotStore;
+import com.obliviongatestudio.akthosidle.data.storage.SaveCoalescer;
+import com.obliviongatestudio.akthosidle.data.storage.SaveMigrations;
+import com.obliviongatestudio.akthosidle.data.storage.SnapshotStore;
 import com.obliviongatestudio.akthosidle.data.tracking.ExpTracker;
 import com.obliviongatestudio.akthosidle.domain.model.Action;
+import com.obliviongatestudio.akthosidle.domain.model.Drop;
 import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
 import com.obliviongatestudio.akthosidle.domain.model.Item;
 import com.obliviongatestudio.akthosidle.domain.model.Monster;
@@ -23,42 +43,53 @@ import com.obliviongatestudio.akthosidle.domain.model.Recipe;
 import com.obliviongatestudio.akthosidle.domain.model.RecipeIO;
 import com.obliviongatestudio.akthosidle.domain.model.ShopEntry;
 import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+import com.obliviongatestudio.akthosidle.domain.model.StatSheet;
 import com.obliviongatestudio.akthosidle.domain.model.Stats;
 import com.obliviongatestudio.akthosidle.domain.model.SlayerAssignment;
-import com.google.firebase.Timestamp;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentReference;
-import com.google.firebase.firestore.FieldValue;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.ListenerRegistration;
-import com.google.firebase.firestore.SetOptions;
+import com.obliviongatestudio.akthosidle.domain.rules.RngService;
+import com.obliviongatestudio.akthosidle.engine.combat.CombatReplay;
+import com.obliviongatestudio.akthosidle.engine.combat.OfflineReplay;
+import com.obliviongatestudio.akthosidle.engine.combat.ReplayVerifier;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 /** Central game repository (definitions + save + live state + Firestore sync). */
 public class GameRepository {
 
     private static final String SP_NAME = "akthos_idle_save";
-    private static final String KEY_PLAYER = "player_json";
     private static final String KEY_LAST_SEEN = "last_seen_ms";
     private static final String KEY_TRAIN_SKILL = "combat_training_skill";
-    private static final String KEY_SLAYER_JSON = "slayer_assignment_json";
-    private static final String KEY_LOCAL_UPDATED_AT = "player_updated_at_ms";
+    private static final String KEY_SLAYER_JSON = PrefsSnapshotStore.KEY_SLAYER_JSON;
+    private static final String KEY_BATTLE_MONSTER = "battle_monster_id";
+    private static final String KEY_BATTLE_SEEN_AT = "battle_seen_at_ms";
 
     private static final String ASSET_ITEMS    = "game/items.v1.json";
     private static final String ASSET_ACTIONS  = "game/actions.v1.json";
@@ -66,6 +97,10 @@ public class GameRepository {
     private static final String ASSET_SHOP     = "game/shop.v1.json";
     private static final String ASSET_SLAYER   = "game/slayer.v1.json";
     private static final String ASSET_RECIPES  = "game/recipes.v1.json";
+    private static final Type MONSTER_LIST = new TypeToken<List<Monster>>() {}.getType();
+    private static final Type ACTION_LIST = new TypeToken<List<Action>>() {}.getType();
+    private static final Type SHOP_LIST = new TypeToken<List<ShopEntry>>() {}.getType();
+    private static final Type RECIPE_LIST = new TypeToken<List<Recipe>>() {}.getType();
 
     private final Map<String, Recipe> recipes = new HashMap<>();
 
@@ -87,17 +122,25 @@ public class GameRepository {
     private final Map<String, Action> actions = new HashMap<>();
     private final List<ShopEntry> shop = new ArrayList<>();
 
-    private final Random rng = new Random();
+    private final Random rng = RngService.get().stream(RngService.SLAYER);
 
     // Runtime save
     private PlayerCharacter player;
 
+    // Memoized stats; see statSheet()
+    private int statsVersion = 0;
+    @Nullable private StatSheet statSheet;
+    @Nullable private PlayerCharacter statSheetOwner;
+    @Nullable private Stats buffStats;
+
     // Live data
     public final MutableLiveData<Map<String, Long>> currencyLive = new MutableLiveData<>(new HashMap<>());
     public final MutableLiveData<Integer> playerHpLive = new MutableLiveData<>();
 
-    // XP/hour tracker
+    // Rate trackers (per hour): XP by "skill:<id>", items by item id, currencies by code
     public final ExpTracker xpTracker = new ExpTracker();
+    public final ExpTracker itemTracker = new ExpTracker();
+    public final ExpTracker currencyTracker = new ExpTracker();
 
     // Gathering state
     public final MutableLiveData<Boolean> gatheringLive = new MutableLiveData<>(false);
@@ -112,6 +155,52 @@ public class GameRepository {
     // --- Toast throttling + coalescing ---
     private static final long TOAST_MIN_INTERVAL_MS = 1200L;
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // --- Local save (write-behind) ---
+    /** Minimum spacing between local player writes; bursts of save() calls collapse into one. */
+    public static final long SAVE_INTERVAL_MS = 1_000L;
+    private final SaveCoalescer saver = new SaveCoalescer("player", SAVE_INTERVAL_MS, this::writePlayerNow);
+    /** Wall-clock time of the latest save() request, stored as the local updatedAt. */
+    private volatile long saveRequestedAtMs;
+
+    // --- Event ledger (progression between snapshots) ---
+    /** Events logged since the last snapshot at which a logged change also schedules a new one. */
+    private static final int LEDGER_COMPACT_EVERY = 512;
+    private final SnapshotStore snapshots;
+    /** updatedAt of the snapshot on disk; -1 until read. */
+    private volatile long snapshotAtMs = -1L;
+    /** Orders section captures across every repository, so a stale one never overwrites a newer one. */
+    private static final AtomicLong CAPTURES = new AtomicLong();
+    /** Ledger sequence the newest section write covers. */
+    private volatile long snapshotSeq;
+    /** Null until the player is loaded, or if the file can't be opened (then every change saves). */
+    @Nullable private EventLedger ledger;
+    /** Held while applying+logging a change and while capturing a snapshot, so they never interleave. */
+    private final Object ledgerLock = new Object();
+    /** Sections changed since they were last written (guarded by ledgerLock). */
+    private final EnumSet<SaveSection> dirty = EnumSet.noneOf(SaveSection.class);
+    /** Player sections changed since the last cloud push; the first push after start sends all. */
+    private final EnumSet<SaveSection> cloudDirty = EnumSet.copyOf(SaveSection.PLAYER);
+    /** Ledger sequence each section on disk covers, and what its previous generation covers. */
+    private final EnumMap<SaveSection, Long> sectionSeqs = new EnumMap<>(SaveSection.class);
+    private final EnumMap<SaveSection, Long> previousSeqs = new EnumMap<>(SaveSection.class);
+    /**
+     * Newest ledger event this instance's player includes (guarded by ledgerLock). The ledger is
+     * shared by every repository in the process, so its lastSeq can be ahead of this player.
+     */
+    private long appliedSeq;
+    /** The assignment the SLAYER section holds (guarded by ledgerLock); read lazily. */
+    @Nullable private SlayerAssignment slayerState;
+    private boolean slayerLoaded;
+    /**
+     * ENGINE section: training skill, persisted battle and last-seen time, keyed like the
+     * SharedPreferences entries older builds used. Shared by every repository in the process
+     * (guarded by itself); read lazily.
+     */
+    private static final Map<String, String> engineState = new HashMap<>();
+    private static boolean engineLoaded;
+    /** SYNC section: per-device counters merged with other devices (guarded by ledgerLock); read lazily. */
+    @Nullable private PlayerCrdt crdt;
     @Nullable private Toast currentToast = null;
     private long nextAllowedToastAt = 0L;
     @Nullable private String deferredToastMsg = null;
@@ -128,21 +217,54 @@ public class GameRepository {
 
     // --- Cloud (Firestore) ---
     private static final String TAG = "GameRepository";
-    private final FirebaseAuth auth = FirebaseAuth.getInstance();
-    private final FirebaseFirestore fdb = FirebaseFirestore.getInstance();
-    @Nullable private ListenerRegistration cloudListener;
+    private static final String CLOUD_COLLECTION = "playerCharacters";
+    private final CloudStore cloud;
+    @Nullable private SyncQueue syncQueue;
+    @Nullable private CloudStore.Registration cloudListener;
     private static final long CLOUD_DEBOUNCE_MS = 500L;
+    private static final String FIELD_BAG = PlayerDocument.BAG;
+    private static final String FIELD_CURRENCIES = PlayerDocument.CURRENCIES;
+    /** Sections other devices' progress merges into (see {@link PlayerCrdt}). */
+    private static final Set<SaveSection> MERGED_SECTIONS =
+            Collections.unmodifiableSet(EnumSet.of(SaveSection.BAG, SaveSection.CURRENCIES, SaveSection.SKILLS));
+    /** Sections whose logged changes are pushed as increments, not by rewriting the section. */
+    private static final Set<SaveSection> INCREMENT_SECTIONS =
+            Collections.unmodifiableSet(EnumSet.of(SaveSection.BAG, SaveSection.CURRENCIES));
     @Nullable private Runnable cloudSaveRunnable = null;
+    /** Encodes pushes; remembers what was sent so a push carries only changed keys (guarded by ledgerLock). */
+    private final PlayerDocument cloudDoc = new PlayerDocument();
+    /** Bag/currency increments summed until the next push, which carries them in the same write. */
+    private final CloudPatchBuffer cloudPatch =
+            new CloudPatchBuffer(CloudPatchBuffer.DEFAULT_MAX_FIELDS);
+    // Finished fights since the last cloud push, re-simulated before the push goes out (main thread).
+    private static final int MAX_PENDING_REPLAYS = 256;
+    private final ArrayList<PendingReplay> pendingReplays = new ArrayList<>();
+    /** A batch is being re-simulated; the push waits for it (main thread). */
+    private boolean verifyingReplays;
+    /** Re-simulation runs here, off the main looper; one thread shared by every repository. */
+    private static final ExecutorService REPLAY_CHECKS = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "replay-verify");
+        t.setDaemon(true);
+        return t;
+    });
 
     public GameRepository(Context appContext) {
+        this(appContext, new FirestoreCloudStore());
+    }
+
+    /** {@code cloud} is where the player syncs to; an {@link InMemoryCloudStore} keeps it off the network. */
+    public GameRepository(Context appContext, CloudStore cloud) {
         this.app = appContext.getApplicationContext();
         this.sp = app.getSharedPreferences(SP_NAME, Context.MODE_PRIVATE);
+        this.snapshots = new FileSnapshotStore(saveDir(), new PrefsSnapshotStore(sp));
+        this.cloud = cloud;
     }
 
     /* ============================
      * HP helpers (single source of truth)
      * ============================ */
     private int maxHp(@NonNull PlayerCharacter pc) {
+        if (pc == player) return statSheet().maxHp();
         return Math.max(1, pc.totalStats(gearStats(pc)).health);
     }
 
@@ -158,7 +280,7 @@ public class GameRepository {
 
     private void setHpAndPublish(@NonNull PlayerCharacter pc, int newHp) {
         pc.currentHp = clampHp(pc, newHp);
-        save();
+        save(SaveSection.BASE);
         publishHp();
     }
 
@@ -166,116 +288,161 @@ public class GameRepository {
      * Load static definitions
      * ========================================================= */
     public void loadDefinitions() {
-        loadItemsFromAssets();
-        loadMonstersFromAssets();
-        loadActionsFromAssets();
-        loadSlayerFromAssets();
-        loadRecipesFromAssets();
-        loadShopFromAssets();
+        loadDefinitions(null);
+    }
+
+    /**
+     * Parses the definition files not loaded yet all at once (see {@link DefinitionLoader}), then
+     * links them: slayer regions keep the monsters that exist, and drops / recipe ids pointing at
+     * an alias of a known item are rewritten to it.
+     */
+    public void loadDefinitions(@Nullable DefinitionLoader.Progress progress) {
+        invalidateStats(); // gear stats come from item definitions
+        DefinitionLoader loader = new DefinitionLoader(app.getAssets()::open);
+        DefinitionLoader.Task<Map<String, Item>> itemsT = items.isEmpty()
+                ? loader.add(ASSET_ITEMS, Collections.<String, Item>emptyMap(), GameRepository::parseItems) : null;
+        DefinitionLoader.Task<List<Monster>> monstersT = monsters.isEmpty()
+                ? loader.add(ASSET_MONSTERS, Collections.<Monster>emptyList(), json -> parseList(json, MONSTER_LIST)) : null;
+        DefinitionLoader.Task<List<Action>> actionsT = actions.isEmpty()
+                ? loader.add(ASSET_ACTIONS, Collections.<Action>emptyList(), json -> parseList(json, ACTION_LIST)) : null;
+        DefinitionLoader.Task<List<Recipe>> recipesT = recipes.isEmpty()
+                ? loader.add(ASSET_RECIPES, Collections.<Recipe>emptyList(), this::parseRecipes) : null;
+        DefinitionLoader.Task<List<ShopEntry>> shopT = shop.isEmpty()
+                ? loader.add(ASSET_SHOP, Collections.<ShopEntry>emptyList(), json -> parseList(json, SHOP_LIST)) : null;
+        DefinitionLoader.Task<SlayerCfg> slayerT = slayerCfg == null
+                ? loader.add(ASSET_SLAYER, new SlayerCfg(), json -> gson.fromJson(json, SlayerCfg.class)) : null;
+        loader.load(() -> {
+            if (itemsT != null) items.putAll(itemsT.get());
+            if (monstersT != null) seedMonsters(monstersT.get());
+            if (actionsT != null) putActions(actionsT.get());
+            if (recipesT != null) putRecipes(recipesT.get());
+            if (shopT != null) shop.addAll(shopT.get());
+            if (slayerT != null && slayerT.loaded()) slayerCfg = slayerT.get();
+            linkDefinitions();
+        }, progress);
+    }
+
+    /** Cross-references between files, once all of them are in. */
+    private void linkDefinitions() {
+        buildSlayerRegions();
+        for (Monster m : monsters.values()) {
+            if (m.drops == null) continue;
+            for (Drop d : m.drops) if (d != null) d.itemId = knownItemId(d.itemId);
+        }
+        for (Recipe r : recipes.values()) {
+            if (r.inputs != null) for (RecipeIO io : r.inputs) if (io != null) io.id = knownItemId(io.id);
+            if (r.outputs != null) for (RecipeIO io : r.outputs) if (io != null) io.id = knownItemId(io.id);
+        }
+    }
+
+    /** {@code id}, or the item it is an alias of if only that one is defined. */
+    @Nullable
+    private String knownItemId(@Nullable String id) {
+        if (id == null || items.isEmpty() || items.containsKey(id)) return id;
+        String alias = resolveItemAlias(id);
+        if (items.containsKey(alias)) return alias;
+        String canonical = canonicalItemId(id);
+        return items.containsKey(canonical) ? canonical : id;
     }
 
     public void loadActionsFromAssets() {
         if (!actions.isEmpty()) return;
-        try (InputStream is = app.getAssets().open(ASSET_ACTIONS)) {
-            String json = readStream(is);
-            Type t = new TypeToken<List<Action>>() {}.getType();
-            List<Action> list = gson.fromJson(json, t);
-            if (list != null) for (Action a : list) if (a != null && a.id != null) actions.put(a.id, a);
+        try {
+            putActions(parseList(readAsset(ASSET_ACTIONS), ACTION_LIST));
         } catch (Exception ignored) {}
     }
 
+    private void putActions(@Nullable List<Action> list) {
+        if (list != null) for (Action a : list) if (a != null && a.id != null) actions.put(a.id, a);
+    }
+
     public void loadItemsFromAssets() {
         if (!items.isEmpty()) return;
-        try (InputStream is = app.getAssets().open(ASSET_ITEMS)) {
-            String json = readStream(is);
-            JSONObject root = new JSONObject(json);
-            JSONArray arr = root.optJSONArray("items");
-            if (arr != null) {
-                for (int i = 0; i < arr.length(); i++) {
-                    JSONObject o = arr.optJSONObject(i);
-                    if (o == null) continue;
-                    String id = o.optString("id", null);
-                    if (id == null || id.isEmpty()) continue;
-
-                    Item it = new Item();
-                    it.id   = id;
-                    it.name = o.optString("name", id);
-                    it.type = o.optString("type", "RESOURCE");
-                    if (it.type != null) it.type = it.type.toUpperCase();
-                    it.icon = o.optString("icon", null);
-                    it.slot = o.optString("slot", null);
-                    if (it.slot != null) it.slot = it.slot.toUpperCase();
-                    it.rarity = o.optString("rarity", null);
-                    if (o.has("heal")) it.heal = o.optInt("heal");
-
-                    JSONObject s = o.optJSONObject("stats");
-                    if (s != null) {
-                        it.stats = new Stats(
-                                s.optInt("attack", 0),
-                                s.optInt("defense", 0),
-                                s.optDouble("speed", 0.0),
-                                s.optInt("health", 0),
-                                s.optDouble("critChance", 0.0),
-                                s.optDouble("critMultiplier", 0.0)
-                        );
-                    }
+        try {
+            items.putAll(parseItems(readAsset(ASSET_ITEMS)));
+        } catch (Exception ignored) {}
+    }
 
-                    JSONObject sb = o.optJSONObject("skillBuffs");
-                    if (sb != null) {
-                        it.skillBuffs = new HashMap<>();
-                        JSONArray names = sb.names();
-                        if (names != null) {
-                            for (int k = 0; k < names.length(); k++) {
-                                String key = names.optString(k, null);
-                                if (key == null) continue;
-                                it.skillBuffs.put(key.toUpperCase(), sb.optInt(key, 0));
-                            }
+    private static Map<String, Item> parseItems(String json) throws JSONException {
+        Map<String, Item> out = new HashMap<>();
+        JSONObject root = new JSONObject(json);
+        JSONArray arr = root.optJSONArray("items");
+        if (arr != null) {
+            for (int i = 0; i < arr.length(); i++) {
+                JSONObject o = arr.optJSONObject(i);
+                if (o == null) continue;
+                String id = o.optString("id", null);
+                if (id == null || id.isEmpty()) continue;
+
+                Item it = new Item();
+                it.id   = id;
+                it.name = o.optString("name", id);
+                it.type = o.optString("type", "RESOURCE");
+                if (it.type != null) it.type = it.type.toUpperCase();
+                it.icon = o.optString("icon", null);
+                it.slot = o.optString("slot", null);
+                if (it.slot != null) it.slot = it.slot.toUpperCase();
+                it.rarity = o.optString("rarity", null);
+                if (o.has("heal")) it.heal = o.optInt("heal");
+
+                JSONObject s = o.optJSONObject("stats");
+                if (s != null) {
+                    it.stats = new Stats(
+                            s.optInt("attack", 0),
+                            s.optInt("defense", 0),
+                            s.optDouble("speed", 0.0),
+                            s.optInt("health", 0),
+                            s.optDouble("critChance", 0.0),
+                            s.optDouble("critMultiplier", 0.0)
+                    );
+                }
+
+                JSONObject sb = o.optJSONObject("skillBuffs");
+                if (sb != null) {
+                    it.skillBuffs = new HashMap<>();
+                    JSONArray names = sb.names();
+                    if (names != null) {
+                        for (int k = 0; k < names.length(); k++) {
+                            String key = names.optString(k, null);
+                            if (key == null) continue;
+                            it.skillBuffs.put(key.toUpperCase(), sb.optInt(key, 0));
                         }
                     }
-
-                    items.put(id, it);
                 }
-            }
-        } catch (Exception ignored) {}
-    }
 
-    private void loadMonstersFromAssets() {
-        if (!monsters.isEmpty()) return;
-        try (InputStream is = app.getAssets().open(ASSET_MONSTERS)) {
-            String json = readStream(is);
-            Type t = new TypeToken<List<Monster>>() {}.getType();
-            List<Monster> list = gson.fromJson(json, t);
-            if (list != null) {
-                for (Monster m : list) if (m != null && m.id != null) monsters.put(m.id, ensureMonsterDefaults(m));
+                out.put(id, it);
             }
-            if (slayerRegions.isEmpty() && !monsters.isEmpty()) {
-                slayerRegions.put("basecamp", new SlayerRegion("basecamp", "Basecamp", new ArrayList<>(monsters.keySet())));
-            }
-        } catch (Exception ignored) {}
+        }
+        return out;
     }
 
     public void loadShopFromAssets() {
         if (!shop.isEmpty()) return;
-        try (InputStream is = app.getAssets().open(ASSET_SHOP)) {
-            String json = readStream(is);
-            Type t = new TypeToken<List<ShopEntry>>() {}.getType();
-            List<ShopEntry> list = gson.fromJson(json, t);
+        try {
+            List<ShopEntry> list = parseList(readAsset(ASSET_SHOP), SHOP_LIST);
             if (list != null) shop.addAll(list);
         } catch (Exception ignored) {}
     }
 
-    private void loadRecipesFromAssets() {
-        if (!recipes.isEmpty()) return;
-        try (InputStream is = app.getAssets().open(ASSET_RECIPES)) {
-            String json = readStream(is);
-            JSONObject root = new JSONObject(json);
-            JSONArray arr = root.optJSONArray("recipes");
-            if (arr != null) {
-                Type tt = new com.google.gson.reflect.TypeToken<List<Recipe>>() {}.getType();
-                List<Recipe> list = new Gson().fromJson(arr.toString(), tt);
-                if (list != null) for (Recipe r : list) if (r != null && r.id != null) recipes.put(r.id, r);
-            }
-        } catch (Exception ignored) {}
+    private List<Recipe> parseRecipes(String json) throws JSONException {
+        JSONArray arr = new JSONObject(json).optJSONArray("recipes");
+        return arr != null ? parseList(arr.toString(), RECIPE_LIST) : Collections.<Recipe>emptyList();
+    }
+
+    private void putRecipes(@Nullable List<Recipe> list) {
+        if (list != null) for (Recipe r : list) if (r != null && r.id != null) recipes.put(r.id, r);
+    }
+
+    /** A JSON array of {@code listType}; never null. */
+    private <T> List<T> parseList(String json, Type listType) {
+        List<T> list = gson.fromJson(json, listType);
+        return list != null ? list : Collections.<T>emptyList();
+    }
+
+    private String readAsset(String path) throws IOException {
+        try (InputStream is = app.getAssets().open(path)) {
+            return DefinitionLoader.readFully(is);
+        }
     }
 
     @Nullable public Recipe getRecipe(String id) { return recipes.get(id); }
@@ -318,36 +485,24 @@ public class GameRepository {
         if (r == null || times <= 0) { toast("Invalid recipe"); return false; }
         if (!canCraft(recipeId, times)) { toast("Missing materials or level"); return false; }
 
-        PlayerCharacter pc = loadOrCreatePlayer();
-
+        Transaction tx = beginTransaction();
         if (r.inputs != null) {
             for (RecipeIO in : r.inputs) {
                 if (in == null || in.id == null || in.qty <= 0) continue;
-                String needId = resolveItemAlias(in.id);
-                int need = in.qty * times;
-                int have = pc.bag.getOrDefault(needId, 0);
-                if (have < need) { toast("Missing materials"); return false; }
-            }
-            for (RecipeIO in : r.inputs) {
-                if (in == null || in.id == null || in.qty <= 0) continue;
-                String needId = resolveItemAlias(in.id);
-                int need = in.qty * times;
-                int have = pc.bag.getOrDefault(needId, 0);
-                pc.bag.put(needId, have - need);
-                if (pc.bag.get(needId) != null && pc.bag.get(needId) <= 0) pc.bag.remove(needId);
+                tx.spendItem(resolveItemAlias(in.id), in.qty * times);
             }
         }
 
         if (r.outputs != null) {
             for (RecipeIO out : r.outputs) {
                 if (out == null || out.id == null || out.qty <= 0) continue;
-                pc.addItem(out.id, out.qty * times);
+                tx.addItem(out.id, out.qty * times);
             }
         }
 
-        if (r.xp > 0 && r.skill != null) addSkillExp(r.skill, r.xp * times);
+        if (r.xp > 0 && r.skill != null) tx.addSkillExp(r.skill, r.xp * times);
 
-        save();
+        if (!tx.tryCommit()) { toast("Missing materials"); return false; }
         toast("Crafted ×" + times + " " + (r.name != null ? r.name : r.id));
         return true;
     }
@@ -366,21 +521,14 @@ public class GameRepository {
         PlayerCharacter pc = loadOrCreatePlayer();
 
         if (r.inputs == null || r.inputs.isEmpty()) { toast("Recipe has no inputs"); return false; }
+        Transaction tx = beginTransaction();
         for (RecipeIO in : r.inputs) {
             if (in == null || in.id == null || in.qty <= 0) continue;
             String needId = resolveItemAlias(in.id);
             int need = Math.max(1, in.qty);
             int have = pc.bag.getOrDefault(needId, 0);
             if (have < need) { toast("Need " + itemName(needId) + " ×" + need); return false; }
-        }
-
-        for (RecipeIO in : r.inputs) {
-            if (in == null || in.id == null || in.qty <= 0) continue;
-            String needId = resolveItemAlias(in.id);
-            int need = Math.max(1, in.qty);
-            int have = pc.bag.getOrDefault(needId, 0);
-            pc.bag.put(needId, Math.max(0, have - need));
-            if (pc.bag.get(needId) != null && pc.bag.get(needId) <= 0) pc.bag.remove(needId);
+            tx.spendItem(needId, need);
         }
 
         int totalOut = 0;
@@ -388,15 +536,15 @@ public class GameRepository {
         if (r.outputs != null) {
             for (RecipeIO out : r.outputs) {
                 if (out == null || out.id == null || out.qty <= 0) continue;
-                pc.addItem(out.id, out.qty);
+                tx.addItem(out.id, out.qty);
                 totalOut += out.qty;
                 toastLabel = itemName(out.id);
             }
         }
 
-        if (r.xp > 0 && r.skill != null) addSkillExp(r.skill, r.xp);
+        if (r.xp > 0 && r.skill != null) tx.addSkillExp(r.skill, r.xp);
 
-        save();
+        if (!tx.tryCommit()) { toast("Missing materials"); return false; }
         if (totalOut > 0) toast("Cooked " + toastLabel + " ×" + totalOut);
         else toast("Crafted " + (r.name != null ? r.name : r.id));
         return true;
@@ -457,19 +605,16 @@ public class GameRepository {
         @Nullable KillCountCfg killCount;
     }
 
-    private void loadSlayerFromAssets() {
-        try (InputStream is = app.getAssets().open(ASSET_SLAYER)) {
-            String json = readStream(is);
-            slayerCfg = gson.fromJson(json, SlayerCfg.class);
-            if (slayerCfg != null && slayerCfg.regions != null) {
-                for (RegionCfg r : slayerCfg.regions) {
-                    if (r == null || r.id == null || r.label == null || r.monsters == null) continue;
-                    List<String> filtered = new ArrayList<>();
-                    for (String mid : r.monsters) if (monsters.containsKey(mid)) filtered.add(mid);
-                    if (!filtered.isEmpty()) slayerRegions.put(r.id, new SlayerRegion(r.id, r.label, filtered));
-                }
+    /** Regions from the slayer config, keeping only monsters that exist; "basecamp" (every monster) if none. */
+    private void buildSlayerRegions() {
+        if (slayerCfg != null && slayerCfg.regions != null) {
+            for (RegionCfg r : slayerCfg.regions) {
+                if (r == null || r.id == null || r.label == null || r.monsters == null) continue;
+                List<String> filtered = new ArrayList<>();
+                for (String mid : r.monsters) if (monsters.containsKey(mid)) filtered.add(mid);
+                if (!filtered.isEmpty()) slayerRegions.put(r.id, new SlayerRegion(r.id, r.label, filtered));
             }
-        } catch (Exception ignored) {}
+        }
 
         if (slayerRegions.isEmpty() && !monsters.isEmpty()) {
             slayerRegions.put("basecamp", new SlayerRegion("basecamp", "Basecamp", new ArrayList<>(monsters.keySet())));
@@ -547,22 +692,29 @@ public class GameRepository {
     /* ============================
      * Player Save / Load
      * ============================ */
-    private static int xpAtStartOfLevel(int lvl) {
-        int x = 0;
-        int L = Math.max(1, lvl);
-        for (int i = 1; i < L; i++) x += PlayerCharacter.xpForNextLevel(i);
-        return x;
-    }
-
     /** Wipe local JSON + transient Livedata and stop cloud sync (used when logging out or account deleted). */
     public void wipeLocalSave() {
         stopCloudSync();
         player = null;
-        sp.edit()
-                .remove(KEY_PLAYER)
-                .remove(KEY_SLAYER_JSON)
-                .remove(KEY_LOCAL_UPDATED_AT)
-                .apply();
+        saver.discardPending();
+        cloudPatch.clear();
+        syncQueue().clear();
+        synchronized (ledgerLock) {
+            dirty.clear();
+            sectionSeqs.clear();
+            previousSeqs.clear();
+            slayerState = null;
+            slayerLoaded = false;
+            crdt = null;
+            cloudDoc.reset();
+        }
+        snapshots.clear();
+        snapshotAtMs = 0L;
+        dropLedger();
+        // Engine run state isn't part of the player; write it back under the new save
+        boolean engineSet;
+        synchronized (engineState) { engineSet = !engineState.isEmpty(); }
+        if (engineSet) saveState(SaveSection.ENGINE);
         currencyLive.postValue(new HashMap<>());
         playerHpLive.postValue(null);
         pendingLoot.clear();
@@ -572,78 +724,80 @@ public class GameRepository {
     public PlayerCharacter loadOrCreatePlayer() {
         if (player != null) return player;
 
-        String json = sp.getString(KEY_PLAYER, null);
-        if (json != null) {
-            try {
-                Type t = new TypeToken<PlayerCharacter>() {}.getType();
-                player = gson.fromJson(json, t);
-            } catch (Exception parseFail) {
+        openLedger();
+        Snapshot snap = snapshots.load();
+        snapshotAtMs = snap != null ? snap.timestampMs : 0L;
+        long newestSeq = 0L;
+        synchronized (ledgerLock) {
+            sectionSeqs.clear();
+            previousSeqs.clear();
+            if (snap != null) {
+                for (SaveSection s : SaveSection.values()) {
+                    Long seq = snap.sectionSeqs.get(s);
+                    long v = seq != null ? seq : snap.ledgerSeq; // older saves cover every section at once
+                    sectionSeqs.put(s, v);
+                    previousSeqs.put(s, v);
+                    newestSeq = Math.max(newestSeq, v);
+                }
+            }
+        }
+        snapshotSeq = newestSeq;
+        if (snap != null) {
+            if (snap.playerBytes != null) {
                 try {
-                    JSONObject root = new JSONObject(json);
-                    JSONObject skills = root.optJSONObject("skills");
-                    if (skills != null) {
-                        JSONArray names = skills.names();
-                        if (names != null) {
-                            for (int i = 0; i < names.length(); i++) {
-                                String key = names.optString(i, null);
-                                if (key == null) continue;
-                                Object val = skills.opt(key);
-                                if (val instanceof JSONObject) {
-                                    JSONObject sobj = (JSONObject) val;
-                                    int xp = sobj.has("xp") ? sobj.optInt("xp", sobj.optInt("exp", 0)) : sobj.optInt("exp", 0);
-                                    if (xp <= 0) {
-                                        int lvl = Math.max(1, sobj.optInt("level", sobj.optInt("lvl", 1)));
-                                        xp = xpAtStartOfLevel(lvl);
-                                    }
-                                    skills.put(key, xp);
-                                } else if (val == JSONObject.NULL) {
-                                    skills.put(key, 0);
-                                } else if (val instanceof String) {
-                                    try { skills.put(key, Integer.parseInt((String) val)); }
-                                    catch (NumberFormatException ignored) { skills.put(key, 0); }
-                                }
-                            }
-                        }
-                    }
-                    Type t = new TypeToken<PlayerCharacter>() {}.getType();
-                    player = gson.fromJson(root.toString(), t);
-                } catch (Exception migrateFail) {
+                    player = PlayerCodec.decode(snap.playerBytes);
+                } catch (IOException e) {
+                    Log.w(TAG, "Player save unreadable", e);
+                    player = null;
+                }
+            } else if (snap.playerJson != null) {
+                // Legacy Gson save: migrated here once, then rewritten in the binary format
+                try {
+                    player = PlayerJsonLoader.load(snap.playerJson);
+                } catch (IOException e) {
+                    Log.w(TAG, "Legacy player save unreadable", e);
                     player = null;
                 }
             }
 
-            if (player != null) {
-                if (player.bag == null) player.bag = new HashMap<>();
-                if (player.equipment == null) player.equipment = new EnumMap<>(EquipmentSlot.class);
-                if (player.skills == null) player.skills = new EnumMap<>(SkillId.class);
-                if (player.currencies == null) player.currencies = new HashMap<>();
-                if (player.base == null) player.base = new Stats(12, 6, 0.0, 100, 0.05, 1.5);
-
-                player.migrateSkillsToXpIfNeeded();
-
-                if (player.base.health <= 0) player.base.health = 100;
-                if (player.base.critMultiplier < 1.0) player.base.critMultiplier = 1.5;
-                if (player.base.critChance < 0) player.base.critChance = 0;
-                if (player.base.critChance > 1) player.base.critChance = 1;
+            // Sections written by this build; an older save only fills in the ones not written yet
+            boolean sectioned = snap.sections.keySet().containsAll(SaveSection.PLAYER);
+            for (SaveSection s : SaveSection.PLAYER) {
+                byte[] bytes = snap.sections.get(s);
+                if (bytes == null) continue;
+                if (player == null) player = new PlayerCharacter();
+                try {
+                    PlayerCodec.decodeSection(player, s, bytes);
+                } catch (IOException e) {
+                    Log.w(TAG, "Save section " + s + " unreadable", e);
+                    sectioned = false;
+                }
+            }
 
-                player.normalizeCurrencies();
+            // Binary saves are always at the current schema: nothing to migrate or normalize
+            if (player != null) {
+                EnumSet<SaveSection> changed = replayLedger(player);
 
                 // Fix HP only if invalid; otherwise keep saved HP
                 int maxHpNow = maxHp(player);
                 Integer savedHp = player.currentHp;
                 if (savedHp == null || savedHp <= 0 || savedHp > maxHpNow) {
                     player.currentHp = maxHpNow;
+                    changed.add(SaveSection.BASE);
                 }
 
-                save();
+                if (!sectioned) changed.addAll(SaveSection.PLAYER); // migrate the whole save
+                if (!changed.isEmpty()) save(changed);
                 publishCurrencies();
                 publishHp();
-                loadSlayerFromSpIfPresent();
+                loadSlayerIfPresent();
                 return player;
             }
         }
 
-        // New player seed
+        // New player seed; anything still in the ledger belonged to a save that is gone
+        dropLedger();
+        synchronized (ledgerLock) { appliedSeq = ledger != null ? ledger.lastSeq() : 0L; }
         player = new PlayerCharacter();
         player.normalizeCurrencies();
 
@@ -660,26 +814,420 @@ public class GameRepository {
         save();
         publishCurrencies();
         publishHp();
-        loadSlayerFromSpIfPresent();
+        loadSlayerIfPresent();
         return player;
     }
 
-    private void loadSlayerFromSpIfPresent() {
+    private void loadSlayerIfPresent() {
         if (slayerLive.getValue() != null) return;
-        String s = sp.getString(KEY_SLAYER_JSON, null);
-        if (s != null) {
-            try { SlayerAssignment a = gson.fromJson(s, SlayerAssignment.class); publishSlayer(a); }
-            catch (Exception ignored) {}
+        SlayerAssignment a;
+        synchronized (ledgerLock) { a = slayerState(); }
+        if (a != null) publishSlayer(a);
+    }
+
+    /** Caller holds ledgerLock. Reads the SLAYER section (or the older prefs key) once. */
+    @Nullable private SlayerAssignment slayerState() {
+        if (slayerLoaded) return slayerState;
+        slayerLoaded = true;
+        byte[] bytes = snapshots.loadSection(SaveSection.SLAYER);
+        String json = bytes != null ? new String(bytes, StandardCharsets.UTF_8) : sp.getString(KEY_SLAYER_JSON, null);
+        try {
+            slayerState = json != null ? gson.fromJson(json, SlayerAssignment.class) : null;
+        } catch (Exception e) {
+            slayerState = null;
         }
+        if (bytes == null && slayerState != null) dirty.add(SaveSection.SLAYER); // migrate out of prefs
+        return slayerState;
     }
 
-    public void save() {
+    /** Caller holds ledgerLock. Reads the SYNC section once; a device without one starts unsynced. */
+    private PlayerCrdt crdt() {
+        if (crdt != null) return crdt;
+        byte[] bytes = snapshots.loadSection(SaveSection.SYNC);
+        try {
+            if (bytes != null) crdt = gson.fromJson(new String(bytes, StandardCharsets.UTF_8), PlayerCrdt.class);
+        } catch (Exception e) {
+            Log.w(TAG, "Sync state unreadable; rejoining", e);
+        }
+        if (crdt == null) crdt = new PlayerCrdt(UUID.randomUUID().toString());
+        return crdt;
+    }
+
+    /**
+     * Marks every player section dirty. The write happens on the persistence thread at most
+     * once per {@link #SAVE_INTERVAL_MS}; call {@link #flushSave()} when the app may be going away.
+     */
+    public void save() { save(SaveSection.PLAYER); }
+
+    /** Marks only the given sections dirty, so the next flush (and cloud push) rewrites just those. */
+    public void save(SaveSection first, SaveSection... rest) { save(EnumSet.of(first, rest)); }
+
+    private void save(Set<SaveSection> sections) {
         if (player == null) return;
-        sp.edit().putString(KEY_PLAYER, gson.toJson(player)).apply();
-        touchLocalUpdatedAt();
+        synchronized (ledgerLock) {
+            dirty.addAll(sections);
+            for (SaveSection s : sections) if (SaveSection.PLAYER.contains(s)) cloudDirty.add(s);
+        }
+        saveRequestedAtMs = System.currentTimeMillis();
+        saver.markDirty();
         cloudSavePlayerDebounced();
     }
 
+    /** Marks a section that lives outside the player (slayer, engine) dirty; no player needed. */
+    private void saveState(SaveSection section) {
+        synchronized (ledgerLock) { dirty.add(section); }
+        saver.markDirty();
+    }
+
+    /**
+     * Writes any pending save now and waits for it (onPause, onCleared, trim-memory). Covers
+     * every repository instance in the process, since screens create their own; this one's
+     * pending cloud push goes out now too.
+     */
+    public void flushSave() {
+        SaveCoalescer.flushAll();
+        flushCloudNow();
+    }
+
+    /** save() calls vs. actual disk writes since start, for measuring write amplification. */
+    public long saveRequests() { return saver.requests(); }
+    public long saveWrites() { return saver.writes(); }
+
+    public void setSaveIntervalMs(long ms) { saver.setMinIntervalMs(ms); }
+
+    /** Runs on the persistence thread. Throws (and is retried) if state changed mid-serialization. */
+    private void writePlayerNow() { writeSnapshot(player, saveRequestedAtMs); }
+
+    /**
+     * Writes the dirty sections, each covering the ledger events this player includes, then compacts the
+     * ledger: an event goes once every section it touches is covered by the previous generation
+     * too (so falling back a generation loses nothing). Serialization holds {@link #ledgerLock}
+     * so no logged change lands half in a section and half in the ledger tail. Player sections
+     * are skipped (and stay dirty) while {@code pc} is null. Each capture is numbered, and the
+     * store drops a section if a later capture of it is already on disk (e.g. the saver's write
+     * finishing after {@link #adoptCloudPlayer} wrote the remote player).
+     */
+    private void writeSnapshot(@Nullable PlayerCharacter pc, long updatedAtMs) {
+        EventLedger l = ledger;
+        Snapshot snap = new Snapshot();
+        EnumSet<SaveSection> taken = EnumSet.noneOf(SaveSection.class);
+        synchronized (ledgerLock) {
+            taken.addAll(dirty);
+            if (pc == null) taken.removeAll(SaveSection.PLAYER);
+            if (taken.isEmpty()) return;
+            snap.captureSeq = CAPTURES.incrementAndGet();
+            // An import replaces the player outright, so it covers everything logged so far
+            snap.ledgerSeq = l == null ? 0L : pc == player ? appliedSeq : l.lastSeq();
+            try {
+                for (SaveSection s : taken) snap.sections.put(s, encodeSection(pc, s));
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Player serialization raced a mutation; retrying", e);
+                throw e;
+            }
+            dirty.removeAll(taken);
+        }
+        snap.timestampMs = updatedAtMs;
+        try {
+            snapshots.save(snap);
+        } catch (RuntimeException e) {
+            synchronized (ledgerLock) { dirty.addAll(taken); }
+            throw e;
+        }
+        snapshotAtMs = updatedAtMs;
+        snapshotSeq = snap.ledgerSeq;
+        EnumMap<SaveSection, Long> covered;
+        synchronized (ledgerLock) {
+            for (SaveSection s : taken) {
+                Long cur = sectionSeqs.get(s);
+                previousSeqs.put(s, cur != null ? cur : 0L);
+                sectionSeqs.put(s, snap.ledgerSeq);
+            }
+            covered = new EnumMap<>(previousSeqs);
+        }
+        if (l != null) {
+            try {
+                l.compact(e -> {
+                    for (SaveSection s : SaveSection.forEvent(e)) {
+                        Long seq = covered.get(s);
+                        if (seq == null || e.id > seq) return true;
+                    }
+                    return false;
+                });
+            } catch (IOException e) {
+                Log.w(TAG, "Ledger compaction failed; the snapshot still covers it", e);
+            }
+        }
+    }
+
+    /** Caller holds ledgerLock; {@code pc} may only be null for non-player sections. */
+    private byte[] encodeSection(@Nullable PlayerCharacter pc, SaveSection s) {
+        switch (s) {
+            case SLAYER:
+                return gson.toJson(slayerState()).getBytes(StandardCharsets.UTF_8);
+            case ENGINE:
+                synchronized (engineState) {
+                    return gson.toJson(engineState()).getBytes(StandardCharsets.UTF_8);
+                }
+            case SYNC:
+                return gson.toJson(crdt()).getBytes(StandardCharsets.UTF_8);
+            default:
+                return PlayerCodec.encodeSection(pc, s);
+        }
+    }
+
+    /** The current player as Gson JSON (Settings → Export), including unflushed progress. */
+    public String exportPlayerJson() {
+        flushSave();
+        JsonObject o = gson.toJsonTree(loadOrCreatePlayer()).getAsJsonObject();
+        o.addProperty(SaveMigrations.FIELD, SaveMigrations.CURRENT);
+        return gson.toJson(o);
+    }
+
+    /**
+     * Replaces the local save with a JSON export (Settings → Import), migrating older exports.
+     * Takes effect on the next load ({@link #reloadPlayer()}); returns false if it doesn't parse
+     * as a player.
+     */
+    public boolean importPlayerJson(String json) {
+        PlayerCharacter pc;
+        try {
+            pc = PlayerJsonLoader.load(json);
+        } catch (IOException e) {
+            Log.w(TAG, "Import rejected", e);
+            return false;
+        }
+        openLedger();
+        player = null;
+        saver.discardPending();
+        synchronized (ledgerLock) { dirty.addAll(SaveSection.PLAYER); }
+        writeSnapshot(pc, System.currentTimeMillis());
+        dropLedger(); // older events belong to the replaced save
+        return true;
+    }
+
+    /**
+     * Loads the player again from disk and republishes it, so screens already bound to this
+     * repository see an import or wipe without restarting the app.
+     */
+    public PlayerCharacter reloadPlayer() {
+        player = null;
+        PlayerCharacter pc = loadOrCreatePlayer();
+        SlayerAssignment a;
+        synchronized (ledgerLock) {
+            slayerState = null;
+            slayerLoaded = false;
+            a = slayerState();
+        }
+        publishSlayer(a);
+        return pc;
+    }
+
+    /* ============================
+     * Event ledger
+     * ============================ */
+    private File saveDir() { return new File(app.getFilesDir(), "save"); }
+
+    private void openLedger() {
+        if (ledger != null) return;
+        try {
+            ledger = EventLedger.open(saveDir());
+        } catch (IOException e) {
+            Log.w(TAG, "Event ledger unavailable; saving full snapshots only", e);
+        }
+    }
+
+    /** Forgets every logged event (the save they belonged to was wiped or replaced). */
+    private void dropLedger() {
+        EventLedger l = ledger;
+        if (l == null) return;
+        try {
+            l.compact(l.lastSeq());
+        } catch (IOException e) {
+            Log.w(TAG, "Ledger reset failed", e);
+        }
+    }
+
+    /**
+     * Runs {@code change} and logs {@code events} for it as one step, then persists by appending
+     * to the ledger; the sections the events touch are only marked dirty, and a write is
+     * scheduled every {@link #LEDGER_COMPACT_EVERY} events. Saves those sections right away
+     * without a ledger. Bag and currency changes go to the cloud as increments.
+     */
+    private void applyLogged(Runnable change, List<EventLedgerEntry> events) {
+        applyLogged(null, change, events);
+    }
+
+    /** As above, but only if {@code guard} (checked under the same lock) passes; false if it didn't. */
+    private boolean applyLogged(@Nullable BooleanSupplier guard, Runnable change, List<EventLedgerEntry> events) {
+        EventLedger l = ledger;
+        boolean logged = false, full;
+        EnumSet<SaveSection> touched = EnumSet.noneOf(SaveSection.class);
+        for (EventLedgerEntry e : events) touched.addAll(SaveSection.forEvent(e));
+        synchronized (ledgerLock) {
+            if (l == null || events.isEmpty()) {
+                if (guard != null && !guard.getAsBoolean()) return false;
+                change.run();
+            } else {
+                synchronized (l) { // nobody else appends between catching up and our append
+                    catchUpLedger(l);
+                    if (guard != null && !guard.getAsBoolean()) return false;
+                    change.run();
+                    try {
+                        appliedSeq = l.append(events);
+                        logged = true;
+                    } catch (IOException e) {
+                        Log.w(TAG, "Ledger append failed; saving a snapshot instead", e);
+                    }
+                }
+            }
+            dirty.addAll(touched);
+            // Bag and currency deltas reach the cloud as increments, buffered with the change
+            // itself so a push never sees one without the other
+            full = bufferIncrements(events);
+            for (SaveSection s : touched) {
+                if (SaveSection.PLAYER.contains(s) && !INCREMENT_SECTIONS.contains(s)) cloudDirty.add(s);
+            }
+        }
+        saveRequestedAtMs = System.currentTimeMillis();
+        if (!logged || l.lastSeq() - snapshotSeq >= LEDGER_COMPACT_EVERY) saver.markDirty();
+        cloudPatchAdded(full);
+        return true;
+    }
+
+    /** Caller holds ledgerLock. Adds the bag/currency deltas of {@code events}; true if the buffer is full. */
+    private boolean bufferIncrements(List<EventLedgerEntry> events) {
+        boolean full = false;
+        for (EventLedgerEntry e : events) {
+            if (EventLedgerEntry.TYPE_ITEM.equals(e.type)) {
+                // aliases collapse to one field and sum there
+                full |= cloudPatch.add(FIELD_BAG, String.valueOf(canonicalItemId(e.key)), e.amount);
+            } else if (EventLedgerEntry.TYPE_CURRENCY.equals(e.type)) {
+                full |= cloudPatch.add(FIELD_CURRENCIES, e.key, e.amount);
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Applies events another repository logged since this one last appended, so our next snapshot
+     * really contains everything up to its stamp. Caller holds ledgerLock and {@code l}.
+     */
+    private void catchUpLedger(EventLedger l) {
+        PlayerCharacter pc = player;
+        if (pc == null || l.lastSeq() <= appliedSeq) return;
+        List<EventLedgerEntry> tail;
+        try {
+            tail = l.readAfter(appliedSeq);
+        } catch (IOException e) {
+            Log.w(TAG, "Ledger unreadable; not catching up", e);
+            return;
+        }
+        SlayerAssignment slayer = slayerState();
+        for (EventLedgerEntry e : tail) {
+            Set<SaveSection> sections = SaveSection.forEvent(e);
+            dirty.addAll(sections);
+            if (EventLedgerEntry.TYPE_SLAYER.equals(e.type)) {
+                if (slayer != null && e.key.equalsIgnoreCase(slayer.monsterId) && slayer.done < e.amount) {
+                    slayer.done = (int) e.amount;
+                }
+            } else {
+                applyLedgerEvent(pc, e, sections);
+            }
+        }
+        appliedSeq = l.lastSeq();
+        invalidateStats();
+    }
+
+    /**
+     * Re-applies changes logged after the sections were written (process died between saves).
+     * Each part of an event only goes to sections older than it. Returns the sections changed.
+     */
+    private EnumSet<SaveSection> replayLedger(PlayerCharacter pc) {
+        EnumSet<SaveSection> changed = EnumSet.noneOf(SaveSection.class);
+        EventLedger l = ledger;
+        if (l == null) return changed;
+        EnumMap<SaveSection, Long> seqs;
+        synchronized (ledgerLock) { seqs = new EnumMap<>(sectionSeqs); }
+        long from = Long.MAX_VALUE, newest = 0L;
+        for (long seq : seqs.values()) {
+            from = Math.min(from, seq);
+            newest = Math.max(newest, seq);
+        }
+        if (seqs.isEmpty()) from = 0L;
+        l.advanceTo(newest);
+        List<EventLedgerEntry> tail;
+        try {
+            tail = l.readAfter(from);
+        } catch (IOException e) {
+            Log.w(TAG, "Ledger unreadable; starting from the snapshot", e);
+            synchronized (ledgerLock) { appliedSeq = newest; }
+            return changed;
+        }
+        long last = tail.isEmpty() ? newest : Math.max(newest, tail.get(tail.size() - 1).id);
+        synchronized (ledgerLock) { appliedSeq = last; }
+        if (tail.isEmpty()) return changed;
+
+        SlayerAssignment slayer;
+        synchronized (ledgerLock) { slayer = slayerState(); }
+        int replayed = 0;
+        EnumSet<SaveSection> stale = EnumSet.noneOf(SaveSection.class);
+        for (EventLedgerEntry e : tail) {
+            stale.clear();
+            for (SaveSection s : SaveSection.forEvent(e)) {
+                Long seq = seqs.get(s);
+                if (seq == null || e.id > seq) stale.add(s);
+            }
+            if (stale.isEmpty()) continue;
+            replayed++;
+            if (EventLedgerEntry.TYPE_SLAYER.equals(e.type)) {
+                if (slayer != null && e.key.equalsIgnoreCase(slayer.monsterId) && slayer.done < e.amount) {
+                    slayer.done = (int) e.amount;
+                    changed.add(SaveSection.SLAYER);
+                }
+            } else {
+                applyLedgerEvent(pc, e, stale);
+                changed.addAll(stale);
+            }
+        }
+        invalidateStats();
+        Log.i(TAG, "Replayed " + replayed + " ledger events after #" + from);
+        return changed;
+    }
+
+    private static void applyLedgerEvent(PlayerCharacter pc, EventLedgerEntry e, Set<SaveSection> stale) {
+        try {
+            switch (e.type) {
+                case EventLedgerEntry.TYPE_XP:
+                    if (e.amount < 0) pc.removeSkillExp(SkillId.valueOf(e.key), (int) -e.amount);
+                    else pc.addSkillExp(SkillId.valueOf(e.key), (int) e.amount);
+                    break;
+                case EventLedgerEntry.TYPE_ITEM:
+                    pc.addItem(e.key, (int) e.amount);
+                    break;
+                case EventLedgerEntry.TYPE_CURRENCY:
+                    pc.addCurrency(e.key, e.amount);
+                    break;
+                case EventLedgerEntry.TYPE_EQUIP: {
+                    EquipmentSlot slot = EquipmentSlot.valueOf(e.key);
+                    String prev = pc.equipment.get(slot);
+                    if (stale.contains(SaveSection.EQUIPMENT)) {
+                        if (e.value != null) pc.equipment.put(slot, e.value);
+                        else pc.equipment.remove(slot);
+                    }
+                    if (stale.contains(SaveSection.BAG)) { // older events: the bag side wasn't logged
+                        if (e.value != null) pc.addItem(e.value, -1);
+                        if (prev != null) pc.addItem(prev, 1);
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        } catch (IllegalArgumentException unknownEnum) {
+            Log.w(TAG, "Skipping ledger event #" + e.id + " (" + e.type + " " + e.key + ")");
+        }
+    }
+
     /* ============================
      * Lookups & helpers
      * ============================ */
@@ -725,8 +1273,37 @@ public class GameRepository {
     }
 
     public Stats totalStats() {
+        return statSheet().total;
+    }
+
+    /* ============================
+     * Stat sheet (memoized)
+     * ============================ */
+    /**
+     * Cached stats + breakdown for the current player. Rebuilt only when the stats version moved
+     * (equip/unequip, skill level-up, buffs, definitions reload) or the player object was replaced.
+     */
+    public StatSheet statSheet() {
+        PlayerCharacter pc = loadOrCreatePlayer();
+        StatSheet sheet = statSheet;
+        if (sheet == null || sheet.version != statsVersion || statSheetOwner != pc) {
+            sheet = StatSheet.of(pc, gearStats(pc), buffStats, statsVersion);
+            statSheet = sheet;
+            statSheetOwner = pc;
+        }
+        return sheet;
+    }
+
+    /** Marks the cached stat sheet stale. */
+    public void invalidateStats() { statsVersion++; }
+
+    /** Flat stat bonuses from temporary buffs (potions, food); null clears them. */
+    public void setBuffStats(@Nullable Stats buffs) {
+        buffStats = buffs;
+        invalidateStats();
         PlayerCharacter pc = loadOrCreatePlayer();
-        return pc.totalStats(gearStats(pc));
+        if (pc.currentHp != null && pc.currentHp > maxHp(pc)) pc.currentHp = maxHp(pc);
+        publishHp();
     }
 
     private void addToBag(String id, int qty) {
@@ -743,9 +1320,8 @@ public class GameRepository {
         if (updates == null || updates.isEmpty()) return;
         PlayerCharacter pc = loadOrCreatePlayer();
 
-        // Track deltas so we can mirror to cloud incrementally
-        Map<String, Integer> deltas = new HashMap<>();
-
+        // Logged as deltas so the ledger and the cloud mirror see one batch
+        Transaction tx = beginTransaction();
         for (Map.Entry<String, Integer> e : updates.entrySet()) {
             String rawId = e.getKey();
             if (rawId == null) continue;
@@ -753,24 +1329,9 @@ public class GameRepository {
             String id = String.valueOf(canonicalItemId(rawId));
             int prev = pc.bag.getOrDefault(id, 0);
             int q = Math.max(0, e.getValue() == null ? 0 : e.getValue());
-
-            if (q == prev) continue; // no change
-
-            if (q == 0) pc.bag.remove(id);
-            else pc.bag.put(id, q);
-
-            deltas.put(id, q - prev);
-        }
-
-        if (deltas.isEmpty()) return; // nothing changed
-
-        save(); // persist all changes at once
-
-        // Mirror each change to Firestore incrementally
-        for (Map.Entry<String, Integer> d : deltas.entrySet()) {
-            int delta = d.getValue();
-            if (delta != 0) cloudIncrementBag(d.getKey(), delta);
+            tx.addItem(id, q - prev);
         }
+        tx.commit();
     }
 
     /* ============================
@@ -794,7 +1355,7 @@ public class GameRepository {
      * Combat training skill
      * ============================ */
     public @Nullable SkillId getCombatTrainingSkill() {
-        String s = sp.getString(KEY_TRAIN_SKILL, null);
+        String s = engineGet(KEY_TRAIN_SKILL);
         if (s != null) {
             try {
                 SkillId id = SkillId.valueOf(s);
@@ -805,9 +1366,9 @@ public class GameRepository {
     }
 
     public void setCombatTrainingSkill(@Nullable SkillId id) {
-        if (id == null) { sp.edit().remove(KEY_TRAIN_SKILL).apply(); return; }
+        if (id == null) { enginePut(KEY_TRAIN_SKILL, null); return; }
         if (!isCombatSkillEnum(id)) return;
-        sp.edit().putString(KEY_TRAIN_SKILL, id.name()).apply();
+        enginePut(KEY_TRAIN_SKILL, id.name());
     }
 
     private boolean isCombatSkillEnum(@Nullable SkillId id) {
@@ -830,23 +1391,192 @@ public class GameRepository {
      * ============================ */
     public void addPlayerExp(int amount) {
         if (amount <= 0) return;
-        save();
+        save(SaveSection.BASE);
         toast("+" + amount + " XP");
         xpTracker.note("combat", amount);
     }
 
     public boolean addSkillExp(SkillId id, int amount) {
         if (id == null || amount <= 0) return false;
-        PlayerCharacter pc = loadOrCreatePlayer();
-        boolean leveled = pc.addSkillExp(id, amount);
-        save();
-        xpTracker.note("skill:" + id.name().toLowerCase(), amount);
-        if (leveled) {
-            if (id == SkillId.HP) publishHp();
-            toast(id.name().charAt(0) + id.name().substring(1).toLowerCase() +
-                    " Lv " + pc.getSkillLevel(id) + "!");
+        return beginTransaction().addSkillExp(id, amount).commit();
+    }
+
+    /** Items gained per hour (all item ids) over {@code windowMs}, e.g. {@link ExpTracker#WINDOW_1H}. */
+    public double itemsPerHour(long windowMs) { return itemTracker.totalRatePerHour(windowMs); }
+
+    public double silverPerHour(long windowMs) {
+        return currencyTracker.ratePerHour(Collections.singleton("silver"), windowMs);
+    }
+
+    /* ============================
+     * Progression transactions
+     * ============================ */
+    /**
+     * Starts a batch of XP/item/currency grants and spends that is applied and logged as one step
+     * on commit, so a kill never keeps half of an operation.
+     */
+    public Transaction beginTransaction() { return new Transaction(); }
+
+    /**
+     * Collects progression changes in memory; {@link #commit()} applies them to the player and
+     * then saves, publishes LiveData and mirrors to the cloud exactly once (one save instead of
+     * one per XP grant / output / drop). Single use; not thread-safe.
+     */
+    public final class Transaction {
+        private final EnumMap<SkillId, Integer> xp = new EnumMap<>(SkillId.class);
+        private final Map<String, Integer> items = new HashMap<>();
+        private final Map<String, Long> currencies = new HashMap<>();
+        private final Map<String, Integer> needItems = new HashMap<>();
+        private final Map<String, Long> needCurrencies = new HashMap<>();
+        private final List<PendingLoot> pending = new ArrayList<>();
+        private final List<String> toasts = new ArrayList<>();
+        private boolean committed;
+
+        private Transaction() {}
+
+        public Transaction addSkillExp(@Nullable SkillId id, int amount) {
+            if (id != null && amount > 0) xp.merge(id, amount, Integer::sum);
+            return this;
+        }
+
+        /** Takes XP back (never below 0), e.g. what a fight that failed verification granted. */
+        public Transaction takeSkillExp(@Nullable SkillId id, int amount) {
+            if (id != null && amount > 0) xp.merge(id, -amount, Integer::sum);
+            return this;
+        }
+
+        public Transaction addItem(@Nullable String itemId, int qty) {
+            if (itemId != null && qty != 0) items.merge(itemId, qty, Integer::sum);
+            return this;
+        }
+
+        public Transaction addCurrency(@Nullable String code, long amount) {
+            if (code != null && amount != 0) currencies.merge(code, amount, Long::sum);
+            return this;
+        }
+
+        /** Takes {@code qty} of an item; {@link #tryCommit} applies nothing if the bag is short. */
+        public Transaction spendItem(@Nullable String itemId, int qty) {
+            if (itemId == null || qty <= 0) return this;
+            needItems.merge(itemId, qty, Integer::sum);
+            return addItem(itemId, -qty);
+        }
+
+        /** Takes {@code amount} of a currency; {@link #tryCommit} applies nothing if it can't be paid. */
+        public Transaction spendCurrency(@Nullable String code, long amount) {
+            if (code == null || amount <= 0) return this;
+            needCurrencies.merge(code, amount, Long::sum);
+            return addCurrency(code, -amount);
+        }
+
+        /** Gathering output: an item id or "currency:code" (currency gains are toasted). */
+        public Transaction grant(@Nullable String idOrCurrency, int qty) {
+            if (idOrCurrency == null || qty <= 0) return this;
+            if (idOrCurrency.startsWith("currency:")) {
+                String code = idOrCurrency.substring("currency:".length());
+                addCurrency(code, qty);
+                toasts.add("+" + qty + " " + capitalize(code));
+            } else {
+                addItem(idOrCurrency, qty);
+            }
+            return this;
+        }
+
+        /** Combat drops waiting in the loot panel. */
+        public Transaction addPendingLoot(@Nullable String itemId, @Nullable String name, int qty) {
+            if (itemId == null || qty <= 0) return this;
+            PendingLoot pl = new PendingLoot();
+            pl.id = itemId; pl.name = name != null ? name : itemId; pl.quantity = qty; pl.isCurrency = false;
+            pending.add(pl);
+            return this;
+        }
+
+        public Transaction addPendingCurrency(@Nullable String code, @Nullable String name, int qty) {
+            if (code == null || qty <= 0) return this;
+            PendingLoot pl = new PendingLoot();
+            pl.id = "currency:" + code; pl.name = name != null ? name : code; pl.quantity = qty; pl.isCurrency = true;
+            pending.add(pl);
+            return this;
+        }
+
+        /** Applies everything; returns true if any skill levelled up. */
+        public boolean commit() {
+            return apply() == Boolean.TRUE;
+        }
+
+        /** Applies everything unless a spend can't be covered (checked under the ledger lock). */
+        public boolean tryCommit() {
+            return apply() != null;
+        }
+
+        /** Null if a spend wasn't covered, else whether any skill levelled up. */
+        @Nullable
+        private Boolean apply() {
+            if (committed) throw new IllegalStateException("Transaction already committed");
+            committed = true;
+            if (xp.isEmpty() && items.isEmpty() && currencies.isEmpty() && pending.isEmpty()) return false;
+
+            PlayerCharacter pc = loadOrCreatePlayer();
+            List<SkillId> leveled = new ArrayList<>();
+            List<EventLedgerEntry> events = new ArrayList<>(xp.size() + items.size() + currencies.size());
+            for (Map.Entry<SkillId, Integer> e : xp.entrySet()) {
+                events.add(new EventLedgerEntry(EventLedgerEntry.TYPE_XP, e.getKey().name(), e.getValue(), null));
+            }
+            for (Map.Entry<String, Integer> e : items.entrySet()) {
+                events.add(new EventLedgerEntry(EventLedgerEntry.TYPE_ITEM, e.getKey(), e.getValue(), null));
+            }
+            for (Map.Entry<String, Long> e : currencies.entrySet()) {
+                events.add(new EventLedgerEntry(EventLedgerEntry.TYPE_CURRENCY, e.getKey(), e.getValue(), null));
+            }
+            BooleanSupplier covered = needItems.isEmpty() && needCurrencies.isEmpty() ? null : () -> canCover(pc);
+            boolean applied = applyLogged(covered, () -> {
+                for (Map.Entry<SkillId, Integer> e : xp.entrySet()) {
+                    if (e.getValue() < 0) pc.removeSkillExp(e.getKey(), -e.getValue());
+                    else if (pc.addSkillExp(e.getKey(), e.getValue())) leveled.add(e.getKey());
+                }
+                for (Map.Entry<String, Integer> e : items.entrySet()) pc.addItem(e.getKey(), e.getValue());
+                for (Map.Entry<String, Long> e : currencies.entrySet()) pc.addCurrency(e.getKey(), e.getValue());
+            }, events);
+            if (!applied) return null;
+            for (PendingLoot pl : pending) mergePendingLoot(pl); // session-only, not persisted
+            boolean xpTaken = false;
+            for (Map.Entry<SkillId, Integer> e : xp.entrySet()) {
+                if (e.getValue() > 0) xpTracker.note("skill:" + e.getKey().name().toLowerCase(), e.getValue());
+                else xpTaken = true;
+            }
+            if (!leveled.isEmpty() || xpTaken) invalidateStats();
+            for (Map.Entry<String, Integer> e : items.entrySet()) {
+                if (e.getValue() > 0) itemTracker.note(e.getKey(), e.getValue());
+            }
+            for (Map.Entry<String, Long> e : currencies.entrySet()) {
+                if (e.getValue() > 0) currencyTracker.note(e.getKey(), (int) Math.min(Integer.MAX_VALUE, e.getValue()));
+            }
+            if (!pending.isEmpty()) updatePendingLootLive();
+            if (!currencies.isEmpty() || hasPendingCurrency()) publishCurrencies();
+            if (leveled.contains(SkillId.HP)) publishHp();
+
+            for (String msg : toasts) toast(msg);
+            for (SkillId id : leveled) {
+                toast(id.name().charAt(0) + id.name().substring(1).toLowerCase() +
+                        " Lv " + pc.getSkillLevel(id) + "!");
+            }
+            return !leveled.isEmpty();
+        }
+
+        private boolean canCover(PlayerCharacter pc) {
+            for (Map.Entry<String, Integer> e : needItems.entrySet()) {
+                if (pc.bag.getOrDefault(e.getKey(), 0) < e.getValue()) return false;
+            }
+            for (Map.Entry<String, Long> e : needCurrencies.entrySet()) {
+                if (pc.getCurrency(e.getKey()) < e.getValue()) return false;
+            }
+            return true;
+        }
+
+        private boolean hasPendingCurrency() {
+            for (PendingLoot pl : pending) if (pl.isCurrency) return true;
+            return false;
         }
-        return leveled;
     }
 
     /* ============================
@@ -884,13 +1614,17 @@ public class GameRepository {
      * Slayer API
      * ============================ */
     private void publishSlayer(@Nullable SlayerAssignment a) { slayerLive.postValue(a); }
-    private void persistSlayerToSp(@Nullable SlayerAssignment a) {
-        SharedPreferences.Editor ed = sp.edit();
-        if (a == null) ed.remove(KEY_SLAYER_JSON);
-        else ed.putString(KEY_SLAYER_JSON, gson.toJson(a));
-        ed.apply();
+    private void persistSlayer(@Nullable SlayerAssignment a) {
+        synchronized (ledgerLock) {
+            slayerState = a;
+            slayerLoaded = true;
+        }
+        saveState(SaveSection.SLAYER);
+    }
+    public @Nullable SlayerAssignment getSlayerAssignment() {
+        loadSlayerIfPresent();
+        synchronized (ledgerLock) { return slayerState(); }
     }
-    public @Nullable SlayerAssignment getSlayerAssignment() { loadSlayerFromSpIfPresent(); return slayerLive.getValue(); }
 
     public void assignSlayerTask(String regionId, String monsterId, int required, int completionBonus, @Nullable String label) {
         Monster m = getMonster(monsterId);
@@ -899,7 +1633,7 @@ public class GameRepository {
                 regionId, monsterId, (label != null ? label : fallback),
                 Math.max(1, required), Math.max(0, completionBonus)
         );
-        persistSlayerToSp(a);
+        persistSlayer(a);
         publishSlayer(a);
         toast("Slayer task: " + a.label + " ×" + a.required);
     }
@@ -908,22 +1642,34 @@ public class GameRepository {
         assignSlayerTask("basecamp", monsterId, required, completionBonus, null);
     }
 
-    public void clearSlayerTask() { persistSlayerToSp(null); publishSlayer(null); }
+    public void clearSlayerTask() { persistSlayer(null); publishSlayer(null); }
 
-    public void onMonsterKilled(@Nullable String monsterId) {
-        if (monsterId == null) return;
+    public void onMonsterKilled(@Nullable String monsterId) { onMonstersKilled(monsterId, 1); }
+
+    /** Applies several kills of the same monster at once (offline catch-up) with one save/toast. */
+    public void onMonstersKilled(@Nullable String monsterId, int count) {
+        if (monsterId == null || count <= 0) return;
         SlayerAssignment a = getSlayerAssignment();
         if (a == null || a.isComplete()) return;
         if (!monsterId.equalsIgnoreCase(a.monsterId)) return;
 
+        int counted = Math.min(count, a.remaining());
         Monster m = getMonster(a.monsterId);
         if (m != null && m.slayerReward > 0) {
-            addCurrency("slayer", m.slayerReward);
-            toast("+" + m.slayerReward + " Slayer");
+            long reward = (long) m.slayerReward * counted;
+            addCurrency("slayer", reward);
+            toast("+" + reward + " Slayer");
         }
 
-        a.done = Math.max(0, a.done) + 1;
-        persistSlayerToSp(a);
+        int done = Math.max(0, a.done) + counted;
+        if (ledger == null) {
+            a.done = done;
+            persistSlayer(a);
+        } else {
+            // Progress is logged as an absolute count, so replaying it twice is harmless.
+            applyLogged(() -> a.done = done,
+                    Collections.singletonList(new EventLedgerEntry(EventLedgerEntry.TYPE_SLAYER, a.monsterId, done, null)));
+        }
         publishSlayer(a);
         if (a.isComplete()) toast("Task complete — claim your reward!");
     }
@@ -1052,11 +1798,9 @@ public class GameRepository {
 
     public void consumeFood(String foodId) {
         PlayerCharacter pc = loadOrCreatePlayer();
-        Integer have = pc.bag.get(foodId);
-        if (have == null || have <= 0) return;
-
         Item it = getItem(foodId);
         if (it == null || !isFood(it) || it.heal == null || it.heal <= 0) return;
+        if (!beginTransaction().spendItem(foodId, 1).tryCommit()) return;
 
         int before = curHp(pc);
         int after  = Math.min(maxHp(pc), before + it.heal);
@@ -1069,10 +1813,7 @@ public class GameRepository {
             toast("HP already full");
         }
 
-        pc.bag.put(foodId, have - 1);
-        if (pc.bag.get(foodId) != null && pc.bag.get(foodId) <= 0) pc.bag.remove(foodId);
-
-        save();
+        save(SaveSection.BASE);
         publishHp();
     }
 
@@ -1095,10 +1836,9 @@ public class GameRepository {
 
     public void consumePotion(String potionId) {
         PlayerCharacter pc = loadOrCreatePlayer();
-        Integer have = pc.bag.get(potionId);
-        if (have == null || have <= 0) return;
         Item it = getItem(potionId);
         if (it == null || !isPotion(it)) return;
+        if (!beginTransaction().spendItem(potionId, 1).tryCommit()) return;
 
         if (it.heal != null && it.heal > 0) {
             int before = curHp(pc);
@@ -1107,9 +1847,7 @@ public class GameRepository {
             pc.currentHp = after;
             toast(healed > 0 ? ("+" + healed + " HP") : "HP already full");
         }
-        pc.bag.put(potionId, have - 1);
-        if (pc.bag.get(potionId) != null && pc.bag.get(potionId) <= 0) pc.bag.remove(potionId);
-        save();
+        save(SaveSection.BASE);
         publishHp();
     }
 
@@ -1126,6 +1864,7 @@ public class GameRepository {
             }
         }
         if (syrupId == null) { toast("No syrup available"); return; }
+        if (!beginTransaction().spendItem(syrupId, 1).tryCommit()) return;
 
         Item syrup = getItem(syrupId);
         boolean didSomething = false;
@@ -1144,12 +1883,7 @@ public class GameRepository {
         }
 
         if (didSomething) {
-            Integer have = pc.bag.get(syrupId);
-            if (have != null) {
-                pc.bag.put(syrupId, have - 1);
-                if (pc.bag.get(syrupId) != null && pc.bag.get(syrupId) <= 0) pc.bag.remove(syrupId);
-            }
-            save();
+            save(SaveSection.BASE);
             publishHp();
         }
     }
@@ -1167,16 +1901,21 @@ public class GameRepository {
         Integer have = pc.bag.get(itemId);
         if (have == null || have <= 0) { toast("You don't have that item"); return false; }
 
-        pc.bag.put(itemId, have - 1);
-        if (pc.bag.get(itemId) != null && pc.bag.get(itemId) <= 0) pc.bag.remove(itemId);
-
-        String prev = pc.equipment.put(slot, itemId);
-        if (prev != null) pc.addItem(prev, 1);
+        String prev = pc.equipment.get(slot);
+        List<EventLedgerEntry> events = new ArrayList<>(3);
+        events.add(new EventLedgerEntry(EventLedgerEntry.TYPE_EQUIP, slot.name(), EventLedgerEntry.EQUIP_BAG_LOGGED, itemId));
+        events.add(new EventLedgerEntry(EventLedgerEntry.TYPE_ITEM, itemId, -1, null));
+        if (prev != null) events.add(new EventLedgerEntry(EventLedgerEntry.TYPE_ITEM, prev, 1, null));
+        applyLogged(() -> {
+            pc.addItem(itemId, -1);
+            pc.equipment.put(slot, itemId);
+            if (prev != null) pc.addItem(prev, 1);
+        }, events);
+        invalidateStats();
 
         int m = maxHp(pc);
         pc.currentHp = (pc.currentHp == null) ? m : Math.min(pc.currentHp, m);
 
-        save();
         publishHp();
         toast("Equipped " + itemName(itemId));
         return true;
@@ -1185,15 +1924,20 @@ public class GameRepository {
     public boolean unequip(EquipmentSlot slot) {
         PlayerCharacter pc = loadOrCreatePlayer();
         if (slot == null) return false;
-        String prev = pc.equipment.remove(slot);
+        String prev = pc.equipment.get(slot);
         if (prev == null) return false;
 
-        pc.addItem(prev, 1);
+        applyLogged(() -> {
+            pc.equipment.remove(slot);
+            pc.addItem(prev, 1);
+        }, Arrays.asList(
+                new EventLedgerEntry(EventLedgerEntry.TYPE_EQUIP, slot.name(), EventLedgerEntry.EQUIP_BAG_LOGGED, null),
+                new EventLedgerEntry(EventLedgerEntry.TYPE_ITEM, prev, 1, null)));
+        invalidateStats();
 
         int m = maxHp(pc);
         pc.currentHp = (pc.currentHp == null) ? m : Math.min(pc.currentHp, m);
 
-        save();
         publishHp();
         toast("Unequipped " + itemName(prev));
         return true;
@@ -1266,39 +2010,23 @@ public class GameRepository {
 
     public void addPendingCurrency(String code, String name, int qty) {
         if (qty <= 0) return;
-        String id = "currency:" + code;
-        for (PendingLoot pl : pendingLoot) {
-            if (pl.isCurrency && id.equals(pl.id)) {
-                pl.quantity += qty;
-                updatePendingLootLive();
-                save();
-                publishCurrencies();
-                return;
-            }
-        }
-        PendingLoot pl = new PendingLoot();
-        pl.id = id; pl.name = name != null ? name : code; pl.quantity = qty; pl.isCurrency = true;
-        pendingLoot.add(pl);
-        updatePendingLootLive();
-        save();
-        publishCurrencies();
+        beginTransaction().addPendingCurrency(code, name, qty).commit();
     }
 
     public void addPendingLoot(String itemId, String name, int qty) {
         if (itemId == null || qty <= 0) return;
+        beginTransaction().addPendingLoot(itemId, name, qty).commit();
+    }
+
+    /** Stacks {@code add} onto a matching pending entry (same id and kind) or appends it. */
+    private void mergePendingLoot(PendingLoot add) {
         for (PendingLoot pl : pendingLoot) {
-            if (!pl.isCurrency && itemId.equals(pl.id)) {
-                pl.quantity += qty;
-                updatePendingLootLive();
-                save();
+            if (pl.isCurrency == add.isCurrency && add.id.equals(pl.id)) {
+                pl.quantity += add.quantity;
                 return;
             }
         }
-        PendingLoot pl = new PendingLoot();
-        pl.id = itemId; pl.name = (name != null ? name : itemId); pl.quantity = qty; pl.isCurrency = false;
-        pendingLoot.add(pl);
-        updatePendingLootLive();
-        save();
+        pendingLoot.add(add);
     }
 
     private void updatePendingLootLive() {
@@ -1316,31 +2044,29 @@ public class GameRepository {
     }
 
     public void collectPendingLoot() {
-        PlayerCharacter pc = loadOrCreatePlayer();
+        Transaction tx = beginTransaction();
         for (PendingLoot pl : pendingLoot) {
             if (pl.isCurrency) {
                 String code = (pl.id != null && pl.id.startsWith("currency:"))
                         ? pl.id.substring("currency:".length()) : pl.id;
-                pc.addCurrency(code, pl.quantity);
-                cloudIncrementCurrency(code, pl.quantity);
+                tx.addCurrency(code, pl.quantity);
             } else {
-                pc.addItem(pl.id, pl.quantity);
-                cloudIncrementBag(pl.id, pl.quantity);
+                tx.addItem(pl.id, pl.quantity);
             }
         }
         pendingLoot.clear();
         updatePendingLootLive();
-        save();
-        publishCurrencies();
+        tx.commit();
     }
 
     public synchronized void collectPendingLoot(PlayerCharacter pc) {
         List<InventoryItem> cur = pendingLootLive.getValue();
         if (cur == null) cur = new ArrayList<>();
-        for (InventoryItem it : cur) pc.addItem(it.id, it.quantity);
+        Transaction tx = beginTransaction();
+        for (InventoryItem it : cur) tx.addItem(it.id, it.quantity);
         pendingLoot.removeIf(pl -> !pl.isCurrency);
         updatePendingLootLive();
-        save();
+        tx.commit();
         publishCurrencies();
     }
 
@@ -1349,10 +2075,7 @@ public class GameRepository {
      * ============================ */
     public void grantGatheredItem(String itemId, int qty) {
         if (itemId == null || qty <= 0) return;
-        PlayerCharacter pc = loadOrCreatePlayer();
-        pc.addItem(itemId, qty);
-        save();
-        cloudIncrementBag(itemId, qty);
+        beginTransaction().addItem(itemId, qty).commit();
     }
 
     public void grantGatheredCurrency(String code, long amount) {
@@ -1361,14 +2084,10 @@ public class GameRepository {
         toast("+" + amount + " " + capitalize(code));
     }
 
+    /** Single output; a full gathering cycle should batch its outputs in one {@link Transaction}. */
     public void grantGathered(String idOrCurrency, int qty, @Nullable String displayNameHint) {
         if (idOrCurrency == null || qty <= 0) return;
-        if (idOrCurrency.startsWith("currency:")) {
-            String code = idOrCurrency.substring("currency:".length());
-            grantGatheredCurrency(code, qty);
-        } else {
-            grantGatheredItem(idOrCurrency, qty);
-        }
+        beginTransaction().grant(idOrCurrency, qty).commit();
     }
 
     /* ============================
@@ -1419,20 +2138,16 @@ public class GameRepository {
         long needGold = (long)(se.priceGold == null ? 0 : se.priceGold) * qty;
         long needSilver = (long)(se.priceSilver == null ? 0 : se.priceSilver) * qty;
 
-        long haveGold = getCurrency("gold");
-        long haveSilver = getCurrency("silver");
-        if (haveGold < needGold || haveSilver < needSilver) {
+        boolean paid = beginTransaction()
+                .spendCurrency("gold", needGold)
+                .spendCurrency("silver", needSilver)
+                .addItem(itemId, qty)
+                .tryCommit();
+        if (!paid) {
             toast("Not enough funds");
             return false;
         }
 
-        if (needGold > 0) spendCurrency("gold", needGold);
-        if (needSilver > 0) spendCurrency("silver", needSilver);
-
-        PlayerCharacter pc = loadOrCreatePlayer();
-        pc.addItem(itemId, qty);
-        save();
-
         Item def = getItem(itemId);
         String name = def != null && def.name != null ? def.name : itemId;
         toast("Bought +" + qty + "× " + name);
@@ -1444,18 +2159,14 @@ public class GameRepository {
         ShopEntry se = findShopByItem(itemId);
         if (se == null) { toast("Can't sell here"); return false; }
 
-        PlayerCharacter pc = loadOrCreatePlayer();
-        int have = pc.bag.getOrDefault(itemId, 0);
-        if (have < qty) { toast("Not enough in bag"); return false; }
-
-        pc.bag.put(itemId, have - qty);
-        if (pc.bag.get(itemId) != null && pc.bag.get(itemId) <= 0) pc.bag.remove(itemId);
-
         long goldBack   = Math.max(0, (long)Math.floor(0.25 * (se.priceGold   == null ? 0 : se.priceGold)   * qty));
         long silverBack = Math.max(0, (long)Math.floor(0.25 * (se.priceSilver == null ? 0 : se.priceSilver) * qty));
-        if (goldBack   > 0) addCurrency("gold", goldBack);
-        if (silverBack > 0) addCurrency("silver", silverBack);
-        save();
+        boolean sold = beginTransaction()
+                .spendItem(itemId, qty)
+                .addCurrency("gold", goldBack)
+                .addCurrency("silver", silverBack)
+                .tryCommit();
+        if (!sold) { toast("Not enough in bag"); return false; }
 
         Item def = getItem(itemId);
         String name = def != null && def.name != null ? def.name : itemId;
@@ -1469,22 +2180,12 @@ public class GameRepository {
     public long getCurrency(String id) { return loadOrCreatePlayer().getCurrency(id); }
 
     public void addCurrency(String id, long amount) {
-        PlayerCharacter pc = loadOrCreatePlayer();
-        pc.addCurrency(id, amount);
-        save();
-        publishCurrencies();
-        cloudIncrementCurrency(id, amount);
+        beginTransaction().addCurrency(id, amount).commit();
     }
 
     public boolean spendCurrency(String id, long amount) {
-        PlayerCharacter pc = loadOrCreatePlayer();
-        boolean ok = pc.spendCurrency(id, amount);
-        if (ok) {
-            save();
-            publishCurrencies();
-            cloudIncrementCurrency(id, -amount);
-        }
-        return ok;
+        if (amount <= 0) return true;
+        return beginTransaction().spendCurrency(id, amount).tryCommit();
     }
 
     public List<InventoryItem> listCurrencies() {
@@ -1512,8 +2213,203 @@ public class GameRepository {
     /* ============================
      * Offline timestamps
      * ============================ */
-    public void setLastSeen(long ms) { sp.edit().putLong(KEY_LAST_SEEN, ms).apply(); }
-    public long getLastSeen() { return sp.getLong(KEY_LAST_SEEN, System.currentTimeMillis()); }
+    public void setLastSeen(long ms) { enginePut(KEY_LAST_SEEN, String.valueOf(ms)); }
+    public long getLastSeen() { return engineLong(KEY_LAST_SEEN, System.currentTimeMillis()); }
+
+    /* ============================
+     * Battle run (offline combat catch-up)
+     * ============================ */
+    /** Remembers that an auto-fight loop against {@code monsterId} was active at {@code atMs} (wall clock). */
+    public void persistBattleRun(@Nullable String monsterId, long atMs) {
+        if (monsterId == null) { clearBattleRun(); return; }
+        synchronized (engineState) {
+            engineState().put(KEY_BATTLE_MONSTER, monsterId);
+            engineState.put(KEY_BATTLE_SEEN_AT, String.valueOf(atMs));
+        }
+        saveState(SaveSection.ENGINE);
+    }
+
+    public void clearBattleRun() {
+        synchronized (engineState) {
+            engineState().remove(KEY_BATTLE_MONSTER);
+            engineState.remove(KEY_BATTLE_SEEN_AT);
+        }
+        saveState(SaveSection.ENGINE);
+    }
+
+    @Nullable public String getPersistedBattleMonster() { return engineGet(KEY_BATTLE_MONSTER); }
+    public long getPersistedBattleAt() { return engineLong(KEY_BATTLE_SEEN_AT, 0L); }
+
+    /* ============================
+     * Engine run state (ENGINE section)
+     * ============================ */
+    /** Caller holds the engineState lock. Reads the section (or the older prefs keys) once per process. */
+    private Map<String, String> engineState() {
+        if (engineLoaded) return engineState;
+        engineLoaded = true;
+        byte[] bytes = snapshots.loadSection(SaveSection.ENGINE);
+        if (bytes != null) {
+            try {
+                Map<String, String> m = gson.fromJson(new String(bytes, StandardCharsets.UTF_8),
+                        new TypeToken<Map<String, String>>() {}.getType());
+                if (m != null) engineState.putAll(m);
+            } catch (Exception e) {
+                Log.w(TAG, "Engine state unreadable", e);
+            }
+            return engineState;
+        }
+        if (sp.contains(KEY_TRAIN_SKILL)) engineState.put(KEY_TRAIN_SKILL, sp.getString(KEY_TRAIN_SKILL, null));
+        if (sp.contains(KEY_BATTLE_MONSTER)) engineState.put(KEY_BATTLE_MONSTER, sp.getString(KEY_BATTLE_MONSTER, null));
+        if (sp.contains(KEY_BATTLE_SEEN_AT)) engineState.put(KEY_BATTLE_SEEN_AT, String.valueOf(sp.getLong(KEY_BATTLE_SEEN_AT, 0L)));
+        if (sp.contains(KEY_LAST_SEEN)) engineState.put(KEY_LAST_SEEN, String.valueOf(sp.getLong(KEY_LAST_SEEN, 0L)));
+        if (!engineState.isEmpty()) {
+            sp.edit()
+                    .remove(KEY_TRAIN_SKILL)
+                    .remove(KEY_BATTLE_MONSTER)
+                    .remove(KEY_BATTLE_SEEN_AT)
+                    .remove(KEY_LAST_SEEN)
+                    .apply();
+            saveState(SaveSection.ENGINE); // migrate out of prefs
+        }
+        return engineState;
+    }
+
+    @Nullable private String engineGet(String key) {
+        synchronized (engineState) { return engineState().get(key); }
+    }
+
+    private long engineLong(String key, long fallback) {
+        String v = engineGet(key);
+        if (v == null) return fallback;
+        try { return Long.parseLong(v); }
+        catch (NumberFormatException e) { return fallback; }
+    }
+
+    private void enginePut(String key, @Nullable String value) {
+        synchronized (engineState) {
+            if (value == null) engineState().remove(key);
+            else engineState().put(key, value);
+        }
+        saveState(SaveSection.ENGINE);
+    }
+
+    /** A fight record waiting for verification, and the skill its XP went to. */
+    private static final class PendingReplay {
+        final byte[] record;
+        final boolean offline;
+        final SkillId xpSkill;
+
+        PendingReplay(byte[] record, boolean offline, SkillId xpSkill) {
+            this.record = record;
+            this.offline = offline;
+            this.xpSkill = xpSkill;
+        }
+    }
+
+    /** What failed records reported granting; taken back before the next push. */
+    private static final class RejectedGrants {
+        final EnumMap<SkillId, Long> xp = new EnumMap<>(SkillId.class);
+        long silver;
+        final Map<String, Integer> drops = new HashMap<>();
+
+        boolean isEmpty() { return xp.isEmpty() && silver == 0 && drops.isEmpty(); }
+
+        void add(SkillId skill, long xp, long silver, Map<String, Integer> drops) {
+            if (xp > 0) this.xp.merge(skill, xp, Long::sum);
+            this.silver += Math.max(0, silver);
+            for (Map.Entry<String, Integer> e : drops.entrySet()) this.drops.merge(e.getKey(), e.getValue(), Integer::sum);
+        }
+    }
+
+    /**
+     * Queues a finished fight's {@link CombatReplay} record for verification before the next cloud
+     * push; {@code xpSkill} is where its XP went, so it can be taken back if the record fails.
+     */
+    public void submitCombatReplay(byte[] record, SkillId xpSkill) {
+        queueReplay(new PendingReplay(record, false, xpSkill));
+    }
+
+    /** Same for an offline catch-up's {@link OfflineReplay} record. */
+    public void submitOfflineReplay(byte[] record, SkillId xpSkill) {
+        queueReplay(new PendingReplay(record, true, xpSkill));
+    }
+
+    private void queueReplay(PendingReplay p) {
+        if (p.record == null || p.xpSkill == null) return;
+        if (pendingReplays.size() >= MAX_PENDING_REPLAYS) pendingReplays.remove(0);
+        pendingReplays.add(p);
+    }
+
+    /**
+     * Re-simulates {@code batch} (worker thread) and sums up what the records that don't
+     * reproduce their outcome, XP and drops reported granting. Unreadable records are logged;
+     * with nothing to go on, their grants stay.
+     */
+    private RejectedGrants verifyReplays(List<PendingReplay> batch) {
+        RejectedGrants rejected = new RejectedGrants();
+        for (PendingReplay p : batch) {
+            try {
+                if (p.offline) {
+                    OfflineReplay r = OfflineReplay.fromBytes(p.record);
+                    ReplayVerifier.Verdict v = ReplayVerifier.verify(r, getMonster(r.monsterId));
+                    if (v == ReplayVerifier.Verdict.OK) continue;
+                    Log.w(TAG, "Offline replay vs " + r.monsterId + " failed verification: " + v);
+                    rejected.add(p.xpSkill, r.xp, r.silver, r.loot);
+                } else {
+                    CombatReplay r = CombatReplay.fromBytes(p.record);
+                    ReplayVerifier.Verdict v = ReplayVerifier.verify(r, getMonster(r.monsterId));
+                    if (v == ReplayVerifier.Verdict.OK) continue;
+                    Log.w(TAG, "Combat replay vs " + r.monsterId + " failed verification: " + v);
+                    rejected.add(p.xpSkill, r.xp, r.silver, r.drops);
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Unreadable combat replay", e);
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Takes back what failed records granted, in one logged transaction: loot still waiting in
+     * the panel goes first, the rest comes out of the bag and purse (as far as it's still there).
+     */
+    private void takeBack(RejectedGrants g) {
+        if (g.isEmpty()) return;
+        PlayerCharacter pc = loadOrCreatePlayer();
+        Transaction tx = beginTransaction();
+        for (Map.Entry<SkillId, Long> e : g.xp.entrySet()) {
+            tx.takeSkillExp(e.getKey(), (int) Math.min(Integer.MAX_VALUE, e.getValue()));
+        }
+        long silver = g.silver - takePendingLoot("currency:silver", true, g.silver);
+        tx.addCurrency("silver", -Math.min(silver, pc.getCurrency("silver")));
+        for (Map.Entry<String, Integer> e : g.drops.entrySet()) {
+            long left = e.getValue() - takePendingLoot(e.getKey(), false, e.getValue());
+            tx.addItem(e.getKey(), (int) -Math.min(left, pc.bag.getOrDefault(e.getKey(), 0)));
+        }
+        updatePendingLootLive();
+        tx.commit();
+        // A cloud sync may already have booked the XP on this device's replica
+        synchronized (ledgerLock) {
+            PlayerCrdt c = crdt();
+            for (SkillId id : g.xp.keySet()) c.lowerSkill(id, pc.getSkillExp(id));
+        }
+        saveState(SaveSection.SYNC);
+        publishCurrencies();
+        toast("Rewards from a fight that didn't check out were removed");
+    }
+
+    /** Removes up to {@code qty} of one pending loot entry; returns how much was removed. */
+    private long takePendingLoot(String id, boolean isCurrency, long qty) {
+        for (Iterator<PendingLoot> it = pendingLoot.iterator(); it.hasNext(); ) {
+            PendingLoot pl = it.next();
+            if (pl.isCurrency != isCurrency || !id.equals(pl.id)) continue;
+            int taken = (int) Math.min(qty, pl.quantity);
+            pl.quantity -= taken;
+            if (pl.quantity <= 0) it.remove();
+            return taken;
+        }
+        return 0L;
+    }
 
     /* ============================
      * Per-skill “last picked action”
@@ -1597,13 +2493,6 @@ public class GameRepository {
         if (s == null || s.isEmpty()) return s;
         return Character.toUpperCase(s.charAt(0)) + s.substring(1);
     }
-    private static String readStream(InputStream is) throws Exception {
-        StringBuilder sb = new StringBuilder();
-        byte[] buf = new byte[4096];
-        int n;
-        while ((n = is.read(buf)) != -1) sb.append(new String(buf, 0, n, StandardCharsets.UTF_8));
-        return sb.toString();
-    }
 
     /* ============================
      * Toast Helper
@@ -1643,75 +2532,164 @@ public class GameRepository {
 
     public void giveItem(String itemId, int qty) {
         if (itemId == null || qty == 0) return;
-        PlayerCharacter pc = loadOrCreatePlayer();
-        pc.addItem(itemId, qty);
-        save();
-        cloudIncrementBag(itemId, qty);
+        beginTransaction().addItem(itemId, qty).commit();
         toast("Granted " + qty + "× " + itemName(itemId));
     }
 
     /* ============================
      * Firestore helpers
      * ============================ */
-    @Nullable
-    private DocumentReference charDoc() {
-        FirebaseUser u = auth.getCurrentUser();
-        if (u == null) return null;
-        return fdb.collection("playerCharacters").document(u.getUid());
+    /** Pushes go through the on-disk queue, shared by every repository in the process. */
+    private synchronized SyncQueue syncQueue() {
+        if (syncQueue == null) syncQueue = SyncQueue.open(new File(saveDir(), SyncQueue.FILE_NAME), cloud, CLOUD_COLLECTION);
+        return syncQueue;
     }
 
-    private Map<String, Object> toMap(PlayerCharacter pc) {
-        java.lang.reflect.Type t = new com.google.gson.reflect.TypeToken<Map<String, Object>>(){}.getType();
-        return gson.fromJson(gson.toJson(pc), t);
+    /** The signed-in player's document id, or null when signed out. */
+    @Nullable
+    private String charDocId() {
+        return cloud.userId();
     }
 
+    /**
+     * Schedules the next cloud push: one merge write per {@link #CLOUD_DEBOUNCE_MS} window
+     * carrying the sections changed since the last one plus the buffered increments.
+     */
     private void cloudSavePlayerDebounced() {
-        if (auth.getCurrentUser() == null || player == null) return;
+        if (charDocId() == null || player == null) return;
         if (cloudSaveRunnable != null) mainHandler.removeCallbacks(cloudSaveRunnable);
         cloudSaveRunnable = () -> {
-            try {
-                DocumentReference doc = charDoc();
-                if (doc == null || player == null) return;
-                Map<String, Object> data = toMap(player);
-                data.put("updatedAt", FieldValue.serverTimestamp());
-                doc.set(data, SetOptions.merge());
-            } catch (Throwable t) {
-                Log.w(TAG, "cloudSavePlayerDebounced failed", t);
-            }
+            cloudSaveRunnable = null;
+            if (verifyingReplays || !pendingReplays.isEmpty()) verifyThenPush();
+            else pushPlayerNow();
         };
         mainHandler.postDelayed(cloudSaveRunnable, CLOUD_DEBOUNCE_MS);
     }
 
-    private void cloudIncrementCurrency(String code, long delta) {
-        DocumentReference doc = charDoc();
-        if (doc == null || code == null) return;
-        Map<String, Object> patch = new HashMap<>();
-        patch.put("currencies." + code, FieldValue.increment(delta));
-        patch.put("updatedAt", FieldValue.serverTimestamp());
-        doc.set(patch, SetOptions.merge());
+    /**
+     * Re-simulates the pending fight records on {@link #REPLAY_CHECKS}, takes back what failed
+     * ones granted, and only then pushes; fights that finished meanwhile are checked first. A
+     * push asked for while a batch is running rides on its completion.
+     */
+    private void verifyThenPush() {
+        if (verifyingReplays) return;
+        List<PendingReplay> batch = new ArrayList<>(pendingReplays);
+        pendingReplays.clear();
+        verifyingReplays = true;
+        REPLAY_CHECKS.execute(() -> {
+            RejectedGrants rejected = verifyReplays(batch);
+            mainHandler.post(() -> {
+                verifyingReplays = false;
+                takeBack(rejected);
+                if (!pendingReplays.isEmpty()) verifyThenPush();
+                else pushPlayerNow();
+            });
+        });
     }
 
-    private void cloudIncrementBag(String itemId, int delta) {
-        if (itemId == null || delta == 0) return;
-        DocumentReference doc = charDoc();
-        if (doc == null) return;
-        String key = "bag." + String.valueOf(canonicalItemId(itemId));
-        Map<String, Object> patch = new HashMap<>();
-        patch.put(key, FieldValue.increment(delta));
-        patch.put("updatedAt", FieldValue.serverTimestamp());
-        doc.set(patch, SetOptions.merge());
+    /** One merge write of the sections changed since the last push plus the buffered increments. */
+    private void pushPlayerNow() {
+        try {
+            String docId = charDocId();
+            PlayerCharacter pc = player;
+            if (docId == null || pc == null) return;
+            // Only the sections changed since the last push go out
+            EnumSet<SaveSection> sections;
+            Map<String, Object> data;
+            Map<String, Map<String, Long>> increments;
+            boolean merged;
+            // Sections and increments are taken under the lock changes are applied under, so
+            // each change is in exactly one of them
+            synchronized (ledgerLock) {
+                if (cloudDirty.isEmpty() && cloudPatch.isEmpty()) return;
+                sections = EnumSet.copyOf(cloudDirty);
+                cloudDirty.clear();
+                increments = cloudPatch.drain();
+                merged = !increments.isEmpty() || !Collections.disjoint(sections, MERGED_SECTIONS);
+                data = cloudDoc.encode(pc, sections, true);
+                if (merged) {
+                    PlayerCrdt c = crdt();
+                    c.absorb(pc);
+                    data.put(PlayerCrdt.FIELD, c.ownEntry());
+                }
+            }
+            if (merged) saveState(SaveSection.SYNC);
+            // A section sent whole (sign-in, cloud merge) already holds its increments
+            for (Iterator<String> it = increments.keySet().iterator(); it.hasNext(); ) {
+                if (sections.contains(cloudSection(it.next()))) it.remove();
+            }
+            if (data.isEmpty() && increments.isEmpty()) return;
+            data.put(SaveMigrations.FIELD, SaveMigrations.CURRENT);
+            syncQueue().enqueue(docId, data, increments);
+        } catch (Throwable t) {
+            Log.w(TAG, "Cloud push failed", t);
+        }
+    }
+
+    /** Runs a scheduled (or buffer-only) push now instead of at the end of its window. */
+    private void flushCloudNow() {
+        if (cloudSaveRunnable == null && !cloudPatch.isEmpty()) cloudSavePlayerDebounced();
+        Runnable r = cloudSaveRunnable;
+        if (r == null) return;
+        mainHandler.removeCallbacks(r);
+        if (Looper.myLooper() == Looper.getMainLooper()) r.run();
+        else mainHandler.post(r);
+    }
+
+    private static SaveSection cloudSection(String field) {
+        return FIELD_BAG.equals(field) ? SaveSection.BAG : SaveSection.CURRENCIES;
+    }
+
+    /** A full buffer goes out now; otherwise it rides the next debounced push. */
+    private void cloudPatchAdded(boolean full) {
+        if (charDocId() == null) {
+            cloudPatch.clear(); // nowhere to send it; the next push after sign-in sends whole sections
+            return;
+        }
+        if (full) flushCloudNow();
+        else cloudSavePlayerDebounced();
     }
 
     public void startCloudSync() {
-        DocumentReference doc = charDoc();
-        if (doc == null) return;
+        String docId = charDocId();
+        if (docId == null) return;
+        syncQueue(); // resumes writes left from the last run
         if (cloudListener != null) cloudListener.remove();
-        cloudListener = doc.addSnapshotListener((snap, e) -> {
+        cloudListener = cloud.listen(CLOUD_COLLECTION, docId, (snap, e) -> {
             if (e != null) { Log.w(TAG, "cloud listen error", e); return; }
-            // Hook for live cloud->local merges if desired later.
+            if (snap == null || !snap.exists) return;
+            // Progress from other devices merges in live; last-writer-wins only covers the rest
+            Object remote = snap.data.get(PlayerCrdt.FIELD);
+            if (remote == null) return;
+            long remoteMs = snap.updatedAtMs;
+            mainHandler.post(() -> mergeCloudProgress(remote, remoteMs));
         });
     }
 
+    /**
+     * Merges another device's bag, currencies and skill XP (a cloud {@link PlayerCrdt#FIELD})
+     * into the loaded player. The first merge on a device keeps the local save if it is newer
+     * than the cloud's. Returns true if the player changed.
+     */
+    private boolean mergeCloudProgress(Object remote, long remoteMs) {
+        PlayerCharacter pc = player;
+        if (pc == null) return false;
+        long localMs = getLocalUpdatedAt();
+        boolean changed;
+        synchronized (ledgerLock) {
+            PlayerCrdt c = crdt();
+            changed = c.isEmpty() ? c.join(pc, remote, localMs >= remoteMs) : c.sync(pc, remote);
+        }
+        saveState(SaveSection.SYNC);
+        if (changed) {
+            save(SaveSection.BAG, SaveSection.CURRENCIES, SaveSection.SKILLS);
+            invalidateStats();
+            publishCurrencies();
+            publishHp();
+        }
+        return changed;
+    }
+
     public void stopCloudSync() { if (cloudListener != null) { cloudListener.remove(); cloudListener = null; } }
 
     /* ============================
@@ -1719,120 +2697,134 @@ public class GameRepository {
      * ============================ */
     public interface BoolCallback { void onResult(boolean updated); }
 
-    private long getLocalUpdatedAt() { return sp.getLong(KEY_LOCAL_UPDATED_AT, 0L); }
-    private void touchLocalUpdatedAt() { sp.edit().putLong(KEY_LOCAL_UPDATED_AT, System.currentTimeMillis()).apply(); }
+    private long getLocalUpdatedAt() {
+        long stored = snapshotAtMs;
+        if (stored < 0) {
+            Snapshot snap = snapshots.load();
+            stored = snapshotAtMs = snap != null ? snap.timestampMs : 0L;
+        }
+        EventLedger l = ledger;
+        boolean unwritten = saver.isDirty() || (l != null && l.size() > 0); // logged-only changes count
+        return unwritten ? Math.max(stored, saveRequestedAtMs) : stored;
+    }
 
     public void loadFromCloudIfNewer(@NonNull BoolCallback cb) {
-        DocumentReference doc = charDoc();
-        if (doc == null) { cb.onResult(false); return; }
+        String docId = charDocId();
+        if (docId == null) { cb.onResult(false); return; }
 
         final long localMs = getLocalUpdatedAt();
 
-        doc.get().addOnSuccessListener(snap -> {
-            if (snap == null || !snap.exists()) {
-                try {
-                    loadOrCreatePlayer();
-                    cloudSavePlayerDebounced();
-                } catch (Throwable ignored) {}
-                cb.onResult(false);
-                return;
-            }
-
-            Timestamp ts = snap.getTimestamp("updatedAt");
-            long remoteMs = (ts != null) ? ts.toDate().getTime() : 0L;
-
-            if (localMs >= remoteMs) {
-                if (remoteMs == 0L) cloudSavePlayerDebounced();
-                cb.onResult(false);
-                return;
-            }
-
-            try {
-                Map<String, Object> data = snap.getData();
-                if (data == null) { cb.onResult(false); return; }
-
-                String json = gson.toJson(data);
-                PlayerCharacter cloudPc = gson.fromJson(json, PlayerCharacter.class);
-
-                if (cloudPc != null) {
-                    if (cloudPc.bag == null) cloudPc.bag = new HashMap<>();
-                    if (cloudPc.equipment == null) cloudPc.equipment = new EnumMap<>(EquipmentSlot.class);
-                    if (cloudPc.skills == null) cloudPc.skills = new EnumMap<>(SkillId.class);
-                    if (cloudPc.currencies == null) cloudPc.currencies = new HashMap<>();
-                    if (cloudPc.base == null) cloudPc.base = new Stats(12, 6, 0.0, 100, 0.05, 1.5);
-
-                    cloudPc.migrateSkillsToXpIfNeeded();
-
-                    if (cloudPc.base.health <= 0) cloudPc.base.health = 100;
-                    if (cloudPc.base.critMultiplier < 1.0) cloudPc.base.critMultiplier = 1.5;
-                    if (cloudPc.base.critChance < 0) cloudPc.base.critChance = 0;
-                    if (cloudPc.base.critChance > 1) cloudPc.base.critChance = 1;
+        cloud.get(CLOUD_COLLECTION, docId, new CloudStore.Callback<CloudStore.Document>() {
+            @Override public void onSuccess(CloudStore.Document snap) {
+                if (!snap.exists) {
+                    try {
+                        loadOrCreatePlayer();
+                        cloudSavePlayerDebounced();
+                    } catch (Throwable ignored) {}
+                    cb.onResult(false);
+                    return;
+                }
 
-                    cloudPc.normalizeCurrencies();
-                    player = cloudPc;
+                long remoteMs = snap.updatedAtMs;
+
+                Object remoteProgress = snap.data.get(PlayerCrdt.FIELD);
+                if (remoteProgress != null && localMs > 0L) {
+                    // Both sides have progress: merge it instead of picking one; the rest of the
+                    // player (gear, HP, base stats) still goes to the newer side
+                    try {
+                        loadOrCreatePlayer();
+                        boolean adopted = localMs < remoteMs && adoptCloudState(snap.data);
+                        cb.onResult(mergeCloudProgress(remoteProgress, remoteMs) || adopted);
+                    } catch (Throwable t) {
+                        Log.w(TAG, "Failed to merge cloud -> local", t);
+                        cb.onResult(false);
+                    }
+                    return;
+                }
 
-                    sp.edit().putString(KEY_PLAYER, gson.toJson(player)).apply();
-                    sp.edit().putLong(KEY_LOCAL_UPDATED_AT, remoteMs).apply();
+                if (localMs >= remoteMs) {
+                    if (remoteMs == 0L) cloudSavePlayerDebounced();
+                    cb.onResult(false);
+                    return;
+                }
 
-                    publishCurrencies();
-                    publishHp();
-                    loadSlayerFromSpIfPresent();
-                    cb.onResult(true);
-                } else {
+                try {
+                    cb.onResult(adoptCloudPlayer(snap.data, remoteMs));
+                } catch (Throwable t) {
+                    Log.w(TAG, "Failed to merge cloud -> local", t);
                     cb.onResult(false);
                 }
-            } catch (Throwable t) {
-                Log.w(TAG, "Failed to merge cloud -> local", t);
+            }
+
+            @Override public void onFailure(Exception e) {
+                Log.w(TAG, "loadFromCloudIfNewer failed", e);
                 cb.onResult(false);
             }
-        }).addOnFailureListener(e -> {
-            Log.w(TAG, "loadFromCloudIfNewer failed", e);
-            cb.onResult(false);
         });
     }
 
     public void forcePullFromCloud(@NonNull BoolCallback cb) {
-        DocumentReference doc = charDoc();
-        if (doc == null) { cb.onResult(false); return; }
-        doc.get().addOnSuccessListener(snap -> {
-            if (snap == null || !snap.exists()) { cb.onResult(false); return; }
-            try {
-                Map<String,Object> data = snap.getData();
-                if (data == null) { cb.onResult(false); return; }
-                String json = gson.toJson(data);
-                PlayerCharacter cloudPc = gson.fromJson(json, PlayerCharacter.class);
-
-                if (cloudPc != null) {
-                    if (cloudPc.bag == null) cloudPc.bag = new HashMap<>();
-                    if (cloudPc.equipment == null) cloudPc.equipment = new EnumMap<>(EquipmentSlot.class);
-                    if (cloudPc.skills == null) cloudPc.skills = new EnumMap<>(SkillId.class);
-                    if (cloudPc.currencies == null) cloudPc.currencies = new HashMap<>();
-                    if (cloudPc.base == null) cloudPc.base = new Stats(12, 6, 0.0, 100, 0.05, 1.5);
-
-                    cloudPc.migrateSkillsToXpIfNeeded();
-                    cloudPc.normalizeCurrencies();
-
-                    player = cloudPc;
-                    sp.edit().putString(KEY_PLAYER, gson.toJson(player)).apply();
-
-                    Timestamp ts = snap.getTimestamp("updatedAt");
-                    long remoteMs = (ts != null) ? ts.toDate().getTime() : System.currentTimeMillis();
-                    sp.edit().putLong(KEY_LOCAL_UPDATED_AT, remoteMs).apply();
-
-                    publishCurrencies();
-                    publishHp();
-                    loadSlayerFromSpIfPresent();
-                    cb.onResult(true);
-                } else {
+        String docId = charDocId();
+        if (docId == null) { cb.onResult(false); return; }
+        cloud.get(CLOUD_COLLECTION, docId, new CloudStore.Callback<CloudStore.Document>() {
+            @Override public void onSuccess(CloudStore.Document snap) {
+                if (!snap.exists) { cb.onResult(false); return; }
+                try {
+                    long remoteMs = snap.updatedAtMs != 0L ? snap.updatedAtMs : System.currentTimeMillis();
+                    cb.onResult(adoptCloudPlayer(snap.data, remoteMs));
+                } catch (Throwable t) {
+                    Log.w(TAG, "forcePullFromCloud failed", t);
                     cb.onResult(false);
                 }
-            } catch (Throwable t) {
-                Log.w(TAG, "forcePullFromCloud failed", t);
+            }
+
+            @Override public void onFailure(Exception e) {
+                Log.w(TAG, "forcePullFromCloud get failed", e);
                 cb.onResult(false);
             }
-        }).addOnFailureListener(e -> {
-            Log.w(TAG, "forcePullFromCloud get failed", e);
-            cb.onResult(false);
         });
     }
+
+    /** Takes the sections {@link PlayerCrdt} doesn't merge from a newer cloud document. */
+    private boolean adoptCloudState(Map<String, Object> data) throws IOException {
+        PlayerCharacter remote = PlayerDocument.decode(data);
+        PlayerCharacter pc = loadOrCreatePlayer();
+        synchronized (ledgerLock) {
+            pc.equipment = remote.equipment;
+            pc.base = remote.base;
+            pc.currentHp = remote.currentHp;
+            pc.exp = remote.exp;
+            pc.element = remote.element;
+            pc.setQuickFoodId(remote.getQuickFoodId());
+        }
+        save(SaveSection.EQUIPMENT, SaveSection.BASE, SaveSection.QUICK_FOOD);
+        invalidateStats();
+        return true;
+    }
+
+    /** Replaces the local player with a cloud document's and writes it with the remote timestamp. */
+    private boolean adoptCloudPlayer(Map<String, Object> data, long remoteMs) throws IOException {
+        if (data.isEmpty()) return false;
+        player = PlayerDocument.decode(data);
+        // Remote wins: local writes not yet synced would overwrite newer fields
+        cloudPatch.clear();
+        syncQueue().clear();
+        synchronized (ledgerLock) {
+            cloudDoc.reset();
+            PlayerCrdt c = crdt();
+            c.reset();
+            Object remote = data.get(PlayerCrdt.FIELD);
+            if (remote != null) c.join(player, remote, false); // else the next push books it all here
+            dirty.add(SaveSection.SYNC);
+        }
+        saver.discardPending(); // written right here with the remote timestamp
+        synchronized (ledgerLock) { dirty.addAll(SaveSection.PLAYER); }
+        writeSnapshot(player, remoteMs);
+        dropLedger();
+
+        publishCurrencies();
+        publishHp();
+        loadSlayerIfPresent();
+        return true;
+    }
 }
@@ -0,0 +1,89 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cloud increments waiting for the next push, summed per field: a burst of bag/currency
+ * changes goes out as one merged patch instead of one write each.
+ * - {@link #add} returns true once {@code maxFields} distinct fields are pending; the owner
+ *   should push right away rather than wait for its window.
+ * - {@link #drain()} hands over the sums (zeros dropped) and empties the buffer;
+ *   {@link #restore} puts them back if the push is held back.
+ */
+public final class CloudPatchBuffer {
+
+    public static final int DEFAULT_MAX_FIELDS = 256;
+
+    private final int maxFields;
+    /** Top-level document field (bag, currencies) → key → summed delta. */
+    private final Map<String, Map<String, Long>> pending = new LinkedHashMap<>();
+    private int fields;
+    private long adds, drains;
+
+    public CloudPatchBuffer(int maxFields) {
+        this.maxFields = Math.max(1, maxFields);
+    }
+
+    /** Adds {@code delta} to {@code field.key}. True if the buffer is now full. */
+    public synchronized boolean add(String field, String key, long delta) {
+        if (delta == 0) return fields >= maxFields;
+        adds++;
+        Map<String, Long> m = pending.get(field);
+        if (m == null) {
+            m = new HashMap<>();
+            pending.put(field, m);
+        }
+        Long prev = m.put(key, m.getOrDefault(key, 0L) + delta);
+        if (prev == null) fields++;
+        return fields >= maxFields;
+    }
+
+    /** The pending sums by field, without zero entries; the buffer is left empty. */
+    public synchronized Map<String, Map<String, Long>> drain() {
+        Map<String, Map<String, Long>> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Long>> e : pending.entrySet()) {
+            Map<String, Long> m = e.getValue();
+            for (Iterator<Long> it = m.values().iterator(); it.hasNext(); ) {
+                if (it.next() == 0L) it.remove();
+            }
+            if (!m.isEmpty()) out.put(e.getKey(), m);
+        }
+        pending.clear();
+        fields = 0;
+        if (!out.isEmpty()) drains++;
+        return out;
+    }
+
+    /** Puts drained sums back (added to anything buffered since). */
+    public synchronized void restore(Map<String, Map<String, Long>> drained) {
+        for (Map.Entry<String, Map<String, Long>> e : drained.entrySet()) {
+            for (Map.Entry<String, Long> d : e.getValue().entrySet()) {
+                add(e.getKey(), d.getKey(), d.getValue());
+            }
+        }
+        adds -= countFields(drained); // not new requests
+    }
+
+    public synchronized void clear() {
+        pending.clear();
+        fields = 0;
+    }
+
+    public synchronized boolean isEmpty() { return fields == 0; }
+
+    /** Distinct fields pending. */
+    public synchronized int size() { return fields; }
+
+    /** add() calls vs. non-empty drains since start: increments per cloud write. */
+    public synchronized long adds() { return adds; }
+    public synchronized long drains() { return drains; }
+
+    private static int countFields(Map<String, Map<String, Long>> m) {
+        int n = 0;
+        for (Map<String, Long> v : m.values()) n += v.size();
+        return n;
+    }
+}
@@ -0,0 +1,271 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import com.obliviongatestudio.akthosidle.data.dtos.EventLedgerEntry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of progression events, sitting between full snapshots.
+ * - Each event is a small checksummed frame appended through one buffered stream, so a grant
+ *   costs a few dozen bytes instead of re-serializing the whole player.
+ * - Sequence numbers are global; a snapshot records the last one it covers and recovery replays
+ *   {@link #readAfter(long)} on top of it.
+ * - A torn or corrupt tail (process killed mid-write) ends the log and is cut off on open.
+ * - {@link #compact(long)} drops everything a snapshot now covers; {@link #compact(Predicate)}
+ *   does the same per event type for sectioned snapshots.
+ * One instance per file ({@link #open(File)}), shared by every repository in the process.
+ */
+public final class EventLedger implements Closeable {
+
+    public static final String FILE_NAME = "events.ledger";
+
+    private static final int MAGIC = 0x414B4C47; // "AKLG"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    /** Sanity bound for a frame length read from disk. */
+    private static final int MAX_FRAME_BYTES = 64 * 1024;
+
+    private static final String[] TYPES = {
+            EventLedgerEntry.TYPE_XP,
+            EventLedgerEntry.TYPE_ITEM,
+            EventLedgerEntry.TYPE_CURRENCY,
+            EventLedgerEntry.TYPE_EQUIP,
+            EventLedgerEntry.TYPE_SLAYER,
+    };
+
+    private static final Map<String, EventLedger> OPEN = new HashMap<>();
+
+    private final File file;
+    private final ByteArrayOutputStream frameBuf = new ByteArrayOutputStream(64);
+    private final DataOutputStream frame = new DataOutputStream(frameBuf);
+    private final CRC32 crc = new CRC32();
+    private DataOutputStream out;
+    private long lastSeq;
+    private int count;
+    private boolean closed;
+
+    private EventLedger(File file) throws IOException {
+        this.file = file;
+        List<EventLedgerEntry> entries = new ArrayList<>();
+        long valid = scan(file, entries);
+        if (valid < 0) {
+            writeHeaderOnly(file);
+        } else if (valid < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { raf.setLength(valid); }
+        }
+        count = entries.size();
+        lastSeq = count > 0 ? entries.get(count - 1).id : 0L;
+        openAppend();
+    }
+
+    /** Opens (or creates) the ledger in {@code dir}; repeated calls share one instance. */
+    public static EventLedger open(File dir) throws IOException {
+        File f = new File(dir, FILE_NAME).getCanonicalFile();
+        synchronized (OPEN) {
+            EventLedger l = OPEN.get(f.getPath());
+            if (l == null) {
+                if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Can't create " + dir);
+                l = new EventLedger(f);
+                OPEN.put(f.getPath(), l);
+            }
+            return l;
+        }
+    }
+
+    /** Appends and flushes one event; returns its sequence number. */
+    public long append(EventLedgerEntry e) throws IOException {
+        return append(Collections.singletonList(e));
+    }
+
+    /**
+     * Appends a batch with one flush to the OS. Fills in {@code id} and, if unset, {@code ts}.
+     * Returns the last sequence number written.
+     */
+    public synchronized long append(List<EventLedgerEntry> batch) throws IOException {
+        ensureOpen();
+        long now = System.currentTimeMillis();
+        for (EventLedgerEntry e : batch) {
+            e.id = lastSeq + 1;
+            if (e.ts == 0L) e.ts = now;
+            writeFrame(e);
+            lastSeq = e.id;
+            count++;
+        }
+        out.flush();
+        return lastSeq;
+    }
+
+    /** Events with a sequence number above {@code seq}, oldest first. */
+    public synchronized List<EventLedgerEntry> readAfter(long seq) throws IOException {
+        ensureOpen();
+        out.flush();
+        List<EventLedgerEntry> all = new ArrayList<>();
+        scan(file, all);
+        List<EventLedgerEntry> tail = new ArrayList<>();
+        for (EventLedgerEntry e : all) if (e.id > seq) tail.add(e);
+        return tail;
+    }
+
+    /**
+     * Drops events up to and including {@code throughSeq} (a snapshot now covers them). Later
+     * events are kept; sequence numbers keep counting up.
+     */
+    public void compact(long throughSeq) throws IOException {
+        compact(e -> e.id > throughSeq);
+    }
+
+    /**
+     * Keeps only the events {@code keep} accepts, in order (snapshots that cover different
+     * event types at different sequence numbers).
+     */
+    public synchronized void compact(Predicate<EventLedgerEntry> keep) throws IOException {
+        ensureOpen();
+        if (count == 0) return;
+        out.flush();
+        List<EventLedgerEntry> all = new ArrayList<>();
+        scan(file, all);
+        List<EventLedgerEntry> tail = new ArrayList<>();
+        for (EventLedgerEntry e : all) if (keep.test(e)) tail.add(e);
+        if (tail.size() == count) return;
+        out.close();
+        File tmp = new File(file.getPath() + ".tmp");
+        writeHeaderOnly(tmp);
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp, true)));
+        for (EventLedgerEntry e : tail) writeFrame(e);
+        out.close();
+        if (!tmp.renameTo(file)) {
+            // Keep the old log; it is still a valid superset.
+            tmp.delete();
+        } else {
+            count = tail.size();
+        }
+        openAppend();
+    }
+
+    /** Makes the next sequence number larger than {@code seq} (e.g. a snapshot's, after the log was lost). */
+    public synchronized void advanceTo(long seq) {
+        if (seq > lastSeq) lastSeq = seq;
+    }
+
+    public synchronized long lastSeq() { return lastSeq; }
+
+    /** Events currently in the log (appended since the last compaction, plus any kept tail). */
+    public synchronized int size() { return count; }
+
+    @Override public void close() throws IOException {
+        synchronized (OPEN) { OPEN.remove(file.getPath()); }
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            out.close();
+        }
+    }
+
+    /* ---------- frames ---------- */
+
+    private void writeFrame(EventLedgerEntry e) throws IOException {
+        int code = typeCode(e.type);
+        frameBuf.reset();
+        frame.writeByte(code);
+        frame.writeLong(e.id);
+        frame.writeLong(e.ts);
+        frame.writeUTF(e.key != null ? e.key : "");
+        frame.writeLong(e.amount);
+        frame.writeBoolean(e.value != null);
+        if (e.value != null) frame.writeUTF(e.value);
+        frame.flush();
+
+        crc.reset();
+        crc.update(frameBuf.toByteArray(), 0, frameBuf.size());
+        out.writeInt(frameBuf.size());
+        frameBuf.writeTo(out);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Reads every intact frame into {@code into}. Returns the byte length of the valid prefix,
+     * or -1 if the file is missing or has no valid header.
+     */
+    private static long scan(File f, List<EventLedgerEntry> into) throws IOException {
+        if (!f.isFile() || f.length() < HEADER_BYTES) return -1;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return -1;
+            long valid = HEADER_BYTES;
+            CRC32 c = new CRC32();
+            while (true) {
+                EventLedgerEntry e;
+                int len;
+                try {
+                    len = in.readInt();
+                    if (len <= 0 || len > MAX_FRAME_BYTES) break;
+                    byte[] body = new byte[len];
+                    in.readFully(body);
+                    int stored = in.readInt();
+                    c.reset();
+                    c.update(body, 0, len);
+                    if ((int) c.getValue() != stored) break;
+                    e = decode(body);
+                } catch (EOFException torn) {
+                    break;
+                }
+                if (e == null) break;
+                into.add(e);
+                valid += 4L + len + 4L;
+            }
+            return valid;
+        }
+    }
+
+    private static EventLedgerEntry decode(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        int code = in.readUnsignedByte();
+        if (code >= TYPES.length) return null;
+        EventLedgerEntry e = new EventLedgerEntry();
+        e.type = TYPES[code];
+        e.id = in.readLong();
+        e.ts = in.readLong();
+        e.key = in.readUTF();
+        e.amount = in.readLong();
+        e.value = in.readBoolean() ? in.readUTF() : null;
+        return e;
+    }
+
+    private static int typeCode(String type) {
+        for (int i = 0; i < TYPES.length; i++) if (TYPES[i].equals(type)) return i;
+        throw new IllegalArgumentException("Unknown ledger event type: " + type);
+    }
+
+    private static void writeHeaderOnly(File f) throws IOException {
+        try (DataOutputStream h = new DataOutputStream(new FileOutputStream(f, false))) {
+            h.writeInt(MAGIC);
+            h.writeInt(FORMAT_VERSION);
+        }
+    }
+
+    private void openAppend() throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Ledger closed: " + file);
+    }
+}
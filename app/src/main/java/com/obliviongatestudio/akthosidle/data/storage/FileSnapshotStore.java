@@ -0,0 +1,326 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
+import com.obliviongatestudio.akthosidle.data.dtos.Snapshot;
+import com.obliviongatestudio.akthosidle.domain.services.BackupService;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Player snapshots in app-private files, one per {@link SaveSection}: header (section,
+ * updatedAt, ledger sequence), the section bytes, and a CRC32 footer.
+ * - {@link #save(Snapshot)} rewrites only the sections it is given: each goes to a temp file
+ *   through a FileChannel, is force()d, the previous files shift down {@link #generations}
+ *   slots (player.bag.sec.1, .2, …) and the temp file is renamed into place. Every step leaves
+ *   at least one complete copy of the section on disk.
+ * - {@link #load()} takes, per section, the newest file whose checksum matches, so a torn or
+ *   corrupt write falls back to the generation before it. Sections carry their own ledger
+ *   sequence; recovery replays each one from there.
+ * - Every store on the same directory shares one lock, so saves and clears from different
+ *   threads (or repositories) never interleave; temp files get unique names. A section captured
+ *   before the one already written ({@link Snapshot#captureSeq}) is skipped instead of landing
+ *   on top of it.
+ * - Older saves are still read: the whole-player file (player.snap, which {@link #save} also
+ *   still writes when given {@code playerBytes}) and, while no file exists, the JSON in
+ *   SharedPreferences. Once every player section is on disk both are dropped.
+ */
+public class FileSnapshotStore implements SnapshotStore {
+    public static final String FILE_NAME = "player.snap";
+    public static final String SECTION_SUFFIX = ".sec";
+    public static final int DEFAULT_GENERATIONS = 2;
+
+    private static final int MAGIC = 0x414B534E; // "AKSN"
+    private static final int FORMAT_VERSION = 2; // 1 had no checksum footer
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+    private static final int SECTION_MAGIC = 0x414B5343; // "AKSC"
+    private static final int SECTION_VERSION = 1;
+    private static final int SECTION_HEADER_BYTES = 4 + 4 + 4 + 8 + 8 + 4;
+    private static final int FOOTER_BYTES = 4;
+
+    /** Lock and newest written capture per section, shared by every store on one directory. */
+    private static final class DirState {
+        final EnumMap<SaveSection, Long> written = new EnumMap<>(SaveSection.class);
+    }
+
+    private static final Map<String, DirState> DIRS = new HashMap<>();
+
+    private final File dir;
+    private final File file;
+    private final int generations;
+    @Nullable private final PrefsSnapshotStore legacy;
+    private final DirState state;
+
+    public FileSnapshotStore(File dir, @Nullable PrefsSnapshotStore legacy) {
+        this(dir, legacy, DEFAULT_GENERATIONS);
+    }
+
+    /** {@code legacy} may be null (no JSON migration). */
+    public FileSnapshotStore(File dir, @Nullable PrefsSnapshotStore legacy, int generations) {
+        this.dir = dir;
+        this.file = new File(dir, FILE_NAME);
+        this.generations = Math.max(0, generations);
+        this.legacy = legacy;
+        this.state = stateFor(dir);
+    }
+
+    private static DirState stateFor(File dir) {
+        String key;
+        try {
+            key = dir.getCanonicalPath();
+        } catch (IOException e) {
+            key = dir.getAbsolutePath();
+        }
+        synchronized (DIRS) {
+            DirState d = DIRS.get(key);
+            if (d == null) DIRS.put(key, d = new DirState());
+            return d;
+        }
+    }
+
+    /** Null if there is no save at all. */
+    @Override @Nullable public Snapshot load() {
+        synchronized (state) { return loadLocked(); }
+    }
+
+    @Nullable private Snapshot loadLocked() {
+        Snapshot s = new Snapshot();
+        boolean any = false;
+        for (SaveSection section : SaveSection.values()) {
+            File base = sectionFile(section);
+            for (int g = 0; g <= generations; g++) {
+                File f = generation(base, g);
+                if (!f.isFile()) continue;
+                any = true;
+                if (readSection(f, section, s)) break;
+            }
+        }
+        if (!s.sections.keySet().containsAll(SaveSection.PLAYER)) {
+            // Not (fully) migrated: the sections that are missing come from the older save
+            boolean anyWhole = false;
+            Snapshot whole = null;
+            for (int g = 0; g <= generations && whole == null; g++) {
+                File f = generation(file, g);
+                if (!f.isFile()) continue;
+                anyWhole = true;
+                whole = read(f);
+            }
+            // Every generation is corrupt: don't resurrect old JSON
+            if (whole == null && !anyWhole && !any && legacy != null) whole = legacy.load();
+            if (whole != null) {
+                s.playerBytes = whole.playerBytes;
+                s.playerJson = whole.playerJson;
+                s.slayerJson = whole.slayerJson;
+                s.ledgerSeq = whole.ledgerSeq;
+                s.timestampMs = Math.max(s.timestampMs, whole.timestampMs);
+            }
+        }
+        if (s.sections.isEmpty() && s.playerBytes == null && s.playerJson == null) return null;
+        return s;
+    }
+
+    /** The newest valid copy of one section, or null; cheaper than {@link #load()} for small ones. */
+    @Override @Nullable public byte[] loadSection(SaveSection section) {
+        File base = sectionFile(section);
+        Snapshot s = new Snapshot();
+        synchronized (state) {
+            for (int g = 0; g <= generations; g++) {
+                File f = generation(base, g);
+                if (f.isFile() && readSection(f, section, s)) return s.sections.get(section);
+            }
+        }
+        return null;
+    }
+
+    /** Writes {@code s.sections} (and {@code s.playerBytes} as a whole-player file, if set). */
+    @Override public void save(Snapshot s) {
+        if (s.sections.isEmpty() && s.playerBytes == null) throw new IllegalArgumentException("Snapshot has no player");
+        synchronized (state) {
+            try {
+                if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Can't create " + dir);
+                for (Map.Entry<SaveSection, byte[]> e : s.sections.entrySet()) {
+                    if (s.captureSeq != 0) {
+                        Long newest = state.written.get(e.getKey());
+                        if (newest != null && newest > s.captureSeq) continue; // a later capture is on disk
+                        state.written.put(e.getKey(), s.captureSeq);
+                    }
+                    File target = sectionFile(e.getKey());
+                    install(target, SECTION_MAGIC, SECTION_VERSION, e.getKey().ordinal(), s, e.getValue());
+                }
+                if (s.playerBytes != null) {
+                    install(file, MAGIC, FORMAT_VERSION, -1, s, s.playerBytes);
+                    return;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (allPlayerSectionsOnDisk()) {
+                for (int g = 0; g <= generations; g++) generation(file, g).delete();
+                if (legacy != null) legacy.clearPlayer();
+            }
+        }
+    }
+
+    /** Keeps the capture order, so a save captured before the clear can't bring the old player back. */
+    @Override public void clear() {
+        synchronized (state) {
+            for (int g = 0; g <= generations; g++) {
+                generation(file, g).delete();
+                for (SaveSection section : SaveSection.values()) generation(sectionFile(section), g).delete();
+            }
+            if (legacy != null) legacy.clear();
+        }
+    }
+
+    /**
+     * Adds the save directory's files (sections, generations, ledger) to {@code backup}; temp
+     * files stay out, and so does the sync section: it names this device, and a restored copy
+     * would make two devices write the same cloud entry.
+     */
+    public static void addBackupRules(BackupService backup) {
+        backup.addInclude("player.*");
+        backup.addInclude(EventLedger.FILE_NAME);
+        backup.addExclude("*.tmp");
+        backup.addExclude(sectionFileName(SaveSection.SYNC) + "*");
+    }
+
+    /** player.bag.sec, player.engine.sec, … */
+    public static String sectionFileName(SaveSection section) {
+        return "player." + section.name().toLowerCase(Locale.ROOT) + SECTION_SUFFIX;
+    }
+
+    /* ---------- files ---------- */
+
+    private File sectionFile(SaveSection section) {
+        return new File(dir, sectionFileName(section));
+    }
+
+    private static File generation(File base, int g) {
+        return g == 0 ? base : new File(base.getPath() + "." + g);
+    }
+
+    private boolean allPlayerSectionsOnDisk() {
+        for (SaveSection section : SaveSection.PLAYER) if (!sectionFile(section).isFile()) return false;
+        return true;
+    }
+
+    /** Writes a uniquely named temp file, shifts the generations down and renames it into place. */
+    private void install(File target, int magic, int version, int tag, Snapshot s, byte[] payload) throws IOException {
+        File tmp = File.createTempFile(target.getName() + ".", ".tmp", dir);
+        try {
+            write(tmp, magic, version, tag, s.timestampMs, s.ledgerSeq, payload);
+            rotate(target);
+            if (!tmp.renameTo(target)) throw new IOException("Rename failed: " + target);
+        } finally {
+            if (tmp.exists()) tmp.delete();
+        }
+    }
+
+    /** base.(n-1) → .n, …, base → .1. The oldest generation is overwritten. */
+    private void rotate(File base) throws IOException {
+        if (generations == 0 || !base.isFile()) return;
+        for (int g = generations; g >= 1; g--) {
+            File from = generation(base, g - 1);
+            if (!from.isFile()) continue;
+            File to = generation(base, g);
+            if (!from.renameTo(to)) throw new IOException("Rename failed: " + to);
+        }
+    }
+
+    /** {@code tag} is the section ordinal; whole-player files have no tag field. */
+    private static void write(File f, int magic, int version, int tag, long timestampMs, long ledgerSeq,
+                              byte[] payload) throws IOException {
+        int header = magic == SECTION_MAGIC ? SECTION_HEADER_BYTES : HEADER_BYTES;
+        ByteBuffer buf = ByteBuffer.allocate(header + payload.length + FOOTER_BYTES);
+        buf.putInt(magic);
+        buf.putInt(version);
+        if (magic == SECTION_MAGIC) buf.putInt(tag);
+        buf.putLong(timestampMs);
+        buf.putLong(ledgerSeq);
+        buf.putInt(payload.length);
+        buf.put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+        try (FileOutputStream fos = new FileOutputStream(f, false); FileChannel ch = fos.getChannel()) {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+    }
+
+    /**
+     * Reads one section file into {@code into} (bytes, seq, newest timestamp). False if it is
+     * unreadable, truncated, fails its checksum or holds another section.
+     */
+    private static boolean readSection(File f, SaveSection section, Snapshot into) {
+        ByteBuffer buf = readAll(f);
+        if (buf == null || buf.remaining() < SECTION_HEADER_BYTES + FOOTER_BYTES) return false;
+        if (buf.getInt() != SECTION_MAGIC || buf.getInt() != SECTION_VERSION) return false;
+        if (buf.getInt() != section.ordinal()) return false;
+        long timestampMs = buf.getLong();
+        long seq = buf.getLong();
+        int len = buf.getInt();
+        if (len < 0 || len != buf.limit() - SECTION_HEADER_BYTES - FOOTER_BYTES) return false;
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, SECTION_HEADER_BYTES + len);
+        if ((int) crc.getValue() != buf.getInt(SECTION_HEADER_BYTES + len)) return false;
+        byte[] payload = new byte[len];
+        buf.get(payload);
+        into.sections.put(section, payload);
+        into.sectionSeqs.put(section, seq);
+        into.timestampMs = Math.max(into.timestampMs, timestampMs);
+        return true;
+    }
+
+    @Nullable private static ByteBuffer readAll(File f) {
+        try (FileInputStream fis = new FileInputStream(f); FileChannel ch = fis.getChannel()) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) return null;
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf) < 0) return null;
+            }
+            buf.flip();
+            return buf;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** A whole-player file; null if {@code f} is unreadable, truncated or fails its checksum. */
+    @Nullable private static Snapshot read(File f) {
+        ByteBuffer buf = readAll(f);
+        if (buf == null || buf.remaining() < HEADER_BYTES) return null;
+        int size = buf.limit();
+        if (buf.getInt() != MAGIC) return null;
+        int version = buf.getInt();
+        if (version != 1 && version != FORMAT_VERSION) return null;
+        Snapshot s = new Snapshot();
+        s.timestampMs = buf.getLong();
+        s.ledgerSeq = buf.getLong();
+        int len = buf.getInt();
+        int footer = version >= 2 ? FOOTER_BYTES : 0;
+        if (len < 0 || len != size - HEADER_BYTES - footer) return null;
+        if (footer > 0) {
+            CRC32 crc = new CRC32();
+            crc.update(buf.array(), 0, HEADER_BYTES + len);
+            if ((int) crc.getValue() != buf.getInt(HEADER_BYTES + len)) return null;
+        }
+        s.playerBytes = new byte[len];
+        buf.get(s.playerBytes);
+        return s;
+    }
+}
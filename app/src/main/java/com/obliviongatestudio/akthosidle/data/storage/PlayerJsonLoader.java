@@ -0,0 +1,226 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Reads a JSON player save (the Gson shape of {@link PlayerCharacter}) with a streaming
+ * {@link JsonReader}: no intermediate tree, no reflection, and unknown fields (e.g. Firestore's
+ * updatedAt) are skipped. The {@link SaveMigrations#FIELD} version decides which
+ * {@link SaveMigrations} steps run afterwards.
+ * Reading is tolerant of the shapes older builds wrote: skills as {xp|exp|level} objects or
+ * strings, numbers as strings or doubles, nulls anywhere.
+ */
+public final class PlayerJsonLoader {
+
+    /** A player as read, before migration. */
+    public static final class Result {
+        public final PlayerCharacter player;
+        public final int schemaVersion;
+
+        Result(PlayerCharacter player, int schemaVersion) {
+            this.player = player;
+            this.schemaVersion = schemaVersion;
+        }
+    }
+
+    private PlayerJsonLoader() {}
+
+    /** Reads and migrates a player. Throws if it isn't a player object or is from a newer schema. */
+    public static PlayerCharacter load(String json) throws IOException {
+        return load(new StringReader(json));
+    }
+
+    public static PlayerCharacter load(Reader in) throws IOException {
+        Result r = read(in);
+        try {
+            SaveMigrations.migrate(r.player, r.schemaVersion);
+        } catch (IllegalArgumentException newer) {
+            throw new IOException(newer.getMessage(), newer);
+        }
+        return r.player;
+    }
+
+    /** Reads without migrating. */
+    public static Result read(Reader in) throws IOException {
+        JsonReader r = new JsonReader(in);
+        r.setLenient(true);
+        try {
+            if (r.peek() != JsonToken.BEGIN_OBJECT) throw new IOException("Not a player save: " + r.peek());
+            PlayerCharacter pc = new PlayerCharacter();
+            int version = SaveMigrations.UNVERSIONED;
+            r.beginObject();
+            while (r.hasNext()) {
+                String name = r.nextName();
+                if (r.peek() == JsonToken.NULL) {
+                    r.nextNull(); // keep the default
+                    continue;
+                }
+                switch (name) {
+                    case SaveMigrations.FIELD: version = (int) readLong(r); break;
+                    case "currentHp": pc.currentHp = (int) readLong(r); break;
+                    case "exp": pc.exp = (int) readLong(r); break;
+                    case "element": pc.element = readEnum(r, Element.class, Element.NEUTRAL); break;
+                    case "quickFoodId": pc.setQuickFoodId(r.nextString()); break;
+                    case "base": pc.base = readStats(r); break;
+                    case "bag": readBag(r, pc); break;
+                    case "currencies": readCurrencies(r, pc); break;
+                    case "equipment": readEquipment(r, pc); break;
+                    case "skills": readSkills(r, pc); break;
+                    default: r.skipValue(); break;
+                }
+            }
+            r.endObject();
+            return new Result(pc, version);
+        } catch (IllegalStateException | NumberFormatException | JsonParseException e) {
+            throw new IOException("Malformed player save", e);
+        }
+    }
+
+    private static void readBag(JsonReader r, PlayerCharacter pc) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            String id = r.nextName();
+            if (r.peek() == JsonToken.NULL) { r.nextNull(); continue; }
+            pc.bag.put(id, (int) readLong(r));
+        }
+        r.endObject();
+    }
+
+    private static void readCurrencies(JsonReader r, PlayerCharacter pc) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            String id = r.nextName();
+            if (r.peek() == JsonToken.NULL) { r.nextNull(); continue; }
+            pc.currencies.put(id, readLong(r));
+        }
+        r.endObject();
+    }
+
+    private static void readEquipment(JsonReader r, PlayerCharacter pc) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            EquipmentSlot slot = parseEnum(EquipmentSlot.class, r.nextName());
+            if (slot == null || r.peek() != JsonToken.STRING) { r.skipValue(); continue; }
+            pc.equipment.put(slot, r.nextString());
+        }
+        r.endObject();
+    }
+
+    /**
+     * Skill values as stored; an object form reads as its xp/exp, or else its level, which (like a
+     * bare level in an unversioned save) the 0 → 1 migration turns into XP.
+     */
+    private static void readSkills(JsonReader r, PlayerCharacter pc) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            SkillId id = parseEnum(SkillId.class, r.nextName());
+            if (id == null) { r.skipValue(); continue; }
+            int xp;
+            if (r.peek() == JsonToken.BEGIN_OBJECT) {
+                long xpField = -1, expField = -1, level = 1;
+                r.beginObject();
+                while (r.hasNext()) {
+                    switch (r.nextName()) {
+                        case "xp": xpField = readLong(r); break;
+                        case "exp": expField = readLong(r); break;
+                        case "level": level = readLong(r); break;
+                        case "lvl": if (level <= 1) level = readLong(r); else r.skipValue(); break;
+                        default: r.skipValue(); break;
+                    }
+                }
+                r.endObject();
+                long v = xpField >= 0 ? xpField : Math.max(0, expField);
+                xp = (int) (v > 0 ? v : Math.max(1, level));
+            } else {
+                xp = (int) readLong(r);
+            }
+            pc.skills.put(id, xp);
+        }
+        r.endObject();
+    }
+
+    private static Stats readStats(JsonReader r) throws IOException {
+        Stats b = new Stats();
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "attack": b.attack = (int) readLong(r); break;
+                case "defense": b.defense = (int) readLong(r); break;
+                case "speed": b.speed = readDouble(r); break;
+                case "health": b.health = (int) readLong(r); break;
+                case "critChance": b.critChance = readDouble(r); break;
+                case "critMultiplier": b.critMultiplier = readDouble(r); break;
+                default: r.skipValue(); break;
+            }
+        }
+        r.endObject();
+        return b;
+    }
+
+    /* ---------- scalars ---------- */
+
+    /** A number, a numeric string or null (0); fractional values are truncated. */
+    private static long readLong(JsonReader r) throws IOException {
+        switch (r.peek()) {
+            case NUMBER:
+                try {
+                    return r.nextLong();
+                } catch (NumberFormatException notIntegral) {
+                    return (long) r.nextDouble();
+                }
+            case STRING: {
+                String s = r.nextString().trim();
+                try {
+                    return Long.parseLong(s);
+                } catch (NumberFormatException e) {
+                    try { return (long) Double.parseDouble(s); }
+                    catch (NumberFormatException e2) { return 0L; }
+                }
+            }
+            case NULL:
+                r.nextNull();
+                return 0L;
+            default:
+                r.skipValue();
+                return 0L;
+        }
+    }
+
+    private static double readDouble(JsonReader r) throws IOException {
+        switch (r.peek()) {
+            case NUMBER:
+                return r.nextDouble();
+            case STRING:
+                try { return Double.parseDouble(r.nextString().trim()); }
+                catch (NumberFormatException e) { return 0.0; }
+            default:
+                r.skipValue();
+                return 0.0;
+        }
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonReader r, Class<E> type, E unknown) throws IOException {
+        if (r.peek() != JsonToken.STRING) { r.skipValue(); return unknown; }
+        E e = parseEnum(type, r.nextString());
+        return e != null ? e : unknown;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
+import com.obliviongatestudio.akthosidle.data.dtos.Snapshot;
+
+/**
+ * Player snapshots as Gson JSON in the save SharedPreferences, under the keys older builds
+ * use. Only read now, to migrate into {@link FileSnapshotStore}.
+ */
+public class PrefsSnapshotStore implements SnapshotStore {
+    public static final String KEY_PLAYER = "player_json";
+    public static final String KEY_SLAYER_JSON = "slayer_assignment_json";
+    public static final String KEY_UPDATED_AT = "player_updated_at_ms";
+    public static final String KEY_LEDGER_SEQ = "player_ledger_seq";
+
+    private final SharedPreferences sp;
+
+    public PrefsSnapshotStore(SharedPreferences sp) { this.sp = sp; }
+
+    /** Null if no player was ever saved. */
+    @Override @Nullable public Snapshot load() {
+        String json = sp.getString(KEY_PLAYER, null);
+        if (json == null) return null;
+        Snapshot s = new Snapshot();
+        s.playerJson = json;
+        s.slayerJson = sp.getString(KEY_SLAYER_JSON, null);
+        s.timestampMs = sp.getLong(KEY_UPDATED_AT, 0L);
+        s.ledgerSeq = sp.getLong(KEY_LEDGER_SEQ, 0L);
+        return s;
+    }
+
+    /** Older builds kept one JSON blob; there are no sections here. */
+    @Override @Nullable public byte[] loadSection(SaveSection section) { return null; }
+
+    /**
+     * Synchronous: the ledger is compacted right after, so the snapshot must be on disk first.
+     * Throws if the write didn't stick (the caller keeps the ledger and retries).
+     */
+    @Override public void save(Snapshot s) {
+        SharedPreferences.Editor ed = sp.edit()
+                .putString(KEY_PLAYER, s.playerJson)
+                .putLong(KEY_UPDATED_AT, s.timestampMs)
+                .putLong(KEY_LEDGER_SEQ, s.ledgerSeq);
+        if (s.slayerJson != null) ed.putString(KEY_SLAYER_JSON, s.slayerJson);
+        if (!ed.commit()) throw new IllegalStateException("Snapshot write failed");
+    }
+
+    @Override public void clear() {
+        sp.edit()
+                .remove(KEY_PLAYER)
+                .remove(KEY_SLAYER_JSON)
+                .remove(KEY_UPDATED_AT)
+                .remove(KEY_LEDGER_SEQ)
+                .apply();
+    }
+
+    /** Drops the JSON player once a newer store holds every section of it. */
+    void clearPlayer() {
+        if (!sp.contains(KEY_PLAYER)) return;
+        sp.edit()
+                .remove(KEY_PLAYER)
+                .remove(KEY_UPDATED_AT)
+                .remove(KEY_LEDGER_SEQ)
+                .apply();
+    }
+}
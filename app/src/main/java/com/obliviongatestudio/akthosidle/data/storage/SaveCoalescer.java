@@ -0,0 +1,191 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Write-behind persistence: callers mark state dirty, a single background thread writes it.
+ * - Bursts coalesce: at most one write per {@code minIntervalMs}, whatever the number of marks.
+ * - {@link #flush()} writes now and blocks until everything marked so far is on disk; use it
+ *   on onPause/onCleared/trim-memory so nothing is lost if the process is killed.
+ * - A writer that throws (e.g. state mutated mid-serialization) is retried on the next pass.
+ * - {@link #requests()} / {@link #writes()} give the write amplification directly.
+ * - The thread exits after {@link #IDLE_EXIT_MS} without marks and restarts on the next one,
+ *   so short-lived owners don't leak threads.
+ */
+public final class SaveCoalescer {
+
+    /** Serializes and writes the current state; runs on the persistence thread. */
+    public interface Writer {
+        void write() throws Exception;
+    }
+
+    /** Upper bound for a blocking flush, so a wedged disk can't hang the UI thread forever. */
+    private static final long FLUSH_TIMEOUT_MS = 2_000L;
+    private static final long IDLE_EXIT_MS = 30_000L;
+
+    /** Every coalescer still reachable, for {@link #flushAll()}. */
+    private static final Set<SaveCoalescer> LIVE =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final String name;
+    private final Writer writer;
+    private final Object lock = new Object();
+
+    private volatile long minIntervalMs;
+    private Thread thread;
+    private long markSeq;       // bumped by every markDirty()
+    private long writtenSeq;    // markSeq covered by the last successful write
+    private long lastWriteAtMs = Long.MIN_VALUE / 2;
+    private boolean flushRequested;
+    private boolean stopped;
+    private long requests, writes, failures;
+
+    public SaveCoalescer(String name, long minIntervalMs, Writer writer) {
+        this.name = name;
+        this.minIntervalMs = Math.max(0, minIntervalMs);
+        this.writer = writer;
+        LIVE.add(this);
+    }
+
+    /** Flushes every live coalescer (several repositories may share one process). */
+    public static void flushAll() {
+        List<SaveCoalescer> all;
+        synchronized (LIVE) { all = new ArrayList<>(LIVE); }
+        for (SaveCoalescer c : all) c.flush();
+    }
+
+    public void setMinIntervalMs(long ms) {
+        minIntervalMs = Math.max(0, ms);
+        synchronized (lock) { lock.notifyAll(); }
+    }
+
+    /** Cheap; safe from any thread. The write happens later on the persistence thread. */
+    public void markDirty() {
+        synchronized (lock) {
+            if (stopped) return;
+            markSeq++;
+            requests++;
+            ensureThread();
+            lock.notifyAll();
+        }
+    }
+
+    /** Forgets pending marks (state was written some other way, or wiped). */
+    public void discardPending() {
+        synchronized (lock) {
+            writtenSeq = markSeq;
+            flushRequested = false;
+        }
+    }
+
+    /**
+     * Writes anything marked so far without waiting for the interval and blocks until it is
+     * done (or {@link #FLUSH_TIMEOUT_MS} passes). Returns true if nothing is left pending.
+     */
+    public boolean flush() {
+        synchronized (lock) {
+            long target = markSeq;
+            if (writtenSeq >= target) return true;
+            if (Thread.currentThread() == thread) return false; // called from the writer itself
+            flushRequested = true;
+            lock.notifyAll();
+            long deadline = now() + FLUSH_TIMEOUT_MS;
+            while (writtenSeq < target && !stopped) {
+                long wait = deadline - now();
+                if (wait <= 0) return false;
+                try {
+                    lock.wait(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return writtenSeq >= target;
+        }
+    }
+
+    /** Flushes and stops the thread; later marks are ignored. */
+    public void shutdown() {
+        flush();
+        synchronized (lock) {
+            stopped = true;
+            lock.notifyAll();
+        }
+    }
+
+    public boolean isDirty() {
+        synchronized (lock) { return writtenSeq < markSeq; }
+    }
+
+    public long requests() { synchronized (lock) { return requests; } }
+    public long writes() { synchronized (lock) { return writes; } }
+    public long failures() { synchronized (lock) { return failures; } }
+
+    private void ensureThread() {
+        if (thread != null) return;
+        thread = new Thread(this::run, "persist-" + name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+
+    private void run() {
+        while (true) {
+            long seq;
+            synchronized (lock) {
+                try {
+                    long idleSince = now();
+                    while (!stopped && writtenSeq >= markSeq) {
+                        long idle = idleSince + IDLE_EXIT_MS - now();
+                        if (idle <= 0) {
+                            thread = null; // markDirty() starts a new one
+                            return;
+                        }
+                        lock.wait(idle);
+                    }
+                    // Coalesce: sleep out the rest of the interval unless someone wants a flush.
+                    long wait;
+                    while (!stopped && !flushRequested
+                            && (wait = lastWriteAtMs + minIntervalMs - now()) > 0) {
+                        lock.wait(wait);
+                    }
+                } catch (InterruptedException e) {
+                    thread = null;
+                    return;
+                }
+                if (writtenSeq >= markSeq) {
+                    if (stopped) return;
+                    continue; // discarded while we waited
+                }
+                seq = markSeq;
+                flushRequested = false;
+            }
+
+            boolean ok;
+            try {
+                writer.write();
+                ok = true;
+            } catch (Exception e) {
+                ok = false;
+            }
+
+            synchronized (lock) {
+                lastWriteAtMs = now();
+                if (ok) {
+                    writes++;
+                    writtenSeq = Math.max(writtenSeq, seq);
+                } else {
+                    failures++;
+                }
+                lock.notifyAll();
+                if (stopped) return; // shutdown gets one final attempt
+            }
+        }
+    }
+
+    private static long now() { return System.nanoTime() / 1_000_000L; }
+}
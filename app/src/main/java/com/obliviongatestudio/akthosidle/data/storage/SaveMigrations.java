@@ -0,0 +1,77 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+
+/**
+ * Schema versions of JSON player saves (legacy local saves, exports, cloud documents) and the
+ * steps that upgrade them.
+ * - A save records the schema it was written with in {@link #FIELD}; saves from before
+ *   versioning have none ({@link #UNVERSIONED}).
+ * - {@link #migrate} runs only the steps above that version, in order, so a current save does
+ *   no migration work and an old one is upgraded once (it's written back as current).
+ * - Binary saves ({@link PlayerCodec}) are encoded from a migrated player, so they are always
+ *   current; a layout change there bumps {@link PlayerCodec#VERSION} instead.
+ * New steps go at the end: bump {@link #CURRENT} and register the step from the old value.
+ */
+public final class SaveMigrations {
+    public static final String FIELD = "schemaVersion";
+    public static final int UNVERSIONED = 0;
+    public static final int CURRENT = 2;
+
+    public interface Migration {
+        void apply(PlayerCharacter pc);
+    }
+
+    /** STEPS[v] upgrades a version-v save to v + 1. */
+    private static final Migration[] STEPS = new Migration[CURRENT];
+
+    static {
+        // 0 → 1: skills held levels (1..99) before they held XP
+        register(0, PlayerCharacter::migrateSkillsToXpIfNeeded);
+        // 1 → 2: fields older builds could leave out or out of range
+        register(1, SaveMigrations::fillDefaults);
+    }
+
+    private SaveMigrations() {}
+
+    private static void register(int from, Migration step) {
+        if (STEPS[from] != null) throw new IllegalStateException("Migration from v" + from + " registered twice");
+        STEPS[from] = step;
+    }
+
+    /**
+     * Upgrades {@code pc}, read from a version-{@code fromVersion} save, to {@link #CURRENT}.
+     * Returns the number of steps run (0 for a current save).
+     */
+    public static int migrate(PlayerCharacter pc, int fromVersion) {
+        if (fromVersion > CURRENT) {
+            throw new IllegalArgumentException("Save schema v" + fromVersion + " is newer than this build (v" + CURRENT + ")");
+        }
+        int steps = 0;
+        for (int v = Math.max(UNVERSIONED, fromVersion); v < CURRENT; v++, steps++) STEPS[v].apply(pc);
+        return steps;
+    }
+
+    private static void fillDefaults(PlayerCharacter pc) {
+        if (pc.bag == null) pc.bag = new HashMap<>();
+        if (pc.equipment == null) pc.equipment = new EnumMap<>(EquipmentSlot.class);
+        if (pc.skills == null) pc.skills = new EnumMap<>(SkillId.class);
+        if (pc.currencies == null) pc.currencies = new HashMap<>();
+        if (pc.base == null) pc.base = new Stats(12, 6, 0.0, 100, 0.05, 1.5);
+        if (pc.element == null) pc.element = Element.NEUTRAL;
+
+        if (pc.base.health <= 0) pc.base.health = 100;
+        if (pc.base.critMultiplier < 1.0) pc.base.critMultiplier = 1.5;
+        if (pc.base.critChance < 0) pc.base.critChance = 0;
+        if (pc.base.critChance > 1) pc.base.critChance = 1;
+
+        pc.normalizeCurrencies();
+    }
+}
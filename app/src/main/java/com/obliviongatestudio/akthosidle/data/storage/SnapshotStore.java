@@ -1,8 +1,11 @@
 package com.obliviongatestudio.akthosidle.data.storage;
 
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
 import com.obliviongatestudio.akthosidle.data.dtos.Snapshot;
 
 public interface SnapshotStore {
     Snapshot load();
+    byte[] loadSection(SaveSection section);
     void save(Snapshot s);
+    void clear();
 }
@@ -1,48 +1,114 @@
 package com.obliviongatestudio.akthosidle.data.tracking;
 
-import java.util.ArrayDeque;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
 
-/** Sliding-window XP tracker to compute XP/hour for selected sources. */
+/**
+ * Per-key gain rates (XP, items, silver… per hour) over sliding windows.
+ * - Each key keeps a ring of 1 s buckets covering the last hour. Each slot packs its bucket
+ *   number and sum into one long, so a write is a single CAS and a stale slot is recognised by
+ *   its number. No per-event objects.
+ * - note() is O(1); a rate query reads at most one bucket per second of window.
+ * - Reads take no lock. Writers on other threads (the action worker) only CAS.
+ * - Any window from 1 s to 1 h, plus {@link #WINDOW_SESSION} (average since creation).
+ */
 public class ExpTracker {
-    public static final long DEFAULT_WINDOW_MS = 5 * 60 * 1000; // 5 minutes
-    private static final int MAX_EVENTS_PER_KEY = 2000;
+    public static final long WINDOW_1M = 60_000L;
+    public static final long WINDOW_5M = 5 * 60_000L;
+    public static final long WINDOW_1H = 60 * 60_000L;
+    /** Pass as the window for the average since this tracker was created. */
+    public static final long WINDOW_SESSION = Long.MAX_VALUE;
+    public static final long DEFAULT_WINDOW_MS = WINDOW_5M; // 5 minutes
 
-    private static final class Event { long t; int amt; Event(long t,int a){this.t=t;this.amt=a;} }
-    private final Map<String, ArrayDeque<Event>> events = new HashMap<>();
+    private static final long BUCKET_MS = 1_000L;
+    private static final int BUCKETS = (int) (WINDOW_1H / BUCKET_MS);
+    private static final long SUM_MASK = 0xFFFF_FFFFL;
 
-    public synchronized void note(String key, int amount) {
+    private static final class Series {
+        /** (bucket number << 32) | sum; bucket numbers start at 1 so 0 means empty. */
+        final AtomicLongArray slots = new AtomicLongArray(BUCKETS);
+        final AtomicLong total = new AtomicLong();
+    }
+
+    private final LongSupplier clock;
+    private final long startMs;
+    private final ConcurrentHashMap<String, Series> series = new ConcurrentHashMap<>();
+
+    public ExpTracker() { this(System::currentTimeMillis); }
+
+    /** {@code clock} returns wall-clock milliseconds; tests pass a fake one. */
+    public ExpTracker(LongSupplier clock) {
+        this.clock = clock;
+        this.startMs = clock.getAsLong();
+    }
+
+    public void note(String key, int amount) {
         if (key == null || amount <= 0) return;
-        long now = System.currentTimeMillis();
-        ArrayDeque<Event> q = events.computeIfAbsent(key, k -> new ArrayDeque<>());
-        q.addLast(new Event(now, amount));
-        prune(q, now, DEFAULT_WINDOW_MS);
-        while (q.size() > MAX_EVENTS_PER_KEY) q.pollFirst();
+        Series s = series.computeIfAbsent(key, k -> new Series());
+        long b = bucketOf(clock.getAsLong());
+        int i = (int) (b % BUCKETS);
+        while (true) {
+            long cur = s.slots.get(i);
+            long sum = (cur >>> 32) == b ? cur & SUM_MASK : 0L;
+            long next = (b << 32) | Math.min(SUM_MASK, sum + amount);
+            if (s.slots.compareAndSet(i, cur, next)) break;
+        }
+        s.total.addAndGet(amount);
     }
 
-    public synchronized double ratePerHour(Set<String> keys, long windowMs) {
+    /** Combined per-hour rate of {@code keys} over the last {@code windowMs} (clamped to 1 s..1 h). */
+    public double ratePerHour(Set<String> keys, long windowMs) {
         if (keys == null || keys.isEmpty()) return 0.0;
-        long now = System.currentTimeMillis();
-        long win = Math.max(1_000L, windowMs);
-        long start = now - win;
-        int sum = 0;
+        return rate(keys, windowMs);
+    }
+
+    /** Per-hour rate summed over every key seen so far. */
+    public double totalRatePerHour(long windowMs) {
+        return rate(series.keySet(), windowMs);
+    }
+
+    private double rate(Collection<String> keys, long windowMs) {
+        long now = clock.getAsLong();
+        if (windowMs == WINDOW_SESSION) {
+            long sum = 0;
+            for (String k : keys) {
+                Series s = series.get(k);
+                if (s != null) sum += s.total.get();
+            }
+            return sum / (Math.max(1_000L, now - startMs) / 3600000.0);
+        }
+
+        long win = Math.min(WINDOW_1H, Math.max(1_000L, windowMs));
+        int n = (int) Math.max(1, win / BUCKET_MS);
+        long last = bucketOf(now);
+        long first = Math.max(1, last - n + 1);
+        long sum = 0;
         for (String k : keys) {
-            ArrayDeque<Event> q = events.get(k);
-            if (q == null) continue;
-            prune(q, now, win);
-            for (Event e : q) if (e.t >= start) sum += e.amt;
+            Series s = series.get(k);
+            if (s == null) continue;
+            for (long b = first; b <= last; b++) {
+                long v = s.slots.get((int) (b % BUCKETS));
+                if ((v >>> 32) == b) sum += v & SUM_MASK;
+            }
         }
         double hours = win / 3600000.0;
-        return sum / hours; // xp/h
+        return sum / hours;
     }
 
-    private void prune(ArrayDeque<Event> q, long now, long windowMs) {
-        long minT = now - windowMs;
-        while (!q.isEmpty() && q.peekFirst().t < minT) q.pollFirst();
+    /** Total gained for {@code key} since this tracker was created. */
+    public long sessionTotal(String key) {
+        Series s = key != null ? series.get(key) : null;
+        return s != null ? s.total.get() : 0L;
     }
 
-    public synchronized Set<String> keys() { return new HashSet<>(events.keySet()); }
+    public Set<String> keys() { return new HashSet<>(series.keySet()); }
+
+    private long bucketOf(long nowMs) {
+        return Math.max(0L, nowMs - startMs) / BUCKET_MS + 1;
+    }
 }
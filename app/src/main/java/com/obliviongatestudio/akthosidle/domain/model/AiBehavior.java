@@ -1,11 +1,13 @@
 package com.obliviongatestudio.akthosidle.domain.model;
 
 /**
- * Basic AI behavior modes for monsters.
- * AGGRESSIVE: attacks normally.
+ * Basic AI behavior modes for monsters (and party members).
+ * AGGRESSIVE: attacks normally, sticking to one target until it falls.
  * PASSIVE: does not initiate attacks.
+ * FOCUS_WEAKEST: re-targets every swing at the opponent with the least HP.
  */
 public enum AiBehavior {
     AGGRESSIVE,
-    PASSIVE
+    PASSIVE,
+    FOCUS_WEAKEST
 }
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.rules.ProgressionCurve;
 
 public class PlayerCharacter {
     // --- persisted fields ---
@@ -53,7 +54,10 @@ public class PlayerCharacter {
     private static final int MAX_LEVEL = 99;
     private static final double XP_BASE = 100.0;
     private static final double XP_GROWTH = 1.3;
-    private static final int HP_PER_LEVEL = 10; // +10 Max HP per HP level over 1
+    static final int HP_PER_LEVEL = 10; // +10 Max HP per HP level over 1
+    /** Skill/player XP thresholds, built once; level lookups are a binary search. */
+    private static final ProgressionCurve XP_CURVE =
+            ProgressionCurve.of(MAX_LEVEL, l -> XP_BASE * Math.pow(XP_GROWTH, l - 1));
 
     // ===== Quick food =====
     public @Nullable String getQuickFoodId() { return quickFoodId; }
@@ -86,19 +90,12 @@ public class PlayerCharacter {
     // ===== Skill XP system =====
     /** Sum of per-level costs to reach 'level'. level=1 -> 0 XP. */
     public static int xpToReachLevel(int level) {
-        if (level <= 1) return 0;
-        double sum = 0;
-        for (int l = 1; l < level; l++) {
-            sum += Math.floor(XP_BASE * Math.pow(XP_GROWTH, l - 1));
-        }
-        return (int) Math.floor(sum);
+        return (int) Math.min(Integer.MAX_VALUE, XP_CURVE.expForLevel(level)); // high levels overflow int
     }
 
     /** Given XP, returns the level (1..MAX_LEVEL). */
     public static int levelForExp(int xp) {
-        int level = 1;
-        while (level < MAX_LEVEL && xp >= xpToReachLevel(level + 1)) level++;
-        return level;
+        return XP_CURVE.levelForExp(xp);
     }
 
     /** XP needed inside the current level (progress numerator). */
@@ -134,48 +131,28 @@ public class PlayerCharacter {
         int newLevel = levelForExp(newXp);
         boolean leveled = newLevel > oldLevel;
 
-        // If HP skill leveled, clamping to new max happens in totalStats().
+        // HP level-ups only raise max HP; GameRepository invalidates its stat sheet.
         return leveled;
     }
 
+    /** Takes XP back (a grant that failed verification), never below 0. */
+    public void removeSkillExp(SkillId id, int amount) {
+        if (id == null || amount <= 0) return;
+        skills.put(id, Math.max(0, getSkillExp(id) - amount));
+    }
+
     // ===== Optional: overall player level helpers (reuse same curve) =====
     public int getPlayerLevel() { return levelForExp(exp); }
     public int getPlayerXpIntoLevel() { return xpIntoLevel(exp, getPlayerLevel()); }
     public int getPlayerXpForNextLevel() { return xpForNextLevel(getPlayerLevel()); }
 
     // ===== Stats aggregation (include HP per HP level) =====
+    /**
+     * Fresh total of base + gear + HP-level bonus. Pure: callers clamp currentHp themselves
+     * (see GameRepository). Hot paths should read GameRepository.statSheet() instead.
+     */
     public Stats totalStats(Stats gear) {
-        Stats out = new Stats(
-                base.attack, base.defense, base.speed, base.health, base.critChance, base.critMultiplier
-        );
-        if (gear != null) {
-            out.attack += gear.attack;
-            out.defense += gear.defense;
-            out.speed += gear.speed;
-            out.health += gear.health;
-            out.critChance += gear.critChance;
-            out.critMultiplier = Math.max(out.critMultiplier, gear.critMultiplier);
-        }
-
-        // HP scales with the HP skill level.
-        int hpLevel = getSkillLevel(SkillId.HP);
-        if (hpLevel > 1) out.health += (hpLevel - 1) * HP_PER_LEVEL;
-
-        // Optional: map combat skills into stats
-        // out.attack  += Math.max(0, getSkillLevel(SkillId.ATTACK)  - 1);
-        // out.defense += Math.max(0, getSkillLevel(SkillId.DEFENSE) - 1);
-
-        // Clamp current HP to new max
-        int maxHp = Math.max(1, out.health);
-        if (currentHp > maxHp) {
-            currentHp = maxHp;
-        }
-        // Also, ensure currentHp is not negative if other logic could cause that.
-        if (currentHp < 0) {
-            currentHp = 0; // Or handle defeat appropriately
-        }
-
-        return out;
+        return StatSheet.of(this, gear, null, 0).total;
     }
 
     // ===== Migration: old saves that stored LEVEL instead of XP =====
@@ -1,6 +1,12 @@
 package com.obliviongatestudio.akthosidle.domain.model;
 
+import com.obliviongatestudio.akthosidle.domain.rules.ProgressionCurve;
+
 public class Skill {
+    /** Per-level costs as a threshold table; levels past it are computed on demand. */
+    private static final ProgressionCurve CURVE =
+            ProgressionCurve.of(150, lvl -> 100 * Math.pow(1.2, lvl - 1));
+
     public int level;
     public int exp;
     public int xp;
@@ -37,7 +43,8 @@ public class Skill {
      * Example: base 100, grows ~1.2x each level.
      */
     private int requiredXpForLevel(int lvl) {
-        // Formula: base * (growth ^ (lvl-1))
-        return (int) Math.floor(100 * Math.pow(1.2, lvl - 1));
+        // Formula: base * (growth ^ (lvl-1)), read from the table
+        if (lvl < 1) return (int) Math.floor(100 * Math.pow(1.2, lvl - 1));
+        return (int) Math.min(Integer.MAX_VALUE, CURVE.expForNextLevel(lvl));
     }
 }
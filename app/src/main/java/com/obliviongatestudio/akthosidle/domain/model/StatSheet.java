@@ -0,0 +1,44 @@
+package com.obliviongatestudio.akthosidle.domain.model;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Immutable snapshot of the player's combat stats with a per-source breakdown.
+ * - total = base + gear + skills + buffs (critMultiplier takes the largest, like {@link Stats#add}).
+ * - Built once per stats version by the repository; reading it afterwards is a field load.
+ * - The Stats objects are shared: treat them as read-only.
+ */
+public final class StatSheet {
+    /** Stats version this sheet was built for. */
+    public final int version;
+
+    public final Stats base;
+    public final Stats gear;
+    /** Contributions from skill levels (currently HP level → max HP). */
+    public final Stats skills;
+    public final Stats buffs;
+    public final Stats total;
+
+    private StatSheet(int version, Stats base, Stats gear, Stats skills, Stats buffs) {
+        this.version = version;
+        this.base = base;
+        this.gear = gear;
+        this.skills = skills;
+        this.buffs = buffs;
+        this.total = Stats.add(Stats.add(Stats.add(base, gear), skills), buffs);
+    }
+
+    public static StatSheet of(PlayerCharacter pc, @Nullable Stats gear, @Nullable Stats buffs, int version) {
+        Stats b = pc.base != null ? pc.base : new Stats();
+        Stats base = new Stats(b.attack, b.defense, b.speed, b.health, b.critChance, b.critMultiplier);
+        Stats skills = new Stats();
+        int hpLevel = pc.getSkillLevel(SkillId.HP);
+        if (hpLevel > 1) skills.health = (hpLevel - 1) * PlayerCharacter.HP_PER_LEVEL;
+        return new StatSheet(version, base,
+                gear != null ? gear : new Stats(),
+                skills,
+                buffs != null ? buffs : new Stats());
+    }
+
+    public int maxHp() { return Math.max(1, total.health); }
+}
@@ -1,6 +1,5 @@
 package com.obliviongatestudio.akthosidle.domain.model;
 
-import android.graphics.Color; // Import Android's Color class
 import androidx.annotation.ColorInt; // For better type safety
 
 /**
@@ -8,6 +7,16 @@ import androidx.annotation.ColorInt; // For better type safety
  */
 public class StatusEffect {
 
+    // ARGB constants (same values as android.graphics.Color) so combat code can run on a plain JVM.
+    private static final int COLOR_RED         = 0xFFFF0000;
+    private static final int COLOR_GREEN       = 0xFF00FF00;
+    private static final int COLOR_DARK_RED    = 0xFF8B0000;
+    private static final int COLOR_CYAN        = 0xFF00FFFF;
+    private static final int COLOR_LIGHT_GREEN = 0xFF90EE90;
+    private static final int COLOR_YELLOW      = 0xFFFFFF00;
+    private static final int COLOR_LTGRAY      = 0xFFCCCCCC;
+    private static final int COLOR_WHITE       = 0xFFFFFFFF;
+
     public static enum Type {
         DOT, // Damage Over Time (e.g., Burn, Poison)
         HOT, // Heal Over Time
@@ -72,21 +81,21 @@ public class StatusEffect {
     private static int getDefaultColorForEffect(String name, Type type) {
         String lowerName = name.toLowerCase();
         if (lowerName.contains("burn")) {
-            return Color.RED;
+            return COLOR_RED;
         } else if (lowerName.contains("poison")) {
-            return Color.GREEN;
+            return COLOR_GREEN;
         } else if (lowerName.contains("bleed")) {
-            return Color.parseColor("#8B0000"); // Dark Red
+            return COLOR_DARK_RED;
         } else if (lowerName.contains("freeze") || lowerName.contains("chill")) {
-            return Color.CYAN;
+            return COLOR_CYAN;
         } else if (type == Type.HOT || lowerName.contains("regen") || lowerName.contains("heal")) {
-            return Color.parseColor("#90EE90"); // Light Green
+            return COLOR_LIGHT_GREEN;
         } else if (type == Type.STUN) {
-            return Color.YELLOW;
+            return COLOR_YELLOW;
         } else if (type == Type.SLOW) {
-            return Color.LTGRAY; // Light Gray
+            return COLOR_LTGRAY;
         }
         // Default color if no specific match
-        return Color.WHITE;
+        return COLOR_WHITE;
     }
 }
@@ -0,0 +1,86 @@
+package com.obliviongatestudio.akthosidle.domain.rules;
+
+import java.util.Random;
+
+/**
+ * xoshiro256** generator exposed as a {@link Random} so existing code can take it unchanged.
+ * - No synchronization and no AtomicLong CAS (java.util.Random pays for both on every draw):
+ *   each instance belongs to one thread / one simulation.
+ * - Seeds are expanded with SplitMix64, so nearby seeds give unrelated streams.
+ * - {@link #split()} derives an independent child stream for handing work to another thread.
+ */
+public class GameRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long s0, s1, s2, s3;
+
+    public GameRandom(long seed) {
+        super(0L); // Random's own state is never used
+        reseed(seed);
+    }
+
+    /** Reseeds this stream; deterministic for a given seed. */
+    @Override public void setSeed(long seed) {
+        // Called by Random's constructor before our fields exist; the constructor reseeds after.
+        reseed(seed);
+    }
+
+    private void reseed(long seed) {
+        long x = seed;
+        s0 = mix64(x += 0x9E3779B97F4A7C15L);
+        s1 = mix64(x += 0x9E3779B97F4A7C15L);
+        s2 = mix64(x += 0x9E3779B97F4A7C15L);
+        s3 = mix64(x + 0x9E3779B97F4A7C15L);
+        if ((s0 | s1 | s2 | s3) == 0) s0 = 1; // all-zero state is a fixed point
+    }
+
+    /** New stream seeded from this one; the two sequences are statistically independent. */
+    public GameRandom split() {
+        return new GameRandom(nextLong() ^ 0x5DEECE66DL);
+    }
+
+    @Override public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    @Override protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override public int nextInt() { return (int) (nextLong() >>> 32); }
+
+    @Override public int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        // Lemire's multiply-shift with rejection: unbiased, usually a single draw.
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    @Override public double nextDouble() { return (nextLong() >>> 11) * DOUBLE_UNIT; }
+
+    @Override public boolean nextBoolean() { return nextLong() < 0; }
+
+    /** SplitMix64 finalizer; also handy as a stateless hash of a seed. */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
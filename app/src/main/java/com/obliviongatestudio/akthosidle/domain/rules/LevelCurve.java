@@ -7,29 +7,22 @@ package com.obliviongatestudio.akthosidle.domain.rules;
 public final class LevelCurve {
     private LevelCurve() {}
 
+    private static final int MAX_LEVEL = 120;
+    private static final ProgressionCurve CURVE =
+            ProgressionCurve.of(MAX_LEVEL, i -> i + 300 * Math.pow(2, i / 7.0), 4.0);
+
     /** Total XP required to REACH a given level (level >= 1). */
     public static long expForLevel(int level) {
-        if (level <= 1) return 0L;
-        double sum = 0.0;
-        for (int i = 1; i < level; i++) {
-            sum += Math.floor(i + 300 * Math.pow(2, i / 7.0));
-        }
-        return (long) Math.floor(sum / 4.0);
+        return CURVE.expForLevel(level);
     }
 
     /** Level for a given total XP (caps at 120 by default). */
     public static int levelForExp(long exp) {
-        if (exp <= 0) return 1;
-        int lvl = 1;
-        while (lvl < 120 && expForLevel(lvl + 1) <= exp) {
-            lvl++;
-        }
-        return lvl;
+        return CURVE.levelForExp(exp);
     }
 
     /** XP needed from current level to next level. */
     public static long expToNextLevel(int currentLevel, long currentExp) {
-        long next = expForLevel(currentLevel + 1);
-        return Math.max(0, next - currentExp);
+        return CURVE.expToNextLevel(currentLevel, currentExp);
     }
 }
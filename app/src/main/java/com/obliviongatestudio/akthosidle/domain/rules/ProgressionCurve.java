@@ -0,0 +1,82 @@
+package com.obliviongatestudio.akthosidle.domain.rules;
+
+/**
+ * An XP curve materialized once into a table of cumulative thresholds.
+ * - totals[L] = total XP needed to reach level L (totals[1] = 0), up to maxLevel + 1.
+ * - Level for XP is a binary search; XP for a level and in-level progress are array reads.
+ * - Built from a per-level cost function with the same double arithmetic as the original
+ *   loops (floor each step, sum, floor(sum / divisor)), so table values are bit-identical.
+ * - Levels past the table (rare) fall back to evaluating the cost function.
+ */
+public final class ProgressionCurve {
+
+    /** XP cost to go from {@code level} to {@code level + 1}, before flooring. */
+    public interface LevelCost {
+        double cost(int level);
+    }
+
+    private final int maxLevel;
+    private final long[] totals;
+    private final LevelCost cost;
+    private final double divisor;
+
+    private ProgressionCurve(int maxLevel, LevelCost cost, double divisor) {
+        if (maxLevel < 1) throw new IllegalArgumentException("maxLevel must be >= 1");
+        this.maxLevel = maxLevel;
+        this.cost = cost;
+        this.divisor = divisor;
+        this.totals = new long[maxLevel + 2];
+        double sum = 0;
+        for (int level = 2; level <= maxLevel + 1; level++) {
+            sum += Math.floor(cost.cost(level - 1));
+            totals[level] = (long) Math.floor(sum / divisor);
+        }
+    }
+
+    /** Curve whose total for level L is floor(sum of floor(cost(l)) for l < L). */
+    public static ProgressionCurve of(int maxLevel, LevelCost cost) {
+        return new ProgressionCurve(maxLevel, cost, 1.0);
+    }
+
+    /** Same, with the running sum divided by {@code divisor} before flooring. */
+    public static ProgressionCurve of(int maxLevel, LevelCost cost, double divisor) {
+        return new ProgressionCurve(maxLevel, cost, divisor);
+    }
+
+    public int maxLevel() { return maxLevel; }
+
+    /** Total XP required to reach {@code level} (0 for level <= 1). */
+    public long expForLevel(int level) {
+        if (level <= 1) return 0L;
+        if (level < totals.length) return totals[level];
+        double sum = 0;
+        for (int l = 1; l < level; l++) sum += Math.floor(cost.cost(l));
+        return (long) Math.floor(sum / divisor);
+    }
+
+    /** Highest level in 1..maxLevel whose threshold is <= {@code exp}. */
+    public int levelForExp(long exp) {
+        if (exp <= 0) return 1;
+        int lo = 1, hi = maxLevel; // totals[lo] <= exp always holds
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (totals[mid] <= exp) lo = mid; else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /** XP earned inside {@code level} (progress numerator). */
+    public long expIntoLevel(long exp, int level) {
+        return Math.max(0L, exp - expForLevel(level));
+    }
+
+    /** XP size of {@code level} (progress denominator). */
+    public long expForNextLevel(int level) {
+        return expForLevel(level + 1) - expForLevel(level);
+    }
+
+    /** XP still missing from {@code exp} to reach {@code level + 1}. */
+    public long expToNextLevel(int level, long exp) {
+        return Math.max(0L, expForLevel(level + 1) - exp);
+    }
+}
@@ -1,9 +1,8 @@
 package com.obliviongatestudio.akthosidle.domain.rules;
 
-import java.util.Random;
-
+/** Static helpers over the shared {@link RngService#RULES} stream (main thread). */
 public final class RNG {
-    private static final Random rnd = new Random();
+    private static final GameRandom rnd = RngService.get().stream(RngService.RULES);
 
     private RNG() {} // prevent instantiation
 
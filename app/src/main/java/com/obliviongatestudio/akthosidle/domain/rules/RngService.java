@@ -0,0 +1,79 @@
+package com.obliviongatestudio.akthosidle.domain.rules;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Central source of game randomness: named, independently seeded {@link GameRandom} streams.
+ * - A stream's seed depends only on the root seed and its name, never on creation order, so
+ *   reseeding the root makes every system reproducible at once.
+ * - Streams are unsynchronized; each one is owned by a single system on a single thread.
+ *   Work handed to other threads should use {@link #fork} (one fresh stream per task/index).
+ */
+public final class RngService {
+    public static final String COMBAT   = "combat";
+    public static final String LOOT     = "loot";
+    public static final String SLAYER   = "slayer";
+    public static final String CRAFTING = "crafting";
+    public static final String RULES    = "rules";
+
+    private static final RngService SHARED = new RngService(System.nanoTime() ^ System.currentTimeMillis());
+
+    private volatile long rootSeed;
+    private final Map<String, GameRandom> streams = new ConcurrentHashMap<>();
+
+    public RngService(long rootSeed) {
+        this.rootSeed = rootSeed;
+    }
+
+    /** Process-wide instance used by the repository and engines. */
+    public static RngService get() { return SHARED; }
+
+    /** The long-lived stream for {@code name}; the same instance is returned on every call. */
+    public GameRandom stream(String name) {
+        return streams.computeIfAbsent(name, n -> new GameRandom(seedFor(n)));
+    }
+
+    /**
+     * A fresh stream for task {@code index} of {@code name} (e.g. one offline simulation per
+     * thread). Deterministic from the root seed, independent of which thread runs it.
+     */
+    public GameRandom fork(String name, long index) {
+        return new GameRandom(GameRandom.mix64(seedFor(name) + GameRandom.mix64(index)));
+    }
+
+    /**
+     * Reseeds the root and every existing stream in place (tests, debug replays). Holders of a
+     * stream keep their reference and simply continue from the new seed.
+     */
+    public void reseed(long seed) {
+        rootSeed = seed;
+        for (Map.Entry<String, GameRandom> e : streams.entrySet()) {
+            e.getValue().setSeed(seedFor(e.getKey()));
+        }
+    }
+
+    /**
+     * Reseeds only the {@code names} streams, to what a full {@link #reseed} to {@code seed} would
+     * give them; the root and every other system's stream carry on untouched.
+     */
+    public void reseed(long seed, String... names) {
+        for (String n : names) stream(n).setSeed(seedFor(seed, n));
+    }
+
+    public long rootSeed() { return rootSeed; }
+
+    private long seedFor(String name) {
+        return seedFor(rootSeed, name);
+    }
+
+    private static long seedFor(long root, String name) {
+        // FNV-1a over the name, then mixed with the root seed.
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            h ^= name.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return GameRandom.mix64(root ^ h);
+    }
+}
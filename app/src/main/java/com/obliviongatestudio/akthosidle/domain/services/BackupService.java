@@ -1,9 +1,23 @@
 package com.obliviongatestudio.akthosidle.domain.services;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
-/** Simple include/exclude rules for backups. */
+/**
+ * Simple include/exclude rules for backups.
+ * Rules are '/'-separated paths relative to the backed-up directory: an exact file, a
+ * directory (everything under it), "prefix*" or "*suffix". Exclude wins; no includes means
+ * everything.
+ */
 public class BackupService {
     private final Set<String> include = new HashSet<>();
     private final Set<String> exclude = new HashSet<>();
@@ -23,4 +37,61 @@ public class BackupService {
     public void addExclude(String path) {
         exclude.add(path);
     }
+
+    public boolean matches(String relPath) {
+        for (String r : exclude) if (ruleMatches(r, relPath)) return false;
+        if (include.isEmpty()) return true;
+        for (String r : include) if (ruleMatches(r, relPath)) return true;
+        return false;
+    }
+
+    /** Files under {@code root} the rules select and modified after {@code sinceMs} (0 = all), by path. */
+    public List<File> changedSince(File root, long sinceMs) {
+        List<File> out = new ArrayList<>();
+        collect(root, "", sinceMs, out);
+        Collections.sort(out, Comparator.comparing(File::getPath));
+        return out;
+    }
+
+    /**
+     * Incremental backup: copies {@link #changedSince} into {@code dest}, keeping relative paths.
+     * Returns the number of files copied.
+     */
+    public int copyChanged(File root, File dest, long sinceMs) throws IOException {
+        String base = root.getPath();
+        int n = 0;
+        for (File f : changedSince(root, sinceMs)) {
+            File to = new File(dest, f.getPath().substring(base.length() + 1));
+            File parent = to.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) throw new IOException("Can't create " + parent);
+            try (FileChannel in = new FileInputStream(f).getChannel();
+                 FileChannel out = new FileOutputStream(to, false).getChannel()) {
+                long size = in.size(), pos = 0;
+                while (pos < size) pos += in.transferTo(pos, size - pos, out);
+            }
+            to.setLastModified(f.lastModified());
+            n++;
+        }
+        return n;
+    }
+
+    private void collect(File dir, String prefix, long sinceMs, List<File> out) {
+        File[] children = dir.listFiles();
+        if (children == null) return;
+        for (File c : children) {
+            String rel = prefix + c.getName();
+            if (c.isDirectory()) {
+                collect(c, rel + "/", sinceMs, out);
+            } else if (c.lastModified() > sinceMs && matches(rel)) {
+                out.add(c);
+            }
+        }
+    }
+
+    private static boolean ruleMatches(String rule, String path) {
+        if (rule.startsWith("*")) return path.endsWith(rule.substring(1));
+        if (rule.endsWith("*")) return path.startsWith(rule.substring(0, rule.length() - 1));
+        if (rule.endsWith("/")) return path.startsWith(rule);
+        return path.equals(rule) || path.startsWith(rule + "/");
+    }
 }
@@ -4,7 +4,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+
+import com.obliviongatestudio.akthosidle.domain.rules.GameRandom;
 
 /** Simple loot table utility for deterministic rolls. */
 public class LootService {
@@ -17,8 +18,8 @@ public class LootService {
     public List<String> rollTable(String tableId, long seed) {
         List<String> table = tables.get(tableId);
         if (table == null || table.isEmpty()) return Collections.emptyList();
-        Random rng = new Random(seed);
-        String pick = table.get(rng.nextInt(table.size()));
+        // Stateless hash of the seed: same pick per seed, no generator allocated per roll.
+        String pick = table.get((int) Math.floorMod(GameRandom.mix64(seed), (long) table.size()));
         return Collections.singletonList(pick);
     }
 }
@@ -2,6 +2,7 @@ package com.obliviongatestudio.akthosidle.domain.services;
 
 import androidx.annotation.Nullable;
 
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
 import com.obliviongatestudio.akthosidle.data.repo.GameRepository;
 import com.obliviongatestudio.akthosidle.domain.model.Action;
 import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
@@ -70,7 +71,7 @@ public class SkillService {
         boolean leveled = pc.skill(a.skill).addXp(a.exp);
         if (leveled) repo.toast("Level up: " + a.skill.name() + " " + pc.skill(a.skill).level); // implement UI hook as needed
 
-        repo.save();
+        repo.save(SaveSection.SKILLS);
     }
 }
 
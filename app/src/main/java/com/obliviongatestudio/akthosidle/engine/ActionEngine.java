@@ -166,6 +166,8 @@ public class ActionEngine {
     @WorkerThread
     private boolean grantRewardsAndXp(Action a, boolean allowToast) {
         StringBuilder toastMsg = new StringBuilder();
+        // Outputs and XP land in one transaction: one save / publish / cloud write per cycle.
+        GameRepository.Transaction tx = repo.beginTransaction();
 
         // Direct outputs (items or currency:xxx)
         if (a.outputs != null && !a.outputs.isEmpty()) {
@@ -174,7 +176,7 @@ public class ActionEngine {
                 String idOrCurrency = e.getKey();
                 int qty = Math.max(1, e.getValue());
 
-                repo.grantGathered(idOrCurrency, qty, null); // saves & publishes
+                tx.grant(idOrCurrency, qty);
 
                 String pretty;
                 if (idOrCurrency != null && idOrCurrency.startsWith("currency:")) {
@@ -192,10 +194,10 @@ public class ActionEngine {
 
         // Skill XP (use Action.exp, fallback to 5)
         int xp = (a.exp > 0) ? a.exp : 5;
-        boolean leveledUp = false;
         if (a.skill != null && xp > 0) {
-            leveledUp = repo.addSkillExp(a.skill, xp);
+            tx.addSkillExp(a.skill, xp);
         }
+        boolean leveledUp = tx.commit();
 
         // Optional: also add player XP (commented out)
         // repo.addPlayerExp(xp);
@@ -1,27 +1,34 @@
 package com.obliviongatestudio.akthosidle.engine;
 
-import android.graphics.Color; // Added for potential direct color use, though StatusEffect handles it
 import android.os.Handler;
 import android.os.Looper;
 import android.os.SystemClock;
 
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
 import com.obliviongatestudio.akthosidle.data.repo.GameRepository;
-import com.obliviongatestudio.akthosidle.domain.model.AiBehavior;
-import com.obliviongatestudio.akthosidle.domain.model.Drop;
-import com.obliviongatestudio.akthosidle.domain.model.Element;
 import com.obliviongatestudio.akthosidle.domain.model.Item;
 import com.obliviongatestudio.akthosidle.domain.model.Monster;
 import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
 import com.obliviongatestudio.akthosidle.domain.model.SkillId;
 import com.obliviongatestudio.akthosidle.domain.model.Stats;
 import com.obliviongatestudio.akthosidle.domain.model.StatusEffect;
-
+import com.obliviongatestudio.akthosidle.domain.rules.GameRandom;
+import com.obliviongatestudio.akthosidle.domain.rules.RngService;
+import com.obliviongatestudio.akthosidle.engine.combat.CombatCore;
+import com.obliviongatestudio.akthosidle.engine.combat.CombatLog;
+import com.obliviongatestudio.akthosidle.engine.combat.CombatReplay;
+import com.obliviongatestudio.akthosidle.engine.combat.DropRoller;
+import com.obliviongatestudio.akthosidle.engine.combat.OfflineCombatResolver;
+import com.obliviongatestudio.akthosidle.engine.combat.OfflineReplay;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 public class CombatEngine {
@@ -35,7 +42,7 @@ public class CombatEngine {
         public int monsterHp;
         public int monsterMaxHp;
 
-        /** 0..1 progress toward next attack */
+        /** 0..1 progress toward next attack, as of {@link #publishedAtMs} */
         public float playerAttackProgress;
         public float monsterAttackProgress;
 
@@ -43,59 +50,64 @@ public class CombatEngine {
         public float playerAttackInterval;
         public float monsterAttackInterval;
 
+        /** False while stunned (or for a passive monster): that side's bar stays put. */
+        public boolean playerCharging;
+        public boolean monsterCharging;
+
+        /** Uptime (ms) the fight clock was at when this state was published. */
+        public long publishedAtMs;
+
         /** Active status effects for UI display */
         public List<StatusEffect> playerEffects = new ArrayList<>();
         public List<StatusEffect> monsterEffects = new ArrayList<>();
 
         public boolean running;
-    }
 
-    private static class DamageResult {
-        final int dmg; final boolean crit;
-        DamageResult(int d, boolean c){ this.dmg=d; this.crit=c; }
-    }
-
-    /**
-     * Calculates raw damage and critical results for an attack.
-     */
-    private DamageResult damageRollEx(int atk, int def, double critC, double critM) {
-        int base = Math.max(1, atk - (int) (def * 0.6));
-        int roll = (int) Math.round(base * (0.85 + rng.nextDouble() * 0.3));
-        boolean crit = rng.nextDouble() < critC;
-        if (crit) roll = (int) Math.round(roll * Math.max(1.25, critM));
-        return new DamageResult(Math.max(1, roll), crit);
+        /**
+         * State is only published on combat events, so bars animate by interpolating from the
+         * last published progress with the attack interval.
+         */
+        public float attackProgressAt(boolean player, long uptimeMs) {
+            float base = player ? playerAttackProgress : monsterAttackProgress;
+            float itv = player ? playerAttackInterval : monsterAttackInterval;
+            boolean charging = running && (player ? playerCharging : monsterCharging);
+            if (!charging || itv <= 0f) return base;
+            return Math.min(1f, base + (uptimeMs - publishedAtMs) / 1000f / itv);
+        }
     }
 
     private final GameRepository repo;
     private final MutableLiveData<BattleState> state = new MutableLiveData<>();
     private final Handler handler = new Handler(Looper.getMainLooper());
-    private final Random rng = new Random();
-
-    // Simple observable combat log
-    private final MutableLiveData<List<String>> logLive = new MutableLiveData<>(new ArrayList<>());
-    public LiveData<List<String>> log() { return logLive; }
+    private final Random rng = RngService.get().stream(RngService.COMBAT);
+    private final Random lootRng = RngService.get().stream(RngService.LOOT);
+
+    // Observable combat log; the same ring buffer is re-published after each batch of events.
+    private final CombatLog combatLog = new CombatLog();
+    private final MutableLiveData<CombatLog> logLive = new MutableLiveData<>(combatLog);
+    private long publishedLogCount = 0;
+    public LiveData<CombatLog> log() { return logLive; }
     private boolean debugToasts = false;
     public void setDebugToasts(boolean enabled) { this.debugToasts = enabled; }
 
-    // internal timers (seconds)
-    private double pTimer = 0, mTimer = 0;
     private long lastTickMs = 0L;
+    private final Runnable tickRunnable = this::tick;
+    // Wakeups follow the next combat event; this only bounds how stale a delayed wakeup can get.
+    private static final long MAX_WAKE_DELAY_MS = 1000L;
+
+    // Cap offline combat catch-up to 8h
+    private static final long MAX_OFFLINE_MS = 8L * 60L * 60L * 1000L;
+    // Gaps shorter than this are just a paused screen, not worth resolving.
+    private static final long MIN_OFFLINE_MS = 1000L;
+    private final OfflineCombatResolver offline = new OfflineCombatResolver();
 
-    private Stats pStats, mStats;
     private Monster monster;
     private PlayerCharacter pc;
-    private Element pElement = Element.NEUTRAL, mElement = Element.NEUTRAL;
-
-    // cache current intervals (seconds) for progress calculation
-    private double pAtkItv = 2.5, mAtkItv = 2.5;
-
-    // Example burn effect constants (player applies to monster)
-    private static final double BURN_APPLY_CHANCE = 0.25;
-    private static final double BURN_DURATION_SEC = 5.0;
-    private static final int    BURN_DMG_PER_TICK = 2;
 
-    private final List<StatusEffect> playerEffects = new ArrayList<>();
-    private final List<StatusEffect> monsterEffects = new ArrayList<>();
+    /** Headless fight simulation; this class only drives it from the main looper and publishes state. */
+    @Nullable private CombatCore core;
+    /** Seeds, stat snapshot and inputs of the current fight, handed to the repo when it ends. */
+    @Nullable private CombatReplay replay;
 
     public CombatEngine(GameRepository repo) {
         this.repo = repo;
@@ -103,48 +115,39 @@ public class CombatEngine {
 
     public LiveData<BattleState> state() { return state; }
 
-    /** Optional helper to make combat deterministic while debugging. */
-    public void setRandomSeed(long seed) { rng.setSeed(seed); }
+    /** Optional helper to make combat deterministic while debugging (reseeds the combat and loot streams only). */
+    public void setRandomSeed(long seed) { RngService.get().reseed(seed, RngService.COMBAT, RngService.LOOT); }
 
     public void start(String monsterId) {
         this.pc = repo.loadOrCreatePlayer();
         this.monster = repo.getMonster(monsterId);
         if (monster == null) return;
 
-        this.pStats = (pc != null) ? pc.totalStats(repo.gearStats(pc)) : new Stats();
-        this.mStats = (monster.stats != null) ? monster.stats : new Stats();
-        this.pElement = (pc != null && pc.element != null) ? pc.element : Element.NEUTRAL;
-        this.mElement = (monster.element != null) ? monster.element : Element.NEUTRAL;
+        Stats pStats = (pc != null) ? repo.statSheet().total : new Stats();
+        int savedHp = (pc != null && pc.currentHp != null) ? pc.currentHp : Math.max(1, pStats.health);
+        // Each fight gets its own seeds off the long-lived streams so it can be replayed exactly.
+        long fightSeed = rng.nextLong();
+        long lootSeed = lootRng.nextLong();
+        core = new CombatCore(
+                pStats, pc != null ? pc.element : null, savedHp,
+                monster.stats, monster.element, monster.behavior, monster.name,
+                new GameRandom(fightSeed));
+        core.setLog(combatLog);
+        replay = new CombatReplay(fightSeed, lootSeed, pStats, pc != null ? pc.element : null, savedHp, monsterId);
 
         BattleState s = new BattleState();
         s.monsterId = monsterId;
-        s.monsterName = monster.name;
-
-        s.playerMaxHp = Math.max(1, pStats.health);
-        s.monsterMaxHp = Math.max(1, mStats.health);
-        s.playerHp = Math.min(pc != null && pc.currentHp != null ? pc.currentHp : s.playerMaxHp, s.playerMaxHp);
-        if (s.playerHp <= 0) s.playerHp = s.playerMaxHp;
-        s.monsterHp = s.monsterMaxHp;
-
-        s.playerAttackProgress = 0f;
-        s.monsterAttackProgress = 0f;
-        s.playerAttackInterval = 0f;
-        s.monsterAttackInterval = 0f;
-
-        playerEffects.clear();
-        monsterEffects.clear();
-        s.playerEffects = new ArrayList<>(); // Initialize BattleState effects
-        s.monsterEffects = new ArrayList<>(); // Initialize BattleState effects
-
+        s.monsterName = core.getMonsterName();
         s.running = true;
-        state.setValue(s);
+        publish(s);
 
-        logClear();
-        logLine("Encounter started: " + s.monsterName);
+        combatLog.clear();
+        combatLog.add(CombatLog.Type.ENCOUNTER, false, 0, false, s.monsterName, null);
+        publishLog();
 
         repo.startBattle();
+        repo.persistBattleRun(monsterId, System.currentTimeMillis());
 
-        pTimer = mTimer = 0;
         lastTickMs = SystemClock.uptimeMillis();
         loop();
     }
@@ -159,248 +162,250 @@ public class CombatEngine {
 
         if (pc != null && s != null) {
             pc.currentHp = s.playerHp;
-            repo.save();
+            repo.save(SaveSection.BASE);
         }
 
+        repo.clearBattleRun();
         repo.stopBattle();
     }
 
-    private void loop() {
+    /**
+     * Pauses a running auto-fight when the screen goes away (onStop) but keeps the persisted
+     * battle run, so {@link #resumeOffline()} can resolve the time spent away.
+     */
+    public void suspend() {
         BattleState s = state.getValue();
         if (s == null || !s.running) return;
-        handler.postDelayed(this::tick, 16); // Aim for roughly 60 FPS
+        s.running = false;
+        state.setValue(s);
+        handler.removeCallbacksAndMessages(null);
+
+        if (pc != null) {
+            pc.currentHp = s.playerHp;
+            repo.save(SaveSection.BASE);
+        }
+        repo.persistBattleRun(s.monsterId, System.currentTimeMillis());
+        repo.stopBattle();
     }
 
-    private void tick() {
+    /**
+     * Resolves fights that would have happened since the battle run was last seen, grants the
+     * rewards in one go and clears the run. Returns the monster id to keep fighting, or null if
+     * there was nothing to resume or the player died while away.
+     */
+    @Nullable
+    public String resumeOffline() {
+        String monsterId = repo.getPersistedBattleMonster();
+        long seenAt = repo.getPersistedBattleAt();
+        if (monsterId == null || seenAt <= 0) return null;
+        repo.clearBattleRun();
+
+        PlayerCharacter player = repo.loadOrCreatePlayer();
+        Monster m = repo.getMonster(monsterId);
+        if (player == null || m == null) return null;
+
+        long away = Math.min(MAX_OFFLINE_MS, Math.max(0, System.currentTimeMillis() - seenAt));
+        if (away < MIN_OFFLINE_MS) return monsterId;
+
+        Stats pStats = repo.statSheet().total;
+        int hp = player.currentHp != null ? player.currentHp : pStats.health;
+        // Its own seed, recorded with the inputs, so the catch-up can be re-run and verified
+        OfflineReplay record = new OfflineReplay(rng.nextLong(), offline.samples(), pStats, player.element,
+                hp, monsterId, away / 1000.0);
+        OfflineCombatResolver.Result r = offline.resolve(pStats, player.element, hp, m, record.elapsedSec,
+                new GameRandom(record.seed));
+        record.finish(r);
+
+        GameRepository.Transaction tx = repo.beginTransaction();
+        SkillId train = trainingSkill();
+        if (r.xp > 0) tx.addSkillExp(train, (int) Math.min(Integer.MAX_VALUE, r.xp));
+        if (r.silver > 0) tx.addPendingCurrency("silver", "Silver", (int) Math.min(Integer.MAX_VALUE, r.silver));
+        for (Map.Entry<String, Integer> e : r.loot.entrySet()) {
+            tx.addPendingLoot(e.getKey(), repo.itemName(e.getKey()), e.getValue());
+        }
+        tx.commit();
+        repo.submitOfflineReplay(record.toBytes(), train);
+        if (r.kills > 0) repo.onMonstersKilled(monsterId, r.kills);
+        repo.updatePlayerHp(r.playerHp);
+
+        String name = m.name != null ? m.name : monsterId;
+        String summary = "While away: " + r.kills + "× " + name + " defeated, +" + r.xp + " XP"
+                + (r.deaths > 0 ? " — you were defeated" : "");
+        logLine(summary);
+        repo.toast(summary);
+        return r.deaths > 0 ? null : monsterId;
+    }
+
+    /** Sleeps until the core's next event (attack, DoT tick, expiry) instead of polling. */
+    private void loop() {
         BattleState s = state.getValue();
-        if (s == null || !s.running) return;
+        if (s == null || !s.running || core == null) return;
+        handler.removeCallbacks(tickRunnable);
+        double waitSec = core.secondsToNextEvent();
+        long delayMs = Double.isInfinite(waitSec) ? MAX_WAKE_DELAY_MS : (long) Math.ceil(waitSec * 1000.0);
+        handler.postDelayed(tickRunnable, Math.max(1L, Math.min(MAX_WAKE_DELAY_MS, delayMs)));
+    }
 
+    /** Brings the fight clock up to now; used by ticks and before out-of-band changes. */
+    private void catchUp() {
+        BattleState s = state.getValue();
+        if (s == null || !s.running || core == null) return;
         long now = SystemClock.uptimeMillis();
         double deltaSec = Math.max(0, (now - lastTickMs) / 1000.0);
         lastTickMs = now;
+        core.advance(deltaSec);
+    }
 
-        double pSlowMult = 1.0 + totalSlow(playerEffects);
-        double mSlowMult = 1.0 + totalSlow(monsterEffects);
-        boolean pStunned = hasStun(playerEffects);
-        boolean mStunned = hasStun(monsterEffects);
-
-        boolean monsterCanAttack = monster != null && monster.behavior != AiBehavior.PASSIVE;
-
-        pAtkItv = Math.max(0.6, 2.5 - clamp01(pStats.speed) * 2.5) * pSlowMult;
-        mAtkItv = Math.max(0.6, 2.5 - clamp01(mStats.speed) * 2.5) * mSlowMult;
-
-        if (!pStunned) pTimer += deltaSec; else pTimer = 0;
-        if (!mStunned && monsterCanAttack) mTimer += deltaSec; else mTimer = 0;
-
-
-        // Player's turn
-        while (pTimer >= pAtkItv && s.monsterHp > 0 && s.playerHp > 0) { // also check player HP
-            pTimer -= pAtkItv;
-            DamageResult res = damageRollEx(pStats.attack, mStats.defense,
-                    clamp01(pStats.critChance), Math.max(1.0, pStats.critMultiplier));
-
-            // Apply elemental modifier
-            int finalDmg = CombatMath.applyElementMod(res.dmg, ElementalSystem.modifier(pElement, mElement));
-            s.monsterHp = Math.max(0, s.monsterHp - finalDmg);
-            logLine("You hit " + s.monsterName + " for " + finalDmg + (res.crit ? " (CRIT!)" : ""));
-
-            if (rng.nextDouble() < BURN_APPLY_CHANCE) {
-                // Using the StatusEffect constructor that infers color based on name/type
-                monsterEffects.add(new StatusEffect("Burn", StatusEffect.Type.DOT, BURN_DURATION_SEC, (double)BURN_DMG_PER_TICK));
-                logLine("Burn applied to " + s.monsterName);
-            }
-            if (s.monsterHp == 0) break; // Monster defeated, stop player attacks this tick
-        }
-
-        // Update ongoing effects (player and monster)
-        updateEffects(monsterEffects, false, deltaSec, s);
-        if (s.monsterHp == 0) { // check if monster died from DOT
-            // proceed to victory handling below
-        }
-        updateEffects(playerEffects, true, deltaSec, s);
-        if (s.playerHp == 0) { // check if player died from DOT
-            // proceed to defeat handling below
-        }
-
+    /** After effects/timers change the next event may move, so republish and re-arm the wakeup. */
+    private void afterChange() {
+        BattleState s = state.getValue();
+        if (s == null) return;
+        publish(s);
+        loop();
+    }
 
-        // Monster's turn
-        if (monsterCanAttack && s.monsterHp > 0 && s.playerHp > 0) { // check monster and player HP
-            while (mTimer >= mAtkItv && s.playerHp > 0 && s.monsterHp > 0) { // also check monster HP
-                mTimer -= mAtkItv;
-                DamageResult res = damageRollEx(mStats.attack, pStats.defense,
-                        clamp01(mStats.critChance), Math.max(1.0, mStats.critMultiplier));
+    private void tick() {
+        BattleState s = state.getValue();
+        if (s == null || !s.running || core == null) return;
 
-                // Apply elemental modifier
-                int finalDmg = CombatMath.applyElementMod(res.dmg, ElementalSystem.modifier(mElement, pElement));
-                s.playerHp = Math.max(0, s.playerHp - finalDmg);
-                logLine(s.monsterName + " hits you for " + finalDmg + (res.crit ? " (CRIT!)" : ""));
-                if (s.playerHp == 0) break; // Player defeated, stop monster attacks this tick
-            }
-        }
+        catchUp();
+        if (combatLog.appendedCount() != publishedLogCount) publishLog(); // one publish per wakeup
 
         // Check for defeat/victory
-        if (s.monsterHp == 0 || s.playerHp == 0) {
+        if (core.isOver()) {
             s.running = false;
-            if (s.monsterHp == 0) {
+            if (core.isVictory()) {
                 grantRewards(pc, monster);
-                logLine("You defeated " + s.monsterName + "!");
                 if (s.monsterId != null) {
                     repo.onMonsterKilled(s.monsterId);
                 }
-            } else {
-                logLine("You were defeated by " + s.monsterName + "...");
+            } else if (replay != null) {
+                replay.finish(false, core.getPlayerHp(), core.getElapsedSec(), 0, 0, null);
             }
-            if (pc != null) pc.currentHp = s.playerHp; // Save current HP (even if 0)
-            repo.save();
+            if (replay != null && replay.finished) repo.submitCombatReplay(replay.toBytes(), trainingSkill());
+            replay = null;
+            if (pc != null) pc.currentHp = core.getPlayerHp(); // Save current HP (even if 0)
+            repo.save(SaveSection.BASE);
+            if (core.isVictory()) repo.persistBattleRun(s.monsterId, System.currentTimeMillis());
+            else repo.clearBattleRun(); // the auto-loop stops on defeat
             repo.stopBattle();
 
-            // Update final state for UI
-            s.playerAttackProgress = (float) Math.min(1.0, pTimer / Math.max(0.1, pAtkItv)); // avoid div by zero
-            s.monsterAttackProgress = (float) Math.min(1.0, mTimer / Math.max(0.1, mAtkItv)); // avoid div by zero
-            s.playerAttackInterval = (float) pAtkItv;
-            s.monsterAttackInterval = (float) mAtkItv;
-            s.playerEffects = copyEffects(playerEffects);
-            s.monsterEffects = copyEffects(monsterEffects);
-            state.setValue(s);
+            publish(s); // Update final state for UI
             return; // Combat ended, stop tick loop
         }
 
-        // Update progress for UI and continue loop
-        s.playerAttackProgress = (float) Math.min(1.0, pTimer / Math.max(0.1, pAtkItv));
-        s.monsterAttackProgress = (float) Math.min(1.0, mTimer / Math.max(0.1, mAtkItv));
-        s.playerAttackInterval = (float) pAtkItv;
-        s.monsterAttackInterval = (float) mAtkItv;
-
-        s.playerEffects = copyEffects(playerEffects);
-        s.monsterEffects = copyEffects(monsterEffects);
-
-        state.setValue(s);
+        publish(s);
         loop(); // Schedule next tick
     }
 
+    /** Copies the core's current numbers into the UI state object. */
+    private void publish(BattleState s) {
+        CombatCore c = core;
+        if (c != null) {
+            s.playerHp = c.getPlayerHp();
+            s.playerMaxHp = c.getPlayerMaxHp();
+            s.monsterHp = c.getMonsterHp();
+            s.monsterMaxHp = c.getMonsterMaxHp();
+            s.playerAttackProgress = c.getAttackProgress(true);
+            s.monsterAttackProgress = c.getAttackProgress(false);
+            s.playerAttackInterval = (float) c.getAttackInterval(true);
+            s.monsterAttackInterval = (float) c.getAttackInterval(false);
+            s.playerCharging = c.isCharging(true);
+            s.monsterCharging = c.isCharging(false);
+            s.publishedAtMs = lastTickMs;
+            s.playerEffects = c.effectsSnapshot(true); // shared immutable list, rebuilt only on change
+            s.monsterEffects = c.effectsSnapshot(false);
+        }
+        state.setValue(s);
+    }
 
     private void grantRewards(PlayerCharacter pc, Monster m) {
         if (pc == null || m == null) return;
+        CombatReplay r = replay;
+        GameRepository.Transaction tx = repo.beginTransaction(); // one save for XP + loot
 
         // === XP → selected training skill ===
         int xp = (m.getExpPerKill());
         if (xp > 0) {
-            SkillId train = repo.getCombatTrainingSkill();
-            if (train == null) train = SkillId.ATTACK; // Default to Attack if not set
-            repo.addSkillExp(train, xp);
+            tx.addSkillExp(trainingSkill(), xp);
             // repo.addPlayerExp(xp); // Optional generic player XP
         }
 
         // === Currency / drops ===
         if (m.silverReward > 0) {
-            repo.addPendingCurrency("silver", "Silver", m.silverReward);
+            tx.addPendingCurrency("silver", "Silver", m.silverReward);
         }
 
-        List<Drop> drops = m.drops;
-        if (drops != null) {
-            for (Drop d : drops) {
-                if (d == null || d.chance <= 0) continue;
-                if (rng.nextDouble() <= d.chance) { // Use rng from CombatEngine
-                    int max = Math.max(d.min, d.max);
-                    int min = Math.min(d.min, d.max);
-                    int qty = Math.max(1, min + rng.nextInt(Math.max(1, max - min + 1)));
-                    Item def = repo.getItem(d.itemId);
-                    String name = def != null ? def.name : (d.itemId != null ? d.itemId : "unknown item");
-                    repo.addPendingLoot(d.itemId, name, qty);
-                }
-            }
+        // Rolled on the fight's own loot seed so a replay re-rolls the same drops.
+        Random rng = r != null ? new GameRandom(r.lootSeed) : lootRng;
+        Map<String, Integer> drops = new LinkedHashMap<>();
+        DropRoller.roll(m.drops, rng, drops);
+        for (Map.Entry<String, Integer> e : drops.entrySet()) {
+            Item def = repo.getItem(e.getKey());
+            tx.addPendingLoot(e.getKey(), def != null ? def.name : e.getKey(), e.getValue());
         }
-        repo.save(); // Save after granting all rewards
-    }
-
-    private void updateEffects(List<StatusEffect> list, boolean onPlayer, double deltaSec, BattleState s) {
-        for (int i = list.size() - 1; i >= 0; i--) {
-            StatusEffect e = list.get(i);
-            e.remaining -= deltaSec;
-
-            // Using the effect's specific name for logging now
-            String effectName = e.getName(); // Use the specific name like "Burn", "Poison"
-
-            if (e.type == StatusEffect.Type.DOT || e.type == StatusEffect.Type.HOT) {
-                e.tickAcc += deltaSec;
-                while (e.tickAcc >= 1.0 && e.remaining > 0) { // Process ticks only if effect is active
-                    e.tickAcc -= 1.0; // Consume one second of accumulated time for a tick
-                    int amt = (int) Math.round(e.value); // Value is per tick
-                    if (amt == 0) continue; // No damage/healing this tick
-
-                    if (e.type == StatusEffect.Type.DOT) {
-                        if (onPlayer) {
-                            if(s.playerHp == 0) continue; // Already defeated
-                            s.playerHp = Math.max(0, s.playerHp - amt);
-                            logLine("You take " + amt + " " + effectName.toLowerCase() + " damage."); // Use specific name
-                        } else {
-                            if(s.monsterHp == 0) continue; // Already defeated
-                            s.monsterHp = Math.max(0, s.monsterHp - amt);
-                            logLine(s.monsterName + " takes " + amt + " " + effectName.toLowerCase() + " damage."); // Use specific name
-                        }
-                    } else { // HOT
-                        if (onPlayer) {
-                            s.playerHp = Math.min(s.playerMaxHp, s.playerHp + amt);
-                            logLine("You heal " + amt + " from " + effectName.toLowerCase() + "."); // Use specific name
-                        } else {
-                            s.monsterHp = Math.min(s.monsterMaxHp, s.monsterHp + amt);
-                            logLine(s.monsterName + " heals " + amt + " from " + effectName.toLowerCase() + "."); // Use specific name
-                        }
-                    }
-                }
-            }
-            if (e.remaining <= 0) {
-                logLine((onPlayer ? "Your" : s.monsterName + "'s") + " " + effectName.toLowerCase() + " effect wore off."); // Use specific name
-                list.remove(i);
-            }
+        if (r != null && core != null) {
+            r.finish(true, core.getPlayerHp(), core.getElapsedSec(), Math.max(0, xp), m.getSilverReward(), drops);
         }
+        tx.commit();
     }
 
-    private double totalSlow(List<StatusEffect> list) {
-        double t = 0.0;
-        for (StatusEffect e : list) if (e.type == StatusEffect.Type.SLOW && e.remaining > 0) t += e.value;
-        return t;
-    }
-
-    private boolean hasStun(List<StatusEffect> list) {
-        for (StatusEffect e : list) if (e.type == StatusEffect.Type.STUN && e.remaining > 0) return true;
-        return false;
-    }
-
-    private List<StatusEffect> copyEffects(List<StatusEffect> src) {
-        List<StatusEffect> out = new ArrayList<>();
-        for (StatusEffect e : src) out.add(e.copy()); // Assuming StatusEffect has a copy() method
-        return out;
+    /** Skill that combat XP goes to. */
+    private SkillId trainingSkill() {
+        SkillId train = repo.getCombatTrainingSkill();
+        return train != null ? train : SkillId.ATTACK; // Default to Attack if not set
     }
 
     public void addPlayerEffect(StatusEffect effect) {
-        if (effect != null) {
-            StatusEffect effectCopy = effect.copy();
-            playerEffects.add(effectCopy);
-            logLine("You are affected by " + effectCopy.getName() + "."); // Use getName()
+        if (effect != null && core != null) {
+            catchUp();
+            core.addEffect(true, effect);
+            if (replay != null) replay.recordEffect(core.getElapsedSec(), true, effect);
+            combatLog.add(CombatLog.Type.EFFECT_APPLIED, true, 0, false, core.getMonsterName(), effect.getName());
+            publishLog();
+            afterChange();
         }
     }
 
     public void addMonsterEffect(StatusEffect effect) {
         BattleState s = state.getValue();
-        if (effect != null && s != null) {
-            StatusEffect effectCopy = effect.copy();
-            monsterEffects.add(effectCopy);
-            logLine(s.monsterName + " is affected by " + effectCopy.getName() + "."); // Use getName()
+        if (effect != null && s != null && core != null) {
+            catchUp();
+            core.addEffect(false, effect);
+            if (replay != null) replay.recordEffect(core.getElapsedSec(), false, effect);
+            combatLog.add(CombatLog.Type.EFFECT_APPLIED, false, 0, false, s.monsterName, effect.getName());
+            publishLog();
+            afterChange();
         }
     }
+
+    /** Food/potion healing during a running fight; the core owns HP until the fight ends. */
+    public void healPlayer(int amount) {
+        BattleState s = state.getValue();
+        if (amount <= 0 || s == null || !s.running || core == null) return;
+        catchUp();
+        core.healPlayer(amount);
+        if (replay != null) replay.recordHeal(core.getElapsedSec(), amount);
+        afterChange();
+    }
+
     public List<StatusEffect> getPlayerEffects() {
-        return copyEffects(playerEffects);
+        return core != null ? core.effectsSnapshot(true) : new ArrayList<>();
     }
 
     public List<StatusEffect> getMonsterEffects() {
-        return copyEffects(monsterEffects);
+        return core != null ? core.effectsSnapshot(false) : new ArrayList<>();
     }
 
     public void clearEffects() {
-        playerEffects.clear();
-        monsterEffects.clear();
-        logLine("All status effects cleared.");
+        catchUp();
+        if (core != null) {
+            core.clearEffects();
+            if (replay != null) replay.recordClearEffects(core.getElapsedSec());
+        }
+        combatLog.add(CombatLog.Type.EFFECTS_CLEARED, true, 0, false, null, null);
+        publishLog();
+        afterChange();
     }
 
 
@@ -410,8 +415,12 @@ public class CombatEngine {
     public void onPotion() { /* no-op legacy stub */ }
     public void runTickTimers() { /* no-op legacy stub */ }
     public void restart() {
-        pTimer = 0;
-        mTimer = 0;
+        catchUp();
+        if (core != null) {
+            core.resetTimers();
+            if (replay != null) replay.recordResetTimers(core.getElapsedSec());
+        }
+        afterChange();
     }
     public void shiftTime(long ms) { /* no-op legacy stub */ }
     public void onTick() { tick(); } // This might still be useful for manual stepping in debug
@@ -419,78 +428,72 @@ public class CombatEngine {
 
     public void onStun(boolean player, double durationSec) {
         BattleState s = state.getValue();
-        if (s == null) return;
+        if (s == null || core == null) return;
         // Using the StatusEffect constructor that infers color
-        StatusEffect e = new StatusEffect("Stun", StatusEffect.Type.STUN, durationSec, 0);
-        if (player) {
-            playerEffects.add(e);
-            logLine("You are stunned!");
-        } else {
-            monsterEffects.add(e);
-            logLine(s.monsterName + " is stunned!");
-        }
+        catchUp();
+        StatusEffect stun = new StatusEffect("Stun", StatusEffect.Type.STUN, durationSec, 0);
+        core.addEffect(player, stun);
+        if (replay != null) replay.recordEffect(core.getElapsedSec(), player, stun);
+        combatLog.add(CombatLog.Type.STUNNED, player, 0, false, s.monsterName, null);
+        publishLog();
+        afterChange();
     }
     public double getTickItv(boolean player) {
-        return player ? pAtkItv : mAtkItv;
+        return core != null ? core.getAttackInterval(player) : CombatCore.attackInterval(0);
     }
     public void shiftTimer(boolean player, double sec) {
-        if (player) pTimer += sec; else mTimer += sec;
+        catchUp();
+        if (core != null) {
+            core.shiftTimer(player, sec);
+            if (replay != null) replay.recordShiftTimer(core.getElapsedSec(), player, sec);
+        }
+        afterChange();
     }
     public void addMonsterEffect() { /* no-op legacy stub for old save migrations */ }
 
     public void applyEffects() { // Renamed from updateEffects() to avoid conflict
         BattleState s = state.getValue();
-        if (s != null) {
-            updateEffects(playerEffects, true, 0.001, s);
-            updateEffects(monsterEffects, false, 0.001, s);
-            state.setValue(s);
+        if (s != null && core != null) {
+            catchUp();
+            if (replay != null) replay.recordAdvance(core.getElapsedSec(), 0.001);
+            core.applyEffects();
+            afterChange();
         }
     }
 
     public void onSlow(boolean player, double durationSec, double amount) {
         BattleState s = state.getValue();
-        if (s == null) return;
+        if (s == null || core == null) return;
         // Using the StatusEffect constructor that infers color
-        StatusEffect e = new StatusEffect("Slow", StatusEffect.Type.SLOW, durationSec, amount);
-        if (player) {
-            playerEffects.add(e);
-            logLine("You are slowed!");
-        } else {
-            monsterEffects.add(e);
-            logLine(s.monsterName + " is slowed!");
-        }
-    }
-
-    private static double clamp01(double v) {
-        if (v < 0) return 0;
-        if (v > 1) return 1;
-        return v;
+        catchUp();
+        StatusEffect slow = new StatusEffect("Slow", StatusEffect.Type.SLOW, durationSec, amount);
+        core.addEffect(player, slow);
+        if (replay != null) replay.recordEffect(core.getElapsedSec(), player, slow);
+        combatLog.add(CombatLog.Type.SLOWED, player, 0, false, s.monsterName, null);
+        publishLog();
+        afterChange();
     }
 
     // ----- tiny log helpers -----
     public void logClear() {
-        if (Looper.myLooper() == Looper.getMainLooper()) {
-            logLive.setValue(new ArrayList<>());
-        } else {
-            logLive.postValue(new ArrayList<>());
-        }
+        combatLog.clear();
+        publishLog();
     }
     private void logLine(String msg) {
-        List<String> cur = logLive.getValue();
-        if (cur == null) cur = new ArrayList<>();
-
-        ArrayList<String> newList = new ArrayList<>(cur);
-        newList.add(0, msg);
-        if (newList.size() > 50) {
-            newList = new ArrayList<>(newList.subList(0, 50));
+        combatLog.addText(msg);
+        publishLog();
+    }
+    private void publishLog() {
+        if (debugToasts) {
+            int fresh = (int) Math.min(combatLog.size(), combatLog.appendedCount() - publishedLogCount);
+            for (int i = fresh - 1; i >= 0; i--) repo.toast(combatLog.format(i));
         }
+        publishedLogCount = combatLog.appendedCount();
 
         if (Looper.myLooper() == Looper.getMainLooper()) {
-            logLive.setValue(newList);
+            logLive.setValue(combatLog);
         } else {
-            logLive.postValue(newList);
+            logLive.postValue(combatLog);
         }
-
-        if (debugToasts) repo.toast(msg);
     }
 }
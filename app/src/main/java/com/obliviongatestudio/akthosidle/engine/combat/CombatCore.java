@@ -0,0 +1,127 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.domain.model.AiBehavior;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+import com.obliviongatestudio.akthosidle.domain.model.StatusEffect;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Headless 1v1 combat simulation (player vs. one monster).
+ * - Pure Java: no Handler, Looper, SystemClock or LiveData, so it runs on a plain JVM.
+ * - A thin player/monster view over a two-entity {@link EncounterCore}, which does the work.
+ * - Event driven: time jumps straight to the next attack, DoT/HoT tick or effect expiry
+ *   ({@link #nextEventAt()}), so results are exact and don't depend on how often the caller
+ *   wakes up, and fast-forwarding costs one iteration per event rather than per frame.
+ * - Events go to an optional {@link CombatLog} as structured entries; simulations leave it null.
+ */
+public final class CombatCore {
+
+    private static final double BASE_ATTACK_SEC = 2.5;
+    private static final double MIN_ATTACK_SEC  = 0.6;
+
+    private final EncounterCore enc;
+    private final int player, monster;
+    private final String monsterName;
+
+    public CombatCore(Stats playerStats, @Nullable Element playerElement, int playerHp,
+                      Stats monsterStats, @Nullable Element monsterElement,
+                      @Nullable AiBehavior monsterBehavior, @Nullable String monsterName,
+                      Random rng) {
+        this.monsterName = monsterName != null ? monsterName : "Monster";
+        this.enc = new EncounterCore(rng);
+        this.player = enc.addHero(null, playerStats, playerElement, playerHp);
+        this.monster = enc.addEnemy(this.monsterName, monsterStats, monsterElement, monsterBehavior);
+    }
+
+    public void setLog(@Nullable CombatLog log) { enc.setLog(log); }
+
+    /**
+     * Advances the fight by an arbitrary amount of time, processing every event that falls
+     * inside it. Returns true while the fight is still going.
+     */
+    public boolean advance(double deltaSec) { return enc.advance(deltaSec); }
+
+    /** Runs until someone dies or {@code maxSec} of fight time has elapsed. Returns elapsed seconds. */
+    public double runToEnd(double maxSec) { return enc.runToEnd(maxSec); }
+
+    /**
+     * Fight-clock time of the next scheduled event: an attack, or a DoT/HoT tick or expiry.
+     * Infinite if nothing is pending (e.g. both sides stunned forever).
+     */
+    public double nextEventAt() { return enc.nextEventAt(); }
+
+    /** Seconds until {@link #nextEventAt()}. */
+    public double secondsToNextEvent() { return enc.secondsToNextEvent(); }
+
+    /** Forces one effect pass with a tiny delta (legacy {@code applyEffects()} behaviour). */
+    public void applyEffects() { enc.advance(0.001); }
+
+    /* ============================
+     * Effects
+     * ============================ */
+    /** Adds {@code effect} (the store copies its values); callers log their own flavour text. */
+    public void addEffect(boolean onPlayer, StatusEffect effect) {
+        enc.addEffect(onPlayer ? player : monster, effect);
+    }
+
+    /** Food/potion healing for the player mid-fight (capped at max HP). */
+    public void healPlayer(int amount) { enc.heal(player, amount); }
+
+    /** Resistances for that side, applied when on-hit procs try to land. */
+    public void setResistance(boolean onPlayer, StatusEffect.Type type, double value) {
+        enc.setResistance(onPlayer ? player : monster, type, value);
+    }
+
+    public void clearEffects() { enc.clearEffects(); }
+
+    /** Immutable view of one side's effects; the same list is returned until something changes. */
+    public List<StatusEffect> effectsSnapshot(boolean onPlayer) {
+        return enc.effectsSnapshot(onPlayer ? player : monster);
+    }
+
+    /* ============================
+     * Timers
+     * ============================ */
+    public void resetTimers() { enc.resetTimers(); }
+
+    public void shiftTimer(boolean onPlayer, double sec) { enc.shiftTimer(onPlayer ? player : monster, sec); }
+
+    /** Seconds between attacks for a given speed stat (before slows). */
+    public static double attackInterval(double speed) {
+        return Math.max(MIN_ATTACK_SEC, BASE_ATTACK_SEC - clamp01(speed) * BASE_ATTACK_SEC);
+    }
+
+    /* ============================
+     * State accessors
+     * ============================ */
+    public boolean isOver() { return enc.isOver(); }
+    public boolean isVictory() { return enc.isVictory(); }
+
+    public int getPlayerHp() { return enc.hp(player); }
+    public int getPlayerMaxHp() { return enc.maxHp(player); }
+    public int getMonsterHp() { return enc.hp(monster); }
+    public int getMonsterMaxHp() { return enc.maxHp(monster); }
+    public String getMonsterName() { return monsterName; }
+    public double getElapsedSec() { return enc.getElapsedSec(); }
+    public boolean isCharging(boolean onPlayer) { return enc.isCharging(onPlayer ? player : monster); }
+
+    /** Current attack interval in seconds (including slows). */
+    public double getAttackInterval(boolean onPlayer) { return enc.attackInterval(onPlayer ? player : monster); }
+
+    /** 0..1 progress toward the next attack. */
+    public float getAttackProgress(boolean onPlayer) { return enc.attackProgress(onPlayer ? player : monster); }
+
+    /** Shared RNG so reward rolls stay on the same seeded sequence as the fight. */
+    public Random random() { return enc.random(); }
+
+    private static double clamp01(double v) {
+        if (v < 0) return 0;
+        if (v > 1) return 1;
+        return v;
+    }
+}
@@ -0,0 +1,168 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Fixed-capacity ring buffer of structured combat events.
+ * - Appending only writes into preallocated parallel arrays: O(1) and no per-hit garbage.
+ *   Names are stored by reference (monster name, effect name), never concatenated.
+ * - Text is built lazily by {@link #format(int)}, i.e. only for rows the UI actually binds.
+ * - Index 0 is the newest event; once full, the oldest event is overwritten.
+ * - Not thread-safe: written and read on the main thread like the rest of the battle UI.
+ */
+public final class CombatLog {
+
+    public enum Type {
+        /** Free-form line; the text lives in the detail slot. */
+        TEXT,
+        ENCOUNTER,
+        HIT,
+        /** An on-hit proc such as Burn. */
+        EFFECT_PROC,
+        EFFECT_APPLIED,
+        DOT,
+        HOT,
+        EFFECT_EXPIRED,
+        STUNNED,
+        SLOWED,
+        EFFECTS_CLEARED,
+        VICTORY,
+        DEFEAT
+    }
+
+    public static final int DEFAULT_CAPACITY = 50;
+
+    private final Type[] types;
+    /** True when the player's side is the actor (hits) or the target (effects). */
+    private final boolean[] onPlayer;
+    private final int[] amounts;
+    private final boolean[] crits;
+    /** Enemy-side entity involved (the monster). */
+    private final String[] names;
+    /** Party-side entity involved; null means the player ("You"). */
+    private final String[] heroes;
+    private final String[] details;
+
+    private int head;  // slot for the next append
+    private int size;
+    private long appended;
+    private int clears;
+
+    public CombatLog() { this(DEFAULT_CAPACITY); }
+
+    public CombatLog(int capacity) {
+        int cap = Math.max(1, capacity);
+        types = new Type[cap];
+        onPlayer = new boolean[cap];
+        amounts = new int[cap];
+        crits = new boolean[cap];
+        names = new String[cap];
+        heroes = new String[cap];
+        details = new String[cap];
+    }
+
+    /**
+     * @param name   the monster's name (stored by reference)
+     * @param detail effect name for effect events, the full line for {@link Type#TEXT}
+     */
+    public void add(Type type, boolean player, int amount, boolean crit,
+                    @Nullable String name, @Nullable String detail) {
+        add(type, player, amount, crit, name, null, detail);
+    }
+
+    /** @param hero party member involved when it isn't the player (null = "You") */
+    public void add(Type type, boolean player, int amount, boolean crit,
+                    @Nullable String name, @Nullable String hero, @Nullable String detail) {
+        int i = head;
+        types[i] = type;
+        onPlayer[i] = player;
+        amounts[i] = amount;
+        crits[i] = crit;
+        names[i] = name;
+        heroes[i] = hero;
+        details[i] = detail;
+        head = (i + 1) % types.length;
+        if (size < types.length) size++;
+        appended++;
+    }
+
+    public void addText(String line) { add(Type.TEXT, false, 0, false, null, line); }
+
+    public void clear() {
+        for (int i = 0; i < types.length; i++) {
+            types[i] = null;
+            names[i] = null;
+            heroes[i] = null;
+            details[i] = null;
+        }
+        head = 0;
+        size = 0;
+        clears++;
+    }
+
+    public int size() { return size; }
+    public int capacity() { return types.length; }
+
+    /** Total events ever appended; lets observers work out how many rows were inserted. */
+    public long appendedCount() { return appended; }
+
+    /** Bumped by {@link #clear()} so observers know to rebind everything. */
+    public int clearCount() { return clears; }
+
+    public Type type(int index) { return types[slot(index)]; }
+    public boolean onPlayer(int index) { return onPlayer[slot(index)]; }
+    public int amount(int index) { return amounts[slot(index)]; }
+    public boolean crit(int index) { return crits[slot(index)]; }
+    @Nullable public String detail(int index) { return details[slot(index)]; }
+
+    /** Human-readable line for the event at {@code index} (0 = newest). */
+    public String format(int index) {
+        int i = slot(index);
+        Type t = types[i];
+        boolean p = onPlayer[i];
+        int amt = amounts[i];
+        String name = names[i] != null ? names[i] : "Monster";
+        String hero = heroes[i];
+        String detail = details[i] != null ? details[i] : "";
+        switch (t) {
+            case ENCOUNTER:
+                return "Encounter started: " + name;
+            case HIT:
+                if (p) return (hero == null ? "You hit " : hero + " hits ") + name + " for " + amt
+                        + (crits[i] ? " (CRIT!)" : "");
+                return name + " hits " + (hero == null ? "you" : hero) + " for " + amt
+                        + (crits[i] ? " (CRIT!)" : "");
+            case EFFECT_PROC:
+                return detail + " applied to " + (p ? (hero == null ? "you" : hero) : name);
+            case EFFECT_APPLIED:
+                return (p ? (hero == null ? "You are" : hero + " is") : name + " is") + " affected by " + detail + ".";
+            case DOT:
+                return (p ? (hero == null ? "You take " : hero + " takes ") : name + " takes ")
+                        + amt + " " + detail.toLowerCase() + " damage.";
+            case HOT:
+                return (p ? (hero == null ? "You heal " : hero + " heals ") : name + " heals ")
+                        + amt + " from " + detail.toLowerCase() + ".";
+            case EFFECT_EXPIRED:
+                return (p ? (hero == null ? "Your" : hero + "'s") : name + "'s") + " " + detail.toLowerCase() + " effect wore off.";
+            case STUNNED:
+                return p ? (hero == null ? "You are stunned!" : hero + " is stunned!") : name + " is stunned!";
+            case SLOWED:
+                return p ? (hero == null ? "You are slowed!" : hero + " is slowed!") : name + " is slowed!";
+            case EFFECTS_CLEARED:
+                return "All status effects cleared.";
+            case VICTORY:
+                return "You defeated " + name + "!";
+            case DEFEAT:
+                return "You were defeated by " + name + "...";
+            case TEXT:
+            default:
+                return detail;
+        }
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        int cap = types.length;
+        return (head - 1 - index + cap) % cap;
+    }
+}
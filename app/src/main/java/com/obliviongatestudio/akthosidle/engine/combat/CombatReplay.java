@@ -0,0 +1,268 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+import com.obliviongatestudio.akthosidle.domain.model.StatusEffect;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything needed to re-run one live fight headlessly, plus the outcome the client reported.
+ * - Setup: fight and loot seeds, the player's stat snapshot, element and starting HP, monster id.
+ * - Inputs: out-of-band changes (food, potions, effects, timer nudges) stamped with the fight
+ *   clock they were applied at; stored in parallel arrays like {@link StatusEffectStore}.
+ * - Outcome: victory, HP left, fight length, XP, silver and drops.
+ * - {@link #toBytes()} is a compact binary record (~100 bytes for a plain fight); see
+ *   {@link ReplayVerifier} for the re-simulation.
+ */
+public final class CombatReplay {
+
+    public static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x414B5250; // "AKRP"
+
+    /** Player-side inputs; stored by ordinal, so only append. */
+    public enum Input {
+        /** a = HP healed */
+        HEAL,
+        /** arg = effect type, a = duration, b = value, c = tick offset */
+        PLAYER_EFFECT,
+        MONSTER_EFFECT,
+        CLEAR_EFFECTS,
+        RESET_TIMERS,
+        /** arg = 1 for the player, a = seconds */
+        SHIFT_TIMER,
+        /** a = extra fight-clock seconds (legacy applyEffects nudge) */
+        ADVANCE
+    }
+
+    private static final Input[] INPUTS = Input.values();
+    private static final Element[] ELEMENTS = Element.values();
+    private static final StatusEffect.Type[] EFFECT_TYPES = StatusEffect.Type.values();
+
+    // ---- setup ----
+    public final long fightSeed;
+    public final long lootSeed;
+    public final Stats playerStats;
+    @Nullable public final Element playerElement;
+    public final int startHp;
+    public final String monsterId;
+
+    // ---- inputs (parallel arrays) ----
+    private int inputCount;
+    private double[] inputAt = new double[4];
+    private byte[] inputKind = new byte[4];
+    private byte[] inputArg = new byte[4];
+    private double[] inputA = new double[4];
+    private double[] inputB = new double[4];
+    private double[] inputC = new double[4];
+
+    // ---- reported outcome ----
+    public boolean finished;
+    public boolean victory;
+    public int endHp;
+    public double elapsedSec;
+    public int xp;
+    public int silver;
+    public final Map<String, Integer> drops = new LinkedHashMap<>();
+
+    public CombatReplay(long fightSeed, long lootSeed, Stats playerStats, @Nullable Element playerElement,
+                        int startHp, String monsterId) {
+        this.fightSeed = fightSeed;
+        this.lootSeed = lootSeed;
+        // Snapshot: the sheet's Stats are shared and the player may re-gear mid-fight.
+        this.playerStats = new Stats(playerStats.attack, playerStats.defense, playerStats.speed,
+                playerStats.health, playerStats.critChance, playerStats.critMultiplier);
+        this.playerElement = playerElement;
+        this.startHp = startHp;
+        this.monsterId = monsterId;
+    }
+
+    /* ============================
+     * Recording
+     * ============================ */
+    public void recordHeal(double atSec, int amount) {
+        record(atSec, Input.HEAL, 0, amount, 0, 0);
+    }
+
+    public void recordEffect(double atSec, boolean onPlayer, StatusEffect e) {
+        record(atSec, onPlayer ? Input.PLAYER_EFFECT : Input.MONSTER_EFFECT,
+                e.type.ordinal(), e.remaining, e.value, e.tickAcc);
+    }
+
+    public void recordClearEffects(double atSec) { record(atSec, Input.CLEAR_EFFECTS, 0, 0, 0, 0); }
+
+    public void recordResetTimers(double atSec) { record(atSec, Input.RESET_TIMERS, 0, 0, 0, 0); }
+
+    public void recordShiftTimer(double atSec, boolean onPlayer, double sec) {
+        record(atSec, Input.SHIFT_TIMER, onPlayer ? 1 : 0, sec, 0, 0);
+    }
+
+    public void recordAdvance(double atSec, double sec) { record(atSec, Input.ADVANCE, 0, sec, 0, 0); }
+
+    /** Stores what the client granted for this fight. */
+    public void finish(boolean victory, int endHp, double elapsedSec, int xp, int silver,
+                       @Nullable Map<String, Integer> drops) {
+        this.finished = true;
+        this.victory = victory;
+        this.endHp = endHp;
+        this.elapsedSec = elapsedSec;
+        this.xp = xp;
+        this.silver = silver;
+        this.drops.clear();
+        if (drops != null) this.drops.putAll(drops);
+    }
+
+    private void record(double at, Input kind, int arg, double a, double b, double c) {
+        if (inputCount == inputAt.length) {
+            int n = inputCount * 2;
+            inputAt = Arrays.copyOf(inputAt, n);
+            inputKind = Arrays.copyOf(inputKind, n);
+            inputArg = Arrays.copyOf(inputArg, n);
+            inputA = Arrays.copyOf(inputA, n);
+            inputB = Arrays.copyOf(inputB, n);
+            inputC = Arrays.copyOf(inputC, n);
+        }
+        int i = inputCount++;
+        inputAt[i] = at;
+        inputKind[i] = (byte) kind.ordinal();
+        inputArg[i] = (byte) arg;
+        inputA[i] = a;
+        inputB[i] = b;
+        inputC[i] = c;
+    }
+
+    /* ============================
+     * Playback
+     * ============================ */
+    public int inputCount() { return inputCount; }
+    public double inputAt(int i) { return inputAt[i]; }
+
+    /** Applies input {@code i} to {@code core}; the caller has already advanced it to {@link #inputAt}. */
+    void applyInput(int i, CombatCore core) {
+        switch (INPUTS[inputKind[i]]) {
+            case HEAL:
+                core.healPlayer((int) inputA[i]);
+                break;
+            case PLAYER_EFFECT:
+            case MONSTER_EFFECT: {
+                StatusEffect.Type type = EFFECT_TYPES[inputArg[i]];
+                StatusEffect e = new StatusEffect(type.name(), type, inputA[i], inputB[i]);
+                e.tickAcc = inputC[i];
+                core.addEffect(inputKind[i] == Input.PLAYER_EFFECT.ordinal(), e);
+                break;
+            }
+            case CLEAR_EFFECTS:
+                core.clearEffects();
+                break;
+            case RESET_TIMERS:
+                core.resetTimers();
+                break;
+            case SHIFT_TIMER:
+                core.shiftTimer(inputArg[i] != 0, inputA[i]);
+                break;
+            case ADVANCE:
+                core.advance(inputA[i]);
+                break;
+        }
+    }
+
+    /* ============================
+     * Binary form
+     * ============================ */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96 + inputCount * 34);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(fightSeed);
+            out.writeLong(lootSeed);
+            out.writeInt(playerStats.attack);
+            out.writeInt(playerStats.defense);
+            out.writeDouble(playerStats.speed);
+            out.writeInt(playerStats.health);
+            out.writeDouble(playerStats.critChance);
+            out.writeDouble(playerStats.critMultiplier);
+            out.writeByte(playerElement != null ? playerElement.ordinal() : -1);
+            out.writeInt(startHp);
+            out.writeUTF(monsterId);
+
+            out.writeShort(inputCount);
+            for (int i = 0; i < inputCount; i++) {
+                out.writeDouble(inputAt[i]);
+                out.writeByte(inputKind[i]);
+                out.writeByte(inputArg[i]);
+                out.writeDouble(inputA[i]);
+                out.writeDouble(inputB[i]);
+                out.writeDouble(inputC[i]);
+            }
+
+            out.writeBoolean(finished);
+            out.writeBoolean(victory);
+            out.writeInt(endHp);
+            out.writeDouble(elapsedSec);
+            out.writeInt(xp);
+            out.writeInt(silver);
+            out.writeShort(drops.size());
+            for (Map.Entry<String, Integer> e : drops.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeInt(e.getValue());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Parses a record written by {@link #toBytes()}; throws IOException if it is malformed. */
+    public static CombatReplay fromBytes(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) throw new IOException("Not a combat replay");
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) throw new IOException("Unsupported replay version " + version);
+
+        long fightSeed = in.readLong();
+        long lootSeed = in.readLong();
+        Stats st = new Stats(in.readInt(), in.readInt(), in.readDouble(), in.readInt(),
+                in.readDouble(), in.readDouble());
+        int el = in.readByte();
+        if (el >= ELEMENTS.length) throw new IOException("Bad element " + el);
+        int startHp = in.readInt();
+        String monsterId = in.readUTF();
+        CombatReplay r = new CombatReplay(fightSeed, lootSeed, st, el >= 0 ? ELEMENTS[el] : null,
+                startHp, monsterId);
+
+        int n = in.readUnsignedShort();
+        for (int i = 0; i < n; i++) {
+            double at = in.readDouble();
+            int kind = in.readUnsignedByte();
+            int arg = in.readUnsignedByte();
+            if (kind >= INPUTS.length) throw new IOException("Bad input kind " + kind);
+            if ((kind == Input.PLAYER_EFFECT.ordinal() || kind == Input.MONSTER_EFFECT.ordinal())
+                    && arg >= EFFECT_TYPES.length) {
+                throw new IOException("Bad effect type " + arg);
+            }
+            r.record(at, INPUTS[kind], arg, in.readDouble(), in.readDouble(), in.readDouble());
+        }
+
+        r.finished = in.readBoolean();
+        r.victory = in.readBoolean();
+        r.endHp = in.readInt();
+        r.elapsedSec = in.readDouble();
+        r.xp = in.readInt();
+        r.silver = in.readInt();
+        int drops = in.readUnsignedShort();
+        for (int i = 0; i < drops; i++) {
+            r.drops.put(in.readUTF(), in.readInt());
+        }
+        return r;
+    }
+}
@@ -0,0 +1,32 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.domain.model.Drop;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Per-kill loot roll shared by live combat, offline resolution and replay verification, so all
+ * three consume the RNG the same way and a seeded roll always yields the same drops.
+ */
+public final class DropRoller {
+    private DropRoller() {}
+
+    /** Rolls every entry of {@code drops} once and merges the hits into {@code out} (itemId → qty). */
+    public static void roll(@Nullable List<Drop> drops, Random rng, Map<String, Integer> out) {
+        if (drops == null) return;
+        for (int k = 0; k < drops.size(); k++) {
+            Drop d = drops.get(k);
+            if (d == null || d.itemId == null || d.chance <= 0) continue;
+            if (rng.nextDouble() <= d.chance) {
+                int max = Math.max(d.min, d.max);
+                int min = Math.min(d.min, d.max);
+                int qty = Math.max(1, min + rng.nextInt(Math.max(1, max - min + 1)));
+                out.merge(d.itemId, qty, Integer::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.domain.model.AiBehavior;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+import com.obliviongatestudio.akthosidle.domain.model.StatusEffect;
+import com.obliviongatestudio.akthosidle.engine.CombatMath;
+import com.obliviongatestudio.akthosidle.engine.ElementalSystem;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Headless N-vs-M combat: a party against a group of enemies.
+ * - Entities live in dense parallel arrays (hp, attack, defense, interval, charge, element
+ *   ordinal, behavior, target), indexed by the id returned from {@link #addHero}/{@link #addEnemy}.
+ * - Same event-driven clock as {@link CombatCore}: time jumps to the next attack or effect event,
+ *   so fast-forwarding costs one iteration per event, and each event is an O(N) scan.
+ * - {@link AiBehavior} drives targeting; PASSIVE entities never attack.
+ * - Entity 0 on the party side with a null hero name is "You" in the log.
+ * - Within one instant: effects of all entities advance first, then attacks resolve in id order.
+ */
+public final class EncounterCore {
+
+    public static final int PARTY = 0;
+    public static final int ENEMIES = 1;
+
+    // Example burn effect constants (party members apply it to enemies)
+    static final double BURN_APPLY_CHANCE = 0.25;
+    private static final double BURN_DURATION_SEC = 5.0;
+    private static final int    BURN_DMG_PER_TICK = 2;
+    // Template only: the effect store copies its values on insert.
+    private static final StatusEffect BURN =
+            new StatusEffect("Burn", StatusEffect.Type.DOT, BURN_DURATION_SEC, (double) BURN_DMG_PER_TICK);
+
+    // Absorbs float error when an attack is due "exactly now".
+    private static final double EPS = 1e-9;
+
+    private static final Element[] ELEMENTS = Element.values();
+    private static final AiBehavior[] BEHAVIORS = AiBehavior.values();
+    /** Elemental modifiers by [attacker ordinal][defender ordinal]. */
+    private static final double[][] ELEMENT_MOD = new double[ELEMENTS.length][ELEMENTS.length];
+    static {
+        for (Element a : ELEMENTS) {
+            for (Element d : ELEMENTS) ELEMENT_MOD[a.ordinal()][d.ordinal()] = ElementalSystem.modifier(a, d);
+        }
+    }
+
+    private final Random rng;
+    @Nullable private CombatLog log;
+
+    // ----- entity columns -----
+    private int count;
+    private byte[] side = new byte[2];
+    private byte[] element = new byte[2];
+    private byte[] behavior = new byte[2];
+    private int[] hp = new int[2];
+    private int[] maxHp = new int[2];
+    private int[] attack = new int[2];
+    private int[] defense = new int[2];
+    private double[] critChance = new double[2];
+    private double[] critMult = new double[2];
+    private double[] baseInterval = new double[2];
+    private double[] interval = new double[2];
+    private double[] charge = new double[2];
+    private double[] procChance = new double[2];
+    private int[] target = new int[2];
+    private String[] names = new String[2];
+    private StatusEffectStore[] effects = new StatusEffectStore[2];
+    private EffectSink[] sinks = new EffectSink[2];
+
+    private final int[] alive = new int[2];
+    private double now = 0;
+
+    // Set by rollDamage; avoids allocating a result object per hit.
+    private boolean lastCrit;
+
+    public EncounterCore(Random rng) {
+        this.rng = rng;
+    }
+
+    public void setLog(@Nullable CombatLog log) { this.log = log; }
+
+    /* ============================
+     * Setup
+     * ============================ */
+    /**
+     * Adds a party member. A null {@code name} marks the player (logged as "You").
+     * Party members carry the example Burn proc on hit.
+     */
+    public int addHero(@Nullable String name, Stats stats, @Nullable Element el, int startHp) {
+        return add(PARTY, name, stats, el, AiBehavior.AGGRESSIVE, startHp, BURN_APPLY_CHANCE);
+    }
+
+    public int addEnemy(@Nullable String name, Stats stats, @Nullable Element el, @Nullable AiBehavior ai) {
+        return add(ENEMIES, name != null ? name : "Monster", stats, el, ai, Integer.MAX_VALUE, 0.0);
+    }
+
+    private int add(int s, @Nullable String name, @Nullable Stats stats, @Nullable Element el,
+                    @Nullable AiBehavior ai, int startHp, double proc) {
+        Stats st = stats != null ? stats : new Stats();
+        if (count == side.length) grow(count * 2);
+        int i = count++;
+        side[i] = (byte) s;
+        element[i] = (byte) (el != null ? el : Element.NEUTRAL).ordinal();
+        behavior[i] = (byte) (ai != null ? ai : AiBehavior.AGGRESSIVE).ordinal();
+        maxHp[i] = Math.max(1, st.health);
+        int h = Math.min(startHp, maxHp[i]);
+        hp[i] = h > 0 ? h : maxHp[i];
+        attack[i] = st.attack;
+        defense[i] = st.defense;
+        critChance[i] = st.critChance;
+        critMult[i] = st.critMultiplier;
+        baseInterval[i] = CombatCore.attackInterval(st.speed);
+        interval[i] = baseInterval[i];
+        charge[i] = 0;
+        procChance[i] = proc;
+        target[i] = -1;
+        names[i] = name;
+        effects[i] = new StatusEffectStore();
+        sinks[i] = new EffectSink(i);
+        alive[s]++;
+        return i;
+    }
+
+    /** Overrides the on-hit Burn chance for one entity. */
+    public void setProcChance(int e, double chance) { procChance[e] = chance; }
+
+    private void grow(int cap) {
+        side = Arrays.copyOf(side, cap);
+        element = Arrays.copyOf(element, cap);
+        behavior = Arrays.copyOf(behavior, cap);
+        hp = Arrays.copyOf(hp, cap);
+        maxHp = Arrays.copyOf(maxHp, cap);
+        attack = Arrays.copyOf(attack, cap);
+        defense = Arrays.copyOf(defense, cap);
+        critChance = Arrays.copyOf(critChance, cap);
+        critMult = Arrays.copyOf(critMult, cap);
+        baseInterval = Arrays.copyOf(baseInterval, cap);
+        interval = Arrays.copyOf(interval, cap);
+        charge = Arrays.copyOf(charge, cap);
+        procChance = Arrays.copyOf(procChance, cap);
+        target = Arrays.copyOf(target, cap);
+        names = Arrays.copyOf(names, cap);
+        effects = Arrays.copyOf(effects, cap);
+        sinks = Arrays.copyOf(sinks, cap);
+    }
+
+    /* ============================
+     * Clock
+     * ============================ */
+    /** Advances by {@code deltaSec}, processing every event inside it. True while still going. */
+    public boolean advance(double deltaSec) {
+        if (isOver()) return false;
+        advanceTo(now + Math.max(0, deltaSec));
+        return !isOver();
+    }
+
+    /** Runs until one side is wiped out or {@code maxSec} of fight time has elapsed. */
+    public double runToEnd(double maxSec) {
+        if (!isOver()) advanceTo(Math.max(now, maxSec));
+        return now;
+    }
+
+    /** Fight-clock time of the next attack or effect event (infinite if none). */
+    public double nextEventAt() {
+        double t = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            if (hp[i] <= 0) continue;
+            t = Math.min(t, effects[i].nextEventAt());
+            if (isCharging(i)) t = Math.min(t, now + Math.max(0, interval[i] - charge[i]));
+        }
+        return t;
+    }
+
+    public double secondsToNextEvent() { return nextEventAt() - now; }
+
+    private void advanceTo(double t) {
+        while (!isOver()) {
+            double e = nextEventAt();
+            if (e > t) break;
+            moveTo(e);
+            fireAttacks();
+            if (isOver() && log != null) {
+                String boss = firstName(ENEMIES);
+                if (isVictory()) log.add(CombatLog.Type.VICTORY, true, 0, false, boss, null);
+                else log.add(CombatLog.Type.DEFEAT, true, 0, false, boss, null);
+            }
+        }
+        if (!isOver() && t > now) moveTo(t);
+    }
+
+    /** Charges attacks up to {@code t} (stun/slow only change at events), then runs effect events. */
+    private void moveTo(double t) {
+        double dt = t - now;
+        for (int i = 0; i < count; i++) {
+            if (isCharging(i)) charge[i] += dt; else charge[i] = 0;
+        }
+        now = t;
+        for (int i = 0; i < count; i++) {
+            if (hp[i] > 0) effects[i].advanceTo(t, sinks[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            // Dead entities stop generating events; cleared here rather than inside their own sink.
+            if (hp[i] <= 0 && effects[i].size() > 0) effects[i].clear();
+            refreshInterval(i);
+        }
+    }
+
+    private void fireAttacks() {
+        for (int i = 0; i < count; i++) {
+            while (isCharging(i) && charge[i] + EPS >= interval[i] && !isOver()) {
+                int tgt = pickTarget(i);
+                if (tgt < 0) break;
+                charge[i] = Math.max(0, charge[i] - interval[i]);
+                int dmg = rollDamage(i, tgt);
+                damage(tgt, dmg);
+                if (log != null) logHit(i, tgt, dmg);
+
+                if (procChance[i] > 0 && hp[tgt] > 0 && effects[tgt].tryApply(BURN, procChance[i], rng)) {
+                    if (log != null) logAbout(CombatLog.Type.EFFECT_PROC, tgt, 0, BURN.getName());
+                }
+            }
+        }
+    }
+
+    /** Picks the victim for entity {@code i}'s swing, or -1 if no opponent is standing. */
+    private int pickTarget(int i) {
+        int foes = 1 - side[i];
+        if (alive[foes] == 0) return -1;
+        if (BEHAVIORS[behavior[i]] == AiBehavior.FOCUS_WEAKEST) {
+            int best = -1;
+            for (int j = 0; j < count; j++) {
+                if (side[j] == foes && hp[j] > 0 && (best < 0 || hp[j] < hp[best])) best = j;
+            }
+            return best;
+        }
+        int cur = target[i];
+        if (cur >= 0 && hp[cur] > 0) return cur;
+        for (int j = 0; j < count; j++) {
+            if (side[j] == foes && hp[j] > 0) return target[i] = j;
+        }
+        return -1;
+    }
+
+    /** Raw damage roll (variance + crit) followed by the elemental modifier. */
+    private int rollDamage(int a, int d) {
+        int base = Math.max(1, attack[a] - (int) (defense[d] * 0.6));
+        int roll = (int) Math.round(base * (0.85 + rng.nextDouble() * 0.3));
+        lastCrit = rng.nextDouble() < clamp01(critChance[a]);
+        if (lastCrit) roll = (int) Math.round(roll * Math.max(1.25, Math.max(1.0, critMult[a])));
+        return CombatMath.applyElementMod(Math.max(1, roll), ELEMENT_MOD[element[a]][element[d]]);
+    }
+
+    private void damage(int e, int amt) {
+        if (hp[e] <= 0) return;
+        hp[e] = Math.max(0, hp[e] - amt);
+        if (hp[e] == 0) alive[side[e]]--;
+    }
+
+    /** Applies DoT/HoT ticks and logs expiries coming out of one entity's effect store. */
+    private final class EffectSink implements StatusEffectStore.Sink {
+        private final int e;
+
+        EffectSink(int e) { this.e = e; }
+
+        @Override public void onTick(StatusEffect.Type type, int amt, String name) {
+            if (hp[e] <= 0) return;
+            if (type == StatusEffect.Type.DOT) damage(e, amt);
+            else hp[e] = Math.min(maxHp[e], hp[e] + amt);
+            if (log != null) logAbout(type == StatusEffect.Type.DOT ? CombatLog.Type.DOT : CombatLog.Type.HOT, e, amt, name);
+        }
+
+        @Override public void onExpire(String name) {
+            if (log != null) logAbout(CombatLog.Type.EFFECT_EXPIRED, e, 0, name);
+        }
+    }
+
+    private void logHit(int a, int d, int dmg) {
+        boolean party = side[a] == PARTY;
+        int hero = party ? a : d, foe = party ? d : a;
+        log.add(CombatLog.Type.HIT, party, dmg, lastCrit, names[foe], names[hero], null);
+    }
+
+    /** Logs an event happening to entity {@code e} (effects, ticks). */
+    private void logAbout(CombatLog.Type type, int e, int amt, @Nullable String detail) {
+        boolean party = side[e] == PARTY;
+        String foe = party ? firstName(ENEMIES) : names[e];
+        log.add(type, party, amt, false, foe, party ? names[e] : null, detail);
+    }
+
+    @Nullable private String firstName(int s) {
+        for (int i = 0; i < count; i++) if (side[i] == s) return names[i];
+        return null;
+    }
+
+    /* ============================
+     * Effects & timers
+     * ============================ */
+    /** Adds {@code effect} to entity {@code e}; callers log their own flavour text. */
+    public void addEffect(int e, StatusEffect effect) {
+        if (effect == null || hp[e] <= 0) return;
+        effects[e].add(effect);
+        if (effect.type == StatusEffect.Type.STUN) charge[e] = 0;
+        refreshInterval(e);
+    }
+
+    /** Direct heal from outside the fight (food); dead entities and finished fights are ignored. */
+    public void heal(int e, int amount) {
+        if (amount <= 0 || hp[e] <= 0 || isOver()) return;
+        hp[e] = Math.min(maxHp[e], hp[e] + amount);
+    }
+
+    public void setResistance(int e, StatusEffect.Type type, double value) {
+        effects[e].setResistance(type, value);
+    }
+
+    public void clearEffects() {
+        for (int i = 0; i < count; i++) {
+            effects[i].clear();
+            refreshInterval(i);
+        }
+    }
+
+    /** Immutable view of one entity's effects; the same list is returned until something changes. */
+    public List<StatusEffect> effectsSnapshot(int e) { return effects[e].snapshot(); }
+
+    public void resetTimers() { Arrays.fill(charge, 0, count, 0.0); }
+
+    public void shiftTimer(int e, double sec) { charge[e] = Math.max(0, charge[e] + sec); }
+
+    private void refreshInterval(int e) {
+        interval[e] = baseInterval[e] * (1.0 + effects[e].totalSlow());
+    }
+
+    /* ============================
+     * State accessors
+     * ============================ */
+    public int size() { return count; }
+    public int side(int e) { return side[e]; }
+    @Nullable public String name(int e) { return names[e]; }
+    public int hp(int e) { return hp[e]; }
+    public int maxHp(int e) { return maxHp[e]; }
+    public int aliveCount(int s) { return alive[s]; }
+
+    public boolean isOver() { return alive[PARTY] == 0 || alive[ENEMIES] == 0; }
+    public boolean isVictory() { return alive[ENEMIES] == 0 && alive[PARTY] > 0; }
+
+    public double getElapsedSec() { return now; }
+
+    /** False while stunned, dead or PASSIVE: the attack clock doesn't run. */
+    public boolean isCharging(int e) {
+        return hp[e] > 0 && BEHAVIORS[behavior[e]] != AiBehavior.PASSIVE && !effects[e].isStunned();
+    }
+
+    /** Current attack interval in seconds (including slows). */
+    public double attackInterval(int e) { return interval[e]; }
+
+    /** 0..1 progress toward the next attack. */
+    public float attackProgress(int e) {
+        return (float) Math.min(1.0, charge[e] / Math.max(0.1, interval[e])); // avoid div by zero
+    }
+
+    /** Shared RNG so reward rolls stay on the same seeded sequence as the fight. */
+    public Random random() { return rng; }
+
+    private static double clamp01(double v) {
+        if (v < 0) return 0;
+        if (v > 1) return 1;
+        return v;
+    }
+}
@@ -0,0 +1,146 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Monster;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+import com.obliviongatestudio.akthosidle.domain.rules.GameRandom;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Resolves a back-to-back fight loop that ran while the app was away, without frame-by-frame replay.
+ * - Each matchup (player stats + monster + elements) is profiled once by running a handful of
+ *   headless {@link CombatCore} fights with effectively infinite player HP, recording how long each
+ *   fight took and how much damage the player took.
+ * - Profiles are seeded from the matchup itself, so the cache never changes a result: the same
+ *   rng seed and inputs always resolve the same way ({@link OfflineReplay} relies on this).
+ * - Catch-up then draws one profiled fight per kill, so cost is O(fights) with a tiny constant.
+ * - Like the on-screen auto-loop, fighting stops at the first death and HP carries between fights.
+ */
+public final class OfflineCombatResolver {
+
+    /** Outcome of an offline session. */
+    public static final class Result {
+        public int kills;
+        public int deaths;
+        public int playerHp;
+        public long xp;
+        public long silver;
+        /** Seconds of the elapsed time actually spent fighting. */
+        public double foughtSec;
+        public final Map<String, Integer> loot = new HashMap<>();
+    }
+
+    /** Precomputed fight samples for one matchup. */
+    static final class MatchupProfile {
+        final float[] fightSec;
+        final int[] damageTaken;
+        final boolean[] killed;
+
+        MatchupProfile(int n) {
+            fightSec = new float[n];
+            damageTaken = new int[n];
+            killed = new boolean[n];
+        }
+    }
+
+    public static final int DEFAULT_SAMPLES = 128;
+    /** Fights that last longer than this are treated as stalemates (no kill). */
+    private static final double MAX_FIGHT_SEC = 600.0;
+    private static final double MIN_FIGHT_SEC = 0.1;
+    private static final int PROFILE_HP = 1_000_000_000;
+    private static final int MAX_CACHED_PROFILES = 16;
+
+    private final int samples;
+    private final Map<String, MatchupProfile> profiles =
+            new LinkedHashMap<String, MatchupProfile>(16, 0.75f, true) {
+                @Override protected boolean removeEldestEntry(Map.Entry<String, MatchupProfile> e) {
+                    return size() > MAX_CACHED_PROFILES;
+                }
+            };
+
+    public OfflineCombatResolver() { this(DEFAULT_SAMPLES); }
+
+    public OfflineCombatResolver(int samples) { this.samples = Math.max(1, samples); }
+
+    public int samples() { return samples; }
+
+    /**
+     * @param player     the player's total stats (base + gear + skills)
+     * @param startHp    HP at the moment the app went away
+     * @param elapsedSec offline time to resolve
+     */
+    public Result resolve(Stats player, @Nullable Element playerElement, int startHp,
+                          Monster monster, double elapsedSec, Random rng) {
+        Result r = new Result();
+        int maxHp = Math.max(1, player.health);
+        int hp = Math.min(startHp, maxHp);
+        if (hp <= 0) hp = maxHp;
+        r.playerHp = hp;
+        if (monster == null || elapsedSec <= 0) return r;
+
+        MatchupProfile p = profileFor(player, playerElement, monster);
+        double left = elapsedSec;
+        while (left > 0) {
+            int i = rng.nextInt(samples);
+            double t = p.fightSec[i];
+            if (t > left) break; // unfinished fight at the end of the window is dropped
+
+            int dmg = p.damageTaken[i];
+            if (dmg >= hp) {
+                // Died partway through this fight; assume damage arrived evenly.
+                r.foughtSec += t * hp / (double) Math.max(1, dmg);
+                hp = 0;
+                r.deaths++;
+                break;
+            }
+            hp -= dmg;
+            left -= t;
+            r.foughtSec += t;
+            if (p.killed[i]) {
+                r.kills++;
+                DropRoller.roll(monster.drops, rng, r.loot);
+            }
+        }
+
+        r.playerHp = hp;
+        r.xp = (long) r.kills * monster.getExpPerKill();
+        r.silver = (long) r.kills * monster.getSilverReward();
+        return r;
+    }
+
+    MatchupProfile profileFor(Stats player, @Nullable Element playerElement, Monster monster) {
+        String key = matchupKey(player, playerElement, monster);
+        MatchupProfile p = profiles.get(key);
+        if (p != null) return p;
+
+        Random rng = new GameRandom(GameRandom.mix64(key.hashCode()));
+        Stats tank = new Stats(player.attack, player.defense, player.speed, PROFILE_HP,
+                player.critChance, player.critMultiplier);
+        p = new MatchupProfile(samples);
+        for (int i = 0; i < samples; i++) {
+            CombatCore c = new CombatCore(tank, playerElement, PROFILE_HP,
+                    monster.stats, monster.element, monster.behavior, monster.name,
+                    rng);
+            double t = c.runToEnd(MAX_FIGHT_SEC);
+            p.fightSec[i] = (float) Math.max(MIN_FIGHT_SEC, t);
+            p.damageTaken[i] = PROFILE_HP - c.getPlayerHp();
+            p.killed[i] = c.isVictory();
+        }
+        profiles.put(key, p);
+        return p;
+    }
+
+    /** Drops the cached profiles (e.g. after monster definitions are reloaded). */
+    public void clearProfiles() { profiles.clear(); }
+
+    private static String matchupKey(Stats s, @Nullable Element pe, Monster m) {
+        return m.id + '|' + m.element + '|' + pe + '|' + s.attack + '|' + s.defense + '|'
+                + s.speed + '|' + s.critChance + '|' + s.critMultiplier;
+    }
+}
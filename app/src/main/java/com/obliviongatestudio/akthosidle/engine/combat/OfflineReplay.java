@@ -0,0 +1,143 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything needed to re-run one {@link OfflineCombatResolver} catch-up, plus what the client
+ * granted for it; the offline counterpart of {@link CombatReplay}.
+ * - Setup: the resolve seed, sample count, the player's stat snapshot, element and starting HP,
+ *   monster id and the time away. The resolver's matchup profiles only depend on the matchup,
+ *   so these reproduce the result exactly.
+ * - Outcome: kills, deaths, HP left, XP, silver and loot.
+ */
+public final class OfflineReplay {
+
+    public static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x414B524F; // "AKRO"
+
+    private static final Element[] ELEMENTS = Element.values();
+
+    // ---- setup ----
+    public final long seed;
+    public final int samples;
+    public final Stats playerStats;
+    @Nullable public final Element playerElement;
+    public final int startHp;
+    public final String monsterId;
+    public final double elapsedSec;
+
+    // ---- reported outcome ----
+    public boolean finished;
+    public int kills;
+    public int deaths;
+    public int endHp;
+    public long xp;
+    public long silver;
+    public final Map<String, Integer> loot = new LinkedHashMap<>();
+
+    public OfflineReplay(long seed, int samples, Stats playerStats, @Nullable Element playerElement,
+                         int startHp, String monsterId, double elapsedSec) {
+        this.seed = seed;
+        this.samples = samples;
+        this.playerStats = new Stats(playerStats.attack, playerStats.defense, playerStats.speed,
+                playerStats.health, playerStats.critChance, playerStats.critMultiplier);
+        this.playerElement = playerElement;
+        this.startHp = startHp;
+        this.monsterId = monsterId;
+        this.elapsedSec = elapsedSec;
+    }
+
+    /** Stores what the client granted for this catch-up. */
+    public void finish(OfflineCombatResolver.Result r) {
+        finished = true;
+        kills = r.kills;
+        deaths = r.deaths;
+        endHp = r.playerHp;
+        xp = r.xp;
+        silver = r.silver;
+        loot.clear();
+        loot.putAll(r.loot);
+    }
+
+    /* ============================
+     * Binary form
+     * ============================ */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(seed);
+            out.writeInt(samples);
+            out.writeInt(playerStats.attack);
+            out.writeInt(playerStats.defense);
+            out.writeDouble(playerStats.speed);
+            out.writeInt(playerStats.health);
+            out.writeDouble(playerStats.critChance);
+            out.writeDouble(playerStats.critMultiplier);
+            out.writeByte(playerElement != null ? playerElement.ordinal() : -1);
+            out.writeInt(startHp);
+            out.writeUTF(monsterId);
+            out.writeDouble(elapsedSec);
+
+            out.writeBoolean(finished);
+            out.writeInt(kills);
+            out.writeInt(deaths);
+            out.writeInt(endHp);
+            out.writeLong(xp);
+            out.writeLong(silver);
+            out.writeShort(loot.size());
+            for (Map.Entry<String, Integer> e : loot.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeInt(e.getValue());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Parses a record written by {@link #toBytes()}; throws IOException if it is malformed. */
+    public static OfflineReplay fromBytes(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) throw new IOException("Not an offline replay");
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) throw new IOException("Unsupported replay version " + version);
+
+        long seed = in.readLong();
+        int samples = in.readInt();
+        if (samples <= 0) throw new IOException("Bad sample count " + samples);
+        Stats st = new Stats(in.readInt(), in.readInt(), in.readDouble(), in.readInt(),
+                in.readDouble(), in.readDouble());
+        int el = in.readByte();
+        if (el >= ELEMENTS.length) throw new IOException("Bad element " + el);
+        int startHp = in.readInt();
+        String monsterId = in.readUTF();
+        double elapsedSec = in.readDouble();
+        OfflineReplay r = new OfflineReplay(seed, samples, st, el >= 0 ? ELEMENTS[el] : null,
+                startHp, monsterId, elapsedSec);
+
+        r.finished = in.readBoolean();
+        r.kills = in.readInt();
+        r.deaths = in.readInt();
+        r.endHp = in.readInt();
+        r.xp = in.readLong();
+        r.silver = in.readLong();
+        int loot = in.readUnsignedShort();
+        for (int i = 0; i < loot; i++) {
+            r.loot.put(in.readUTF(), in.readInt());
+        }
+        return r;
+    }
+}
@@ -0,0 +1,85 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.domain.model.Monster;
+import com.obliviongatestudio.akthosidle.domain.rules.GameRandom;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Re-simulates a {@link CombatReplay} headlessly and checks the reported outcome, XP, silver and
+ * drops against it.
+ * - Same core, same seeds, inputs applied at their recorded fight-clock times: a fight re-runs
+ *   in one iteration per combat event (tens of microseconds), so every pending record can be
+ *   checked before a cloud sync.
+ * - The live clock advances in wall-clock slices, so fight length can differ from the re-run by
+ *   rounding; it is compared with {@link #TIME_EPSILON_SEC}. Everything else must match exactly.
+ * - An {@link OfflineReplay} re-runs the whole catch-up on a fresh resolver and must match exactly.
+ */
+public final class ReplayVerifier {
+    private ReplayVerifier() {}
+
+    static final double TIME_EPSILON_SEC = 1e-6;
+    /** Longest reported fight we are willing to re-run. */
+    static final double MAX_FIGHT_SEC = 24 * 60 * 60;
+
+    public enum Verdict {
+        OK,
+        UNFINISHED,
+        UNKNOWN_MONSTER,
+        OUTCOME_MISMATCH,
+        HP_MISMATCH,
+        DURATION_MISMATCH,
+        XP_MISMATCH,
+        SILVER_MISMATCH,
+        DROPS_MISMATCH
+    }
+
+    /** {@code monster} is the current definition for {@link CombatReplay#monsterId}. */
+    public static Verdict verify(CombatReplay r, @Nullable Monster monster) {
+        if (!r.finished || r.elapsedSec < 0 || r.elapsedSec > MAX_FIGHT_SEC) return Verdict.UNFINISHED;
+        if (monster == null || monster.stats == null) return Verdict.UNKNOWN_MONSTER;
+
+        CombatCore core = new CombatCore(
+                r.playerStats, r.playerElement, r.startHp,
+                monster.stats, monster.element, monster.behavior, monster.name,
+                new GameRandom(r.fightSeed));
+        for (int i = 0; i < r.inputCount(); i++) {
+            core.runToEnd(r.inputAt(i)); // stops early if the fight is already over
+            r.applyInput(i, core);
+        }
+        double elapsed = core.runToEnd(r.elapsedSec + TIME_EPSILON_SEC);
+
+        if (!core.isOver() || core.isVictory() != r.victory) return Verdict.OUTCOME_MISMATCH;
+        if (core.getPlayerHp() != r.endHp) return Verdict.HP_MISMATCH;
+        if (Math.abs(elapsed - r.elapsedSec) > TIME_EPSILON_SEC) return Verdict.DURATION_MISMATCH;
+
+        int xp = r.victory ? monster.getExpPerKill() : 0;
+        int silver = r.victory ? monster.getSilverReward() : 0;
+        if (r.xp != xp) return Verdict.XP_MISMATCH;
+        if (r.silver != silver) return Verdict.SILVER_MISMATCH;
+
+        Map<String, Integer> drops = new HashMap<>();
+        if (r.victory) DropRoller.roll(monster.drops, new GameRandom(r.lootSeed), drops);
+        if (!drops.equals(r.drops)) return Verdict.DROPS_MISMATCH;
+        return Verdict.OK;
+    }
+
+    /** {@code monster} is the current definition for {@link OfflineReplay#monsterId}. */
+    public static Verdict verify(OfflineReplay r, @Nullable Monster monster) {
+        if (!r.finished || r.elapsedSec < 0 || r.elapsedSec > MAX_FIGHT_SEC) return Verdict.UNFINISHED;
+        if (monster == null || monster.stats == null) return Verdict.UNKNOWN_MONSTER;
+
+        OfflineCombatResolver.Result res = new OfflineCombatResolver(r.samples).resolve(
+                r.playerStats, r.playerElement, r.startHp, monster, r.elapsedSec, new GameRandom(r.seed));
+
+        if (res.kills != r.kills || res.deaths != r.deaths) return Verdict.OUTCOME_MISMATCH;
+        if (res.playerHp != r.endHp) return Verdict.HP_MISMATCH;
+        if (res.xp != r.xp) return Verdict.XP_MISMATCH;
+        if (res.silver != r.silver) return Verdict.SILVER_MISMATCH;
+        if (!res.loot.equals(r.loot)) return Verdict.DROPS_MISMATCH;
+        return Verdict.OK;
+    }
+}
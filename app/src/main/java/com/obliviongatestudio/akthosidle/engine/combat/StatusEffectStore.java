@@ -0,0 +1,209 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import androidx.annotation.Nullable;
+
+import com.obliviongatestudio.akthosidle.domain.model.StatusEffect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Status effects on one combatant, stored as parallel primitive arrays.
+ * - Timing is absolute against the store's own clock (expiry / next tick), so advancing time is
+ *   O(1) until the earliest pending expiry or DoT/HoT tick is due.
+ * - Per-type counts and the summed slow are kept up to date on add/expire, so the per-step
+ *   {@link #isStunned()} / {@link #totalSlow()} queries never walk the effects.
+ * - Resistances (0..1 per type) are applied when an effect is offered via {@link #tryApply}.
+ * - {@link #snapshot()} hands the UI an immutable list that is only rebuilt after a change.
+ */
+public final class StatusEffectStore {
+
+    /** Receives DoT/HoT ticks and expiries while the store advances. */
+    public interface Sink {
+        void onTick(StatusEffect.Type type, int amount, String name);
+        void onExpire(String name);
+    }
+
+    private static final StatusEffect.Type[] TYPES = StatusEffect.Type.values();
+    private static final double TICK_SEC = 1.0;
+
+    private int size;
+    private byte[] types = new byte[4];
+    private double[] expiresAt = new double[4];
+    private double[] nextTickAt = new double[4];
+    private double[] values = new double[4];
+    private int[] colors = new int[4];
+    private String[] names = new String[4];
+
+    private final int[] typeCounts = new int[TYPES.length];
+    private final double[] resistances = new double[TYPES.length];
+    private double slowSum;
+
+    private double clock;
+    /** Earliest expiry or DoT/HoT tick; nothing needs doing before this. */
+    private double nextEventAt = Double.POSITIVE_INFINITY;
+
+    private int version;
+    private int snapshotVersion = -1;
+    private List<StatusEffect> snapshot = Collections.emptyList();
+
+    /* ============================
+     * Resistances
+     * ============================ */
+    /** Assign a resistance value in the range 0-1. */
+    public void setResistance(StatusEffect.Type type, double value) {
+        resistances[type.ordinal()] = value;
+    }
+
+    /** Apply resistance to a base chance, clamping the result to [0, 1]. */
+    public double applyResistance(StatusEffect.Type type, double baseChance) {
+        double chance = baseChance - resistances[type.ordinal()];
+        if (chance < 0.0) return 0.0;
+        if (chance > 1.0) return 1.0;
+        return chance;
+    }
+
+    /**
+     * Rolls {@code baseChance} (after resistance) and adds the effect on success.
+     * Always draws exactly one random number so seeded fights stay in step.
+     */
+    public boolean tryApply(StatusEffect effect, double baseChance, Random rng) {
+        double chance = applyResistance(effect.type, baseChance);
+        if (rng.nextDouble() < chance) {
+            add(effect);
+            return true;
+        }
+        return false;
+    }
+
+    /* ============================
+     * Mutation
+     * ============================ */
+    /** Adds the effect unconditionally; the store keeps its own copy of the values. */
+    public void add(StatusEffect e) {
+        if (e == null || e.remaining <= 0) return;
+        if (size == types.length) grow();
+        int i = size++;
+        types[i] = (byte) e.type.ordinal();
+        expiresAt[i] = clock + e.remaining;
+        nextTickAt[i] = isPeriodic(e.type) ? clock + Math.max(0.0, TICK_SEC - e.tickAcc) : Double.POSITIVE_INFINITY;
+        values[i] = e.value;
+        colors[i] = e.color;
+        names[i] = e.name;
+
+        typeCounts[e.type.ordinal()]++;
+        if (e.type == StatusEffect.Type.SLOW) slowSum += e.value;
+        nextEventAt = Math.min(nextEventAt, Math.min(expiresAt[i], nextTickAt[i]));
+        version++;
+    }
+
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        size = 0;
+        Arrays.fill(typeCounts, 0);
+        slowSum = 0;
+        nextEventAt = Double.POSITIVE_INFINITY;
+        version++;
+    }
+
+    /**
+     * Moves the store clock forward. Ticks periodic effects (only while they are still active)
+     * and removes expired ones, reporting both to {@code sink}. Order of survivors is preserved.
+     */
+    public void advance(double deltaSec, @Nullable Sink sink) {
+        advanceTo(clock + deltaSec, sink);
+    }
+
+    /** Same as {@link #advance} but to an absolute clock time, so callers can share one clock. */
+    public void advanceTo(double time, @Nullable Sink sink) {
+        if (time > clock) clock = time;
+        if (clock < nextEventAt) return;
+
+        double next = Double.POSITIVE_INFINITY;
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            StatusEffect.Type type = TYPES[types[r]];
+            double exp = expiresAt[r];
+            double tick = nextTickAt[r];
+            while (tick <= clock && exp > clock) {
+                tick += TICK_SEC;
+                int amt = (int) Math.round(values[r]); // Value is per tick
+                if (amt != 0 && sink != null) sink.onTick(type, amt, names[r]);
+            }
+            if (exp <= clock) {
+                typeCounts[type.ordinal()]--;
+                if (type == StatusEffect.Type.SLOW) slowSum -= values[r];
+                if (sink != null) sink.onExpire(names[r]);
+                version++;
+                continue;
+            }
+            nextTickAt[r] = tick;
+            if (w != r) move(r, w);
+            next = Math.min(next, Math.min(exp, tick));
+            w++;
+        }
+        Arrays.fill(names, w, size, null);
+        size = w;
+        if (typeCounts[StatusEffect.Type.SLOW.ordinal()] == 0) slowSum = 0; // drop float drift
+        nextEventAt = next;
+    }
+
+    /* ============================
+     * Aggregates
+     * ============================ */
+    public int size() { return size; }
+    public int count(StatusEffect.Type type) { return typeCounts[type.ordinal()]; }
+    public boolean isStunned() { return typeCounts[StatusEffect.Type.STUN.ordinal()] > 0; }
+    public double totalSlow() { return slowSum; }
+
+    /** Store clock time of the next expiry or periodic tick (infinite if none). */
+    public double nextEventAt() { return nextEventAt; }
+
+    /** Bumped on every add, expiry and clear. */
+    public int version() { return version; }
+
+    /**
+     * Immutable view for the UI. Rebuilt only when {@link #version()} has moved; remaining
+     * times are as of that rebuild.
+     */
+    public List<StatusEffect> snapshot() {
+        if (snapshotVersion != version) {
+            List<StatusEffect> out = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                StatusEffect.Type type = TYPES[types[i]];
+                StatusEffect e = new StatusEffect(names[i], type, expiresAt[i] - clock, values[i], colors[i]);
+                if (isPeriodic(type)) e.tickAcc = Math.max(0.0, TICK_SEC - (nextTickAt[i] - clock));
+                out.add(e);
+            }
+            snapshot = Collections.unmodifiableList(out);
+            snapshotVersion = version;
+        }
+        return snapshot;
+    }
+
+    private void move(int from, int to) {
+        types[to] = types[from];
+        expiresAt[to] = expiresAt[from];
+        nextTickAt[to] = nextTickAt[from];
+        values[to] = values[from];
+        colors[to] = colors[from];
+        names[to] = names[from];
+    }
+
+    private void grow() {
+        int cap = types.length * 2;
+        types = Arrays.copyOf(types, cap);
+        expiresAt = Arrays.copyOf(expiresAt, cap);
+        nextTickAt = Arrays.copyOf(nextTickAt, cap);
+        values = Arrays.copyOf(values, cap);
+        colors = Arrays.copyOf(colors, cap);
+        names = Arrays.copyOf(names, cap);
+    }
+
+    private static boolean isPeriodic(StatusEffect.Type type) {
+        return type == StatusEffect.Type.DOT || type == StatusEffect.Type.HOT;
+    }
+}
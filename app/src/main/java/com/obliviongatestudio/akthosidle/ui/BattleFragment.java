@@ -25,9 +25,9 @@ import com.obliviongatestudio.akthosidle.domain.model.Item;
 import com.obliviongatestudio.akthosidle.domain.model.Monster;
 import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
 import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
 import com.obliviongatestudio.akthosidle.engine.CombatEngine;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -122,9 +122,7 @@ public class BattleFragment extends Fragment {
 
         vm.battleState().observe(getViewLifecycleOwner(), this::renderState);
         vm.pendingLoot().observe(getViewLifecycleOwner(), this::renderLoot);
-        vm.combatLog().observe(getViewLifecycleOwner(), logs -> {
-            logAdapter.submit(logs == null ? new ArrayList<>() : logs);
-        });
+        vm.combatLog().observe(getViewLifecycleOwner(), logAdapter::submit);
 
         // This observer is crucial for seeing HP updates from healing
         vm.repo.playerHpLive.observe(getViewLifecycleOwner(), hp -> {
@@ -144,15 +142,32 @@ public class BattleFragment extends Fragment {
         PlayerCharacter pc = vm.player();
         // Ensure currentHp is not null and has a sensible default if it is.
         // GameViewModel should initialize currentHp if it's ever null from data source.
-        int currentHp = (pc.currentHp == null) ? pc.totalStats(vm.repo.gearStats(pc)).health : pc.currentHp;
+        int currentHp = (pc.currentHp == null) ? vm.repo.statSheet().total.health : pc.currentHp;
         renderPlayerHp(currentHp);
     }
 
+    @Override
+    public void onStart() {
+        super.onStart();
+        // Catch up on fights that ran while we were away, then keep the loop going.
+        String resumeId = vm.resumeSuspendedFight();
+        if (resumeId != null && vm.player().currentHp != null && vm.player().currentHp > 0) {
+            keepFighting = true;
+            vm.startFight(resumeId);
+        }
+    }
+
+    @Override
+    public void onStop() {
+        if (keepFighting) vm.suspendFight();
+        super.onStop();
+    }
+
     private void renderStatsRow() {
-        PlayerCharacter pc = vm.player();
-        int atk = pc.totalStats(vm.repo.gearStats(pc)).attack;
-        int def = pc.totalStats(vm.repo.gearStats(pc)).defense;
-        double spd = pc.totalStats(vm.repo.gearStats(pc)).speed;
+        Stats total = vm.repo.statSheet().total;
+        int atk = total.attack;
+        int def = total.defense;
+        double spd = total.speed;
         tvStatsRow.setText(String.format(Locale.US, "Atk %d   Def %d   Spd %.2f", atk, def, spd));
     }
 
@@ -216,7 +231,7 @@ public class BattleFragment extends Fragment {
         }
 
         // Check if player is already at max HP
-        int maxHp = pc.totalStats(vm.repo.gearStats(pc)).health;
+        int maxHp = vm.repo.statSheet().total.health;
         if (pc.currentHp >= maxHp) {
             vm.repo.toast("Already at full health!");
             return;
@@ -281,7 +296,7 @@ public class BattleFragment extends Fragment {
 
         // Enable button if player has the item and is not at max HP, or if no item is selected (to allow selection)
         PlayerCharacter pc = vm.player();
-        int maxHp = pc.totalStats(vm.repo.gearStats(pc)).health;
+        int maxHp = vm.repo.statSheet().total.health;
         boolean canHeal = (qty > 0 && pc.currentHp < maxHp && pc.currentHp > 0) || (id == null && !combatRunning);
         btnQuickHeal.setEnabled(canHeal);
     }
@@ -360,8 +375,7 @@ public class BattleFragment extends Fragment {
     }
 
     private void renderPlayerHp(int hpNow) {
-        PlayerCharacter pc = vm.player();
-        int pMax = Math.max(1, pc.totalStats(vm.repo.gearStats(pc)).health);
+        int pMax = vm.repo.statSheet().maxHp();
         // Ensure hpNow is within bounds [0, pMax] before calculating percentage
         int currentHpClamped = Math.min(Math.max(0, hpNow), pMax);
         int pPct = (int) Math.round(100.0 * currentHpClamped / (double) pMax);
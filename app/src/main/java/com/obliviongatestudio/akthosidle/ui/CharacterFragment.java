@@ -188,8 +188,7 @@ public class CharacterFragment extends Fragment {
     // ---------- Stats / Food ----------
 
     private void refreshStatsAndFood() {
-        PlayerCharacter pc = vm.player();
-        Stats total = pc.totalStats(vm.repo.gearStats(pc));
+        Stats total = vm.repo.statSheet().total;
 
         tvAtkVal.setText(String.valueOf(total.attack));
         tvDefVal.setText(String.valueOf(total.defense));
@@ -3,11 +3,13 @@ package com.obliviongatestudio.akthosidle.ui;
 import android.app.Application;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.obliviongatestudio.akthosidle.data.dtos.InventoryItem;
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
 import com.obliviongatestudio.akthosidle.data.repo.GameRepository;
 import com.obliviongatestudio.akthosidle.domain.model.Action;
 import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
@@ -18,6 +20,7 @@ import com.obliviongatestudio.akthosidle.domain.model.SkillId;
 import com.obliviongatestudio.akthosidle.domain.model.SlayerAssignment;
 import com.obliviongatestudio.akthosidle.engine.ActionEngine;
 import com.obliviongatestudio.akthosidle.engine.CombatEngine;
+import com.obliviongatestudio.akthosidle.engine.combat.CombatLog;
 
 import java.util.List;
 
@@ -48,7 +51,7 @@ public class GameViewModel extends AndroidViewModel {
 
     // ===== Exposed LiveData =====
     public LiveData<CombatEngine.BattleState> battleState() { return combatEngine.state(); }
-    public LiveData<List<String>> combatLog() { return combatEngine.log(); }
+    public LiveData<CombatLog> combatLog() { return combatEngine.log(); }
     public LiveData<List<InventoryItem>> pendingLoot() { return repo.pendingLootLive; }
     public LiveData<Boolean> autoRespawn() { return autoRespawn; }
     public LiveData<SlayerAssignment> slayer() { return repo.slayerLive; }   // NEW
@@ -61,6 +64,14 @@ public class GameViewModel extends AndroidViewModel {
     // ===== Battle control =====
     public void startFight(String monsterId) { combatEngine.start(monsterId); }
     public void stopFight() { combatEngine.stop(); }
+    /** Pauses the auto-fight while the screen is gone; time away is resolved on resume. */
+    public void suspendFight() { combatEngine.suspend(); }
+    /** Grants the fights resolved while away; returns the monster to keep fighting, or null. */
+    public @Nullable String resumeSuspendedFight() {
+        CombatEngine.BattleState s = combatEngine.state().getValue();
+        if (s != null && s.running) return null;
+        return combatEngine.resumeOffline();
+    }
     public void toggleFight(String monsterId) {
         CombatEngine.BattleState s = combatEngine.state().getValue();
         if (s != null && s.running) stopFight(); else startFight(monsterId);
@@ -88,7 +99,7 @@ public class GameViewModel extends AndroidViewModel {
             return;
         }
 
-        int maxHp = currentPlayer.totalStats(repo.gearStats(currentPlayer)).health;
+        int maxHp = repo.statSheet().maxHp();
         int currentHpVal = (currentPlayer.currentHp == null) ? maxHp : currentPlayer.currentHp;
 
         if (currentHpVal >= maxHp && foodItem.heal > 0) { // Only prevent if it would heal
@@ -100,6 +111,7 @@ public class GameViewModel extends AndroidViewModel {
         // The actual consumption and HP update is now better handled in GameRepository.consumeFood
         // So, GameViewModel can just delegate the call.
         repo.consumeFood(foodId);
+        combatEngine.healPlayer(foodItem.heal); // no-op unless a fight is running
 
         // The lines below were for direct manipulation in ViewModel,
         // but it's cleaner if GameRepository's consumeFood handles these details
@@ -121,7 +133,7 @@ public class GameViewModel extends AndroidViewModel {
          repo.updatePlayerInventory(currentPlayer.bag); // Also by repo.consumeFood
     }
     public String getQuickFoodId() { return repo.loadOrCreatePlayer().getQuickFoodId(); }
-    public void setQuickFoodId(String id) { repo.loadOrCreatePlayer().setQuickFoodId(id); repo.save(); }
+    public void setQuickFoodId(String id) { repo.loadOrCreatePlayer().setQuickFoodId(id); repo.save(SaveSection.QUICK_FOOD); }
 
     public List<InventoryItem> getPotions(boolean combatOnly, boolean nonCombatOnly) {
         return repo.getPotions(combatOnly, nonCombatOnly);
@@ -166,6 +178,24 @@ public class GameViewModel extends AndroidViewModel {
         repo.stopGathering();
     }
 
+    // ===== Save management (Settings) =====
+    public String exportSave() { return repo.exportPlayerJson(); }
+    /** Replaces the save with a JSON export and switches the running game over to it. */
+    public boolean importSave(String json) {
+        stopFight();
+        stopGather();
+        if (!repo.importPlayerJson(json)) return false;
+        repo.reloadPlayer();
+        return true;
+    }
+    /** Erases the save and starts the running game on a fresh character. */
+    public void resetProgress() {
+        stopFight();
+        stopGather();
+        repo.wipeLocalSave();
+        repo.reloadPlayer();
+    }
+
     // ===== Slayer helpers (UI-friendly pass-throughs) =====
     public SlayerAssignment rollNewSlayerTaskRandom(String regionId, boolean forceReplace) {
         return repo.rollNewSlayerTask(regionId, forceReplace);
@@ -181,6 +211,7 @@ public class GameViewModel extends AndroidViewModel {
     protected void onCleared() {
         try { combatEngine.stop(); } catch (Throwable ignored) {}
         try { gatherEngine.stop(); } catch (Throwable ignored) {}
+        repo.flushSave();
         super.onCleared();
     }
 }
@@ -13,6 +13,7 @@ import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.obliviongatestudio.akthosidle.R;
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
 
 public class InventoryFragment extends Fragment implements InventoryAdapter.OnItemClick {
     private GameViewModel vm;
@@ -47,7 +48,7 @@ public class InventoryFragment extends Fragment implements InventoryAdapter.OnIt
             var p = vm.player();
             p.addItem(item.id, -1);
             p.base.health += item.heal;   // demo behavior
-            vm.repo.save();
+            vm.repo.save(SaveSection.BAG, SaveSection.BASE);
         }
         adapter.refresh(vm.player().bag);
     }
@@ -5,21 +5,45 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.obliviongatestudio.akthosidle.R;
+import com.obliviongatestudio.akthosidle.engine.combat.CombatLog;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * Shows a {@link CombatLog} newest-first. Rows are formatted on bind, so only visible lines
+ * are ever turned into text, and appends are reported as range inserts instead of a full rebind.
+ */
 public class LogAdapter extends RecyclerView.Adapter<LogAdapter.VH> {
 
-    private final List<String> lines = new ArrayList<>();
+    @Nullable private CombatLog log;
+    private int shownSize = 0;
+    private long shownAppended = 0;
+    private int shownClears = 0;
+
+    public void submit(@Nullable CombatLog newLog) {
+        if (newLog == null || newLog != log || newLog.clearCount() != shownClears
+                || newLog.appendedCount() - shownAppended > newLog.capacity()) {
+            log = newLog;
+            remember();
+            notifyDataSetChanged();
+            return;
+        }
+
+        int inserted = (int) (newLog.appendedCount() - shownAppended);
+        if (inserted <= 0) return;
+        int newSize = newLog.size();
+        int removed = shownSize + inserted - newSize; // oldest rows pushed out of the ring
+        remember();
+        notifyItemRangeInserted(0, inserted);
+        if (removed > 0) notifyItemRangeRemoved(newSize, removed);
+    }
 
-    public void submit(List<String> newLines) {
-        lines.clear();
-        if (newLines != null) lines.addAll(newLines);
-        notifyDataSetChanged();
+    private void remember() {
+        shownSize = log != null ? log.size() : 0;
+        shownAppended = log != null ? log.appendedCount() : 0;
+        shownClears = log != null ? log.clearCount() : 0;
     }
 
     @NonNull @Override
@@ -31,12 +55,12 @@ public class LogAdapter extends RecyclerView.Adapter<LogAdapter.VH> {
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        holder.text.setText(lines.get(position));
+        holder.text.setText(log != null ? log.format(position) : "");
     }
 
     @Override
     public int getItemCount() {
-        return lines.size();
+        return shownSize;
     }
 
     static class VH extends RecyclerView.ViewHolder {
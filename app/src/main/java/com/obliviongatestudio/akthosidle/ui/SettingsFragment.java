@@ -3,7 +3,6 @@ package com.obliviongatestudio.akthosidle.ui;
 import android.content.ClipData;
 import android.content.ClipboardManager;
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.text.InputType;
 import android.widget.EditText;
@@ -11,6 +10,7 @@ import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceFragmentCompat;
 
 import com.obliviongatestudio.akthosidle.R;
@@ -20,13 +20,12 @@ import org.json.JSONObject;
 /** Real settings screen: backup/export/import/reset + placeholders. */
 public class SettingsFragment extends PreferenceFragmentCompat {
 
-    // Mirror repo’s keys to manipulate save data directly
-    private static final String SP_NAME    = "akthos_idle_save";
-    private static final String KEY_PLAYER = "player_json";
+    private GameViewModel vm;
 
     @Override
     public void onCreatePreferences(@Nullable Bundle savedInstanceState, @Nullable String rootKey) {
         setPreferencesFromResource(R.xml.prefs_settings, rootKey);
+        vm = new ViewModelProvider(requireActivity()).get(GameViewModel.class);
 
         // Manual Save (no-op if your repo autosaves; can be wired to repo.save() via activity)
         findPreference("manual_save").setOnPreferenceClickListener(p -> {
@@ -40,8 +39,7 @@ public class SettingsFragment extends PreferenceFragmentCompat {
     }
 
     private void exportSave() {
-        SharedPreferences sp = requireContext().getSharedPreferences(SP_NAME, Context.MODE_PRIVATE);
-        String json = sp.getString(KEY_PLAYER, "{}");
+        String json = vm.exportSave();
         String pretty = json;
         try { pretty = new JSONObject(json).toString(2); } catch (Throwable ignored) {}
 
@@ -75,9 +73,10 @@ public class SettingsFragment extends PreferenceFragmentCompat {
                     try { new JSONObject(raw); } catch (Throwable t) {
                         Toast.makeText(requireContext(), "Invalid JSON", Toast.LENGTH_SHORT).show(); return;
                     }
-                    SharedPreferences sp = requireContext().getSharedPreferences(SP_NAME, Context.MODE_PRIVATE);
-                    sp.edit().putString(KEY_PLAYER, raw).apply();
-                    Toast.makeText(requireContext(), "Imported. Reload app to apply.", Toast.LENGTH_LONG).show();
+                    if (!vm.importSave(raw)) {
+                        Toast.makeText(requireContext(), "Not a save", Toast.LENGTH_SHORT).show(); return;
+                    }
+                    Toast.makeText(requireContext(), "Imported.", Toast.LENGTH_SHORT).show();
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -88,9 +87,8 @@ public class SettingsFragment extends PreferenceFragmentCompat {
                 .setTitle("Reset Progress")
                 .setMessage("Erase current character and inventory?")
                 .setPositiveButton("Erase", (d, w) -> {
-                    SharedPreferences sp = requireContext().getSharedPreferences(SP_NAME, Context.MODE_PRIVATE);
-                    sp.edit().remove(KEY_PLAYER).apply();
-                    Toast.makeText(requireContext(), "Progress reset. Reload app to apply.", Toast.LENGTH_LONG).show();
+                    vm.resetProgress();
+                    Toast.makeText(requireContext(), "Progress reset.", Toast.LENGTH_SHORT).show();
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -0,0 +1,146 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import static org.junit.Assert.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class InMemoryCloudStoreTest {
+
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final Map<String, Map<String, Long>> NO_INCREMENTS = Collections.emptyMap();
+
+    private static Map<String, Object> fields(Object... kv) {
+        Map<String, Object> m = new HashMap<>();
+        for (int i = 0; i < kv.length; i += 2) m.put((String) kv[i], kv[i + 1]);
+        return m;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> child(CloudStore.Document d, String field) {
+        return (Map<String, Object>) d.data.get(field);
+    }
+
+    @Test public void merge_deep_merges_maps_and_adds_increments() {
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        store.merge("c", "p", fields("bag", fields("ore_tin", 5, "log_oak", 2), "exp", 10), NO_INCREMENTS, null);
+        store.merge("c", "p", fields("bag", fields("log_oak", 7)),
+                Collections.singletonMap("currencies", Collections.singletonMap("silver", 40L)), null);
+        store.increment("c", "p", "bag", "ore_tin", -2, null);
+
+        CloudStore.Document d = store.peek("c", "p");
+        assertTrue(d.exists);
+        assertEquals(3L, child(d, "bag").get("ore_tin"));
+        assertEquals(7L, child(d, "bag").get("log_oak"));
+        assertEquals(40L, child(d, "currencies").get("silver"));
+        assertEquals(10L, d.data.get("exp"));
+        assertFalse(d.data.containsKey(CloudStore.UPDATED_AT));
+        assertEquals(3, store.writes());
+    }
+
+    @Test public void server_timestamps_increase_and_follow_the_skewed_clock() {
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        store.setClockSkewMs(60_000L);
+        long before = System.currentTimeMillis();
+        store.merge("c", "p", fields("exp", 1), NO_INCREMENTS, null);
+        long first = store.peek("c", "p").updatedAtMs;
+        store.merge("c", "p", fields("exp", 2), NO_INCREMENTS, null);
+        assertTrue(first >= before + 60_000L);
+        assertTrue(store.peek("c", "p").updatedAtMs > first);
+    }
+
+    @Test public void reads_are_copies_and_missing_documents_say_so() {
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        AtomicReference<CloudStore.Document> got = new AtomicReference<>();
+        store.get("c", "nobody", callback(got));
+        assertFalse(got.get().exists);
+
+        store.merge("c", "p", fields("bag", fields("a", 1)), NO_INCREMENTS, null);
+        store.get("c", "p", callback(got));
+        child(got.get(), "bag").put("a", 99L);
+        assertEquals(1L, child(store.peek("c", "p"), "bag").get("a"));
+    }
+
+    @Test public void failures_apply_nothing_and_repeat_with_the_seed() {
+        InMemoryCloudStore a = new InMemoryCloudStore(0L, 0.5, 42L);
+        InMemoryCloudStore b = new InMemoryCloudStore(0L, 0.5, 42L);
+        List<Boolean> outcomesA = new ArrayList<>(), outcomesB = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            a.increment("c", "p", "bag", "x", 1, outcome(outcomesA));
+            b.increment("c", "p", "bag", "x", 1, outcome(outcomesB));
+        }
+        assertEquals(outcomesA, outcomesB);
+        assertTrue(a.failures() > 0 && a.writes() > 0);
+        assertEquals(a.writes(), (long) child(a.peek("c", "p"), "bag").get("x"));
+    }
+
+    @Test public void latency_delays_callbacks_and_listeners_see_every_change() throws Exception {
+        InMemoryCloudStore store = new InMemoryCloudStore(20L, 0.0, 1L);
+        try {
+            List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch changes = new CountDownLatch(3); // initial read + 2 writes
+            CloudStore.Registration reg = store.listen("c", "p", (doc, e) -> {
+                seen.add(doc.exists ? (Long) child(doc, "bag").get("x") : 0L);
+                changes.countDown();
+            });
+            CountDownLatch written = new CountDownLatch(1);
+            long start = System.nanoTime();
+            store.increment("c", "p", "bag", "x", 1, null);
+            store.increment("c", "p", "bag", "x", 1, new CloudStore.Callback<Void>() {
+                @Override public void onSuccess(Void r) { written.countDown(); }
+                @Override public void onFailure(Exception e) { fail(e.toString()); }
+            });
+            assertTrue(written.await(2, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+            assertTrue(changes.await(2, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0L, 1L, 2L), seen);
+            reg.remove();
+        } finally {
+            store.shutdown();
+        }
+    }
+
+    @Test public void the_file_store_survives_a_restart() throws Exception {
+        LocalFileCloudStore first = new LocalFileCloudStore(tmp.getRoot());
+        first.merge("playerCharacters", "u1", fields("bag", fields("ore_tin", 5), "base", fields("speed", 0.25)),
+                Collections.singletonMap("currencies", Collections.singletonMap("silver", 12_000_000_000L)), null);
+        long stamp = first.peek("playerCharacters", "u1").updatedAtMs;
+
+        LocalFileCloudStore second = new LocalFileCloudStore(tmp.getRoot());
+        CloudStore.Document d = second.peek("playerCharacters", "u1");
+        assertTrue(d.exists);
+        assertEquals(stamp, d.updatedAtMs);
+        assertEquals(5L, child(d, "bag").get("ore_tin"));
+        assertEquals(12_000_000_000L, child(d, "currencies").get("silver"));
+        assertEquals(0.25, (Double) child(d, "base").get("speed"), 0.0);
+
+        second.increment("playerCharacters", "u1", "bag", "ore_tin", 1, null);
+        assertTrue(second.peek("playerCharacters", "u1").updatedAtMs > stamp);
+    }
+
+    private static CloudStore.Callback<CloudStore.Document> callback(AtomicReference<CloudStore.Document> out) {
+        return new CloudStore.Callback<CloudStore.Document>() {
+            @Override public void onSuccess(CloudStore.Document d) { out.set(d); }
+            @Override public void onFailure(Exception e) { fail(e.toString()); }
+        };
+    }
+
+    private static CloudStore.Callback<Void> outcome(List<Boolean> out) {
+        return new CloudStore.Callback<Void>() {
+            @Override public void onSuccess(Void r) { out.add(true); }
+            @Override public void onFailure(Exception e) { out.add(false); }
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import static org.junit.Assert.*;
+
+import com.google.gson.Gson;
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+public class PlayerCrdtTest {
+
+    /** A cloud document's crdt field, as merge writes of each device's entry build it. */
+    private static final class Cloud {
+        final InMemoryCloudStore store = new InMemoryCloudStore();
+
+        void push(PlayerCrdt c, PlayerCharacter pc) {
+            c.absorb(pc);
+            store.merge("c", "p", java.util.Collections.<String, Object>singletonMap(PlayerCrdt.FIELD, c.ownEntry()),
+                    java.util.Collections.<String, Map<String, Long>>emptyMap(), null);
+        }
+
+        Object field() { return store.peek("c", "p").data.get(PlayerCrdt.FIELD); }
+    }
+
+    private static PlayerCharacter player(int apples, long silver, int miningXp) {
+        PlayerCharacter pc = new PlayerCharacter();
+        if (apples > 0) pc.bag.put("food_apple", apples);
+        pc.currencies.put("silver", silver);
+        pc.skills.put(SkillId.MINING, miningXp);
+        return pc;
+    }
+
+    @Test public void two_devices_playing_at_once_keep_both_progress() {
+        Cloud cloud = new Cloud();
+        PlayerCharacter a = player(100, 1_000, 5_000);
+        PlayerCrdt ca = new PlayerCrdt("A");
+        cloud.push(ca, a);
+
+        // B starts from A's save
+        PlayerCharacter b = player(0, 0, 0);
+        PlayerCrdt cb = new PlayerCrdt("B");
+        cb.join(b, cloud.field(), false);
+        assertEquals(Integer.valueOf(100), b.bag.get("food_apple"));
+
+        // Both play offline
+        a.bag.put("food_apple", 90);           // ate 10
+        a.bag.put("ore_tin", 7);
+        a.currencies.put("silver", 1_500L);
+        a.skills.put(SkillId.MINING, 6_000);
+        b.bag.put("food_apple", 95);           // ate 5
+        b.currencies.put("silver", 800L);      // spent 200
+        b.skills.put(SkillId.MINING, 7_000);
+
+        cloud.push(ca, a);
+        cloud.push(cb, b);
+        assertTrue(ca.sync(a, cloud.field()));
+        assertTrue(cb.sync(b, cloud.field()));
+
+        for (PlayerCharacter pc : new PlayerCharacter[] { a, b }) {
+            assertEquals(Integer.valueOf(85), pc.bag.get("food_apple"));
+            assertEquals(Integer.valueOf(7), pc.bag.get("ore_tin"));
+            assertEquals(Long.valueOf(1_300L), pc.currencies.get("silver"));
+            assertEquals(Integer.valueOf(7_000), pc.skills.get(SkillId.MINING));
+        }
+    }
+
+    @Test public void merging_is_idempotent_and_order_free() {
+        Cloud one = new Cloud(), two = new Cloud();
+        PlayerCrdt a = new PlayerCrdt("A"), b = new PlayerCrdt("B");
+        PlayerCharacter pa = player(10, 50, 100), pb = player(3, 20, 900);
+        a.absorb(pa);
+        b.absorb(pb);
+        one.push(a, pa);
+        one.push(b, pb);
+        two.push(b, pb);
+        two.push(a, pa);
+
+        PlayerCrdt x = new PlayerCrdt("X"), y = new PlayerCrdt("Y");
+        PlayerCharacter px = player(0, 0, 0), py = player(0, 0, 0);
+        x.join(px, one.field(), false);
+        y.join(py, two.field(), false);
+        assertFalse(y.sync(py, two.field())); // again: nothing new
+        assertEquals(px.bag, py.bag);
+        assertEquals(px.currencies, py.currencies);
+        assertEquals(px.skills, py.skills);
+        assertEquals(Integer.valueOf(13), px.bag.get("food_apple"));
+    }
+
+    @Test public void a_newer_local_save_joins_as_its_difference() {
+        Cloud cloud = new Cloud();
+        PlayerCrdt a = new PlayerCrdt("A");
+        cloud.push(a, player(100, 1_000, 0));
+
+        PlayerCharacter b = player(120, 900, 0); // played on B before sync existed
+        PlayerCrdt cb = new PlayerCrdt("B");
+        cb.join(b, cloud.field(), true);
+        assertEquals(Integer.valueOf(120), b.bag.get("food_apple"));
+        assertEquals(20L, cb.value("bag", "food_apple") - 100L);
+
+        cloud.push(cb, b);
+        PlayerCharacter a2 = player(100, 1_000, 0);
+        a.sync(a2, cloud.field());
+        assertEquals(Integer.valueOf(120), a2.bag.get("food_apple"));
+        assertEquals(Long.valueOf(900L), a2.currencies.get("silver"));
+    }
+
+    @Test public void overdrawn_totals_show_as_zero_without_creating_items() {
+        Cloud cloud = new Cloud();
+        PlayerCrdt a = new PlayerCrdt("A"), b = new PlayerCrdt("B");
+        PlayerCharacter pa = player(5, 0, 0);
+        cloud.push(a, pa);
+        PlayerCharacter pb = player(0, 0, 0);
+        b.join(pb, cloud.field(), false);
+
+        pa.bag.remove("food_apple");           // both eat all 5
+        pb.bag.remove("food_apple");
+        cloud.push(a, pa);
+        cloud.push(b, pb);
+        a.sync(pa, cloud.field());
+        assertNull(pa.bag.get("food_apple"));
+        assertEquals(-5L, a.value("bag", "food_apple"));
+
+        a.sync(pa, cloud.field());             // nothing booked for the 0 shown
+        assertEquals(-5L, a.value("bag", "food_apple"));
+        pa.bag.put("food_apple", 2);           // gains pay the deficit off first
+        a.sync(pa, cloud.field());
+        assertNull(pa.bag.get("food_apple"));
+        assertEquals(-3L, a.value("bag", "food_apple"));
+        pa.bag.put("food_apple", 7);
+        a.sync(pa, cloud.field());
+        assertEquals(Integer.valueOf(4), pa.bag.get("food_apple"));
+    }
+
+    @Test public void lowered_xp_stays_down_after_sync() {
+        PlayerCharacter pc = player(0, 0, 100);
+        PlayerCrdt c = new PlayerCrdt("A");
+        c.absorb(pc);
+        pc.skills.put(SkillId.MINING, 500);     // unverified grant, seen by a sync
+        c.sync(pc, null);
+        pc.removeSkillExp(SkillId.MINING, 400); // taken back
+        c.lowerSkill(SkillId.MINING, pc.getSkillExp(SkillId.MINING));
+        c.sync(pc, null);
+        assertEquals(100, pc.getSkillExp(SkillId.MINING));
+    }
+
+    @Test public void survives_a_gson_round_trip() {
+        PlayerCrdt c = new PlayerCrdt("A");
+        PlayerCharacter pc = player(4, 9, 300);
+        c.absorb(pc);
+        Gson gson = new Gson();
+        PlayerCrdt back = gson.fromJson(gson.toJson(c), PlayerCrdt.class);
+        assertEquals("A", back.deviceId());
+        assertEquals(4L, back.value("bag", "food_apple"));
+        assertEquals(c.ownEntry().toString().length(), back.ownEntry().toString().length());
+    }
+}
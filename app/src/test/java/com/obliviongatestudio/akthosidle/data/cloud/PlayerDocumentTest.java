@@ -0,0 +1,143 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import static org.junit.Assert.*;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
+import com.obliviongatestudio.akthosidle.data.storage.PlayerJsonLoader;
+import com.obliviongatestudio.akthosidle.data.storage.SaveMigrations;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PlayerDocumentTest {
+
+    private static PlayerCharacter player() {
+        PlayerCharacter pc = new PlayerCharacter();
+        pc.currentHp = 640;
+        pc.exp = 4_500;
+        pc.element = Element.FIRE;
+        pc.setQuickFoodId("food_bread");
+        pc.base.attack = 30;
+        pc.base.critChance = 0.125;
+        for (int i = 0; i < 50; i++) pc.bag.put("item_" + i, 1 + i);
+        pc.currencies.put("silver", 12_000_000_000L);
+        pc.currencies.put("gold", 0L);
+        pc.skills.put(SkillId.MINING, 123_456);
+        pc.equipment.put(EquipmentSlot.WEAPON, "sword_iron");
+        return pc;
+    }
+
+    /** What the document holds after {@code writes} land as merge writes (InMemoryCloudStore's rules). */
+    @SafeVarargs
+    private static Map<String, Object> stored(Map<String, Object>... writes) {
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        for (Map<String, Object> w : writes) {
+            store.merge("c", "p", w, Collections.<String, Map<String, Long>>emptyMap(), null);
+        }
+        return store.peek("c", "p").data;
+    }
+
+    private static void assertSamePlayer(PlayerCharacter want, PlayerCharacter got) {
+        assertEquals(want.currentHp, got.currentHp);
+        assertEquals(want.exp, got.exp);
+        assertEquals(want.element, got.element);
+        assertEquals(want.getQuickFoodId(), got.getQuickFoodId());
+        assertEquals(new Gson().toJson(want.base), new Gson().toJson(got.base));
+        assertEquals(want.bag, got.bag);
+        assertEquals(want.currencies, got.currencies);
+        assertEquals(want.skills, got.skills);
+        assertEquals(want.equipment, got.equipment);
+    }
+
+    @Test public void whole_player_round_trips() throws Exception {
+        PlayerCharacter pc = player();
+        Map<String, Object> doc = new PlayerDocument().encode(pc, SaveSection.PLAYER, false);
+        doc.put(SaveMigrations.FIELD, (long) SaveMigrations.CURRENT);
+        assertSamePlayer(pc, PlayerDocument.decode(stored(doc)));
+    }
+
+    @Test public void changed_only_sends_just_what_moved() throws Exception {
+        PlayerCharacter pc = player();
+        PlayerDocument enc = new PlayerDocument();
+        Map<String, Object> first = enc.encode(pc, SaveSection.PLAYER, true);
+        assertEquals(50, ((Map<?, ?>) first.get("bag")).size()); // never sent: whole
+
+        pc.bag.put("item_3", 99);
+        pc.bag.remove("item_7");
+        pc.bag.put("item_new", 1);
+        pc.currentHp = 600;
+        pc.equipment.remove(EquipmentSlot.WEAPON);
+        pc.setQuickFoodId(null);
+        Map<String, Object> second = enc.encode(pc, SaveSection.PLAYER, true);
+
+        Map<String, Object> bag = new HashMap<>();
+        bag.put("item_3", 99L);
+        bag.put("item_7", 0L);
+        bag.put("item_new", 1L);
+        assertEquals(bag, second.get("bag"));
+        assertEquals(600L, second.get("currentHp"));
+        assertTrue(second.containsKey("quickFoodId"));
+        assertNull(second.get("quickFoodId"));
+        assertEquals(Collections.singletonMap("WEAPON", null), second.get("equipment"));
+        assertFalse(second.containsKey("currencies"));
+        assertFalse(second.containsKey("skills"));
+        assertFalse(second.containsKey("base"));
+        assertFalse(second.containsKey("exp"));
+
+        assertTrue(enc.encode(pc, SaveSection.PLAYER, true).isEmpty());
+        first.put(SaveMigrations.FIELD, (long) SaveMigrations.CURRENT);
+        assertSamePlayer(pc, PlayerDocument.decode(stored(first, second)));
+    }
+
+    @Test public void reset_sends_sections_whole_again() {
+        PlayerCharacter pc = player();
+        PlayerDocument enc = new PlayerDocument();
+        enc.encode(pc, EnumSet.of(SaveSection.BAG), true);
+        enc.reset();
+        Map<String, Object> again = enc.encode(pc, EnumSet.of(SaveSection.BAG), true);
+        assertEquals(50, ((Map<?, ?>) again.get("bag")).size());
+    }
+
+    @Test public void reads_cloud_documents_like_the_json_loader() throws Exception {
+        Gson gson = new Gson();
+        for (String name : new String[] { "v0_cloud_doc.json", "v0_skill_objects.json", "v0_skill_levels.json", "v2_export.json" }) {
+            String json = read(name);
+            Map<String, Object> data = JsonValues.integralToLong(
+                    gson.<Map<String, Object>>fromJson(json, new TypeToken<Map<String, Object>>() {}.getType()));
+            PlayerCharacter want = PlayerJsonLoader.load(json);
+            want.bag.values().removeIf(q -> q == null || q <= 0);
+            assertSamePlayer(want, PlayerDocument.decode(data));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void a_newer_schema_is_refused() throws Exception {
+        PlayerDocument.decode(Collections.<String, Object>singletonMap(SaveMigrations.FIELD, (long) SaveMigrations.CURRENT + 1));
+    }
+
+    private static String read(String name) throws IOException {
+        InputStream in = PlayerDocumentTest.class.getResourceAsStream("/saves/" + name);
+        assertNotNull("missing fixture " + name, in);
+        StringBuilder sb = new StringBuilder();
+        try (Reader r = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            char[] buf = new char[4096];
+            for (int n; (n = r.read(buf)) > 0; ) sb.append(buf, 0, n);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,221 @@
+package com.obliviongatestudio.akthosidle.data.cloud;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SyncQueueTest {
+
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final List<SyncQueue> opened = new ArrayList<>();
+
+    @After public void closeQueues() {
+        for (SyncQueue q : opened) q.close();
+    }
+
+    private SyncQueue queue(File f, CloudStore cloud, long backoffMs) {
+        SyncQueue q = new SyncQueue(f, cloud, "c", backoffMs, backoffMs * 8);
+        opened.add(q);
+        return q;
+    }
+
+    private static Map<String, Map<String, Long>> inc(String field, String key, long delta) {
+        return Collections.singletonMap(field, Collections.singletonMap(key, delta));
+    }
+
+    private static Map<String, Object> set(String field, Object value) {
+        Map<String, Object> m = new HashMap<>();
+        m.put(field, value);
+        return m;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object field(InMemoryCloudStore store, String field, String key) {
+        Object v = store.peek("c", "u1").data.get(field);
+        return v instanceof Map ? ((Map<String, Object>) v).get(key) : null;
+    }
+
+    private static void awaitIdle(SyncQueue q) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (!q.isIdle()) {
+            assertTrue("queue never drained", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test public void offline_mutations_compact_and_go_out_as_one_batch() throws Exception {
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        store.setOffline(true);
+        SyncQueue q = queue(tmp.newFile("q"), store, 10_000L);
+        q.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "item_0", 1));
+        // The first write goes straight out and fails; everything after waits out the backoff
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (q.failures() < 1) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        for (int i = 1; i < 1_000; i++) {
+            q.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "item_" + (i % 20), 1));
+        }
+        assertTrue("queue grows with distinct fields only", q.pendingSize() <= 20);
+
+        store.setOffline(false);
+        q.retryNow();
+        awaitIdle(q);
+        assertEquals(50L, field(store, "bag", "item_0"));
+        assertEquals(50L, field(store, "bag", "item_19"));
+        assertEquals(1, store.writes());
+        assertEquals(1_000, q.enqueued());
+    }
+
+    @Test public void a_set_absorbs_older_and_newer_increments_of_its_field() throws Exception {
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        store.setOffline(true);
+        SyncQueue q = queue(tmp.newFile("q"), store, 10_000L);
+        q.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "ore_tin", 3));
+        Map<String, Object> bag = new HashMap<>();
+        bag.put("ore_tin", 10L);
+        q.enqueue("u1", set("bag", bag), Collections.<String, Map<String, Long>>emptyMap());
+        bag.put("ore_tin", 999L); // the queue keeps its own copy
+        q.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "ore_tin", 2));
+        q.enqueue("u1", Collections.<String, Object>emptyMap(), inc("currencies", "silver", 5));
+
+        store.setOffline(false);
+        q.retryNow();
+        awaitIdle(q);
+        assertEquals(12L, field(store, "bag", "ore_tin"));
+        assertEquals(5L, field(store, "currencies", "silver"));
+    }
+
+    @Test public void partial_sets_merge_key_by_key_and_leave_other_increments_alone() throws Exception {
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        Map<String, Object> start = new HashMap<>();
+        start.put("ore_tin", 1L);
+        start.put("log_oak", 4L);
+        store.merge("c", "u1", set("bag", start), Collections.<String, Map<String, Long>>emptyMap(), null);
+        store.setOffline(true);
+        SyncQueue q = queue(tmp.newFile("q"), store, 10_000L);
+        q.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "log_oak", 2));
+        q.enqueue("u1", set("bag", Collections.singletonMap("ore_tin", 10L)), Collections.<String, Map<String, Long>>emptyMap());
+        q.enqueue("u1", set("bag", Collections.singletonMap("ore_iron", 7L)), Collections.<String, Map<String, Long>>emptyMap());
+        q.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "ore_iron", 1));
+
+        store.setOffline(false);
+        q.retryNow();
+        awaitIdle(q);
+        assertEquals(10L, field(store, "bag", "ore_tin"));
+        assertEquals(8L, field(store, "bag", "ore_iron"));
+        assertEquals(6L, field(store, "bag", "log_oak"));
+    }
+
+    @Test public void failed_batches_retry_with_backoff_and_keep_newer_writes() throws Exception {
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        store.setOffline(true);
+        SyncQueue q = queue(tmp.newFile("q"), store, 20L);
+        q.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "a", 1));
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (q.failures() < 3) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        q.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "a", 1));
+        store.setOffline(false);
+        q.retryNow();
+        awaitIdle(q);
+        assertEquals(2L, field(store, "bag", "a"));
+        assertEquals(1, q.acked());
+    }
+
+    @Test public void a_restart_resends_what_the_server_never_got() throws Exception {
+        File f = tmp.newFile("q");
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        store.setOffline(true);
+        SyncQueue first = queue(f, store, 60_000L);
+        first.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "a", 4));
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (first.failures() < 1) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        first.close(); // "process death" while backing off
+
+        store.setOffline(false);
+        SyncQueue second = queue(f, store, 60_000L);
+        awaitIdle(second);
+        assertEquals(4L, field(store, "bag", "a"));
+    }
+
+    @Test public void writes_queued_right_before_close_are_on_disk() throws Exception {
+        File f = tmp.newFile("q");
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        store.setOffline(true);
+        SyncQueue first = queue(f, store, 60_000L);
+        for (int i = 0; i < 50; i++) {
+            first.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "a", 1));
+        }
+        first.close();
+
+        store.setOffline(false);
+        SyncQueue second = queue(f, store, 60_000L);
+        awaitIdle(second);
+        assertEquals(50L, field(store, "bag", "a"));
+    }
+
+    @Test public void an_unacknowledged_batch_the_server_applied_is_not_sent_twice() throws Exception {
+        File f = tmp.newFile("q");
+        InMemoryCloudStore store = new InMemoryCloudStore(30L, 0.0, 1L);
+        try {
+            SyncQueue first = queue(f, store, 60_000L);
+            first.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "a", 4));
+            // Dies after sending, before the acknowledgement arrives
+            long deadline = System.currentTimeMillis() + 5_000L;
+            while (first.sent() < 1) {
+                assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+            first.close();
+            while (store.writes() < 1) {
+                assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+
+            SyncQueue second = queue(f, store, 60_000L);
+            awaitIdle(second);
+            assertEquals(4L, field(store, "bag", "a"));
+            assertEquals(1, store.writes());
+            assertEquals(0, second.sent());
+        } finally {
+            store.shutdown();
+        }
+    }
+
+    @Test public void writes_for_another_account_are_dropped() throws Exception {
+        InMemoryCloudStore store = new InMemoryCloudStore();
+        store.setOffline(true);
+        SyncQueue q = queue(tmp.newFile("q"), store, 10_000L);
+        q.enqueue("old", Collections.<String, Object>emptyMap(), inc("bag", "a", 1));
+        // Back in the queue, not out on a send that could still land
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (q.failures() < 1) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        q.enqueue("u1", Collections.<String, Object>emptyMap(), inc("bag", "b", 1));
+        store.setOffline(false);
+        q.retryNow();
+        awaitIdle(q);
+        assertFalse(store.peek("c", "old").exists);
+        assertEquals(1L, field(store, "bag", "b"));
+    }
+}
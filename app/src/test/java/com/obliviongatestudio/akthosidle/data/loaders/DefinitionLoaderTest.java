@@ -0,0 +1,76 @@
+package com.obliviongatestudio.akthosidle.data.loaders;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class DefinitionLoaderTest {
+
+    /** Each file holds its own path and takes {@code delayMs} to open; "missing" doesn't exist. */
+    private static DefinitionLoader.Source slowSource(long delayMs) {
+        return path -> {
+            if (path.equals("missing")) throw new FileNotFoundException(path);
+            try { Thread.sleep(delayMs); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            return new ByteArrayInputStream(path.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    @Test public void files_load_at_once_and_link_sees_all_of_them() {
+        DefinitionLoader loader = new DefinitionLoader(slowSource(200));
+        List<DefinitionLoader.Task<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) tasks.add(loader.add("f" + i, "", json -> json));
+        List<String> linked = new ArrayList<>();
+        long t0 = System.nanoTime();
+        loader.load(() -> { for (DefinitionLoader.Task<String> t : tasks) linked.add(t.get()); }, null);
+        long ms = (System.nanoTime() - t0) / 1_000_000L;
+
+        assertEquals("[f0, f1, f2, f3]", linked.toString());
+        if (Runtime.getRuntime().availableProcessors() >= 4) assertTrue("took " + ms + " ms", ms < 700);
+    }
+
+    @Test public void a_missing_or_broken_file_falls_back() {
+        DefinitionLoader loader = new DefinitionLoader(slowSource(0));
+        DefinitionLoader.Task<List<String>> missing = loader.add("missing", Collections.singletonList("default"), json -> {
+            throw new AssertionError("not read");
+        });
+        DefinitionLoader.Task<Integer> broken = loader.add("broken", -1, Integer::parseInt);
+        DefinitionLoader.Task<String> fine = loader.add("fine", "", json -> json);
+        loader.load(null, null);
+
+        assertFalse(missing.loaded());
+        assertEquals(Collections.singletonList("default"), missing.get());
+        assertFalse(broken.loaded());
+        assertEquals(Integer.valueOf(-1), broken.get());
+        assertTrue(fine.loaded());
+    }
+
+    @Test public void progress_counts_files_then_the_link_step() {
+        DefinitionLoader loader = new DefinitionLoader(slowSource(10));
+        for (int i = 0; i < 6; i++) loader.add("f" + i, "", json -> json);
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        boolean[] linkedBeforeLast = new boolean[1];
+        loader.load(() -> linkedBeforeLast[0] = seen.size() == 6, (done, total) -> {
+            assertEquals(7, total);
+            seen.add(done);
+        });
+
+        assertTrue(linkedBeforeLast[0]);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), seen);
+    }
+
+    @Test public void reads_multibyte_text_across_buffer_boundaries() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) sb.append("é…");
+        InputStream in = new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8));
+        assertEquals(sb.toString(), DefinitionLoader.readFully(in));
+    }
+}
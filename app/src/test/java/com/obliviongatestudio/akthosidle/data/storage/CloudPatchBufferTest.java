@@ -0,0 +1,55 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class CloudPatchBufferTest {
+
+    @Test public void a_loot_burst_drains_as_one_patch() {
+        CloudPatchBuffer b = new CloudPatchBuffer(CloudPatchBuffer.DEFAULT_MAX_FIELDS);
+        for (int i = 0; i < 20; i++) assertFalse(b.add("bag", "item_" + (i % 15), 2));
+        b.add("currencies", "silver", 500);
+
+        Map<String, Map<String, Long>> patch = b.drain();
+        assertEquals(15, patch.get("bag").size());
+        assertEquals(Long.valueOf(4), patch.get("bag").get("item_0"));
+        assertEquals(Long.valueOf(2), patch.get("bag").get("item_14"));
+        assertEquals(Long.valueOf(500), patch.get("currencies").get("silver"));
+        assertEquals(21, b.adds());
+        assertEquals(1, b.drains());
+        assertTrue(b.isEmpty());
+        assertTrue(b.drain().isEmpty());
+    }
+
+    @Test public void deltas_that_cancel_out_are_dropped() {
+        CloudPatchBuffer b = new CloudPatchBuffer(8);
+        b.add("bag", "food_apple", 3);
+        b.add("bag", "food_apple", -3);
+        b.add("currencies", "gold", 0);
+        assertTrue(b.drain().isEmpty());
+        assertEquals(0, b.drains());
+    }
+
+    @Test public void add_reports_a_full_buffer() {
+        CloudPatchBuffer b = new CloudPatchBuffer(3);
+        assertFalse(b.add("bag", "a", 1));
+        assertFalse(b.add("bag", "b", 1));
+        assertFalse(b.add("bag", "a", 1)); // same field, no growth
+        assertTrue(b.add("currencies", "silver", 1));
+        assertEquals(3, b.size());
+    }
+
+    @Test public void restored_sums_merge_with_newer_ones() {
+        CloudPatchBuffer b = new CloudPatchBuffer(8);
+        b.add("bag", "ore_tin", 5);
+        Map<String, Map<String, Long>> held = b.drain();
+        b.add("bag", "ore_tin", 2);
+        b.restore(held);
+        assertEquals(Collections.singletonMap("ore_tin", 7L), b.drain().get("bag"));
+        assertEquals(2, b.adds());
+    }
+}
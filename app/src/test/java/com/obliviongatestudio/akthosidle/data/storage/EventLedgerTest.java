@@ -0,0 +1,111 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import static org.junit.Assert.*;
+
+import com.obliviongatestudio.akthosidle.data.dtos.EventLedgerEntry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+public class EventLedgerTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static EventLedgerEntry item(String id, long delta) {
+        return new EventLedgerEntry(EventLedgerEntry.TYPE_ITEM, id, delta, null);
+    }
+
+    @Test public void events_survive_reopen_in_order() throws Exception {
+        File dir = tmp.newFolder();
+        EventLedger l = EventLedger.open(dir);
+        assertSame(l, EventLedger.open(dir));
+        l.append(Arrays.asList(
+                new EventLedgerEntry(EventLedgerEntry.TYPE_XP, "MINING", 25, null),
+                item("ore_copper", 3)));
+        l.append(new EventLedgerEntry(EventLedgerEntry.TYPE_EQUIP, "WEAPON", 0, "sword_bronze"));
+        l.close();
+
+        EventLedger r = EventLedger.open(dir);
+        assertEquals(3, r.lastSeq());
+        List<EventLedgerEntry> all = r.readAfter(0);
+        assertEquals(3, all.size());
+        assertEquals(EventLedgerEntry.TYPE_XP, all.get(0).type);
+        assertEquals("MINING", all.get(0).key);
+        assertEquals(25, all.get(0).amount);
+        assertEquals(3, all.get(1).amount);
+        assertEquals("sword_bronze", all.get(2).value);
+        assertNull(all.get(0).value);
+        assertEquals(1, r.readAfter(2).size());
+        r.close();
+    }
+
+    @Test public void torn_tail_is_dropped() throws Exception {
+        File dir = tmp.newFolder();
+        EventLedger l = EventLedger.open(dir);
+        l.append(item("a", 1));
+        l.append(item("b", 2));
+        l.close();
+
+        File f = new File(dir, EventLedger.FILE_NAME);
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) { raf.setLength(f.length() - 3); }
+
+        EventLedger r = EventLedger.open(dir);
+        assertEquals(1, r.lastSeq());
+        assertEquals(1, r.size());
+        r.append(item("c", 3)); // appends after the cut, not after garbage
+        r.close();
+        List<EventLedgerEntry> all = EventLedger.open(dir).readAfter(0);
+        assertEquals(2, all.size());
+        assertEquals("c", all.get(1).key);
+        assertEquals(2, all.get(1).id);
+    }
+
+    @Test public void compaction_keeps_the_tail_and_the_sequence() throws Exception {
+        File dir = tmp.newFolder();
+        EventLedger l = EventLedger.open(dir);
+        for (int i = 0; i < 10; i++) l.append(item("x", i));
+        l.compact(7);
+        assertEquals(3, l.size());
+        assertEquals(10, l.lastSeq());
+        l.compact(10);
+        assertEquals(0, l.size());
+        l.close();
+
+        // Log is empty after a full compaction: the snapshot's sequence carries on
+        EventLedger r = EventLedger.open(dir);
+        assertEquals(0, r.lastSeq());
+        r.advanceTo(10);
+        assertEquals(11, r.append(item("y", 1)));
+        assertTrue(r.readAfter(10).size() == 1 && r.readAfter(11).isEmpty());
+        r.close();
+    }
+
+    @Test public void compaction_by_predicate_keeps_what_it_accepts() throws Exception {
+        File dir = tmp.newFolder();
+        EventLedger l = EventLedger.open(dir);
+        for (int i = 0; i < 6; i++) {
+            l.append(i % 2 == 0 ? item("x", i) : new EventLedgerEntry(EventLedgerEntry.TYPE_XP, "MINING", i, null));
+        }
+        l.compact(e -> EventLedgerEntry.TYPE_XP.equals(e.type) || e.id > 4); // items written through #4
+        List<EventLedgerEntry> left = l.readAfter(0);
+        assertEquals(4, l.size());
+        assertEquals(Arrays.asList(2L, 4L, 5L, 6L), Arrays.asList(left.get(0).id, left.get(1).id, left.get(2).id, left.get(3).id));
+        assertEquals(6, l.lastSeq());
+        l.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknown_types_are_rejected() throws Exception {
+        EventLedger l = EventLedger.open(tmp.newFolder());
+        try {
+            l.append(new EventLedgerEntry("fight", "x", 1, null));
+        } finally {
+            l.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import static org.junit.Assert.*;
+
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
+import com.obliviongatestudio.akthosidle.data.dtos.Snapshot;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+public class FileSnapshotStoreTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static Snapshot snap(long seq, int size) {
+        Snapshot s = new Snapshot();
+        s.timestampMs = 1_000L * seq;
+        s.ledgerSeq = seq;
+        s.playerBytes = new byte[size];
+        for (int i = 0; i < size; i++) s.playerBytes[i] = (byte) (seq + i);
+        return s;
+    }
+
+    @Test public void round_trip_and_generations() throws Exception {
+        File dir = tmp.newFolder();
+        FileSnapshotStore store = new FileSnapshotStore(dir, null, 2);
+        assertNull(store.load());
+        for (long seq = 1; seq <= 4; seq++) store.save(snap(seq, 100));
+
+        Snapshot s = store.load();
+        assertEquals(4, s.ledgerSeq);
+        assertEquals(4_000L, s.timestampMs);
+        assertArrayEquals(snap(4, 100).playerBytes, s.playerBytes);
+        assertTrue(new File(dir, "player.snap.1").isFile());
+        assertTrue(new File(dir, "player.snap.2").isFile());
+        assertFalse(new File(dir, "player.snap.3").exists());
+        assertFalse(new File(dir, "player.snap.tmp").exists());
+    }
+
+    @Test public void corrupt_newest_falls_back_a_generation() throws Exception {
+        File dir = tmp.newFolder();
+        FileSnapshotStore store = new FileSnapshotStore(dir, null, 2);
+        store.save(snap(1, 64));
+        store.save(snap(2, 64));
+
+        File f = new File(dir, FileSnapshotStore.FILE_NAME);
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+            raf.seek(40);
+            raf.write(raf.read() ^ 0xFF); // flip a payload byte
+        }
+        assertEquals(1, store.load().ledgerSeq);
+
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) { raf.setLength(10); } // torn
+        assertEquals(1, store.load().ledgerSeq);
+    }
+
+    @Test public void missing_current_uses_previous() throws Exception {
+        // Crash between "current → .1" and "tmp → current"
+        File dir = tmp.newFolder();
+        FileSnapshotStore store = new FileSnapshotStore(dir, null, 1);
+        store.save(snap(7, 16));
+        store.save(snap(8, 16));
+        assertTrue(new File(dir, FileSnapshotStore.FILE_NAME).delete());
+        assertEquals(7, store.load().ledgerSeq);
+    }
+
+    private static Snapshot sections(long seq, SaveSection... which) {
+        Snapshot s = new Snapshot();
+        s.timestampMs = 1_000L * seq;
+        s.ledgerSeq = seq;
+        for (SaveSection w : which) s.sections.put(w, new byte[] { (byte) seq, (byte) w.ordinal() });
+        return s;
+    }
+
+    @Test public void sections_are_written_and_versioned_independently() throws Exception {
+        File dir = tmp.newFolder();
+        FileSnapshotStore store = new FileSnapshotStore(dir, null, 2);
+        store.save(snap(1, 32)); // older whole-player save
+        store.save(sections(2, SaveSection.BAG, SaveSection.ENGINE));
+        store.save(sections(3, SaveSection.BAG));
+
+        Snapshot s = store.load();
+        assertEquals(3L, (long) s.sectionSeqs.get(SaveSection.BAG));
+        assertEquals(2L, (long) s.sectionSeqs.get(SaveSection.ENGINE));
+        assertFalse(s.sectionSeqs.containsKey(SaveSection.SKILLS));
+        assertArrayEquals(new byte[] { 3, 0 }, s.sections.get(SaveSection.BAG));
+        assertNotNull("unwritten sections still come from the whole save", s.playerBytes);
+        assertEquals(1, s.ledgerSeq);
+        assertEquals(3_000L, s.timestampMs);
+        assertArrayEquals(new byte[] { 2, (byte) SaveSection.ENGINE.ordinal() }, store.loadSection(SaveSection.ENGINE));
+
+        // A corrupt newest bag falls back to its own previous generation only
+        File bag = new File(dir, FileSnapshotStore.sectionFileName(SaveSection.BAG));
+        try (RandomAccessFile raf = new RandomAccessFile(bag, "rw")) { raf.setLength(bag.length() - 1); }
+        assertEquals(2L, (long) store.load().sectionSeqs.get(SaveSection.BAG));
+
+        // Once every player section is on disk the whole-player files go
+        store.save(sections(4, SaveSection.PLAYER.toArray(new SaveSection[0])));
+        assertFalse(new File(dir, FileSnapshotStore.FILE_NAME).exists());
+        assertNull(store.load().playerBytes);
+    }
+
+    @Test public void clear_removes_every_generation() throws Exception {
+        File dir = tmp.newFolder();
+        FileSnapshotStore store = new FileSnapshotStore(dir, null, 2);
+        for (long seq = 1; seq <= 3; seq++) store.save(snap(seq, 8));
+        for (long seq = 4; seq <= 6; seq++) store.save(sections(seq, SaveSection.values()));
+        store.clear();
+        assertNull(store.load());
+        assertEquals(0, dir.list().length);
+    }
+
+    @Test public void a_stale_capture_does_not_overwrite_a_newer_one() throws Exception {
+        File dir = tmp.newFolder();
+        FileSnapshotStore saver = new FileSnapshotStore(dir, null, 2);
+        FileSnapshotStore other = new FileSnapshotStore(dir, null, 2); // another repository's store
+        Snapshot old = sections(5, SaveSection.BAG, SaveSection.SKILLS);
+        old.captureSeq = 1;
+        Snapshot adopted = sections(6, SaveSection.BAG);
+        adopted.captureSeq = 2;
+
+        other.save(adopted);
+        saver.save(old); // captured first, lands last
+        Snapshot s = saver.load();
+        assertArrayEquals(new byte[] { 6, (byte) SaveSection.BAG.ordinal() }, s.sections.get(SaveSection.BAG));
+        assertEquals(5L, (long) s.sectionSeqs.get(SaveSection.SKILLS)); // nothing newer there
+    }
+
+    @Test public void concurrent_saves_leave_every_section_readable() throws Exception {
+        File dir = tmp.newFolder();
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            FileSnapshotStore store = new FileSnapshotStore(dir, null, 2);
+            writers[t] = new Thread(() -> {
+                for (long seq = 1; seq <= 25; seq++) store.save(sections(seq, SaveSection.BAG, SaveSection.SKILLS));
+            });
+            writers[t].start();
+        }
+        for (Thread w : writers) w.join();
+
+        Snapshot s = new FileSnapshotStore(dir, null, 2).load();
+        assertEquals(25L, (long) s.sectionSeqs.get(SaveSection.BAG));
+        assertEquals(25L, (long) s.sectionSeqs.get(SaveSection.SKILLS));
+        for (String name : dir.list()) assertFalse(name, name.endsWith(".tmp"));
+    }
+}
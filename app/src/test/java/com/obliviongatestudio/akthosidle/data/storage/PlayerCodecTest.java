@@ -0,0 +1,104 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import static org.junit.Assert.*;
+
+import com.google.gson.Gson;
+import com.obliviongatestudio.akthosidle.data.dtos.SaveSection;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class PlayerCodecTest {
+
+    private static final String[] KINDS = { "ore_", "bar_", "log_", "fish_", "food_", "pot_", "wpn_", "herb_" };
+
+    private static PlayerCharacter latePlayer(int bagSize) {
+        PlayerCharacter pc = new PlayerCharacter();
+        pc.currentHp = 640;
+        pc.exp = 4_500_000;
+        pc.element = Element.WATER;
+        pc.setQuickFoodId("food_apple");
+        for (int i = 0; i < bagSize; i++) pc.bag.put(KINDS[i % KINDS.length] + "tier" + i, 1 + (i * 37) % 5000);
+        for (SkillId s : SkillId.values()) pc.skills.put(s, 1_000_000 + s.ordinal() * 12_345);
+        pc.equipment.put(EquipmentSlot.WEAPON, "sword_bronze");
+        pc.equipment.put(EquipmentSlot.RING, "bar_tier1"); // shares the bag's string table entry
+        pc.currencies.put("silver", 12_000_000_000L);
+        pc.currencies.put("gold", -5L);
+        return pc;
+    }
+
+    @Test public void round_trip_keeps_every_persisted_field() throws Exception {
+        PlayerCharacter pc = latePlayer(300);
+        PlayerCharacter back = PlayerCodec.decode(PlayerCodec.encode(pc));
+        assertEquals(pc.currentHp, back.currentHp);
+        assertEquals(pc.exp, back.exp);
+        assertEquals(Element.WATER, back.element);
+        assertEquals("food_apple", back.getQuickFoodId());
+        assertEquals(pc.bag, back.bag);
+        assertEquals(pc.skills, back.skills);
+        assertEquals(pc.equipment, back.equipment);
+        assertEquals(pc.currencies, back.currencies);
+        assertEquals(pc.base.attack, back.base.attack);
+        assertEquals(pc.base.critChance, back.base.critChance, 0.0);
+        assertEquals(pc.base.critMultiplier, back.base.critMultiplier, 0.0);
+    }
+
+    @Test public void sections_round_trip_independently() throws Exception {
+        PlayerCharacter pc = latePlayer(300);
+        PlayerCharacter back = new PlayerCharacter();
+        for (SaveSection s : SaveSection.PLAYER) PlayerCodec.decodeSection(back, s, PlayerCodec.encodeSection(pc, s));
+        assertEquals(pc.currentHp, back.currentHp);
+        assertEquals(pc.exp, back.exp);
+        assertEquals(Element.WATER, back.element);
+        assertEquals("food_apple", back.getQuickFoodId());
+        assertEquals(pc.bag, back.bag);
+        assertEquals(pc.skills, back.skills);
+        assertEquals(pc.equipment, back.equipment);
+        assertEquals(pc.currencies, back.currencies);
+        assertEquals(pc.base.critMultiplier, back.base.critMultiplier, 0.0);
+
+        // A gear change rewrites a few bytes, not the bag
+        assertTrue(PlayerCodec.encodeSection(pc, SaveSection.EQUIPMENT).length * 20 < PlayerCodec.encode(pc).length);
+        pc.setQuickFoodId(null);
+        PlayerCodec.decodeSection(back, SaveSection.QUICK_FOOD, PlayerCodec.encodeSection(pc, SaveSection.QUICK_FOOD));
+        assertNull(back.getQuickFoodId());
+        assertEquals(300, back.bag.size());
+    }
+
+    @Test public void empty_optionals_round_trip() throws Exception {
+        PlayerCharacter pc = new PlayerCharacter();
+        PlayerCharacter back = PlayerCodec.decode(PlayerCodec.encode(pc));
+        assertNull(back.currentHp);
+        assertNull(back.getQuickFoodId());
+        assertTrue(back.bag.isEmpty());
+        assertTrue(back.equipment.isEmpty());
+    }
+
+    @Test public void much_smaller_than_gson_for_big_bags() {
+        PlayerCharacter pc = latePlayer(3000);
+        int json = new Gson().toJson(pc).getBytes(StandardCharsets.UTF_8).length;
+        int bin = PlayerCodec.encode(pc).length;
+        assertTrue("json=" + json + " bin=" + bin, bin * 5 < json);
+    }
+
+    @Test public void garbage_and_truncation_are_rejected() {
+        byte[] ok = PlayerCodec.encode(latePlayer(10));
+        for (byte[] bad : new byte[][] {
+                "{\"bag\":{}}".getBytes(StandardCharsets.UTF_8),
+                Arrays.copyOf(ok, ok.length / 2),
+                Arrays.copyOf(ok, ok.length - 1),
+        }) {
+            try {
+                PlayerCodec.decode(bad);
+                fail("decoded " + bad.length + " bytes");
+            } catch (IOException expected) { }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import static org.junit.Assert.*;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.EquipmentSlot;
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+import com.obliviongatestudio.akthosidle.domain.model.SkillId;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/** Loads the saves older builds wrote (test resources under saves/). */
+public class PlayerJsonLoaderTest {
+
+    private static Reader fixture(String name) {
+        InputStream in = PlayerJsonLoaderTest.class.getResourceAsStream("/saves/" + name);
+        assertNotNull("missing fixture " + name, in);
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    private static PlayerCharacter load(String name) throws IOException {
+        try (Reader r = fixture(name)) {
+            return PlayerJsonLoader.load(r);
+        }
+    }
+
+    @Test public void unversioned_skill_levels_become_xp_and_defaults_are_filled() throws Exception {
+        PlayerCharacter pc = load("v0_skill_levels.json");
+        assertEquals(PlayerCharacter.xpToReachLevel(5), pc.getSkillExp(SkillId.ATTACK));
+        assertEquals(PlayerCharacter.xpToReachLevel(12), pc.getSkillExp(SkillId.MINING));
+        assertEquals(12, pc.getSkillLevel(SkillId.MINING));
+        assertEquals(0L, pc.getCurrency("gold"));
+        assertEquals(250L, pc.getCurrency("silver"));
+        assertEquals(Integer.valueOf(40), pc.bag.get("ore_copper"));
+        assertEquals("sword_bronze", pc.equipment.get(EquipmentSlot.WEAPON));
+        assertEquals(Integer.valueOf(95), pc.currentHp);
+    }
+
+    @Test public void skill_object_forms_and_odd_values_are_tolerated() throws Exception {
+        PlayerCharacter pc = load("v0_skill_objects.json");
+        assertEquals(PlayerCharacter.xpToReachLevel(3), pc.getSkillExp(SkillId.WOODCUTTING));
+        assertEquals(1200, pc.getSkillExp(SkillId.FISHING));
+        assertEquals(450, pc.getSkillExp(SkillId.COOKING));
+        assertEquals(2500, pc.getSkillExp(SkillId.SMITHING));
+        assertEquals(0, pc.getSkillExp(SkillId.ALCHEMY));
+        assertEquals(Integer.valueOf(3), pc.bag.get("log_oak"));
+        assertFalse(pc.bag.containsKey("broken"));
+        assertEquals("ring_gold", pc.equipment.get(EquipmentSlot.RING));
+        assertEquals(1, pc.equipment.size());
+        assertEquals(Element.NEUTRAL, pc.element);
+        assertEquals(100, pc.base.health);
+        assertEquals(1.0, pc.base.critChance, 0.0);
+        assertEquals(1.5, pc.base.critMultiplier, 0.0);
+    }
+
+    @Test public void a_typical_gson_save_loads_unchanged() throws Exception {
+        PlayerCharacter pc = load("v0_gson.json");
+        assertEquals(Integer.valueOf(640), pc.currentHp);
+        assertEquals(250_000, pc.exp);
+        assertEquals(58_000, pc.getSkillExp(SkillId.ATTACK));
+        assertEquals(Integer.valueOf(1000), pc.bag.get("food_apple"));
+        assertEquals(48_000L, pc.getCurrency("silver"));
+        assertEquals(70L, pc.getCurrency("slayer"));
+        assertEquals(Element.FIRE, pc.element);
+        assertEquals("food_apple", pc.getQuickFoodId());
+        assertEquals("armor_iron", pc.equipment.get(EquipmentSlot.ARMOR));
+    }
+
+    @Test public void cloud_documents_with_doubles_and_extra_fields_load() throws Exception {
+        PlayerCharacter pc = load("v0_cloud_doc.json");
+        assertEquals(Integer.valueOf(310), pc.currentHp);
+        assertEquals(90_210, pc.exp);
+        assertEquals(22_000, pc.getSkillExp(SkillId.FISHING));
+        assertEquals(Integer.valueOf(25), pc.bag.get("fish_trout"));
+        assertEquals(12_000_000_000L, pc.getCurrency("silver"));
+        assertEquals(3L, pc.getCurrency("gold"));
+        assertNull(pc.getQuickFoodId());
+    }
+
+    @Test public void current_saves_run_no_migration() throws Exception {
+        PlayerJsonLoader.Result r;
+        try (Reader in = fixture("v2_export.json")) {
+            r = PlayerJsonLoader.read(in);
+        }
+        assertEquals(SaveMigrations.CURRENT, r.schemaVersion);
+        assertEquals(0, SaveMigrations.migrate(r.player, r.schemaVersion));
+        // XP that happens to look like a level stays XP
+        assertEquals(50, r.player.getSkillExp(SkillId.MINING));
+    }
+
+    @Test public void legacy_saves_run_every_step_once() throws Exception {
+        PlayerJsonLoader.Result r;
+        try (Reader in = fixture("v0_skill_levels.json")) {
+            r = PlayerJsonLoader.read(in);
+        }
+        assertEquals(SaveMigrations.UNVERSIONED, r.schemaVersion);
+        assertEquals(SaveMigrations.CURRENT, SaveMigrations.migrate(r.player, r.schemaVersion));
+
+        // Written back as current, it loads without being upgraded again
+        JsonObject o = new Gson().toJsonTree(r.player).getAsJsonObject();
+        o.addProperty(SaveMigrations.FIELD, SaveMigrations.CURRENT);
+        PlayerCharacter again = PlayerJsonLoader.load(o.toString());
+        assertEquals(r.player.skills, again.skills);
+    }
+
+    @Test public void newer_schemas_are_refused() {
+        try {
+            PlayerJsonLoader.load("{\"schemaVersion\":" + (SaveMigrations.CURRENT + 1) + ",\"exp\":1}");
+            fail("expected IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("newer"));
+        }
+    }
+
+    @Test public void malformed_input_is_refused() {
+        String[] bad = { "[1,2]", "{\"bag\":[1]}", "{\"skills\":{\"MINING\":", "" };
+        for (String json : bad) {
+            try {
+                PlayerJsonLoader.load(json);
+                fail("expected IOException for " + json);
+            } catch (IOException expected) {
+                // ok
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.obliviongatestudio.akthosidle.data.storage;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SaveCoalescerTest {
+
+    @Test public void bursts_collapse_into_few_writes() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        SaveCoalescer c = new SaveCoalescer("test", 200, writes::incrementAndGet);
+        // ~60 Hz combat for half a second: a save per frame
+        for (int i = 0; i < 30; i++) {
+            c.markDirty();
+            Thread.sleep(16);
+        }
+        assertTrue(c.flush());
+        assertEquals(30, c.requests());
+        assertTrue("writes=" + writes.get(), writes.get() >= 1 && writes.get() <= 4);
+        assertFalse(c.isDirty());
+        c.shutdown();
+    }
+
+    @Test public void flush_writes_immediately_and_is_idempotent() {
+        AtomicInteger writes = new AtomicInteger();
+        SaveCoalescer c = new SaveCoalescer("test", 60_000, writes::incrementAndGet);
+        assertTrue(c.flush()); // nothing pending
+        assertEquals(0, writes.get());
+        c.markDirty();
+        assertTrue(c.flush()); // the first write may already be under way; either way it's one
+        assertEquals(1, writes.get());
+        c.markDirty();
+        c.markDirty();
+        assertTrue(c.flush()); // doesn't wait out the minute
+        assertEquals(2, writes.get());
+        assertTrue(c.flush());
+        assertEquals(2, writes.get());
+        c.shutdown();
+    }
+
+    @Test public void failed_write_is_retried() {
+        AtomicInteger attempts = new AtomicInteger();
+        SaveCoalescer c = new SaveCoalescer("test", 10, () -> {
+            if (attempts.incrementAndGet() == 1) throw new IllegalStateException("raced");
+        });
+        c.markDirty();
+        assertTrue(c.flush());
+        assertEquals(2, attempts.get());
+        assertEquals(1, c.failures());
+        assertEquals(1, c.writes());
+        c.shutdown();
+    }
+
+    @Test public void discarded_marks_are_not_written() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        SaveCoalescer c = new SaveCoalescer("test", 60_000, writes::incrementAndGet);
+        c.markDirty();
+        assertTrue(c.flush());
+        c.markDirty(); // waits for the interval...
+        c.discardPending();
+        assertTrue(c.flush());
+        assertEquals(1, writes.get());
+        c.shutdown();
+    }
+}
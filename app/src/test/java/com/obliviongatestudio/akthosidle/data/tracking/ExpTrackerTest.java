@@ -0,0 +1,47 @@
+package com.obliviongatestudio.akthosidle.data.tracking;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class ExpTrackerTest {
+    private long now = 1_000_000L;
+    private final ExpTracker t = new ExpTracker(() -> now);
+
+    @Test public void windows_only_count_recent_buckets() {
+        Set<String> keys = Collections.singleton("skill:mining");
+        t.note("skill:mining", 100);      // t = 0 s
+        now += 120_000L;
+        t.note("skill:mining", 60);       // t = 120 s
+        // 1 min window sees only the latest note: 60 per minute = 3600/h
+        assertEquals(3600.0, t.ratePerHour(keys, ExpTracker.WINDOW_1M), 1e-9);
+        // 5 min window sees both: 160 per 5 min = 1920/h
+        assertEquals(1920.0, t.ratePerHour(keys, ExpTracker.WINDOW_5M), 1e-9);
+        // session: 160 over 120 s
+        assertEquals(4800.0, t.ratePerHour(keys, ExpTracker.WINDOW_SESSION), 1e-9);
+    }
+
+    @Test public void stale_slots_are_ignored_after_wraparound() {
+        Set<String> keys = Collections.singleton("combat");
+        t.note("combat", 500);
+        now += ExpTracker.WINDOW_1H; // same ring slot, one hour later
+        t.note("combat", 10);
+        assertEquals(10.0, t.ratePerHour(keys, ExpTracker.WINDOW_1H), 1e-9);
+        assertEquals(510L, t.sessionTotal("combat"));
+    }
+
+    @Test public void keys_and_totals() {
+        t.note("a", 5);
+        t.note("a", 5); // same second → same bucket
+        t.note("b", 20);
+        t.note("c", 0); // ignored
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), t.keys());
+        assertEquals(30.0 * 60, t.totalRatePerHour(ExpTracker.WINDOW_1M), 1e-9);
+        assertEquals(0.0, t.ratePerHour(Collections.emptySet(), ExpTracker.WINDOW_1M), 0.0);
+    }
+}
@@ -0,0 +1,31 @@
+package com.obliviongatestudio.akthosidle.domain.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class StatSheetTest {
+
+    @Test public void total_is_sum_of_breakdown() {
+        PlayerCharacter pc = new PlayerCharacter();
+        pc.skills.put(SkillId.HP, PlayerCharacter.xpToReachLevel(3));
+        Stats gear = new Stats(5, 2, 0.1, 20, 0.05, 2.0);
+        Stats buffs = new Stats(1, 1, 0.0, 0, 0.0, 0.0);
+
+        StatSheet s = StatSheet.of(pc, gear, buffs, 7);
+        assertEquals(7, s.version);
+        assertEquals(20, s.skills.health);
+        assertEquals(12 + 5 + 1, s.total.attack);
+        assertEquals(6 + 2 + 1, s.total.defense);
+        assertEquals(100 + 20 + 20, s.total.health);
+        assertEquals(2.0, s.total.critMultiplier, 1e-9);
+        assertEquals(140, s.maxHp());
+    }
+
+    @Test public void total_stats_no_longer_touches_current_hp() {
+        PlayerCharacter pc = new PlayerCharacter();
+        pc.currentHp = 500;
+        pc.totalStats(null);
+        assertEquals(Integer.valueOf(500), pc.currentHp);
+    }
+}
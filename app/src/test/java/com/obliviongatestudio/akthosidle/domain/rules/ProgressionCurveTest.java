@@ -0,0 +1,64 @@
+package com.obliviongatestudio.akthosidle.domain.rules;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.obliviongatestudio.akthosidle.domain.model.PlayerCharacter;
+
+public class ProgressionCurveTest {
+
+    // Reference loops the tables replaced.
+    private static long rsExpForLevel(int level) {
+        if (level <= 1) return 0L;
+        double sum = 0.0;
+        for (int i = 1; i < level; i++) sum += Math.floor(i + 300 * Math.pow(2, i / 7.0));
+        return (long) Math.floor(sum / 4.0);
+    }
+
+    private static int pcXpToReachLevel(int level) {
+        if (level <= 1) return 0;
+        double sum = 0;
+        for (int l = 1; l < level; l++) sum += Math.floor(100.0 * Math.pow(1.3, l - 1));
+        return (int) Math.floor(sum);
+    }
+
+    @Test public void level_curve_matches_reference_loop() {
+        for (int level = -1; level <= 125; level++) {
+            assertEquals("level " + level, rsExpForLevel(level), LevelCurve.expForLevel(level));
+        }
+        for (int level = 1; level <= 120; level++) {
+            long t = rsExpForLevel(level);
+            assertEquals(level, LevelCurve.levelForExp(t));
+            if (t > 0) assertEquals(level - 1, LevelCurve.levelForExp(t - 1));
+        }
+        assertEquals(120, LevelCurve.levelForExp(Long.MAX_VALUE));
+        assertEquals(1, LevelCurve.levelForExp(-5));
+        assertEquals(rsExpForLevel(11) - 50, LevelCurve.expToNextLevel(10, 50));
+    }
+
+    @Test public void player_curve_matches_reference_loop() {
+        for (int level = 0; level <= 100; level++) {
+            assertEquals("level " + level, pcXpToReachLevel(level), PlayerCharacter.xpToReachLevel(level));
+        }
+        for (int level = 1; level <= 99; level++) {
+            int t = pcXpToReachLevel(level);
+            if (t == Integer.MAX_VALUE) break; // past the int range every threshold saturates
+            assertEquals(level, PlayerCharacter.levelForExp(t));
+            if (t > 0) assertEquals(level - 1, PlayerCharacter.levelForExp(t - 1));
+        }
+        assertEquals(pcXpToReachLevel(6) - pcXpToReachLevel(5), PlayerCharacter.xpForNextLevel(5));
+        assertEquals(7, PlayerCharacter.xpIntoLevel(pcXpToReachLevel(5) + 7, 5));
+    }
+
+    @Test public void custom_curve_lookups() {
+        ProgressionCurve c = ProgressionCurve.of(5, l -> 10); // 10 XP per level
+        assertEquals(0, c.expForLevel(1));
+        assertEquals(40, c.expForLevel(5));
+        assertEquals(70, c.expForLevel(8)); // past the table
+        assertEquals(3, c.levelForExp(29));
+        assertEquals(5, c.levelForExp(1_000));
+        assertEquals(9, c.expIntoLevel(29, 3));
+        assertEquals(10, c.expForNextLevel(3));
+    }
+}
@@ -0,0 +1,56 @@
+package com.obliviongatestudio.akthosidle.domain.rules;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class RngServiceTest {
+
+    @Test public void streams_depend_only_on_root_and_name() {
+        RngService a = new RngService(42L);
+        RngService b = new RngService(42L);
+        b.stream(RngService.SLAYER).nextLong(); // creation order and use of other streams don't matter
+        assertEquals(a.stream(RngService.COMBAT).nextLong(), b.stream(RngService.COMBAT).nextLong());
+        assertNotEquals(new RngService(42L).stream(RngService.LOOT).nextLong(),
+                new RngService(42L).stream(RngService.COMBAT).nextLong());
+    }
+
+    @Test public void stream_is_stable_and_reseed_resets_it() {
+        RngService svc = new RngService(1L);
+        GameRandom r = svc.stream(RngService.LOOT);
+        assertSame(r, svc.stream(RngService.LOOT));
+        long first = r.nextLong();
+        r.nextLong();
+        svc.reseed(1L);
+        assertEquals(first, r.nextLong());
+    }
+
+    @Test public void reseeding_named_streams_leaves_the_others_alone() {
+        RngService svc = new RngService(1L);
+        GameRandom slayer = svc.stream(RngService.SLAYER);
+        long slayerNext = new RngService(1L).stream(RngService.SLAYER).nextLong();
+        svc.stream(RngService.COMBAT).nextLong();
+        svc.reseed(5L, RngService.COMBAT, RngService.LOOT);
+
+        assertEquals(1L, svc.rootSeed());
+        assertEquals(slayerNext, slayer.nextLong());
+        assertEquals(new RngService(5L).stream(RngService.COMBAT).nextLong(), svc.stream(RngService.COMBAT).nextLong());
+        assertEquals(new RngService(5L).stream(RngService.LOOT).nextLong(), svc.stream(RngService.LOOT).nextLong());
+    }
+
+    @Test public void forks_are_reproducible_per_index() {
+        RngService svc = new RngService(9L);
+        assertEquals(svc.fork(RngService.COMBAT, 3).nextLong(), svc.fork(RngService.COMBAT, 3).nextLong());
+        assertNotEquals(svc.fork(RngService.COMBAT, 3).nextLong(), svc.fork(RngService.COMBAT, 4).nextLong());
+    }
+
+    @Test public void bounded_draws_stay_in_range() {
+        GameRandom r = new GameRandom(7L);
+        for (int i = 0; i < 10_000; i++) {
+            int v = r.nextInt(7);
+            assertTrue(v >= 0 && v < 7);
+            double d = r.nextDouble();
+            assertTrue(d >= 0.0 && d < 1.0);
+        }
+    }
+}
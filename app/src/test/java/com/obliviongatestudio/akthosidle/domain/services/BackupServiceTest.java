@@ -0,0 +1,61 @@
+package com.obliviongatestudio.akthosidle.domain.services;
+
+import static org.junit.Assert.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+
+public class BackupServiceTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static File write(File dir, String name, String content, long modifiedMs) throws Exception {
+        File f = new File(dir, name);
+        f.getParentFile().mkdirs();
+        try (FileOutputStream out = new FileOutputStream(f)) { out.write(content.getBytes("UTF-8")); }
+        f.setLastModified(modifiedMs);
+        return f;
+    }
+
+    @Test public void rules_match_files_dirs_and_wildcards() {
+        BackupService b = new BackupService();
+        assertTrue(b.matches("anything")); // no includes = everything
+        b.addInclude("player.snap");
+        b.addInclude("player.snap.*");
+        b.addInclude("logs");
+        b.addExclude("*.tmp");
+        assertTrue(b.matches("player.snap"));
+        assertTrue(b.matches("player.snap.2"));
+        assertTrue(b.matches("logs/a.txt"));
+        assertFalse(b.matches("player.snap.tmp"));
+        assertFalse(b.matches("logsx"));
+        assertFalse(b.matches("other.bin"));
+    }
+
+    @Test public void copies_only_changed_selected_files() throws Exception {
+        File root = tmp.newFolder("save");
+        File dest = tmp.newFolder("backup");
+        write(root, "player.snap", "new", 5_000_000L);
+        write(root, "player.snap.1", "old", 1_000_000L);
+        write(root, "player.snap.tmp", "partial", 5_000_000L);
+        write(root, "sub/events.ledger", "log", 6_000_000L);
+
+        BackupService b = new BackupService();
+        b.addInclude("player.snap");
+        b.addInclude("player.snap.*");
+        b.addInclude("sub/");
+        b.addExclude("*.tmp");
+
+        assertEquals(2, b.copyChanged(root, dest, 2_000_000L));
+        assertEquals("new", new String(Files.readAllBytes(new File(dest, "player.snap").toPath()), "UTF-8"));
+        assertTrue(new File(dest, "sub/events.ledger").isFile());
+        assertFalse(new File(dest, "player.snap.1").exists());
+        assertFalse(new File(dest, "player.snap.tmp").exists());
+
+        assertEquals(3, b.changedSince(root, 0).size()); // full backup
+    }
+}
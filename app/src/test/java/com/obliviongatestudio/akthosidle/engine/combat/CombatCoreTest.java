@@ -0,0 +1,74 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.obliviongatestudio.akthosidle.domain.model.AiBehavior;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+import com.obliviongatestudio.akthosidle.domain.model.StatusEffect;
+
+import java.util.Random;
+
+public class CombatCoreTest {
+    private static CombatCore fight(long seed, AiBehavior behavior) {
+        Stats player = new Stats(12, 6, 0.0, 100, 0.05, 1.5);
+        Stats monster = new Stats(8, 3, 0.0, 60, 0.0, 1.0);
+        return new CombatCore(player, Element.NEUTRAL, 100, monster, Element.NEUTRAL,
+                behavior, "Dummy", new Random(seed));
+    }
+
+    @Test public void fight_runs_to_completion_without_looper() {
+        CombatCore c = fight(1L, AiBehavior.AGGRESSIVE);
+        c.runToEnd(600);
+        assertTrue(c.isOver());
+    }
+
+    @Test public void same_seed_same_outcome() {
+        CombatCore a = fight(7L, AiBehavior.AGGRESSIVE);
+        CombatCore b = fight(7L, AiBehavior.AGGRESSIVE);
+        a.runToEnd(600);
+        b.runToEnd(600);
+        assertEquals(a.getPlayerHp(), b.getPlayerHp());
+        assertEquals(a.getElapsedSec(), b.getElapsedSec(), 1e-9);
+    }
+
+    @Test public void result_does_not_depend_on_frame_size() {
+        CombatCore oneShot = fight(3L, AiBehavior.AGGRESSIVE);
+        CombatCore frames = fight(3L, AiBehavior.AGGRESSIVE);
+        oneShot.advance(600);
+        for (int i = 0; i < 600 * 60 && !frames.isOver(); i++) frames.advance(1.0 / 60.0);
+        assertEquals(oneShot.getPlayerHp(), frames.getPlayerHp());
+        assertEquals(oneShot.getMonsterHp(), frames.getMonsterHp());
+    }
+
+    @Test public void passive_monster_never_hits() {
+        CombatCore c = fight(5L, AiBehavior.PASSIVE);
+        c.runToEnd(600);
+        assertTrue(c.isVictory());
+        assertEquals(100, c.getPlayerHp());
+    }
+
+    @Test public void next_event_is_the_first_attack() {
+        CombatCore c = fight(9L, AiBehavior.AGGRESSIVE);
+        assertEquals(CombatCore.attackInterval(0.0), c.secondsToNextEvent(), 1e-9);
+        c.advance(CombatCore.attackInterval(0.0) - 0.01);
+        assertEquals(100, c.getPlayerHp());
+        assertEquals(60, c.getMonsterHp());
+        c.advance(0.01);
+        assertTrue(c.getMonsterHp() < 60);
+    }
+
+    @Test public void stun_pauses_the_attack_clock() {
+        CombatCore c = fight(11L, AiBehavior.PASSIVE);
+        c.addEffect(true, new StatusEffect(
+                "Stun", StatusEffect.Type.STUN, 3.0, 0));
+        assertFalse(c.isCharging(true));
+        assertEquals(3.0, c.secondsToNextEvent(), 1e-9);
+        c.advance(3.0);
+        assertTrue(c.isCharging(true));
+        assertEquals(60, c.getMonsterHp());
+        assertEquals(CombatCore.attackInterval(0.0), c.secondsToNextEvent(), 1e-9);
+    }
+}
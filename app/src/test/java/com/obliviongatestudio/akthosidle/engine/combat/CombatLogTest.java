@@ -0,0 +1,47 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CombatLogTest {
+
+    @Test public void newest_first_and_wraps_at_capacity() {
+        CombatLog log = new CombatLog(3);
+        for (int i = 1; i <= 5; i++) log.add(CombatLog.Type.HIT, true, i, false, "Rat", null);
+        assertEquals(3, log.size());
+        assertEquals(5L, log.appendedCount());
+        assertEquals(5, log.amount(0));
+        assertEquals(4, log.amount(1));
+        assertEquals(3, log.amount(2));
+    }
+
+    @Test public void formats_lazily_from_fields() {
+        CombatLog log = new CombatLog();
+        log.add(CombatLog.Type.HIT, true, 12, true, "Rat", null);
+        log.add(CombatLog.Type.HIT, false, 3, false, "Rat", null);
+        log.add(CombatLog.Type.DOT, false, 2, false, "Rat", "Burn");
+        log.add(CombatLog.Type.EFFECT_EXPIRED, true, 0, false, "Rat", "Slow");
+        log.addText("Encounter started: Rat");
+        assertEquals("Encounter started: Rat", log.format(0));
+        assertEquals("Your slow effect wore off.", log.format(1));
+        assertEquals("Rat takes 2 burn damage.", log.format(2));
+        assertEquals("Rat hits you for 3", log.format(3));
+        assertEquals("You hit Rat for 12 (CRIT!)", log.format(4));
+    }
+
+    @Test public void clear_resets_size_and_bumps_generation() {
+        CombatLog log = new CombatLog(4);
+        log.addText("a");
+        log.clear();
+        assertEquals(0, log.size());
+        assertEquals(1, log.clearCount());
+        log.addText("b");
+        assertEquals("b", log.format(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void out_of_range_index_throws() {
+        new CombatLog(2).format(0);
+    }
+}
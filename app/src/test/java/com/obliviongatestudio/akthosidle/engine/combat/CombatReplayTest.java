@@ -0,0 +1,107 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.obliviongatestudio.akthosidle.domain.model.Drop;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Monster;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+import com.obliviongatestudio.akthosidle.domain.model.StatusEffect;
+import com.obliviongatestudio.akthosidle.domain.rules.GameRandom;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class CombatReplayTest {
+    private static final Stats PLAYER = new Stats(9, 3, 0.1, 60, 0.2, 1.5);
+
+    private static Monster wolf() {
+        return new Monster("wolf", "Wolf", new Stats(6, 2, 0.2, 70, 0.1, 1.5),
+                Arrays.asList(new Drop("pelt", 1, 3, 0.5), new Drop("fang", 1, 1, 0.25)),
+                12, 4, 1, Element.NEUTRAL);
+    }
+
+    /** Plays a fight the way CombatEngine does: uneven wall-clock slices plus a mid-fight heal and slow. */
+    private static CombatReplay playLive(long seed, Monster m) {
+        CombatReplay r = new CombatReplay(seed, seed * 31, PLAYER, Element.FIRE, 45, m.id);
+        CombatCore core = new CombatCore(PLAYER, Element.FIRE, 45, m.stats, m.element, m.behavior, m.name,
+                new GameRandom(r.fightSeed));
+        Random frames = new Random(seed);
+        boolean healed = false, slowed = false;
+        while (!core.isOver()) {
+            core.advance(0.005 + frames.nextDouble() * 0.3);
+            if (!healed && core.getElapsedSec() > 3) {
+                core.healPlayer(20);
+                r.recordHeal(core.getElapsedSec(), 20);
+                healed = true;
+            }
+            if (!slowed && core.getElapsedSec() > 5) {
+                StatusEffect slow = new StatusEffect("Slow", StatusEffect.Type.SLOW, 4, 0.5);
+                core.addEffect(false, slow);
+                r.recordEffect(core.getElapsedSec(), false, slow);
+                slowed = true;
+            }
+        }
+        Map<String, Integer> drops = new LinkedHashMap<>();
+        if (core.isVictory()) DropRoller.roll(m.drops, new GameRandom(r.lootSeed), drops);
+        r.finish(core.isVictory(), core.getPlayerHp(), core.getElapsedSec(),
+                core.isVictory() ? m.getExpPerKill() : 0, core.isVictory() ? m.getSilverReward() : 0, drops);
+        return r;
+    }
+
+    @Test public void bytes_round_trip() throws Exception {
+        CombatReplay r = playLive(7L, wolf());
+        CombatReplay back = CombatReplay.fromBytes(r.toBytes());
+        assertEquals(r.fightSeed, back.fightSeed);
+        assertEquals(r.lootSeed, back.lootSeed);
+        assertEquals(Element.FIRE, back.playerElement);
+        assertEquals("wolf", back.monsterId);
+        assertEquals(r.inputCount(), back.inputCount());
+        assertEquals(r.inputAt(0), back.inputAt(0), 0.0);
+        assertEquals(r.victory, back.victory);
+        assertEquals(r.endHp, back.endHp);
+        assertEquals(r.drops, back.drops);
+        assertArrayEquals(r.toBytes(), back.toBytes());
+    }
+
+    @Test public void honest_fights_verify() throws Exception {
+        Monster m = wolf();
+        for (long seed = 1; seed <= 200; seed++) {
+            CombatReplay r = CombatReplay.fromBytes(playLive(seed, m).toBytes());
+            assertEquals("seed " + seed, ReplayVerifier.Verdict.OK, ReplayVerifier.verify(r, m));
+        }
+    }
+
+    @Test public void tampered_rewards_are_rejected() {
+        Monster m = wolf();
+        CombatReplay r = playLive(3L, m);
+        r.xp += 1;
+        assertEquals(ReplayVerifier.Verdict.XP_MISMATCH, ReplayVerifier.verify(r, m));
+
+        r = playLive(3L, m);
+        r.drops.merge("pelt", 5, Integer::sum);
+        assertNotEquals(ReplayVerifier.Verdict.OK, ReplayVerifier.verify(r, m));
+
+        r = playLive(3L, m);
+        r.victory = !r.victory;
+        assertEquals(ReplayVerifier.Verdict.OUTCOME_MISMATCH, ReplayVerifier.verify(r, m));
+
+        r = playLive(3L, m);
+        r.recordHeal(0.5, 500); // an input that never happened changes the fight
+        assertNotEquals(ReplayVerifier.Verdict.OK, ReplayVerifier.verify(r, m));
+    }
+
+    @Test public void unknown_monster_and_garbage_fail() {
+        assertEquals(ReplayVerifier.Verdict.UNKNOWN_MONSTER, ReplayVerifier.verify(playLive(2L, wolf()), null));
+        try {
+            CombatReplay.fromBytes(new byte[] { 1, 2, 3, 4, 5 });
+            fail("expected IOException");
+        } catch (java.io.IOException expected) {
+            // ok
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.obliviongatestudio.akthosidle.domain.model.AiBehavior;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+
+import java.util.Random;
+
+public class EncounterCoreTest {
+    private static final Stats HERO = new Stats(14, 8, 0.2, 150, 0.05, 1.5);
+    private static final Stats ADD = new Stats(5, 2, 0.0, 30, 0.0, 1.0);
+    private static final Stats BOSS = new Stats(20, 10, 0.1, 600, 0.1, 1.5);
+
+    private static EncounterCore raid(long seed) {
+        EncounterCore e = new EncounterCore(new Random(seed));
+        e.addHero(null, HERO, Element.FIRE, 150);
+        for (int i = 1; i < 5; i++) e.addHero("Hero " + i, HERO, Element.NEUTRAL, 150);
+        e.addEnemy("Boss", BOSS, Element.EARTH, AiBehavior.FOCUS_WEAKEST);
+        for (int i = 0; i < 20; i++) e.addEnemy("Add " + i, ADD, Element.NEUTRAL, AiBehavior.AGGRESSIVE);
+        return e;
+    }
+
+    @Test public void party_vs_boss_and_adds_finishes() {
+        EncounterCore e = raid(1L);
+        assertEquals(26, e.size());
+        e.runToEnd(3600);
+        assertTrue(e.isOver());
+        assertTrue(e.aliveCount(EncounterCore.PARTY) == 0 || e.aliveCount(EncounterCore.ENEMIES) == 0);
+    }
+
+    @Test public void same_seed_same_outcome() {
+        EncounterCore a = raid(4L), b = raid(4L);
+        a.runToEnd(3600);
+        b.runToEnd(3600);
+        for (int i = 0; i < a.size(); i++) assertEquals(a.hp(i), b.hp(i));
+        assertEquals(a.getElapsedSec(), b.getElapsedSec(), 1e-9);
+    }
+
+    @Test public void passive_enemies_never_attack() {
+        EncounterCore e = new EncounterCore(new Random(2L));
+        int hero = e.addHero(null, HERO, Element.NEUTRAL, 150);
+        e.addEnemy("Dummy A", ADD, Element.NEUTRAL, AiBehavior.PASSIVE);
+        e.addEnemy("Dummy B", ADD, Element.NEUTRAL, AiBehavior.PASSIVE);
+        e.runToEnd(600);
+        assertTrue(e.isVictory());
+        assertEquals(150, e.hp(hero));
+    }
+
+    @Test public void aggressive_sticks_to_first_target() {
+        EncounterCore e = new EncounterCore(new Random(3L));
+        e.addHero(null, HERO, Element.NEUTRAL, 150);
+        int a = e.addEnemy("A", ADD, Element.NEUTRAL, AiBehavior.PASSIVE);
+        int b = e.addEnemy("B", ADD, Element.NEUTRAL, AiBehavior.PASSIVE);
+        e.setProcChance(0, 0);
+        while (e.hp(a) > 0) e.advance(e.secondsToNextEvent());
+        assertEquals(ADD.health, e.hp(b));
+    }
+}
@@ -0,0 +1,70 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.obliviongatestudio.akthosidle.domain.model.AiBehavior;
+import com.obliviongatestudio.akthosidle.domain.model.Drop;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Monster;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+
+import java.util.Collections;
+import java.util.Random;
+
+public class OfflineCombatResolverTest {
+    private static final Stats PLAYER = new Stats(12, 6, 0.0, 100, 0.05, 1.5);
+
+    private static Monster dummy(Stats stats) {
+        return new Monster("dummy", "Dummy", stats,
+                Collections.singletonList(new Drop("bone", 1, 1, 1.0)), 10, 3, 1, Element.NEUTRAL);
+    }
+
+    @Test public void same_seed_same_result() {
+        Monster m = dummy(new Stats(4, 2, 0.0, 40, 0.0, 1.0));
+        OfflineCombatResolver.Result a = new OfflineCombatResolver(32)
+                .resolve(PLAYER, Element.NEUTRAL, 100, m, 3600, new Random(5L));
+        OfflineCombatResolver.Result b = new OfflineCombatResolver(32)
+                .resolve(PLAYER, Element.NEUTRAL, 100, m, 3600, new Random(5L));
+        assertEquals(a.kills, b.kills);
+        assertEquals(a.playerHp, b.playerHp);
+        assertEquals(a.loot, b.loot);
+    }
+
+    @Test public void cached_profile_does_not_change_the_result() {
+        Monster m = dummy(new Stats(4, 2, 0.0, 40, 0.0, 1.0));
+        OfflineCombatResolver warm = new OfflineCombatResolver(32);
+        warm.resolve(PLAYER, Element.NEUTRAL, 100, m, 600, new Random(9L));
+        OfflineCombatResolver.Result a = warm.resolve(PLAYER, Element.NEUTRAL, 100, m, 3600, new Random(5L));
+        OfflineCombatResolver.Result b = new OfflineCombatResolver(32)
+                .resolve(PLAYER, Element.NEUTRAL, 100, m, 3600, new Random(5L));
+        assertEquals(a.kills, b.kills);
+        assertEquals(a.playerHp, b.playerHp);
+        assertEquals(a.loot, b.loot);
+    }
+
+    @Test public void rewards_scale_with_kills() {
+        Monster m = dummy(new Stats(1, 0, 0.0, 20, 0.0, 1.0));
+        m.setBehavior(AiBehavior.PASSIVE);
+        OfflineCombatResolver.Result r = new OfflineCombatResolver(16)
+                .resolve(PLAYER, Element.NEUTRAL, 100, m, 600, new Random(1L));
+        assertTrue(r.kills > 0);
+        assertEquals(0, r.deaths);
+        assertEquals(100, r.playerHp);
+        assertEquals(10L * r.kills, r.xp);
+        assertEquals(3L * r.kills, r.silver);
+        assertEquals(Integer.valueOf(r.kills), r.loot.get("bone"));
+        assertTrue(r.foughtSec <= 600);
+    }
+
+    @Test public void overwhelming_monster_stops_the_loop_on_death() {
+        Monster m = dummy(new Stats(500, 500, 1.0, 100000, 0.0, 1.0));
+        OfflineCombatResolver.Result r = new OfflineCombatResolver(8)
+                .resolve(PLAYER, Element.NEUTRAL, 100, m, 3600, new Random(2L));
+        assertEquals(0, r.kills);
+        assertEquals(1, r.deaths);
+        assertEquals(0, r.playerHp);
+        assertEquals(0L, r.xp);
+    }
+}
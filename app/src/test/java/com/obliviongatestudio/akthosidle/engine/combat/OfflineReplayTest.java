@@ -0,0 +1,79 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.obliviongatestudio.akthosidle.domain.model.Drop;
+import com.obliviongatestudio.akthosidle.domain.model.Element;
+import com.obliviongatestudio.akthosidle.domain.model.Monster;
+import com.obliviongatestudio.akthosidle.domain.model.Stats;
+import com.obliviongatestudio.akthosidle.domain.rules.GameRandom;
+
+import java.util.Arrays;
+
+public class OfflineReplayTest {
+    private static final Stats PLAYER = new Stats(12, 6, 0.0, 100, 0.05, 1.5);
+
+    private static Monster wolf() {
+        return new Monster("wolf", "Wolf", new Stats(4, 2, 0.0, 40, 0.0, 1.0),
+                Arrays.asList(new Drop("pelt", 1, 3, 0.5), new Drop("fang", 1, 1, 0.25)),
+                12, 4, 1, Element.NEUTRAL);
+    }
+
+    /** Resolves the way CombatEngine does: a resolver whose profile cache is already warm. */
+    private static OfflineReplay resolve(long seed, Monster m) {
+        OfflineCombatResolver resolver = new OfflineCombatResolver(32);
+        resolver.resolve(PLAYER, Element.FIRE, 100, m, 300, new GameRandom(seed + 1));
+        OfflineReplay r = new OfflineReplay(seed, resolver.samples(), PLAYER, Element.FIRE, 80, m.id, 3600);
+        r.finish(resolver.resolve(PLAYER, Element.FIRE, 80, m, r.elapsedSec, new GameRandom(seed)));
+        return r;
+    }
+
+    @Test public void bytes_round_trip() throws Exception {
+        OfflineReplay r = resolve(3L, wolf());
+        OfflineReplay back = OfflineReplay.fromBytes(r.toBytes());
+        assertEquals(r.seed, back.seed);
+        assertEquals(r.samples, back.samples);
+        assertEquals(r.playerElement, back.playerElement);
+        assertEquals(r.startHp, back.startHp);
+        assertEquals(r.elapsedSec, back.elapsedSec, 0.0);
+        assertEquals(r.kills, back.kills);
+        assertEquals(r.endHp, back.endHp);
+        assertEquals(r.xp, back.xp);
+        assertEquals(r.loot, back.loot);
+    }
+
+    @Test public void honest_catch_up_verifies() throws Exception {
+        Monster m = wolf();
+        for (long seed = 1; seed <= 10; seed++) {
+            OfflineReplay r = OfflineReplay.fromBytes(resolve(seed, m).toBytes());
+            assertEquals("seed " + seed, ReplayVerifier.Verdict.OK, ReplayVerifier.verify(r, m));
+        }
+    }
+
+    @Test public void inflated_rewards_fail() {
+        Monster m = wolf();
+        OfflineReplay r = resolve(4L, m);
+        r.kills += 1;
+        assertEquals(ReplayVerifier.Verdict.OUTCOME_MISMATCH, ReplayVerifier.verify(r, m));
+
+        r = resolve(4L, m);
+        r.xp += 12;
+        assertEquals(ReplayVerifier.Verdict.XP_MISMATCH, ReplayVerifier.verify(r, m));
+
+        r = resolve(4L, m);
+        r.loot.merge("pelt", 5, Integer::sum);
+        assertEquals(ReplayVerifier.Verdict.DROPS_MISMATCH, ReplayVerifier.verify(r, m));
+    }
+
+    @Test public void rejects_other_records() {
+        byte[] live = new CombatReplay(1L, 2L, PLAYER, null, 50, "wolf").toBytes();
+        try {
+            OfflineReplay.fromBytes(live);
+            fail("expected IOException");
+        } catch (java.io.IOException expected) {
+            // not an offline record
+        }
+    }
+}
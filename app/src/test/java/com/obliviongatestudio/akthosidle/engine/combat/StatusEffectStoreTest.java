@@ -0,0 +1,69 @@
+package com.obliviongatestudio.akthosidle.engine.combat;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.obliviongatestudio.akthosidle.domain.model.StatusEffect;
+
+import java.util.List;
+import java.util.Random;
+
+public class StatusEffectStoreTest {
+
+    private static final class CountingSink implements StatusEffectStore.Sink {
+        int ticks, total, expired;
+        @Override public void onTick(StatusEffect.Type type, int amount, String name) { ticks++; total += amount; }
+        @Override public void onExpire(String name) { expired++; }
+    }
+
+    @Test public void aggregates_follow_add_and_expiry() {
+        StatusEffectStore s = new StatusEffectStore();
+        s.add(new StatusEffect("Slow", StatusEffect.Type.SLOW, 2.0, 0.25));
+        s.add(new StatusEffect("Chill", StatusEffect.Type.SLOW, 4.0, 0.5));
+        s.add(new StatusEffect("Stun", StatusEffect.Type.STUN, 1.0, 0));
+        assertEquals(0.75, s.totalSlow(), 1e-9);
+        assertTrue(s.isStunned());
+
+        s.advance(1.5, null);
+        assertFalse(s.isStunned());
+        assertEquals(0.75, s.totalSlow(), 1e-9);
+
+        s.advance(1.0, null);
+        assertEquals(0.5, s.totalSlow(), 1e-9);
+        assertEquals(1, s.size());
+    }
+
+    @Test public void dot_ticks_once_per_second_while_active() {
+        StatusEffectStore s = new StatusEffectStore();
+        s.add(new StatusEffect("Burn", StatusEffect.Type.DOT, 5.0, 2));
+        CountingSink sink = new CountingSink();
+        for (int i = 0; i < 70; i++) s.advance(0.1, sink);
+        assertEquals(4, sink.ticks); // the tick due exactly at expiry is skipped, as before
+        assertEquals(8, sink.total);
+        assertEquals(1, sink.expired);
+        assertEquals(0, s.size());
+    }
+
+    @Test public void snapshot_is_reused_until_something_changes() {
+        StatusEffectStore s = new StatusEffectStore();
+        s.add(new StatusEffect("Slow", StatusEffect.Type.SLOW, 3.0, 0.2));
+        List<StatusEffect> a = s.snapshot();
+        s.advance(0.5, null);
+        assertSame(a, s.snapshot());
+        s.add(new StatusEffect("Stun", StatusEffect.Type.STUN, 1.0, 0));
+        assertNotSame(a, s.snapshot());
+        assertEquals(2, s.snapshot().size());
+    }
+
+    @Test public void full_resistance_blocks_application() {
+        StatusEffectStore s = new StatusEffectStore();
+        s.setResistance(StatusEffect.Type.DOT, 1.0);
+        StatusEffect burn = new StatusEffect("Burn", StatusEffect.Type.DOT, 5.0, 2);
+        Random rng = new Random(1L);
+        for (int i = 0; i < 20; i++) assertFalse(s.tryApply(burn, 1.0, rng));
+        assertEquals(0, s.count(StatusEffect.Type.DOT));
+        assertEquals(0.0, s.applyResistance(StatusEffect.Type.DOT, 0.5), 0.0);
+        assertEquals(0.5, s.applyResistance(StatusEffect.Type.SLOW, 0.5), 0.0);
+    }
+}